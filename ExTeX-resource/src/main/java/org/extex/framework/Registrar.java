@@ -57,10 +57,13 @@ import java.util.List;
  * register an observer at the {@link Registrar Registrar}.
  * </p>
  * <p>
- * Note that the registrar has to be implemented as a static singleton since
+ * Note that the registrar has to be implemented with static methods since
  * readResolve() does not provide any means to pass a reference to some other
- * object to it.
- * <p>
+ * object to it. Since deserialization takes place in the thread which reads
+ * the stream, the active registrar is kept per thread. Thus several engines
+ * can load formats in parallel threads without seeing each other's
+ * observers.
+ * </p>
  *
  * @author <a href="mailto:gene@gerd-neugebauer.de">Gerd Neugebauer</a>
  */
@@ -130,15 +133,18 @@ public final class Registrar {
   }
 
   /**
-   * The field {@code active} contains the currently active registrar.
+   * The field {@code active} contains the currently active registrar of each
+   * thread.
    */
-  private static Registrar active = new Registrar();
+  private static final ThreadLocal<Registrar> active =
+      ThreadLocal.withInitial( Registrar::new );
 
   /**
-   * The field {@code pipe} contains the list of registrars which wait to be
-   * activated.
+   * The field {@code pipe} contains the list of registrars of each thread
+   * which have been suspended by the activation of another one.
    */
-  private static final List<Registrar> pipe = new ArrayList<Registrar>();
+  private static final ThreadLocal<List<Registrar>> pipe =
+      ThreadLocal.withInitial( ArrayList::new );
 
   /**
    * Create a new registrar and activate it.
@@ -154,28 +160,25 @@ public final class Registrar {
   }
 
   /**
-   * Activate an existing registrar.
+   * Activate an existing registrar for the current thread. The registrar
+   * active before is suspended until the new one is deactivated.
    *
    * @param registrar the registrar to activate
    * @throws RegistrarException in case of an error
    */
   public static void activate( Registrar registrar ) throws RegistrarException {
 
-    if( active != null ) {
-      pipe.add( registrar );
-      try {
-        for( ; ; ) {
-          registrar.wait();
-        }
-      } catch( InterruptedException e ) {
-        // ignored;
-      }
+    Registrar current = active.get();
+    if( current == registrar ) {
+      throw new RegistrarException( "registrar is already active" );
     }
-    active = registrar;
+    pipe.get().add( current );
+    active.set( registrar );
   }
 
   /**
-   * Deactivate a currently active registrar.
+   * Deactivate a currently active registrar of the current thread. The
+   * registrar suspended last is resumed.
    *
    * @param registrar the registrar to deactivate
    * @throws RegistrarException in case of an error
@@ -183,15 +186,15 @@ public final class Registrar {
   public static void deactivate( Registrar registrar )
       throws RegistrarException {
 
-    if( active != registrar ) {
+    if( active.get() != registrar ) {
       throw new RegistrarException( "registrar is not active" );
     }
-    if( pipe.size() > 0 ) {
-      active = pipe.remove( 0 );
-      active.notifyAll();
+    List<Registrar> suspended = pipe.get();
+    if( suspended.size() > 0 ) {
+      active.set( suspended.remove( suspended.size() - 1 ) );
     }
     else {
-      active = null;
+      active.remove();
     }
   }
 
@@ -206,7 +209,7 @@ public final class Registrar {
   public static Object reconnect( Object object ) throws RegistrarException {
 
     Object ob = object;
-    List<Obs> observers = active.observers;
+    List<Obs> observers = active.get().observers;
     int n = observers.size();
     for( int i = 0; i < n; i++ ) {
       Obs obs = observers.get( i );
@@ -230,7 +233,7 @@ public final class Registrar {
   public static Object register( RegistrarObserver observer, Class<?> type ) {
 
     Obs obs = new Obs( observer, type );
-    active.observers.add( obs );
+    active.get().observers.add( obs );
     return obs;
   }
 
@@ -245,7 +248,7 @@ public final class Registrar {
     if( !(obs instanceof Obs) ) {
       throw new IllegalArgumentException( "#unregister()" );
     }
-    return active.observers.remove( obs );
+    return active.get().observers.remove( obs );
   }
 
   /**
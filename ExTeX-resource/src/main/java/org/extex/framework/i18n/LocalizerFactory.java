@@ -22,6 +22,8 @@ package org.extex.framework.i18n;
 import java.io.PrintStream;
 import java.text.MessageFormat;
 import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
 
 /**
  * This factory provides means to get a {@link Localizer}. It implements the
@@ -49,7 +51,7 @@ public final class LocalizerFactory {
      * The field {@code bundle} contains the resource bundle for this
      * instance or {@code null} if none has been loaded yet.
      */
-    private transient ResourceBundle bundle = null;
+    private transient volatile ResourceBundle bundle = null;
 
     /**
      * The field {@code bundleName} contains the name of the resource
@@ -57,14 +59,21 @@ public final class LocalizerFactory {
      */
     private final String bundleName;
 
+    /**
+     * The field {@code locale} contains the locale of the resource bundle.
+     */
+    private final Locale locale;
+
     /**
      * Creates a new object.
      *
-     * @param name name of the resource bundle
+     * @param name   name of the resource bundle
+     * @param locale the locale of the resource bundle
      */
-    public BasicLocalizer( String name ) {
+    public BasicLocalizer( String name, Locale locale ) {
 
       bundleName = name;
+      this.locale = locale;
     }
 
     /**
@@ -78,7 +87,7 @@ public final class LocalizerFactory {
     public String format( String key ) {
 
       if( bundle == null ) {
-        bundle = ResourceBundle.getBundle( bundleName );
+        bundle = ResourceBundle.getBundle( bundleName, locale );
       }
       try {
         return bundle.getString( key );
@@ -205,7 +214,7 @@ public final class LocalizerFactory {
     public String getFormat( String key ) {
 
       if( bundle == null ) {
-        bundle = ResourceBundle.getBundle( bundleName );
+        bundle = ResourceBundle.getBundle( bundleName, locale );
       }
       try {
         return bundle.getString( key );
@@ -286,16 +295,12 @@ public final class LocalizerFactory {
 
   /**
    * The field {@code cache} contains the map of localizers already
-   * constructed. The localizers are cached to minimize the overhead of
-   * acquiring the same localizer several times.
+   * constructed per locale. The localizers are cached to minimize the
+   * overhead of acquiring the same localizer several times.
    */
-  private static final Map<String, Localizer> CACHE =
-      new HashMap<String, Localizer>();
-
-  /**
-   * The field {@code locale} contains the locale to use.
-   */
-  private static Locale locale = Locale.getDefault();
+  private static final ConcurrentMap<Locale,
+      ConcurrentMap<String, Localizer>> CACHE =
+      new ConcurrentHashMap<Locale, ConcurrentMap<String, Localizer>>();
 
   /**
    * Return the {@link Localizer} associated to a given name.
@@ -309,21 +314,30 @@ public final class LocalizerFactory {
   }
 
   /**
-   * Return the {@link Localizer} associated to a given name.
+   * Return the {@link Localizer} associated to a given name. The localizer
+   * uses the default locale at the time of the invocation.
    *
    * @param name the name of the localizer
    * @return the localizer for the given name
    */
   public static Localizer getLocalizer( String name ) {
 
-    if( locale != Locale.getDefault() ) {
-      locale = Locale.getDefault();
-      CACHE.clear();
+    Locale locale = Locale.getDefault();
+    ConcurrentMap<String, Localizer> map = CACHE.get( locale );
+    if( map == null ) {
+      map = new ConcurrentHashMap<String, Localizer>();
+      ConcurrentMap<String, Localizer> m = CACHE.putIfAbsent( locale, map );
+      if( m != null ) {
+        map = m;
+      }
     }
-    Localizer loc = CACHE.get( name );
+    Localizer loc = map.get( name );
     if( loc == null ) {
-      loc = new BasicLocalizer( name );
-      CACHE.put( name, loc );
+      loc = new BasicLocalizer( name, locale );
+      Localizer l = map.putIfAbsent( name, loc );
+      if( l != null ) {
+        loc = l;
+      }
     }
     return loc;
   }
@@ -0,0 +1,83 @@
+/*
+ * Copyright (C) 2011 The ExTeX Group and individual authors listed below
+ *
+ * This library is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as published by the
+ * Free Software Foundation; either version 2.1 of the License, or (at your
+ * option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General Public License
+ * for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this library; if not, write to the Free Software Foundation,
+ * Inc., 59 Temple Place, Suite 330, Boston, MA 02111-1307 USA
+ *
+ */
+
+package org.extex.framework;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * This is a test suite for the {@link Registrar}.
+ *
+ * @author <a href="mailto:gene@gerd-neugebauer.de">Gerd Neugebauer</a>
+ */
+public class RegistrarTest {
+
+  /**
+   * An observer registered in one thread is not invoked in another thread.
+   *
+   * @throws Exception in case of an error
+   */
+  @Test
+  public void test01() throws Exception {
+
+    Object ref = Registrar.register( object -> "x", String.class );
+    try {
+      assertEquals( "x", Registrar.reconnect( "a" ) );
+
+      Object[] result = new Object[1];
+      Thread thread = new Thread( () -> {
+        try {
+          result[ 0 ] = Registrar.reconnect( "a" );
+        } catch( RegistrarException e ) {
+          result[ 0 ] = e;
+        }
+      } );
+      thread.start();
+      thread.join();
+
+      assertEquals( "a", result[ 0 ] );
+    } finally {
+      assertTrue( Registrar.unregister( ref ) );
+    }
+  }
+
+  /**
+   * Observers of a suspended registrar are restored when the activated one
+   * is deactivated.
+   *
+   * @throws Exception in case of an error
+   */
+  @Test
+  public void test02() throws Exception {
+
+    Object ref = Registrar.register( object -> "x", String.class );
+    try {
+      Registrar registrar = Registrar.activate();
+      assertEquals( "a", Registrar.reconnect( "a" ) );
+      Registrar.deactivate( registrar );
+      assertEquals( "x", Registrar.reconnect( "a" ) );
+    } finally {
+      assertTrue( Registrar.unregister( ref ) );
+    }
+  }
+
+}
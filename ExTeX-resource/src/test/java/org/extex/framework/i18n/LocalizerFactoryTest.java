@@ -186,6 +186,21 @@ public class LocalizerFactoryTest {
             "abc" ) );
   }
 
+  /**
+   * A localizer keeps the locale it has been acquired for even if the
+   * default locale is changed before it is used.
+   */
+  @Test
+  public void testGetLocalizer3() {
+
+    Locale.setDefault( Locale.ENGLISH );
+    Localizer en = LocalizerFactory.getLocalizer( LocalizerFactoryTest.class );
+    Locale.setDefault( Locale.GERMAN );
+    Localizer de = LocalizerFactory.getLocalizer( LocalizerFactoryTest.class );
+    assertEquals( "CBA", en.format( "abc" ) );
+    assertEquals( "ABC", de.format( "abc" ) );
+  }
+
   /**
    * ...
    */
@@ -0,0 +1,706 @@
+/*
+ * Copyright (C) 2011 The ExTeX Group and individual authors listed below
+ *
+ * This library is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as published by the
+ * Free Software Foundation; either version 2.1 of the License, or (at your
+ * option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General Public License
+ * for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this library; if not, write to the Free Software Foundation,
+ * Inc., 59 Temple Place, Suite 330, Boston, MA 02111-1307 USA
+ *
+ */
+
+package org.extex.main.tex;
+
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.PrintWriter;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.locks.LockSupport;
+
+import org.extex.backend.documentWriter.exception.DocumentWriterException;
+import org.extex.core.Locator;
+import org.extex.core.exception.helping.HelpingException;
+import org.extex.engine.backend.OutputFactory;
+import org.extex.interpreter.Interpreter;
+import org.extex.interpreter.context.Context;
+import org.extex.interpreter.observer.command.CommandObservable;
+import org.extex.interpreter.observer.command.CommandObserver;
+import org.extex.interpreter.observer.expand.ExpandObservable;
+import org.extex.interpreter.observer.expand.ExpandObserver;
+import org.extex.interpreter.observer.expandMacro.ExpandMacroObservable;
+import org.extex.interpreter.observer.expandMacro.ExpandMacroObserver;
+import org.extex.interpreter.observer.streamClose.StreamCloseObservable;
+import org.extex.interpreter.observer.streamClose.StreamCloseObserver;
+import org.extex.interpreter.type.Code;
+import org.extex.interpreter.type.ExpandableCode;
+import org.extex.scanner.api.TokenStream;
+import org.extex.scanner.type.token.CodeToken;
+import org.extex.scanner.type.token.Token;
+import org.extex.unit.tex.macro.util.MacroCode;
+
+/**
+ * This observer collects the time spent in the control sequences of a run.
+ * <p>
+ * For each control sequence the number of calls, the inclusive and the
+ * exclusive time, and the number of tokens executed while it has been the
+ * innermost active macro are recorded. The calls are counted by the
+ * interpreter thread. The clock is not read there. Instead a sampler thread
+ * wakes up periodically and charges the time elapsed since its last sample to
+ * the control sequence invoked last. Thus the times are statistical. The
+ * inclusive times are computed from the call tree at the end of the run.
+ * </p>
+ * <p>
+ * The expansion of a macro is a token stream of its own. Thus the end of the
+ * macro is the time when this stream is closed. The interpreter does not
+ * report on which stream belongs to which macro. Thus any non-file stream
+ * which is closed is taken as the end of the innermost active macro. This is
+ * an approximation for macros which fail to read their arguments.
+ * </p>
+ * <p>
+ * The result can be written as a report sorted by exclusive time or as
+ * collapsed stacks which can be fed into the usual flame graph tools.
+ * </p>
+ * <p>
+ * The stream of a macro is not closed before a tail call in it. Thus a
+ * tail-recursive macro like the one of {@code \loop} nests one level deeper
+ * for each iteration. To keep the call tree small a macro which invokes
+ * itself directly is folded into one node. Beyond {@link #MAX_DEPTH} levels
+ * no new nodes are created; the calls are charged to the deepest node.
+ * </p>
+ *
+ * @author <a href="mailto:gene@gerd-neugebauer.de">Gerd Neugebauer</a>
+ */
+public class MacroProfiler
+        implements
+            ExpandMacroObserver,
+            CommandObserver,
+            StreamCloseObserver {
+
+    /**
+     * This class contains the counters for one control sequence.
+     */
+    private static final class Entry {
+
+        /**
+         * The field {@code active} contains the number of occurrences on the
+         * current path when the call tree is summed up. It is used to count
+         * the inclusive time of recursive macros once.
+         */
+        private int active = 0;
+
+        /**
+         * The field {@code calls} contains the number of invocations.
+         */
+        private long calls = 0;
+
+        /**
+         * The field {@code exclusive} contains the exclusive time in
+         * nanoseconds.
+         */
+        private long exclusive = 0;
+
+        /**
+         * The field {@code inclusive} contains the inclusive time in
+         * nanoseconds.
+         */
+        private long inclusive = 0;
+
+        /**
+         * The field {@code name} contains the printable name.
+         */
+        private final String name;
+
+        /**
+         * The field {@code tokens} contains the number of tokens executed
+         * while the macro has been the innermost active one.
+         */
+        private long tokens = 0;
+
+        /**
+         * Creates a new object.
+         *
+         * @param name the printable name
+         */
+        Entry(String name) {
+
+            this.name = name;
+        }
+    }
+
+    /**
+     * This class represents a node in the call tree.
+     */
+    private static final class Node {
+
+        /**
+         * The field {@code children} contains the callees. It is an open
+         * addressed table keyed by the identity hash code of the token. The
+         * tokens are interned; thus neither {@code hashCode()} nor
+         * {@code equals()} of the token is needed.
+         */
+        private Node[] children = null;
+
+        /**
+         * The field {@code entry} contains the counters of the control
+         * sequence.
+         */
+        private final Entry entry;
+
+        /**
+         * The field {@code level} contains the distance from the root of the
+         * call tree.
+         */
+        private final int level;
+
+        /**
+         * The field {@code size} contains the number of callees.
+         */
+        private int size = 0;
+
+        /**
+         * The field {@code time} contains the exclusive time in this node in
+         * nanoseconds. It is written by the sampler thread only.
+         */
+        private long time = 0;
+
+        /**
+         * The field {@code token} contains the token of the node.
+         */
+        private final Token token;
+
+        /**
+         * Creates a new object.
+         *
+         * @param token the token
+         * @param entry the counters
+         * @param level the distance from the root
+         */
+        Node(Token token, Entry entry, int level) {
+
+            this.token = token;
+            this.entry = entry;
+            this.level = level;
+        }
+
+        /**
+         * Add a callee.
+         *
+         * @param node the callee
+         */
+        void add(Node node) {
+
+            if (children == null) {
+                children = new Node[8];
+            } else if ((size + 1) * 4 > children.length * 3) {
+                Node[] old = children;
+                children = new Node[old.length * 2];
+                for (Node n : old) {
+                    if (n != null) {
+                        put(n);
+                    }
+                }
+            }
+            put(node);
+            size++;
+        }
+
+        /**
+         * Find the callee for a token.
+         *
+         * @param t the token
+         * @return the callee or {@code null} if none is known
+         */
+        Node child(Token t) {
+
+            if (children == null) {
+                return null;
+            }
+            int mask = children.length - 1;
+            int i = System.identityHashCode(t) & mask;
+            for (Node n = children[i]; n != null; n = children[i]) {
+                if (n.token == t) {
+                    return n;
+                }
+                i = (i + 1) & mask;
+            }
+            return null;
+        }
+
+        /**
+         * Store a callee in the table without checking the size.
+         *
+         * @param node the callee
+         */
+        private void put(Node node) {
+
+            int mask = children.length - 1;
+            int i = System.identityHashCode(node.token) & mask;
+            while (children[i] != null) {
+                i = (i + 1) & mask;
+            }
+            children[i] = node;
+        }
+    }
+
+    /**
+     * The constant {@code COLLAPSED} contains the name of the format for
+     * collapsed stacks.
+     */
+    public static final String COLLAPSED = "collapsed";
+
+    /**
+     * The constant {@code MAX_DEPTH} contains the maximal number of levels
+     * of the call tree.
+     */
+    public static final int MAX_DEPTH = 512;
+
+    /**
+     * The field {@code context} contains the interpreter context to find the
+     * meaning of expanded tokens.
+     */
+    private Context context = null;
+
+    /**
+     * The constant {@code SAMPLE_INTERVAL} contains the interval of the
+     * sampler thread in nanoseconds.
+     */
+    private static final long SAMPLE_INTERVAL = 100000;
+
+    /**
+     * The field {@code current} contains the node which is charged for the
+     * time of the next sample.
+     */
+    private volatile Node current;
+
+    /**
+     * The field {@code depth} contains the number of active macros.
+     */
+    private int depth = 0;
+
+    /**
+     * The field {@code entries} contains the counters by token.
+     */
+    private final Map<Token, Entry> entries = new HashMap<Token, Entry>();
+
+    /**
+     * The field {@code outputFactory} contains the output factory.
+     */
+    private OutputFactory outputFactory = null;
+
+    /**
+     * The field {@code root} contains the root of the call tree. Its entry
+     * collects the time spent outside of any control sequence.
+     */
+    private final Node root = new Node(null, new Entry(""), 0);
+
+    /**
+     * The field {@code sampler} contains the thread which charges the time
+     * to the current node. It is {@code null} if it is not running.
+     */
+    private Thread sampler = null;
+
+    /**
+     * The field {@code stack} contains the nodes of the active macros.
+     */
+    private Node[] stack = new Node[64];
+
+    /**
+     * The field {@code summed} contains the indicator that the times have
+     * been summed up.
+     */
+    private boolean summed = false;
+
+    /**
+     * Creates a new object.
+     */
+    public MacroProfiler() {
+
+        current = root;
+    }
+
+    /**
+     * Record the invocation of a control sequence.
+     *
+     * @param token the control sequence
+     * @param code the meaning
+     */
+    private void enter(Token token, Code code) {
+
+        Node top = depth == 0 ? root : stack[depth - 1];
+        Node node = top.token == token ? top : top.child(token);
+        Entry entry;
+        if (node != null) {
+            entry = node.entry;
+        } else {
+            entry = entries.get(token);
+            if (entry == null) {
+                entry = new Entry(token.toText());
+                entries.put(token, entry);
+            }
+            if (top.level < MAX_DEPTH) {
+                node = new Node(token, entry, top.level + 1);
+                top.add(node);
+            } else {
+                node = top;
+            }
+        }
+        entry.calls++;
+        current = node;
+
+        if (code instanceof MacroCode) {
+            if (depth == stack.length) {
+                Node[] s = new Node[2 * depth];
+                System.arraycopy(stack, 0, s, 0, depth);
+                stack = s;
+            }
+            stack[depth++] = node;
+        }
+    }
+
+    /**
+     * Stop the sampler and sum up the times in the call tree. This method is
+     * meant to be invoked at the end of the job before the results are
+     * written.
+     */
+    public void finish() {
+
+        if (sampler != null) {
+            sampler.interrupt();
+            try {
+                sampler.join();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            sampler = null;
+        }
+        if (!summed) {
+            summed = true;
+            sum();
+        }
+    }
+
+    /**
+     * Terminate the innermost active macro.
+     */
+    private void leave() {
+
+        stack[--depth] = null;
+        current = depth == 0 ? root : stack[depth - 1];
+    }
+
+    /**
+     * Find the next callee of a node in the table of callees.
+     *
+     * @param node the node
+     * @param i the index to start searching at
+     * @return the index of the next callee or the length of the table if
+     *         there is none
+     */
+    private static int next(Node node, int i) {
+
+        Node[] children = node.children;
+        if (children == null) {
+            return 0;
+        }
+        while (i < children.length && children[i] == null) {
+            i++;
+        }
+        return i;
+    }
+
+    /**
+     * Print the collapsed stacks. Each line contains the names of the control
+     * sequences from the outermost to the innermost separated by semicolons
+     * followed by the exclusive time in microseconds. The call tree is
+     * traversed with an explicit stack since it can be deep.
+     *
+     * @param out the target writer
+     */
+    private void printCollapsed(PrintWriter out) {
+
+        Node[] nodes = new Node[64];
+        int[] index = new int[64];
+        int[] length = new int[64];
+        StringBuilder path = new StringBuilder();
+        nodes[0] = root;
+        int sp = 1;
+        while (sp > 0) {
+            Node node = nodes[sp - 1];
+            int i = next(node, index[sp - 1]);
+            if (node.children == null || i >= node.children.length) {
+                nodes[--sp] = null;
+                path.setLength(length[sp]);
+                continue;
+            }
+            index[sp - 1] = i + 1;
+            Node n = node.children[i];
+            if (sp == nodes.length) {
+                nodes = Arrays.copyOf(nodes, 2 * sp);
+                index = Arrays.copyOf(index, 2 * sp);
+                length = Arrays.copyOf(length, 2 * sp);
+            }
+            length[sp] = path.length();
+            if (path.length() > 0) {
+                path.append(';');
+            }
+            path.append(n.entry.name.replace(';', ':').replace(' ', '_'));
+            long us = n.time / 1000;
+            if (us > 0) {
+                out.print(path);
+                out.print(' ');
+                out.println(us);
+            }
+            nodes[sp] = n;
+            index[sp++] = 0;
+        }
+    }
+
+    /**
+     * Print the results to a writer.
+     *
+     * @param out the target writer
+     * @param format the format; {@link #COLLAPSED} produces collapsed stacks
+     *        and anything else a report sorted by exclusive time
+     */
+    public void print(PrintWriter out, String format) {
+
+        if (COLLAPSED.equals(format)) {
+            printCollapsed(out);
+            return;
+        }
+
+        List<Entry> list = new ArrayList<Entry>(entries.values());
+        list.sort((a, b) -> a.exclusive != b.exclusive
+                ? Long.compare(b.exclusive, a.exclusive)
+                : a.name.compareTo(b.name));
+        out.println(String.format("%12s %12s %12s %12s  %s", "calls",
+            "incl[us]", "excl[us]", "tokens", "name"));
+        for (Entry e : list) {
+            out.println(String.format("%12d %12d %12d %12d  %s", e.calls,
+                e.inclusive / 1000, e.exclusive / 1000, e.tokens, e.name));
+        }
+    }
+
+    /**
+     * Print the results to a file or stream.
+     *
+     * @param name the name of the output file or {@code null} for stdout
+     * @param format the format; {@link #COLLAPSED} produces collapsed stacks
+     *        and anything else a report sorted by exclusive time
+     *
+     * @throws IOException in case of an I/O error
+     * @throws DocumentWriterException in case of an error in the output factory
+     */
+    public void print(String name, String format)
+            throws IOException,
+                DocumentWriterException {
+
+        finish();
+        if (name == null) {
+            PrintWriter out =
+                    new PrintWriter(new OutputStreamWriter(System.out,
+                        StandardCharsets.UTF_8));
+            print(out, format);
+            out.flush();
+            return;
+        }
+
+        String type = COLLAPSED.equals(format) ? "folded" : "prof";
+        PrintWriter out = new PrintWriter(new OutputStreamWriter(
+            (outputFactory != null
+                    ? outputFactory.getOutputStream(name, type)
+                    : new FileOutputStream(name + "." + type)),
+            StandardCharsets.UTF_8));
+        print(out, format);
+        out.close();
+    }
+
+    /**
+     * Register this profiler with all observable events of an interpreter.
+     *
+     * @param interpreter the interpreter
+     */
+    public void register(Interpreter interpreter) {
+
+        start();
+        context = interpreter.getContext();
+        if (interpreter instanceof ExpandMacroObservable) {
+            ((ExpandMacroObservable) interpreter).registerObserver(this);
+        }
+        if (interpreter instanceof CommandObservable) {
+            ((CommandObservable) interpreter)
+                .registerObserver((CommandObserver) this);
+        }
+        if (interpreter instanceof ExpandObservable) {
+            ((ExpandObservable) interpreter)
+                .registerObserver(new ExpandObserver() {
+
+                    public void update(Token token) {
+
+                        expand(token);
+                    }
+                });
+        }
+        if (interpreter instanceof StreamCloseObservable) {
+            ((StreamCloseObservable) interpreter).registerObserver(this);
+        }
+    }
+
+    /**
+     * Record a token which is about to be expanded. Only expandable control
+     * sequences are counted; the others are returned to the caller and
+     * possibly executed later on.
+     *
+     * @param token the token
+     */
+    private void expand(Token token) {
+
+        Code code;
+        try {
+            code = context.getCode((CodeToken) token);
+        } catch (HelpingException e) {
+            return; // the interpreter reports the error
+        }
+        if (code instanceof ExpandableCode) {
+            enter(token, code);
+        }
+    }
+
+    /**
+     * Start the sampler thread if it is not running already.
+     */
+    private void start() {
+
+        if (sampler != null) {
+            return;
+        }
+        sampler = new Thread("MacroProfiler") {
+
+            @Override
+            public void run() {
+
+                long last = System.nanoTime();
+                while (!isInterrupted()) {
+                    LockSupport.parkNanos(SAMPLE_INTERVAL);
+                    long now = System.nanoTime();
+                    current.time += now - last;
+                    last = now;
+                }
+            }
+        };
+        sampler.setDaemon(true);
+        sampler.start();
+    }
+
+    /**
+     * Add the times of the call tree to the entries. The inclusive time of an
+     * entry is added for the outermost occurrence on the path only. The call
+     * tree is traversed with an explicit stack since it can be deep.
+     */
+    private void sum() {
+
+        Node[] nodes = new Node[64];
+        int[] index = new int[64];
+        long[] times = new long[64];
+        nodes[0] = root;
+        times[0] = root.time;
+        root.entry.exclusive += root.time;
+        root.entry.active++;
+        int sp = 1;
+        while (sp > 0) {
+            Node node = nodes[sp - 1];
+            int i = next(node, index[sp - 1]);
+            if (node.children == null || i >= node.children.length) {
+                long t = times[--sp];
+                nodes[sp] = null;
+                if (--node.entry.active == 0) {
+                    node.entry.inclusive += t;
+                }
+                if (sp > 0) {
+                    times[sp - 1] += t;
+                }
+                continue;
+            }
+            index[sp - 1] = i + 1;
+            Node n = node.children[i];
+            if (sp == nodes.length) {
+                nodes = Arrays.copyOf(nodes, 2 * sp);
+                index = Arrays.copyOf(index, 2 * sp);
+                times = Arrays.copyOf(times, 2 * sp);
+            }
+            n.entry.exclusive += n.time;
+            n.entry.active++;
+            nodes[sp] = n;
+            index[sp] = 0;
+            times[sp++] = n.time;
+        }
+    }
+
+    /**
+     * Setter for outputFactory.
+     *
+     * @param outputFactory the outputFactory to set
+     */
+    public void setOutputFactory(OutputFactory outputFactory) {
+
+        this.outputFactory = outputFactory;
+    }
+
+    /**
+     * Count a token executed in the main loop.
+     *
+     * @param token the token
+     *
+     * @see org.extex.interpreter.observer.command.CommandObserver#update(org.extex.scanner.type.token.Token)
+     */
+    public void update(Token token) {
+
+        (depth == 0 ? root : stack[depth - 1]).entry.tokens++;
+    }
+
+    /**
+     * Record the invocation of a control sequence in the main loop.
+     *
+     * @param token the control sequence
+     * @param code the meaning of the token
+     * @param locator the locator
+     *
+     * @see org.extex.interpreter.observer.expandMacro.ExpandMacroObserver#update(org.extex.scanner.type.token.Token,
+     *      org.extex.interpreter.type.Code, org.extex.core.Locator)
+     */
+    public void update(Token token, Code code, Locator locator) {
+
+        if (code != null) {
+            enter(token, code);
+        }
+    }
+
+    /**
+     * Terminate the innermost active macro when a non-file stream is closed.
+     *
+     * @param stream the stream to be closed
+     *
+     * @see org.extex.interpreter.observer.streamClose.StreamCloseObserver#update(org.extex.scanner.api.TokenStream)
+     */
+    public void update(TokenStream stream) {
+
+        if (depth > 0 && !stream.isFileStream()) {
+            leave();
+        }
+    }
+
+}
@@ -298,6 +298,23 @@ import org.extex.scanner.stream.observer.file.OpenFileObserver;
  * the banner and the version information.</dd>
  * <dd>Property: {@code <a href="#extex.progname">extex.progname</a>}</dd>
  * 
+ * <dt>{@code -profile}<br>
+ * {@code -profile=&lang;file name&rang;}</dt>
+ * <dd>This parameter can be used to activate the macro profiler. If the
+ * profiler is active then the calls of all control sequences and the time
+ * spent in them are collected and written to a file at the end of the job.
+ * The file name used is the jobname with the extension {@code .prof}
+ * appended. If the second form of invocation is used then the file name can
+ * be given.</dd>
+ * <dd>Property: {@code <a href="#tex.profile">tex.profile</a>}</dd>
+ * 
+ * <dt>{@code -profile-format=&lang;format&rang;}</dt>
+ * <dd>This parameter selects the format of the profile. The value
+ * {@code collapsed} produces collapsed stacks for flame graph tools in a file
+ * with the extension {@code .folded}. Otherwise a report sorted by exclusive
+ * time is written.</dd>
+ * <dd>Property: {@code <a href="#tex.profile.format">tex.profile.format</a>}</dd>
+ * 
  * <dt>{@code -recorder}<br>
  * {@code -recorder=&lang;file name&rang;}</dt>
  * <dd>This parameter can be used to activate the file name recorder. If the
@@ -505,6 +522,22 @@ import org.extex.scanner.stream.observer.file.OpenFileObserver;
  * <dd>Command line: <a href="#-progname">{@code -progname}</a></dd>
  * <dd>Default: {@code ExTeX}</dd>
  * 
+ * <dt>{@code tex.profile}</dt>
+ * <dd>This parameter can be used to activate the macro profiler. If the file
+ * name is {@code null} then the profiler is not active. If the file name is
+ * empty then the jobname is used. If the file name is {@code -} then the
+ * output is written to the standard output stream. Otherwise the file name is
+ * opened for writing.</dd>
+ * <dd>Command line: <a href="#-profile">{@code -profile}</a></dd>
+ * <dd>Default: none</dd>
+ * 
+ * <dt>{@code tex.profile.format}</dt>
+ * <dd>This parameter contains the format of the profile. The value
+ * {@code collapsed} produces collapsed stacks for flame graph tools. Any
+ * other value produces a report sorted by exclusive time.</dd>
+ * <dd>Command line: <a href="#-profile-format">{@code -profile-format}</a></dd>
+ * <dd>Default: none</dd>
+ * 
  * <dt>{@code tex.recorder}</dt>
  * <dd>This parameter can be used to activate the file name recorder. If the
  * file name recorder is active then all files opened during the run are
@@ -521,6 +554,10 @@ import org.extex.scanner.stream.observer.file.OpenFileObserver;
  * <dd>Command line: <a href="#-texinputs">{@code -texinputs &lang;path&rang;}
  * </a></dd>
  * 
+ * <dt>{@code extex.token.cache}</dt>
+ * <dd>This string parameter contains the name of the directory for the cache
+ * of the tokens of input files. If it is not set then no cache is used.</dd>
+ * 
  * <dt>{@code extex.token.stream}</dt>
  * <dd>This string parameter contains the logical name of the configuration to
  * use for the token stream.</dd>
@@ -725,6 +762,18 @@ public class TeX extends ExTeX {
     private static final String PROP_PARSE_FIRST_LINE =
             "extex.parse.first.line";
 
+    /**
+     * The field {@code PROP_PROFILE} contains the name of the property to
+     * control the macro profiler.
+     */
+    private static final String PROP_PROFILE = "tex.profile";
+
+    /**
+     * The field {@code PROP_PROFILE_FORMAT} contains the name of the property
+     * for the format of the macro profile.
+     */
+    private static final String PROP_PROFILE_FORMAT = "tex.profile.format";
+
     /**
      * The field {@code PROP_RECORDER} contains the name of the property to
      * control the recorder.
@@ -843,6 +892,12 @@ public class TeX extends ExTeX {
      */
     private String primaryFile = null;
 
+    /**
+     * The field {@code profiler} contains the observer used to profile the
+     * macro expansion.
+     */
+    private MacroProfiler profiler = null;
+
     /**
      * The field {@code queryFileHandler} contains the instance of the handler
      * to ask for a file name if none is given.
@@ -1087,6 +1142,10 @@ public class TeX extends ExTeX {
         if (getBooleanProperty(PROP_TRACE_MACROS)) {
             interpreter.getContext().setCount("tracingcommands", 1, true);
         }
+        if (profiler != null) {
+            profiler.register(interpreter);
+            observers.add(profiler);
+        }
 
         return interpreter;
     }
@@ -1102,6 +1161,10 @@ public class TeX extends ExTeX {
             outputFactory.register(fileRecorder);
             fileRecorder.setOutputFactory(outputFactory);
         }
+        if (getProperty(PROP_PROFILE) != null) {
+            profiler = new MacroProfiler();
+            profiler.setOutputFactory(outputFactory);
+        }
         return outputFactory;
     }
 
@@ -1167,6 +1230,29 @@ public class TeX extends ExTeX {
         return true;
     }
 
+    /**
+     * Call the profiler at the end of the run to write out its results.
+     */
+    private void profilerStop() {
+
+        String profile = getProperty(PROP_PROFILE);
+        if (profiler == null) {
+            return;
+        }
+        try {
+            if ("-".equals(profile)) {
+                profile = null;
+            } else if ("".equals(profile)) {
+                profile = getProperty(PROP_JOBNAME);
+            }
+            profiler.print(profile, getProperty(PROP_PROFILE_FORMAT));
+        } catch (IOException e) {
+            // ignored on purpose
+        } catch (DocumentWriterException e) {
+            // ignored on purpose
+        }
+    }
+
     /**
      * Call the recorder at the end of the run to write out its collected list.
      */
@@ -1205,6 +1291,7 @@ public class TeX extends ExTeX {
         try {
             int exitStatus = runCommandLine(args);
             recorderStop();
+            profilerStop();
             return exitStatus;
 
         } catch (MainException e) {
@@ -1471,6 +1558,14 @@ public class TeX extends ExTeX {
                         } else if ("parse-first-line".startsWith(arg)) {
                             // extex -parse-first-line
                             setProperty(PROP_PARSE_FIRST_LINE, "true");
+                        } else if (set("profile", PROP_PROFILE, arg)) {
+                            // extex -profile=<name>
+                        } else if (set("profile-format", PROP_PROFILE_FORMAT,
+                            arg)) {
+                            // extex -profile-format=<format>
+                        } else if ("profile".startsWith(arg)) {
+                            // extex -profile
+                            setProperty(PROP_PROFILE, "");
                         } else if (!mergeProperties(arg)) {
                             throw new MainUnknownOptionException(arg);
                         }
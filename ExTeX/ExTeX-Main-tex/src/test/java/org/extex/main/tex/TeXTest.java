@@ -1127,6 +1127,99 @@ public class TeXTest {
                     + System.getProperty("java.version") + ")\n", "texput.log");
     }
 
+    /**
+     * This test case validates that -profile= writes a report containing the
+     * calls of the macros.
+     *
+     * @throws Exception in case of an error
+     */
+    @Test
+    public void testProfile1() throws Exception {
+
+        File file = new File(".", "profile1.prof");
+        file.deleteOnExit();
+        runSuccess(new String[]{"-ini", "-profile=profile1",
+                "\\catcode`\\{=1 \\catcode`\\}=2 "
+                        + "\\def\\x{\\y\\y}\\def\\y{\\relax}\\x\\x\\end"},
+            BANNER_TEX + "No pages of output.\n" + TRANSCRIPT_TEXPUT,
+            "texput.log");
+        assertTrue(file.exists());
+        BufferedReader in = new BufferedReader(new FileReader(file));
+        try {
+            assertTrue(in.readLine().trim().startsWith("calls"));
+            String s;
+            boolean x = false;
+            boolean y = false;
+            while ((s = in.readLine()) != null) {
+                String[] f = s.trim().split(" +");
+                x |= f[4].equals("\\x") && f[0].equals("2");
+                y |= f[4].equals("\\y") && f[0].equals("4");
+            }
+            assertTrue(x && y);
+        } finally {
+            in.close();
+        }
+    }
+
+    /**
+     * This test case validates that -profile-format=collapsed writes the
+     * macro stacks.
+     *
+     * @throws Exception in case of an error
+     */
+    @Test
+    public void testProfile2() throws Exception {
+
+        File file = new File(".", "profile2.folded");
+        file.deleteOnExit();
+        runSuccess(new String[]{"-ini", "-profile=profile2",
+                "-profile-format=collapsed",
+                "\\catcode`\\{=1 \\catcode`\\}=2 "
+                        + "\\def\\x{\\y\\y}\\def\\y{\\relax}\\x\\x\\end"},
+            BANNER_TEX + "No pages of output.\n" + TRANSCRIPT_TEXPUT,
+            "texput.log");
+        assertTrue(file.exists());
+        BufferedReader in = new BufferedReader(new FileReader(file));
+        try {
+            String s;
+            while ((s = in.readLine()) != null) {
+                assertTrue(s, s.matches("[^ ]+ [0-9]+"));
+                assertTrue(s, !s.startsWith("\\y"));
+            }
+        } finally {
+            in.close();
+        }
+    }
+
+    /**
+     * This test case validates that a macro which invokes itself many times
+     * is folded into one node of the collapsed stacks.
+     *
+     * @throws Exception in case of an error
+     */
+    @Test
+    public void testProfile3() throws Exception {
+
+        File file = new File(".", "profile3.folded");
+        file.deleteOnExit();
+        runSuccess(new String[]{"-ini", "-profile=profile3",
+                "-profile-format=collapsed",
+                "\\catcode`\\{=1 \\catcode`\\}=2 \\def\\x{\\advance\\count1 1 "
+                        + "\\ifnum\\count1<10000 \\x\\fi}\\x\\end"},
+            BANNER_TEX + "No pages of output.\n" + TRANSCRIPT_TEXPUT,
+            "texput.log");
+        assertTrue(file.exists());
+        BufferedReader in = new BufferedReader(new FileReader(file));
+        try {
+            String s;
+            while ((s = in.readLine()) != null) {
+                assertTrue(s, !s.contains("\\x;\\x"));
+            }
+        } finally {
+            in.close();
+        }
+    }
+
     /**
      * This test case validates that -- reads the property value from the following argument
 * 
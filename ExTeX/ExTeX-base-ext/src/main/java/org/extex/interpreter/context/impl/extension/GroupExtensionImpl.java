@@ -128,7 +128,7 @@ public class GroupExtensionImpl extends GroupImpl
 
         setReal(name, value);
 
-        if (global && nextext != null) {
+        if (global && nextext != null && getNext() != null) {
             nextext.setReal(name, value, global);
         }
     }
@@ -171,7 +171,7 @@ public class GroupExtensionImpl extends GroupImpl
 
         setBool(name, value);
 
-        if (global && nextext != null) {
+        if (global && nextext != null && getNext() != null) {
             nextext.setBool(name, value, global);
         }
     }
@@ -214,7 +214,7 @@ public class GroupExtensionImpl extends GroupImpl
 
         setPair(name, value);
 
-        if (global && nextext != null) {
+        if (global && nextext != null && getNext() != null) {
             nextext.setPair(name, value, global);
         }
     }
@@ -257,7 +257,7 @@ public class GroupExtensionImpl extends GroupImpl
 
         setTransform(name, value);
 
-        if (global && nextext != null) {
+        if (global && nextext != null && getNext() != null) {
             nextext.setTransform(name, value, global);
         }
 
@@ -302,7 +302,7 @@ public class GroupExtensionImpl extends GroupImpl
 
         setHashToks(name, value);
 
-        if (global && nextext != null) {
+        if (global && nextext != null && getNext() != null) {
             nextext.setHashToks(name, value, global);
         }
 
@@ -317,4 +317,35 @@ public class GroupExtensionImpl extends GroupImpl
 
         hashtoksMap.put(name, value);
     }
+
+    /**
+     * Clear the extension registers as well when the group is released.
+     *
+     * @see org.extex.interpreter.max.context.GroupImpl#release()
+     */
+    @Override
+    public boolean release() {
+
+        if (!super.release()) {
+            return false;
+        }
+        realMap.clear();
+        boolMap.clear();
+        pairMap.clear();
+        transformMap.clear();
+        hashtoksMap.clear();
+        nextext = null;
+        return true;
+    }
+
+    /**
+     * @see org.extex.interpreter.max.context.GroupImpl#reuse(
+     *      org.extex.interpreter.max.context.Group)
+     */
+    @Override
+    public void reuse(Group next) {
+
+        super.reuse(next);
+        nextext = (GroupExtension) next;
+    }
 }
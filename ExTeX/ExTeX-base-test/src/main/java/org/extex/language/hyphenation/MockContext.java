@@ -218,6 +218,11 @@ public Count getCount(String name) {
         throw new RuntimeException("unimplemented");
     }
 
+    public Count getCount(int index) {
+
+        throw new RuntimeException("unimplemented");
+    }
+
 public FixedCount getCountOption(String name) {
 
         return null;
@@ -233,6 +238,11 @@ public Dimen getDimen(String name) {
         throw new RuntimeException("unimplemented");
     }
 
+    public Dimen getDimen(int index) {
+
+        throw new RuntimeException("unimplemented");
+    }
+
 public FixedDimen getDimenOption(String name) {
 
         return null;
@@ -558,6 +568,11 @@ public boolean isGlobalGroup() {
         throw new RuntimeException("unimplemented");
     }
 
+    public void setCount(int index, long value, boolean global) {
+
+        throw new RuntimeException("unimplemented");
+    }
+
     /**
 *      long)
      */
@@ -592,6 +607,11 @@ public boolean isGlobalGroup() {
         throw new RuntimeException("unimplemented");
     }
 
+    public void setDimen(int index, Dimen value, boolean global) {
+
+        throw new RuntimeException("unimplemented");
+    }
+
     /**
 *      org.extex.typesetter.tc.font.Font, boolean)
      */
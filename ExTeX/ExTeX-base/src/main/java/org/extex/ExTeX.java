@@ -51,6 +51,7 @@ import org.extex.interpreter.InterpreterFactory;
 import org.extex.interpreter.LoadUnit;
 import org.extex.interpreter.context.Context;
 import org.extex.interpreter.context.ContextFactory;
+import org.extex.interpreter.context.ForkableContext;
 import org.extex.interpreter.context.observer.interaction.InteractionObservable;
 import org.extex.interpreter.context.observer.interaction.InteractionObserver;
 import org.extex.interpreter.exception.InteractionUnknownException;
@@ -70,6 +71,7 @@ import org.extex.scanner.api.TokenStream;
 import org.extex.scanner.api.exception.CatcodeException;
 import org.extex.scanner.stream.TokenStreamFactory;
 import org.extex.scanner.stream.TokenStreamOptions;
+import org.extex.scanner.stream.cache.TokenStreamCache;
 import org.extex.scanner.type.token.TokenFactory;
 import org.extex.typesetter.Typesetter;
 import org.extex.typesetter.exception.TypesetterException;
@@ -223,6 +225,10 @@ import static java.lang.Boolean.parseBoolean;
  * <dd>This parameter contains the additional directories for searching
  * TeX input files.</dd>
  *
+ * <dt>{@code extex.token.cache}</dt>
+ * <dd>This string parameter contains the name of the directory for the cache
+ * of the tokens of input files. If it is not set then no cache is used.</dd>
+ *
  * <dt>{@code extex.token.stream}</dt>
  * <dd>This string parameter contains the logical name of the configuration to
  * use for the token stream.</dd>
@@ -560,6 +566,12 @@ public class ExTeX {
    */
   protected static final String PROP_TEXINPUTS = "extex.texinputs";
 
+  /**
+   * The constant {@code PROP_TOKEN_CACHE} contains the name of the property
+   * for the directory of the token cache.
+   */
+  protected static final String PROP_TOKEN_CACHE = "extex.token.cache";
+
   /**
    * The constant {@code PROP_TOKEN_STREAM} contains the name of the property
    * for the token stream class to use.
@@ -655,6 +667,19 @@ public class ExTeX {
    */
   private ErrorHandler errorHandler;
 
+  /**
+   * The field {@code formatContext} contains the context loaded from a format
+   * which is kept as base for the following runs or {@code null} if none
+   * has been kept.
+   */
+  private ForkableContext formatContext = null;
+
+  /**
+   * The field {@code formatName} contains the name of the format kept in
+   * {@code formatContext}.
+   */
+  private String formatName = null;
+
   /**
    * The field {@code ini} contains the indicator for iniTeX.
    */
@@ -673,6 +698,13 @@ public class ExTeX {
   private final ContextawareInteractionIndicator iProvider =
       new ContextawareInteractionIndicator();
 
+  /**
+   * The field {@code keepFormat} contains the indicator that the context
+   * loaded from a format is kept. The following runs with the same format
+   * use a fork of it instead of loading the format again.
+   */
+  private boolean keepFormat = false;
+
   /**
    * The field {@code localizer} contains the localizer. It is initiated with
    * a localizer for the name of this class.
@@ -748,6 +780,7 @@ public class ExTeX {
     propertyDefault( PROP_PAGE, "" );
     propertyDefault( PROP_PROGNAME, "extex" );
     propertyDefault( PROP_TEXINPUTS, null );
+    propertyDefault( PROP_TOKEN_CACHE, null );
     propertyDefault( PROP_TOKEN_STREAM, "base" );
     propertyDefault( PROP_TRACE_INPUT_FILES, "" );
     propertyDefault( PROP_TRACE_FONT_FILES, "" );
@@ -996,6 +1029,25 @@ public class ExTeX {
     return notInitialized;
   }
 
+  /**
+   * Use a fork of the context kept from a previous load of a format.
+   *
+   * @param interpreter the interpreter to delegate the forking to
+   * @param format      the name of the format
+   * @throws HelpingException in case of an error
+   */
+  private void forkFormat( Interpreter interpreter, String format )
+      throws HelpingException {
+
+    try {
+      interpreter.forkFormat( formatContext, "ExTeX", "ExTeX" );
+    } catch( LoaderException e ) {
+      logger.throwing( this.getClass().getName(), "forkFormat()", e );
+      throw new HelpingException( localizer, "TTP.FormatFileError",
+                                  format );
+    }
+  }
+
   /**
    * Load a format if a non-empty name of a format is given.
    *
@@ -1033,38 +1085,51 @@ public class ExTeX {
     }
 
     if( !format.equals( "" ) ) {
-      InputStream stream = finder.findResource( fmt, FORMAT_TYPE );
-
-      if( stream == null && !format.equals( FORMAT_FALLBACK ) ) {
-        logger.warning( localizer.format( "FormatSubstituted", format,
-                                          FORMAT_FALLBACK ) );
-        format = FORMAT_FALLBACK;
-        stream = finder.findResource( FORMAT_FALLBACK, FORMAT_TYPE );
+      if( formatContext == null || !format.equals( formatName ) ) {
+        String name = format;
+        InputStream stream = finder.findResource( fmt, FORMAT_TYPE );
+
+        if( stream == null && !format.equals( FORMAT_FALLBACK ) ) {
+          logger.warning( localizer.format( "FormatSubstituted", format,
+                                            FORMAT_FALLBACK ) );
+          format = FORMAT_FALLBACK;
+          stream = finder.findResource( FORMAT_FALLBACK, FORMAT_TYPE );
+        }
+        if( stream == null ) {
+          throw new HelpingException( localizer, "FormatNotFound", format );
+        }
+        Object ref1 =
+            Registrar.register( new ResourceFinderInjector( finder ),
+                                ResourceAware.class );
+        Object ref2 =
+            Registrar.register(
+                new FontInjector( context.getFontFactory() ),
+                ModifiableFont.class );
+        try {
+          // TODO gene: provide adequate configuration names
+          if( keepFormat ) {
+            formatContext = interpreter.loadBaseFormat( stream, format,
+                                                        "ExTeX", "ExTeX" );
+            formatName = name;
+          }
+          else {
+            interpreter.loadFormat( stream, format, "ExTeX", "ExTeX" );
+          }
+
+        } catch( LoaderException e ) {
+          logger.throwing( this.getClass().getName(), "loadFormat()", e );
+          throw new HelpingException( localizer, "TTP.FormatFileError",
+                                      format );
+        } catch( RegistrarFontNotFoundException e ) {
+          throw new HelpingException( localizer, "FontNotFound", e
+              .getKey().getName() );
+        } finally {
+          Registrar.unregister( ref1 );
+          Registrar.unregister( ref2 );
+        }
       }
-      if( stream == null ) {
-        throw new HelpingException( localizer, "FormatNotFound", format );
-      }
-      Object ref1 =
-          Registrar.register( new ResourceFinderInjector( finder ),
-                              ResourceAware.class );
-      Object ref2 =
-          Registrar.register(
-              new FontInjector( context.getFontFactory() ),
-              ModifiableFont.class );
-      try {
-        // TODO gene: provide adequate configuration names
-        interpreter.loadFormat( stream, format, "ExTeX", "ExTeX" );
-
-      } catch( LoaderException e ) {
-        logger.throwing( this.getClass().getName(), "loadFormat()", e );
-        throw new HelpingException( localizer, "TTP.FormatFileError",
-                                    format );
-      } catch( RegistrarFontNotFoundException e ) {
-        throw new HelpingException( localizer, "FontNotFound", e
-            .getKey().getName() );
-      } finally {
-        Registrar.unregister( ref1 );
-        Registrar.unregister( ref2 );
+      if( formatContext != null ) {
+        forkFormat( interpreter, format );
       }
       context = interpreter.getContext();
       logger.fine( localizer.format( "ExTeX.FormatDate", context.getId(),
@@ -1740,6 +1805,10 @@ public class ExTeX {
     factory.configure( config );
     factory.enableLogging( logger );
     factory.setResourceFinder( finder );
+    String cache = properties.getProperty( PROP_TOKEN_CACHE );
+    if( cache != null && !cache.equals( "" ) ) {
+      factory.setCache( new TokenStreamCache( new File( cache ) ) );
+    }
 
     return factory;
   }
@@ -1912,6 +1981,22 @@ public class ExTeX {
     errorHandler = handler;
   }
 
+  /**
+   * Setter for the indicator that the context loaded from a format is kept
+   * for the following runs. Each run uses a fork of it. Thus several jobs
+   * can be run with one instance without loading the format again.
+   *
+   * @param keep the indicator
+   */
+  public void setKeepFormat( boolean keep ) {
+
+    keepFormat = keep;
+    if( !keep ) {
+      formatContext = null;
+      formatName = null;
+    }
+  }
+
   /**
    * Setter for logger.
    *
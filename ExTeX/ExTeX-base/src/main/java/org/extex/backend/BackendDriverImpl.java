@@ -31,6 +31,8 @@ import org.extex.backend.pageFilter.PagePipe;
 import org.extex.color.ColorAware;
 import org.extex.color.ColorConverter;
 import org.extex.core.exception.GeneralException;
+import org.extex.core.jfr.FlightRecorder;
+import org.extex.core.jfr.ShipoutEvent;
 import org.extex.font.CoreFontFactory;
 import org.extex.font.FontAware;
 import org.extex.resource.PropertyAware;
@@ -395,7 +397,20 @@ public class BackendDriverImpl
       getDocumentWriter(); // to force delayed creation;
     }
     int n = pages;
+    if( !FlightRecorder.isAvailable() ) {
+      pipeFirst.shipout( page );
+      return pages - n;
+    }
+    ShipoutEvent event = new ShipoutEvent();
+    event.begin();
     pipeFirst.shipout( page );
+    event.end();
+    if( event.shouldCommit() ) {
+      event.setWriter( documentWriterType );
+      event.setNodes( page.getNodes().size() );
+      event.setPages( pages - n );
+      event.commit();
+    }
     return pages - n;
   }
 
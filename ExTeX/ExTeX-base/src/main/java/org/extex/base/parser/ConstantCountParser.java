@@ -374,6 +374,7 @@ public final class ConstantCountParser implements Parser<Count>, CountParser {
             n = c - '0';
 
             for( ; ; ) {
+              n = source.scanDigits( context, n );
               for( t = source.getToken( context ); t instanceof OtherToken
                   && t.getChar().isDigit(); t =
                        source.getToken( context ) ) {
@@ -22,6 +22,7 @@ package org.extex.base.parser;
 import org.extex.core.dimen.Dimen;
 import org.extex.core.exception.helping.HelpingException;
 import org.extex.core.exception.helping.UndefinedControlSequenceException;
+import org.extex.core.glue.FixedGlueComponent;
 import org.extex.core.glue.Glue;
 import org.extex.core.glue.GlueComponent;
 import org.extex.interpreter.TokenSource;
@@ -85,19 +86,16 @@ public class ConstantGlueParser implements Parser<Glue>, GlueParser {
       throws HelpingException, TypesetterException {
 
     Dimen length;
-    GlueComponent shrink;
-    GlueComponent stretch;
+    FixedGlueComponent shrink;
+    FixedGlueComponent stretch;
     Token t = source.getToken( context );
     if( t instanceof CodeToken ) {
       Code code = context.getCode( (CodeToken) t );
       if( code instanceof GlueConvertible ) {
-        Glue g =
-            ((GlueConvertible) code).convertGlue( context, source,
-                                                  null );
-        length = new Dimen( g.getLength() );
-        shrink = new GlueComponent( g.getShrink() );
-        stretch = new GlueComponent( g.getStretch() );
-        return new Glue( length, stretch, shrink );
+        // the constructor copies the components
+        return new Glue( ((GlueConvertible) code).convertGlue( context,
+                                                               source,
+                                                               null ) );
       }
       else if( code == null ) {
         throw new UndefinedControlSequenceException( t.toText() );
@@ -111,7 +109,7 @@ public class ConstantGlueParser implements Parser<Glue>, GlueParser {
               .parse( context, source, typesetter, true );
     }
     else {
-      stretch = new GlueComponent( 0 );
+      stretch = GlueComponent.ZERO;
     }
     if( source.getKeyword( context, "minus" ) ) {
       shrink =
@@ -119,7 +117,7 @@ public class ConstantGlueParser implements Parser<Glue>, GlueParser {
               .parse( context, source, typesetter, true );
     }
     else {
-      shrink = new GlueComponent( 0 );
+      shrink = GlueComponent.ZERO;
     }
     return new Glue( length, stretch, shrink );
   }
@@ -311,20 +311,23 @@ public final class ScaledNumberParser {
     if( t != null && (t.eq( Catcode.OTHER, '.' ) || t.eq( Catcode.OTHER,
                                                           ',' )) ) {
       // @see "TeX -- The Program [102]"
-      int[] dig = new int[ FLOAT_DIGITS ];
+      // the digits are kept in a long; the last one is the lowest digit
+      long dig = 0;
       int k = 0;
       for( t = source.getToken( context ); t instanceof OtherToken
           && t.getChar().isDigit(); t = source.getToken( context ) ) {
         if( k < FLOAT_DIGITS ) {
-          dig[ k++ ] = t.getChar().getCodePoint() - '0';
+          dig = dig * 10 + t.getChar().getCodePoint() - '0';
+          k++;
         }
       }
-      if( k < FLOAT_DIGITS ) {
-        k = FLOAT_DIGITS;
+      for( ; k < FLOAT_DIGITS; k++ ) {
+        dig *= 10;
       }
       post = 0;
       while( k-- > 0 ) {
-        post = (post + dig[ k ] * (1 << FLOAT_DIGITS)) / 10;
+        post = (post + (int) (dig % 10) * (1 << FLOAT_DIGITS)) / 10;
+        dig /= 10;
       }
       post = (post + 1) / 2;
     }
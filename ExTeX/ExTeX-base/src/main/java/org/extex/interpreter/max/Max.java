@@ -21,11 +21,15 @@ package org.extex.interpreter.max;
 
 import org.extex.backend.outputStream.OutputStreamConsumer;
 import org.extex.backend.outputStream.OutputStreamFactory;
+import org.extex.core.ParameterKey;
 import org.extex.core.Switch;
 import org.extex.core.UnicodeChar;
 import org.extex.core.count.Count;
 import org.extex.core.exception.GeneralException;
 import org.extex.core.exception.helping.*;
+import org.extex.core.jfr.CountingInputStream;
+import org.extex.core.jfr.FlightRecorder;
+import org.extex.core.jfr.FormatLoadEvent;
 import org.extex.font.CoreFontFactory;
 import org.extex.framework.Registrar;
 import org.extex.framework.RegistrarObserver;
@@ -40,6 +44,7 @@ import org.extex.framework.i18n.LocalizerFactory;
 import org.extex.framework.logger.LogEnabled;
 import org.extex.interpreter.*;
 import org.extex.interpreter.context.Context;
+import org.extex.interpreter.context.ForkableContext;
 import org.extex.interpreter.context.group.GroupType;
 import org.extex.interpreter.context.observer.group.SwitchObserver;
 import org.extex.interpreter.context.observer.load.LoadedObservable;
@@ -97,6 +102,14 @@ import java.util.logging.Logger;
 /**
  * This is a reference implementation for a <b>MA</b>cro e<b>X</b>pander. The
  * macro expander is the core engine driving εχTeX.
+ * <p>
+ * The main loop keeps the meaning of a control sequence in the token as an
+ * inline cache. It is reused as long as the definition epoch of the context
+ * is unchanged. The attribute {@code inlineCache} of the configuration can be
+ * set to {@code false} to disable the cache. If {@code \tracingstats} is
+ * positive at the end of the job then the hit rate is written to the log
+ * file.
+ * </p>
  *
  * <p>The Count Parameter {@code \ignorevoid}</p>
  * <p>
@@ -165,12 +178,47 @@ public abstract class Max
     TokenVisitor<Object, Object>,
     OutputStreamConsumer {
 
+  /**
+   * This class represents the meaning of a control sequence cached in the
+   * token together with the definition epoch it has been obtained in.
+   */
+  private static final class CachedMeaning {
+
+    /**
+     * The field {@code code} contains the meaning.
+     */
+    private final Code code;
+
+    /**
+     * The field {@code epoch} contains the definition epoch of the context.
+     */
+    private final Object epoch;
+
+    /**
+     * Creates a new object.
+     *
+     * @param epoch the definition epoch
+     * @param code  the meaning
+     */
+    CachedMeaning( Object epoch, Code code ) {
+
+      this.epoch = epoch;
+      this.code = code;
+    }
+  }
+
   /**
    * The field {@code CONTEXT_TAG} contains the name of the tag for the
    * configuration of the context.
    */
   private static final String CONTEXT_TAG = "Context";
 
+  /**
+   * The constant {@code INLINE_CACHE_ATTRIBUTE} contains the name of the
+   * attribute to enable or disable the inline cache.
+   */
+  private static final String INLINE_CACHE_ATTRIBUTE = "inlineCache";
+
   /**
    * The field {@code LANGUAGE_TAG} contains the name of the tag for the
    * configuration of the language manager.
@@ -208,6 +256,24 @@ public abstract class Max
    */
   private ErrorHandler errorHandler;
 
+  /**
+   * The field {@code inlineCache} contains the indicator that the meanings
+   * of control sequences are cached in the tokens by the main loop.
+   */
+  private boolean inlineCache = true;
+
+  /**
+   * The field {@code inlineCacheHits} contains the number of lookups in the
+   * main loop which have been served from the inline cache.
+   */
+  private long inlineCacheHits = 0;
+
+  /**
+   * The field {@code inlineCacheMisses} contains the number of lookups in
+   * the main loop which have not been served from the inline cache.
+   */
+  private long inlineCacheMisses = 0;
+
   /**
    * The field {@code localizer} contains the localizer to use.
    */
@@ -605,6 +671,8 @@ public abstract class Max
     }
 
     this.configuration = config;
+    String cache = config.getAttribute( INLINE_CACHE_ATTRIBUTE );
+    inlineCache = cache == null || Boolean.parseBoolean( cache );
   }
 
   /**
@@ -619,6 +687,55 @@ public abstract class Max
     this.logger = theLogger;
   }
 
+  /**
+   * Execute a control sequence with the meaning cached in the token. The
+   * cached meaning is used if it has been obtained in the current definition
+   * epoch of the context. Otherwise it is looked up and stored in the token.
+   * Undefined control sequences and other tokens are left to the visitor.
+   *
+   * @param token the token to execute
+   * @return {@code true} iff the token has been executed
+   * @throws HelpingException    in case of an error
+   * @throws TypesetterException in case of an error in the typesetter
+   */
+  private boolean executeCached( Token token )
+      throws HelpingException, TypesetterException {
+
+    if( !(token instanceof ControlSequenceToken) ) {
+      return false;
+    }
+    Object epoch = context.getCodeEpoch();
+    if( epoch == null ) {
+      return false;
+    }
+    ControlSequenceToken cs = (ControlSequenceToken) token;
+    Object cache = cs.getCache();
+    Code code;
+    if( cache instanceof CachedMeaning
+        && ((CachedMeaning) cache).epoch == epoch ) {
+      code = ((CachedMeaning) cache).code;
+      inlineCacheHits++;
+    }
+    else {
+      code = context.getCode( cs );
+      inlineCacheMisses++;
+      if( code == null ) {
+        return false;
+      }
+      cs.setCache( new CachedMeaning( epoch, code ) );
+    }
+    if( observersMacro != null ) {
+      observersMacro.update( cs, code, getLocator() );
+    }
+
+    code.execute( prefix, context, this, typesetter );
+
+    if( !(code instanceof PrefixCode) && prefix.isDirty() ) {
+      reportDirtyFlag( cs );
+    }
+    return true;
+  }
+
   /**
    * This method contains the main execution loop.
    *
@@ -642,7 +759,9 @@ public abstract class Max
       }
       try {
 
-        token.visit( this, null );
+        if( !inlineCache || !executeCached( token ) ) {
+          token.visit( this, null );
+        }
 
       } catch( Exception e ) {
         handleException( token, context, e, typesetter );
@@ -855,6 +974,28 @@ public abstract class Max
     return context.getInteraction();
   }
 
+  /**
+   * Getter for the number of lookups in the main loop which have been served
+   * from the inline cache.
+   *
+   * @return the number of hits
+   */
+  public long getInlineCacheHits() {
+
+    return inlineCacheHits;
+  }
+
+  /**
+   * Getter for the number of lookups in the main loop which have not been
+   * served from the inline cache.
+   *
+   * @return the number of misses
+   */
+  public long getInlineCacheMisses() {
+
+    return inlineCacheMisses;
+  }
+
   /**
    * Getter for localizer.
    *
@@ -1128,6 +1269,101 @@ public abstract class Max
                           String languageType )
       throws IOException, LoaderException {
 
+    FormatLoadEvent event = FlightRecorder.isAvailable()
+        ? new FormatLoadEvent()
+        : null;
+    InputStream in = event != null && event.isEnabled()
+        ? new CountingInputStream( stream )
+        : stream;
+    if( event != null ) {
+      event.begin();
+    }
+    Context newContext = readFormat( in, fmt );
+    configureFormat( newContext, contextType, languageType );
+    installFormat( newContext );
+    commit( event, fmt, in );
+  }
+
+  /**
+   * Commit the event for loading a format if the flight recorder asks for it.
+   *
+   * @param event the event or {@code null} if the flight recorder is not
+   *              available
+   * @param fmt   the name of the format
+   * @param in    the stream the format has been read from
+   */
+  private static void commit( FormatLoadEvent event, String fmt,
+                              InputStream in ) {
+
+    if( event == null ) {
+      return;
+    }
+    event.end();
+    if( event.shouldCommit() ) {
+      event.setFormat( fmt );
+      if( in instanceof CountingInputStream ) {
+        event.setBytes( ((CountingInputStream) in).getCount() );
+      }
+      event.commit();
+    }
+  }
+
+  /**
+   * Load a format as the base for forked contexts. The context is
+   * configured but it is not used by the interpreter.
+   *
+   * @param stream       the stream to read the format information from
+   * @param fmt          the name of the format to be loaded
+   * @param contextType  the configuration name for the context
+   * @param languageType the configuration name for the language manager
+   * @return the context loaded
+   * @throws LoaderException in case that a class could not be found on the
+   *                         class path or the context can not be forked
+   * @throws IOException     in case that an IO error occurs during the
+   *                         reading of the format
+   * @see org.extex.interpreter.Interpreter#loadBaseFormat(java.io.InputStream,
+   * java.lang.String, java.lang.String, java.lang.String)
+   */
+  @Override
+  public ForkableContext loadBaseFormat( InputStream stream, String fmt,
+                                         String contextType,
+                                         String languageType )
+      throws IOException, LoaderException {
+
+    FormatLoadEvent event = FlightRecorder.isAvailable()
+        ? new FormatLoadEvent()
+        : null;
+    InputStream in = event != null && event.isEnabled()
+        ? new CountingInputStream( stream )
+        : stream;
+    if( event != null ) {
+      event.begin();
+    }
+    Context base = readFormat( in, fmt );
+    if( !(base instanceof ForkableContext) ) {
+      throw new LoaderException( getLocalizer().format( "NotForkable",
+                                                        fmt ) );
+    }
+    configureFormat( base, contextType, languageType );
+    commit( event, fmt, in );
+    return (ForkableContext) base;
+  }
+
+  /**
+   * Read a context from a format.
+   *
+   * @param stream the stream to read the format information from
+   * @param fmt    the name of the format to be loaded
+   * @return the context read
+   * @throws LoaderException in case that a class could not be found on the
+   *                         class path or a wrong class is contained in the
+   *                         format
+   * @throws IOException     in case that an IO error occurs during the
+   *                         reading of the format
+   */
+  private Context readFormat( InputStream stream, String fmt )
+      throws IOException, LoaderException {
+
     Context newContext;
     Object ref1 = Registrar.register( new RegistrarObserver() {
 
@@ -1145,7 +1381,9 @@ public abstract class Max
 
     try {
 
-      newContext = new SerialLoader().load( stream );
+      newContext = new SerialLoader().load( stream, context != null
+          ? context.getTokenFactory()
+          : null );
 
     } catch( InvalidClassException e ) {
       throw new LoaderException( getLocalizer().format(
@@ -1155,6 +1393,45 @@ public abstract class Max
       Registrar.unregister( ref1 );
     }
 
+    return newContext;
+  }
+
+  /**
+   * Use a fork of a context loaded from a format before.
+   *
+   * @param base         the context to fork
+   * @param contextType  the configuration name for the context
+   * @param languageType the configuration name for the language manager
+   * @throws LoaderException in case that the context can not be forked
+   * @see org.extex.interpreter.Interpreter#forkFormat(ForkableContext,
+   * java.lang.String, java.lang.String)
+   */
+  @Override
+  public void forkFormat( ForkableContext base, String contextType,
+                          String languageType ) throws LoaderException {
+
+    Context newContext;
+    try {
+      newContext = base.fork();
+    } catch( HelpingException e ) {
+      throw new LoaderException( e );
+    }
+    configureFormat( newContext, contextType, languageType );
+    installFormat( newContext );
+  }
+
+  /**
+   * Configure a context loaded from a format and its language manager.
+   *
+   * @param newContext   the context loaded
+   * @param contextType  the configuration name for the context
+   * @param languageType the configuration name for the language manager
+   * @throws LoaderException in case of a configuration error
+   */
+  private void configureFormat( Context newContext, String contextType,
+                                String languageType )
+      throws LoaderException {
+
     try {
       if( newContext instanceof Configurable ) {
         ((Configurable) newContext).configure( configuration
@@ -1176,6 +1453,16 @@ public abstract class Max
     } catch( ConfigurationException e ) {
       throw new LoaderException( e );
     }
+  }
+
+  /**
+   * Install a context loaded from a format as the current context. The
+   * units and observers are notified.
+   *
+   * @param newContext the context loaded
+   * @throws LoaderException in case of an error
+   */
+  private void installFormat( Context newContext ) throws LoaderException {
 
     if( context != null ) {
       newContext.setFontFactory( context.getFontFactory() );
@@ -1374,6 +1661,16 @@ public abstract class Max
       throw e;
     }
 
+    if( inlineCache && logger != null
+        && context.getCount( "tracingstats" ).gt( Count.ZERO ) ) {
+      long lookups = inlineCacheHits + inlineCacheMisses;
+      long rate = lookups == 0 ? 0 : 100 * inlineCacheHits / lookups;
+      logger.fine( getLocalizer().format( "InlineCache",
+                                          Long.toString( inlineCacheHits ),
+                                          Long.toString( lookups ),
+                                          Long.toString( rate ) ) );
+    }
+
     if( observersStop != null ) {
       observersStop.update( this );
     }
@@ -1490,7 +1787,7 @@ public abstract class Max
 
     Code code = context.getCode( token );
     if( code == null ) {
-      Count ignoreVoid = context.getCount( "ignorevoid" );
+      Count ignoreVoid = context.getCount( ParameterKey.IGNOREVOID );
       if( ignoreVoid.le( Count.ZERO ) ) {
         throw new UndefinedControlSequenceException( token.toText() );
       }
@@ -1548,7 +1845,7 @@ public abstract class Max
       observersMacro.update( token, code, getLocator() );
     }
     if( code == null ) {
-      Count ignoreVoid = context.getCount( "ignorevoid" );
+      Count ignoreVoid = context.getCount( ParameterKey.IGNOREVOID );
       if( ignoreVoid.le( Count.ZERO ) ) {
         throw new UndefinedControlSequenceException( token.toText() );
       }
@@ -1580,7 +1877,7 @@ public abstract class Max
     if( prefix.isDirty() ) {
       reportDirtyFlag( token );
     }
-    context.openGroup( GroupType.SIMPLE_GROUP, getLocator(), token );
+    context.openGroup( GroupType.SIMPLE_GROUP, this, token );
     typesetter.leftBrace();
 
     return null;
@@ -1607,7 +1904,8 @@ public abstract class Max
                                                       context,
                                                       this,
                                                       getLocator() );
-    if( letter && context.getCount( "tracinglostchars" ).gt( Count.ZERO ) ) {
+    if( letter && context.getCount( ParameterKey.TRACINGLOSTCHARS )
+                         .gt( Count.ZERO ) ) {
       // FontUtil.charWarning(logger, context, context
       // .getTypesettingContext().getFont(), token.getChar());
       logger.info( getLocalizer().format( "TTP.MissingChar",
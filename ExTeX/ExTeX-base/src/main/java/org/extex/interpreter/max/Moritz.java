@@ -28,6 +28,8 @@ import org.extex.core.exception.GeneralException;
 import org.extex.core.exception.NotObservableException;
 import org.extex.core.exception.helping.*;
 import org.extex.core.glue.Glue;
+import org.extex.core.jfr.FileCloseEvent;
+import org.extex.core.jfr.FlightRecorder;
 import org.extex.core.muskip.Mudimen;
 import org.extex.core.muskip.Muskip;
 import org.extex.framework.configuration.Configurable;
@@ -345,11 +347,14 @@ public class Moritz extends Max
     if( observersCloseStream != null ) {
       observersCloseStream.update( stream );
     }
-    boolean isFile = stream.isFileStream();
+    TokenStream closed = stream;
     int last = streamStack.size() - 1;
     stream = last >= 0 ? streamStack.remove( last ) : null;
-    if( isFile ) {
+    if( closed.isFileStream() ) {
       push( context.getToks( ToksParameter.getKey( "everyeof", context ) ) );
+      if( FlightRecorder.isAvailable() ) {
+        commit( closed );
+      }
       return true;
     }
     // skipSpaces = false; // macro code needs this and \ignorespaces
@@ -357,6 +362,25 @@ public class Moritz extends Max
     return false;
   }
 
+  /**
+   * Commit the instant event for closing a file if the flight recorder asks
+   * for it.
+   *
+   * @param closed the stream closed
+   */
+  private static void commit( TokenStream closed ) {
+
+    FileCloseEvent event = new FileCloseEvent();
+    if( event.shouldCommit() ) {
+      Locator locator = closed.getLocator();
+      if( locator != null ) {
+        event.setName( locator.getResourceName() );
+        event.setLines( locator.getLineNumber() );
+      }
+      event.commit();
+    }
+  }
+
   /**
    * Parse the specification of a box.
    *
@@ -799,6 +823,18 @@ public class Moritz extends Max
     throw new MissingLeftBraceException( "???" );
   }
 
+  /**
+   * Getter for the token stream the next token is read from.
+   *
+   * @return the current token stream or {@code null}
+   * @see org.extex.interpreter.TokenSource#getTokenStream()
+   */
+  @Override
+  public TokenStream getTokenStream() {
+
+    return stream;
+  }
+
   /**
    * Getter for the token stream factory.
    *
@@ -915,13 +951,12 @@ public class Moritz extends Max
       stream = getTokenStreamFactory().getStream( "" );
     }
 
-    for( int i = tokens.length() - 1; i >= 0; i-- ) {
-      Token t = tokens.get( i );
-      if( observersPush != null ) {
-        observersPush.update( t );
+    if( observersPush != null ) {
+      for( int i = tokens.length() - 1; i >= 0; i-- ) {
+        observersPush.update( tokens.get( i ) );
       }
-      stream.put( t );
     }
+    stream.put( tokens );
   }
 
   /**
@@ -1102,6 +1137,46 @@ public class Moritz extends Max
     return UnicodeChar.get( (int) cc );
   }
 
+  /**
+   * Append the decimal digits to a number. The digits are taken from the
+   * current stream without creating tokens if the stream can avoid it. The
+   * end of the current stream is not crossed. If an observer for popped
+   * tokens is registered then all tokens are read as usual since the
+   * observer expects to see each of them.
+   *
+   * @param context the interpreter context
+   * @param n       the value accumulated so far
+   * @return the value with the digits appended
+   * @throws HelpingException in case of an error
+   * @see org.extex.interpreter.TokenSource#scanDigits(org.extex.interpreter.context.Context,
+   * long)
+   */
+  @Override
+  public long scanDigits( Context context, long n ) throws HelpingException {
+
+    if( observersPop != null ) {
+      long value = n;
+      for( Token t = getToken( context ); t != null; t =
+          getToken( context ) ) {
+        if( !OtherToken.isDigit( t ) ) {
+          push( t );
+          break;
+        }
+        value = value * 10 + t.getChar().getCodePoint() - '0';
+      }
+      return value;
+    }
+    if( stream == null ) {
+      return n;
+    }
+    try {
+      return stream.scanDigits( context.getTokenFactory(),
+                                context.getTokenizer(), n );
+    } catch( ScannerException e ) {
+      throw new NoHelpException( e );
+    }
+  }
+
   @Override
   public Token scanNonSpace( Context context )
       throws HelpingException,
@@ -1150,6 +1225,41 @@ public class Moritz extends Max
     return Long.toString( registerNumber );
   }
 
+  /**
+   * @see org.extex.interpreter.TokenSource#scanRegisterNumber(Context,
+   * org.extex.interpreter.TokenSource, org.extex.typesetter.Typesetter,
+   * CodeToken)
+   */
+  @Override
+  public int scanRegisterNumber( Context context, TokenSource source,
+                                 Typesetter typesetter, CodeToken primitive )
+      throws HelpingException,
+      TypesetterException {
+
+    skipSpaces = true;
+    Token token = getToken( context );
+
+    if( token == null ) {
+
+      throw new MissingNumberException();
+    }
+
+    long maxRegisterValue = maxRegister.getValue();
+    if( maxRegisterValue < 0 && token.isa( Catcode.LEFTBRACE ) ) {
+      push( token );
+      return -1;
+    }
+
+    source.push( token );
+    long registerNumber =
+        countParser.parseInteger( context, source, typesetter );
+    if( registerNumber < 0 || registerNumber > Integer.MAX_VALUE
+        || maxRegisterValue >= 0 && registerNumber > maxRegisterValue ) {
+      throw new IllegalRegisterException( Long.toString( registerNumber ) );
+    }
+    return (int) registerNumber;
+  }
+
   @Override
   public Token scanToken( Context context )
       throws HelpingException,
@@ -1324,6 +1434,59 @@ public class Moritz extends Max
     skipSpaces = true;
   }
 
+  /**
+   * Get the next control sequence or active character from the input
+   * streams. The other tokens are not created if the stream can avoid it.
+   * If an observer for popped tokens is registered then all tokens are read
+   * as usual since the observer expects to see each of them.
+   *
+   * @param context the interpreter context
+   * @return the next code token or {@code null}
+   * @throws HelpingException in case of an error
+   * @see org.extex.interpreter.TokenSource#skipToCodeToken(org.extex.interpreter.context.Context)
+   */
+  @Override
+  public CodeToken skipToCodeToken( Context context )
+      throws HelpingException {
+
+    if( observersPop != null ) {
+      for( Token t = getToken( context ); t != null; t =
+          getToken( context ) ) {
+        if( t instanceof CodeToken ) {
+          return (CodeToken) t;
+        }
+      }
+      return null;
+    }
+
+    TokenFactory factory = context.getTokenFactory();
+    Tokenizer tokenizer = context.getTokenizer();
+
+    try {
+
+      while( stream != null ) {
+
+        CodeToken t = stream.skipToCodeToken( factory, tokenizer );
+        if( t != null ) {
+          lastToken = t;
+          skipSpaces = false;
+          return t;
+        }
+
+        closeStream( context );
+      }
+
+    } catch( ScannerException e ) {
+      throw new NoHelpException( e );
+    }
+
+    if( observersEOF != null ) {
+      observersEOF.update();
+    }
+    lastToken = null;
+    return null;
+  }
+
   @Override
   public String toString() {
     final Locator locator = getLocator();
@@ -84,6 +84,35 @@ public class BaseLanguageManager extends AbstractFactory<ModifiableLanguage>
   protected Language createLanguage( String name )
       throws ConfigurationException {
 
+    Language lang = newLanguage( name );
+    tables.put( name, lang );
+    return lang;
+  }
+
+  /**
+   * Create a language manager for a forked context. The languages of this
+   * manager are shared until they are modified in the fork.
+   *
+   * @return the language manager for the fork
+   * @see org.extex.language.LanguageManager#fork()
+   */
+  @Override
+  public LanguageManager fork() {
+
+    return new ForkedLanguageManager( this );
+  }
+
+  /**
+   * Create a new language according to the configuration. The language is
+   * not put into the table.
+   *
+   * @param name the name of the language
+   * @return the new instance of a language
+   * @throws ConfigurationException in case of a configuration error
+   */
+  protected Language newLanguage( String name )
+      throws ConfigurationException {
+
     ModifiableLanguage lang;
     Configuration cfg = selectConfiguration( name );
     lang = createInstanceForConfiguration( cfg, ModifiableLanguage.class );
@@ -97,12 +126,19 @@ public class BaseLanguageManager extends AbstractFactory<ModifiableLanguage>
                                                            WordTokenizer.class ) );
 
     lang.setName( name );
-    tables.put( name, lang );
     return lang;
   }
 
+  /**
+   * Return the {@code Language} for a given name. The manager is locked
+   * since the languages might be shared with forked contexts.
+   *
+   * @param name the name for which the language is requested
+   * @return the language for the given name
+   * @see org.extex.language.LanguageManager#getLanguage(java.lang.String)
+   */
   @Override
-  public Language getLanguage( String name ) {
+  public synchronized Language getLanguage( String name ) {
 
     Language table = tables.get( name );
     if( table == null ) {
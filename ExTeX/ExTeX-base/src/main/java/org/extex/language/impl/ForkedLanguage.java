@@ -0,0 +1,340 @@
+/*
+ * Copyright (C) 2011 The ExTeX Group and individual authors listed below
+ *
+ * This library is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as published by the
+ * Free Software Foundation; either version 2.1 of the License, or (at your
+ * option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General Public License
+ * for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this library; if not, write to the Free Software Foundation,
+ * Inc., 59 Temple Place, Suite 330, Boston, MA 02111-1307 USA
+ *
+ */
+
+
+package org.extex.language.impl;
+
+import org.extex.core.UnicodeChar;
+import org.extex.core.UnicodeCharList;
+import org.extex.language.Language;
+import org.extex.language.hyphenation.exception.HyphenationException;
+import org.extex.scanner.type.tokens.Tokens;
+import org.extex.typesetter.TypesetterOptions;
+import org.extex.typesetter.tc.font.Font;
+import org.extex.typesetter.type.NodeList;
+import org.extex.typesetter.type.node.CharNode;
+import org.extex.typesetter.type.node.factory.NodeFactory;
+
+/**
+ * This class implements the copy-on-write pattern for a language of a forked
+ * context. The read operations are delegated to the language of the base
+ * manager. The first modification acquires a private copy which is used
+ * afterwards.
+ *
+ * @author <a href="mailto:gene@gerd-neugebauer.de">Gerd Neugebauer</a>
+ */
+public class ForkedLanguage implements Language {
+
+  /**
+   * The constant {@code serialVersionUID} contains the id for serialization.
+   */
+  protected static final long serialVersionUID = 2011L;
+
+  /**
+   * The field {@code key} contains the name of the language in the managers.
+   */
+  private final String key;
+
+  /**
+   * The field {@code language} contains the private copy or {@code null}
+   * if none has been acquired yet.
+   */
+  private Language language = null;
+
+  /**
+   * The field {@code manager} contains the manager of the fork.
+   */
+  private final ForkedLanguageManager manager;
+
+  /**
+   * The field {@code name} contains the name of the language.
+   */
+  private String name;
+
+  /**
+   * The field {@code shared} contains the language of the base manager
+   * which is read as long as there is no private copy.
+   */
+  private transient Language shared = null;
+
+  /**
+   * Creates a new object.
+   *
+   * @param name    the name of the language
+   * @param manager the manager of the fork
+   */
+  public ForkedLanguage( String name, ForkedLanguageManager manager ) {
+
+    this.key = name;
+    this.name = name;
+    this.manager = manager;
+  }
+
+  /**
+   * {@inheritDoc}
+   *
+   * @see org.extex.language.hyphenation.Hyphenator#addHyphenation(
+   *org.extex.core.UnicodeCharList,
+   * org.extex.typesetter.TypesetterOptions)
+   */
+  @Override
+  public void addHyphenation( UnicodeCharList word,
+                              TypesetterOptions context )
+      throws HyphenationException {
+
+    write().addHyphenation( word, context );
+  }
+
+  /**
+   * {@inheritDoc}
+   *
+   * @see org.extex.language.hyphenation.Hyphenator#addPattern(
+   *org.extex.scanner.type.tokens.Tokens)
+   */
+  @Override
+  public void addPattern( Tokens pattern ) throws HyphenationException {
+
+    write().addPattern( pattern );
+  }
+
+  /**
+   * {@inheritDoc}
+   *
+   * @see org.extex.language.word.WordTokenizer#findWord(
+   *org.extex.typesetter.type.NodeList,
+   * int,
+   * org.extex.core.UnicodeCharList)
+   */
+  @Override
+  public int findWord( NodeList nodes, int start,
+                       UnicodeCharList word ) throws HyphenationException {
+
+    return read().findWord( nodes, start, word );
+  }
+
+  /**
+   * {@inheritDoc}
+   *
+   * @see org.extex.language.hyphenation.Hyphenator#getLeftHyphenMin()
+   */
+  @Override
+  public long getLeftHyphenMin() throws HyphenationException {
+
+    return read().getLeftHyphenMin();
+  }
+
+  /**
+   * {@inheritDoc}
+   *
+   * @see org.extex.language.ligature.LigatureBuilder#getLigature(
+   *org.extex.core.UnicodeChar,
+   * org.extex.core.UnicodeChar,
+   * org.extex.typesetter.tc.font.Font)
+   */
+  @Override
+  public UnicodeChar getLigature( UnicodeChar c1, UnicodeChar c2,
+                                  Font f ) throws HyphenationException {
+
+    return read().getLigature( c1, c2, f );
+  }
+
+  /**
+   * {@inheritDoc}
+   *
+   * @see org.extex.language.Language#getName()
+   */
+  @Override
+  public String getName() {
+
+    return name;
+  }
+
+  /**
+   * {@inheritDoc}
+   *
+   * @see org.extex.language.hyphenation.Hyphenator#getRightHyphenMin()
+   */
+  @Override
+  public long getRightHyphenMin() throws HyphenationException {
+
+    return read().getRightHyphenMin();
+  }
+
+  /**
+   * {@inheritDoc}
+   *
+   * @see org.extex.language.hyphenation.Hyphenator#hyphenate(
+   *org.extex.typesetter.type.NodeList,
+   * org.extex.typesetter.TypesetterOptions,
+   * org.extex.core.UnicodeChar,
+   * int,
+   * boolean,
+   * org.extex.typesetter.type.node.factory.NodeFactory)
+   */
+  @Override
+  public boolean hyphenate( NodeList nodelist,
+                            TypesetterOptions context, UnicodeChar hyphen,
+                            int start, boolean forall, NodeFactory nodeFactory )
+      throws HyphenationException {
+
+    return read().hyphenate( nodelist, context, hyphen, start, forall,
+                             nodeFactory );
+  }
+
+  /**
+   * {@inheritDoc}
+   *
+   * @see org.extex.language.ligature.LigatureBuilder#insertLigatures(
+   *org.extex.typesetter.type.NodeList,
+   * int)
+   */
+  @Override
+  public int insertLigatures( NodeList list, int start )
+      throws HyphenationException {
+
+    return read().insertLigatures( list, start );
+  }
+
+  /**
+   * {@inheritDoc}
+   *
+   * @see org.extex.language.word.WordTokenizer#insertShy(
+   *org.extex.typesetter.type.NodeList,
+   * int,
+   * boolean[],
+   * org.extex.typesetter.type.node.CharNode)
+   */
+  @Override
+  public void insertShy( NodeList nodes, int insertionPoint,
+                         boolean[] spec, CharNode hyphenNode )
+      throws HyphenationException {
+
+    read().insertShy( nodes, insertionPoint, spec, hyphenNode );
+  }
+
+  /**
+   * {@inheritDoc}
+   *
+   * @see org.extex.language.hyphenation.Hyphenator#isHyphenating()
+   */
+  @Override
+  public boolean isHyphenating() throws HyphenationException {
+
+    return read().isHyphenating();
+  }
+
+  /**
+   * {@inheritDoc}
+   *
+   * @see org.extex.language.word.WordTokenizer#normalize(
+   *org.extex.core.UnicodeCharList,
+   * org.extex.typesetter.TypesetterOptions)
+   */
+  @Override
+  public UnicodeCharList normalize( UnicodeCharList word,
+                                    TypesetterOptions options )
+      throws HyphenationException {
+
+    return read().normalize( word, options );
+  }
+
+  /**
+   * Getter for the language to read from. This is the private copy if one
+   * has been acquired or the language of the base manager otherwise.
+   *
+   * @return the language to read from
+   * @throws HyphenationException in case of an error
+   */
+  private Language read() throws HyphenationException {
+
+    if( language != null ) {
+      return language;
+    }
+    if( shared == null ) {
+      shared = manager.shared( key );
+      if( shared == null ) {
+        language = manager.copy( key );
+        return language;
+      }
+    }
+    return shared;
+  }
+
+  /**
+   * {@inheritDoc}
+   *
+   * @see org.extex.language.hyphenation.Hyphenator#setHyphenating(boolean)
+   */
+  @Override
+  public void setHyphenating( boolean active )
+      throws HyphenationException {
+
+    write().setHyphenating( active );
+  }
+
+  /**
+   * {@inheritDoc}
+   *
+   * @see org.extex.language.hyphenation.Hyphenator#setLeftHyphenMin(long)
+   */
+  @Override
+  public void setLeftHyphenMin( long left ) throws HyphenationException {
+
+    write().setLeftHyphenMin( left );
+  }
+
+  /**
+   * {@inheritDoc}
+   *
+   * @see org.extex.language.Language#setName(java.lang.String)
+   */
+  @Override
+  public void setName( String name ) {
+
+    this.name = name;
+  }
+
+  /**
+   * {@inheritDoc}
+   *
+   * @see org.extex.language.hyphenation.Hyphenator#setRightHyphenMin(long)
+   */
+  @Override
+  public void setRightHyphenMin( long right ) throws HyphenationException {
+
+    write().setRightHyphenMin( right );
+  }
+
+  /**
+   * Getter for the language to modify. A private copy is acquired if none
+   * is present yet.
+   *
+   * @return the private copy
+   * @throws HyphenationException in case of an error
+   */
+  private Language write() throws HyphenationException {
+
+    if( language == null ) {
+      language = manager.copy( key );
+      shared = null;
+    }
+    return language;
+  }
+
+}
@@ -0,0 +1,198 @@
+/*
+ * Copyright (C) 2011 The ExTeX Group and individual authors listed below
+ *
+ * This library is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as published by the
+ * Free Software Foundation; either version 2.1 of the License, or (at your
+ * option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General Public License
+ * for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this library; if not, write to the Free Software Foundation,
+ * Inc., 59 Temple Place, Suite 330, Boston, MA 02111-1307 USA
+ *
+ */
+
+
+package org.extex.language.impl;
+
+import org.extex.language.Language;
+import org.extex.language.LanguageManager;
+import org.extex.language.hyphenation.exception.HyphenationException;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * This class manages the languages of a forked context. The languages of the
+ * base manager are shared as long as they are only read. The first
+ * modification of a language in the fork acquires a private copy of it.
+ * Thus modifications are neither seen by the base manager nor by other forks.
+ * <p>
+ * The base manager is locked while its languages are inspected or copied.
+ * </p>
+ *
+ * @author <a href="mailto:gene@gerd-neugebauer.de">Gerd Neugebauer</a>
+ */
+public class ForkedLanguageManager implements LanguageManager, LanguageCreator {
+
+  /**
+   * The constant {@code serialVersionUID} contains the id for serialization.
+   */
+  protected static final long serialVersionUID = 2011L;
+
+  /**
+   * The field {@code base} contains the manager the languages are taken
+   * from.
+   */
+  private final BaseLanguageManager base;
+
+  /**
+   * The field {@code tables} contains the mapping from the name to the
+   * language of the fork.
+   */
+  private final Map<String, Language> tables = new HashMap<String, Language>();
+
+  /**
+   * Creates a new object.
+   *
+   * @param base the manager the languages are taken from
+   */
+  public ForkedLanguageManager( BaseLanguageManager base ) {
+
+    this.base = base;
+  }
+
+  /**
+   * Acquire a private copy of a language of the base manager. If the base
+   * manager does not know the language yet then a new one is created for the
+   * fork only.
+   *
+   * @param name the name of the language
+   * @return the private copy
+   * @throws HyphenationException in case of an error
+   */
+  Language copy( String name ) throws HyphenationException {
+
+    synchronized( base ) {
+      Language lang = base.getTables().get( name );
+      if( lang != null && !(lang instanceof ManagedLanguage) ) {
+        return duplicate( lang );
+      }
+      if( base instanceof LanguageCreator ) {
+        return new FutureLanguage( name, this );
+      }
+      return createLanguageInstance( name );
+    }
+  }
+
+  /**
+   * Create a new instance for the given index. The base manager is used to
+   * create it but it does not register the new instance.
+   *
+   * @param name the symbolic name of the language
+   * @return the new instance
+   * @throws HyphenationException in case of an error
+   * @see org.extex.language.impl.LanguageCreator#createLanguageInstance(java.lang.String)
+   */
+  @Override
+  public Language createLanguageInstance( String name )
+      throws HyphenationException {
+
+    synchronized( base ) {
+      return base.newLanguage( name );
+    }
+  }
+
+  /**
+   * Make a deep copy of a language.
+   *
+   * @param lang the language
+   * @return the copy
+   * @throws HyphenationException in case of an error
+   */
+  private Language duplicate( Language lang ) throws HyphenationException {
+
+    try {
+      ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+      ObjectOutputStream out = new ObjectOutputStream( bytes );
+      out.writeObject( lang );
+      out.close();
+      ObjectInputStream in = new ObjectInputStream(
+          new ByteArrayInputStream( bytes.toByteArray() ) );
+      Language copy = (Language) in.readObject();
+      in.close();
+      return copy;
+    } catch( IOException e ) {
+      throw new HyphenationException( e );
+    } catch( ClassNotFoundException e ) {
+      throw new HyphenationException( e );
+    }
+  }
+
+  /**
+   * Return the {@code Language} for a given name. The result delegates to
+   * the language of the base manager until it is modified.
+   *
+   * @param name the name for which the language is requested
+   * @return the language for the given name
+   * @see org.extex.language.LanguageManager#getLanguage(java.lang.String)
+   */
+  @Override
+  public Language getLanguage( String name ) {
+
+    Language lang = tables.get( name );
+    if( lang == null ) {
+      lang = new ForkedLanguage( name, this );
+      tables.put( name, lang );
+    }
+    return lang;
+  }
+
+  /**
+   * Load or create a new instance for the given index. The base manager is
+   * used to load it. The result is a private copy.
+   *
+   * @param name the symbolic name of the language
+   * @return the new instance
+   * @throws HyphenationException in case of an error
+   * @see org.extex.language.impl.LanguageCreator#loadLanguageInstance(java.lang.String)
+   */
+  @Override
+  public Language loadLanguageInstance( String name )
+      throws HyphenationException {
+
+    synchronized( base ) {
+      if( base instanceof LanguageCreator ) {
+        return duplicate( ((LanguageCreator) base).loadLanguageInstance( name ) );
+      }
+      return createLanguageInstance( name );
+    }
+  }
+
+  /**
+   * Getter for a language of the base manager which can be shared for
+   * reading.
+   *
+   * @param name the name of the language
+   * @return the language or {@code null} if there is none which can be
+   *         shared
+   */
+  Language shared( String name ) {
+
+    synchronized( base ) {
+      Language lang = base.getTables().get( name );
+      return lang instanceof ManagedLanguage ? null : lang;
+    }
+  }
+
+}
@@ -32,7 +32,6 @@ import org.extex.interpreter.type.Code;
 import org.extex.interpreter.type.ExpandableCode;
 import org.extex.interpreter.type.PrefixCode;
 import org.extex.scanner.type.token.CodeToken;
-import org.extex.scanner.type.token.Token;
 import org.extex.typesetter.Typesetter;
 import org.extex.typesetter.exception.TypesetterException;
 
@@ -91,13 +90,10 @@ public abstract class AbstractIf extends AbstractCode
     int depth = 0;
     Locator locator = source.getLocator();
 
-    for( Token t = source.getToken( context ); t != null; t =
-        source.getToken( context ) ) {
+    for( CodeToken t = source.skipToCodeToken( context ); t != null; t =
+        source.skipToCodeToken( context ) ) {
 
-      if( !(t instanceof CodeToken) ) {
-        continue;
-      }
-      Code code = context.getCode( (CodeToken) t );
+      Code code = context.getCode( t );
       if( code == null ) {
         continue;
       }
@@ -98,7 +98,7 @@ public class FontCode extends AbstractCode
                            Typesetter typesetter )
       throws HelpingException, TypesetterException {
 
-    return font;
+    return context.getLocalFont( font );
   }
 
   /**
@@ -110,7 +110,7 @@ public class FontCode extends AbstractCode
                        Typesetter typesetter )
       throws HelpingException, TypesetterException {
 
-    context.set( font, prefix.clearGlobal() );
+    context.set( context.getLocalFont( font ), prefix.clearGlobal() );
   }
 
   /**
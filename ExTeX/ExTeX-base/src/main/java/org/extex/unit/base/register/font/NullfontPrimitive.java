@@ -112,7 +112,7 @@ public class NullfontPrimitive extends AbstractCode
                            Typesetter typesetter )
       throws HelpingException, TypesetterException {
 
-    return nullFont;
+    return context.getLocalFont( nullFont );
   }
 
   /**
@@ -124,7 +124,7 @@ public class NullfontPrimitive extends AbstractCode
                        Typesetter typesetter )
       throws HelpingException, TypesetterException {
 
-    context.set( nullFont, prefix.clearGlobal() );
+    context.set( context.getLocalFont( nullFont ), prefix.clearGlobal() );
   }
 
 }
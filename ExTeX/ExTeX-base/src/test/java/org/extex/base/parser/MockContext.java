@@ -232,6 +232,12 @@ public class MockContext implements Context, TypesetterOptions {
     throw new RuntimeException( "unimplemented" );
   }
 
+  @Override
+  public Count getCount( int index ) {
+
+    throw new RuntimeException( "unimplemented" );
+  }
+
   @Override
   public FixedCount getCountOption( String name ) {
 
@@ -250,6 +256,12 @@ public class MockContext implements Context, TypesetterOptions {
     throw new RuntimeException( "unimplemented" );
   }
 
+  @Override
+  public Dimen getDimen( int index ) {
+
+    throw new RuntimeException( "unimplemented" );
+  }
+
   @Override
   public FixedDimen getDimenOption( String name ) {
 
@@ -609,6 +621,12 @@ public class MockContext implements Context, TypesetterOptions {
     throw new RuntimeException( "unimplemented" );
   }
 
+  @Override
+  public void setCount( int index, long value, boolean global ) {
+
+    throw new RuntimeException( "unimplemented" );
+  }
+
   /**
    * long)
    */
@@ -647,6 +665,12 @@ public class MockContext implements Context, TypesetterOptions {
     throw new RuntimeException( "unimplemented" );
   }
 
+  @Override
+  public void setDimen( int index, Dimen value, boolean global ) {
+
+    throw new RuntimeException( "unimplemented" );
+  }
+
   /**
    * org.extex.typesetter.tc.font.Font, boolean)
    */
@@ -0,0 +1,397 @@
+/*
+ * Copyright (C) 2011 The ExTeX Group and individual authors listed below
+ *
+ * This library is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as published by the
+ * Free Software Foundation; either version 2.1 of the License, or (at your
+ * option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General Public License
+ * for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this library; if not, write to the Free Software Foundation,
+ * Inc., 59 Temple Place, Suite 330, Boston, MA 02111-1307 USA
+ *
+ */
+
+package org.extex.core;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Supplier;
+
+import org.extex.core.count.Count;
+import org.extex.core.dimen.Dimen;
+import org.extex.core.glue.Glue;
+
+/**
+ * This class represents a pre-resolved handle for a frequently used internal
+ * parameter. The parameters are still stored under their names; the handle
+ * just carries a fixed slot number which can be used by a context to find the
+ * current value without hashing the name in each group.
+ * <p>
+ * The set of handles is fixed. The slot numbers are assigned in the order of
+ * the declarations below. Thus they are the same in each virtual machine and
+ * can be used in format files.
+ * </p>
+ *
+ * @param <T> the type of the value of the parameter
+ * @author <a href="mailto:gene@gerd-neugebauer.de">Gerd Neugebauer</a>
+ */
+public final class ParameterKey<T> {
+
+  /**
+   * The constant {@code COUNTS} contains the count parameters by name.
+   */
+  private static final Map<String, ParameterKey<Count>> COUNTS =
+      new HashMap<String, ParameterKey<Count>>();
+
+  /**
+   * The constant {@code DIMENS} contains the dimen parameters by name.
+   */
+  private static final Map<String, ParameterKey<Dimen>> DIMENS =
+      new HashMap<String, ParameterKey<Dimen>>();
+
+  /**
+   * The constant {@code GLUES} contains the glue parameters by name.
+   */
+  private static final Map<String, ParameterKey<Glue>> GLUES =
+      new HashMap<String, ParameterKey<Glue>>();
+
+  /**
+   * The constant {@code KEYS} contains all keys in the order of their slot
+   * numbers.
+   */
+  private static final List<ParameterKey<?>> KEYS =
+      new ArrayList<ParameterKey<?>>();
+
+  /**
+   * The constant {@code ADJDEMERITS} contains the key for
+   * {@code \adjdemerits}.
+   */
+  public static final ParameterKey<Count> ADJDEMERITS = count( "adjdemerits" );
+
+  /**
+   * The constant {@code BROKENPENALTY} contains the key for
+   * {@code \brokenpenalty}.
+   */
+  public static final ParameterKey<Count> BROKENPENALTY =
+      count( "brokenpenalty" );
+
+  /**
+   * The constant {@code CLUBPENALTY} contains the key for
+   * {@code \clubpenalty}.
+   */
+  public static final ParameterKey<Count> CLUBPENALTY = count( "clubpenalty" );
+
+  /**
+   * The constant {@code DOUBLEHYPHENDEMERITS} contains the key for
+   * {@code \doublehyphendemerits}.
+   */
+  public static final ParameterKey<Count> DOUBLEHYPHENDEMERITS =
+      count( "doublehyphendemerits" );
+
+  /**
+   * The constant {@code EMERGENCYSTRETCH} contains the key for
+   * {@code \emergencystretch}.
+   */
+  public static final ParameterKey<Dimen> EMERGENCYSTRETCH =
+      dimen( "emergencystretch" );
+
+  /**
+   * The constant {@code ESCAPECHAR} contains the key for
+   * {@code \escapechar}.
+   */
+  public static final ParameterKey<Count> ESCAPECHAR = count( "escapechar" );
+
+  /**
+   * The constant {@code EXHYPHENPENALTY} contains the key for
+   * {@code \exhyphenpenalty}.
+   */
+  public static final ParameterKey<Count> EXHYPHENPENALTY =
+      count( "exhyphenpenalty" );
+
+  /**
+   * The constant {@code FINALHYPHENDEMERITS} contains the key for
+   * {@code \finalhyphendemerits}.
+   */
+  public static final ParameterKey<Count> FINALHYPHENDEMERITS =
+      count( "finalhyphendemerits" );
+
+  /**
+   * The constant {@code FINALWIDOWPENALTY} contains the key for
+   * {@code \finalwidowpenalty}.
+   */
+  public static final ParameterKey<Count> FINALWIDOWPENALTY =
+      count( "finalwidowpenalty" );
+
+  /**
+   * The constant {@code GLOBALDEFS} contains the key for
+   * {@code \globaldefs}.
+   */
+  public static final ParameterKey<Count> GLOBALDEFS = count( "globaldefs" );
+
+  /**
+   * The constant {@code HANGAFTER} contains the key for {@code \hangafter}.
+   */
+  public static final ParameterKey<Count> HANGAFTER = count( "hangafter" );
+
+  /**
+   * The constant {@code HSIZE} contains the key for {@code \hsize}.
+   */
+  public static final ParameterKey<Dimen> HSIZE = dimen( "hsize" );
+
+  /**
+   * The constant {@code HYPHENPENALTY} contains the key for
+   * {@code \hyphenpenalty}.
+   */
+  public static final ParameterKey<Count> HYPHENPENALTY =
+      count( "hyphenpenalty" );
+
+  /**
+   * The constant {@code IGNOREVOID} contains the key for {@code \ignorevoid}.
+   */
+  public static final ParameterKey<Count> IGNOREVOID = count( "ignorevoid" );
+
+  /**
+   * The constant {@code INTERLINEPENALTY} contains the key for
+   * {@code \interlinepenalty}.
+   */
+  public static final ParameterKey<Count> INTERLINEPENALTY =
+      count( "interlinepenalty" );
+
+  /**
+   * The constant {@code LEFTSKIP} contains the key for {@code \leftskip}.
+   */
+  public static final ParameterKey<Glue> LEFTSKIP = glue( "leftskip" );
+
+  /**
+   * The constant {@code LINEPENALTY} contains the key for
+   * {@code \linepenalty}.
+   */
+  public static final ParameterKey<Count> LINEPENALTY = count( "linepenalty" );
+
+  /**
+   * The constant {@code LOOSENESS} contains the key for {@code \looseness}.
+   */
+  public static final ParameterKey<Count> LOOSENESS = count( "looseness" );
+
+  /**
+   * The constant {@code PARFILLSKIP} contains the key for
+   * {@code \parfillskip}.
+   */
+  public static final ParameterKey<Glue> PARFILLSKIP = glue( "parfillskip" );
+
+  /**
+   * The constant {@code PRETOLERANCE} contains the key for
+   * {@code \pretolerance}.
+   */
+  public static final ParameterKey<Count> PRETOLERANCE =
+      count( "pretolerance" );
+
+  /**
+   * The constant {@code RIGHTSKIP} contains the key for {@code \rightskip}.
+   */
+  public static final ParameterKey<Glue> RIGHTSKIP = glue( "rightskip" );
+
+  /**
+   * The constant {@code TOLERANCE} contains the key for {@code \tolerance}.
+   */
+  public static final ParameterKey<Count> TOLERANCE = count( "tolerance" );
+
+  /**
+   * The constant {@code TRACINGLOSTCHARS} contains the key for
+   * {@code \tracinglostchars}.
+   */
+  public static final ParameterKey<Count> TRACINGLOSTCHARS =
+      count( "tracinglostchars" );
+
+  /**
+   * The constant {@code TRACINGMACROS} contains the key for
+   * {@code \tracingmacros}.
+   */
+  public static final ParameterKey<Count> TRACINGMACROS =
+      count( "tracingmacros" );
+
+  /**
+   * The constant {@code TRACINGPARAGRAPHS} contains the key for
+   * {@code \tracingparagraphs}.
+   */
+  public static final ParameterKey<Count> TRACINGPARAGRAPHS =
+      count( "tracingparagraphs" );
+
+  /**
+   * The constant {@code VSIZE} contains the key for {@code \vsize}.
+   */
+  public static final ParameterKey<Dimen> VSIZE = dimen( "vsize" );
+
+  /**
+   * Create a new key for a count parameter.
+   *
+   * @param name the name of the parameter
+   * @return the new key
+   */
+  private static ParameterKey<Count> count( String name ) {
+
+    ParameterKey<Count> key =
+        new ParameterKey<Count>( name, () -> new Count( 0 ) );
+    COUNTS.put( name, key );
+    return key;
+  }
+
+  /**
+   * Create a new key for a dimen parameter.
+   *
+   * @param name the name of the parameter
+   * @return the new key
+   */
+  private static ParameterKey<Dimen> dimen( String name ) {
+
+    ParameterKey<Dimen> key = new ParameterKey<Dimen>( name, Dimen::new );
+    DIMENS.put( name, key );
+    return key;
+  }
+
+  /**
+   * Create a new key for a glue parameter.
+   *
+   * @param name the name of the parameter
+   * @return the new key
+   */
+  private static ParameterKey<Glue> glue( String name ) {
+
+    ParameterKey<Glue> key = new ParameterKey<Glue>( name, Glue::new );
+    GLUES.put( name, key );
+    return key;
+  }
+
+  /**
+   * Getter for the key of a count parameter.
+   *
+   * @param name the name of the parameter
+   * @return the key or {@code null} if the name has no pre-resolved key
+   */
+  public static ParameterKey<Count> countKey( String name ) {
+
+    return COUNTS.get( name );
+  }
+
+  /**
+   * Getter for the key of a dimen parameter.
+   *
+   * @param name the name of the parameter
+   * @return the key or {@code null} if the name has no pre-resolved key
+   */
+  public static ParameterKey<Dimen> dimenKey( String name ) {
+
+    return DIMENS.get( name );
+  }
+
+  /**
+   * Getter for the key of a glue parameter.
+   *
+   * @param name the name of the parameter
+   * @return the key or {@code null} if the name has no pre-resolved key
+   */
+  public static ParameterKey<Glue> glueKey( String name ) {
+
+    return GLUES.get( name );
+  }
+
+  /**
+   * Getter for the list of all keys in the order of their slot numbers.
+   *
+   * @return the unmodifiable list of keys
+   */
+  public static List<ParameterKey<?>> keys() {
+
+    return Collections.unmodifiableList( KEYS );
+  }
+
+  /**
+   * Getter for the number of keys. Each slot number is less than this value.
+   *
+   * @return the number of keys
+   */
+  public static int size() {
+
+    return KEYS.size();
+  }
+
+  /**
+   * The field {@code factory} contains the factory for the default value.
+   */
+  private final Supplier<T> factory;
+
+  /**
+   * The field {@code index} contains the slot number.
+   */
+  private final int index;
+
+  /**
+   * The field {@code name} contains the name of the parameter.
+   */
+  private final String name;
+
+  /**
+   * Creates a new object and registers it in the list of all keys.
+   *
+   * @param name    the name of the parameter
+   * @param factory the factory for the default value
+   */
+  private ParameterKey( String name, Supplier<T> factory ) {
+
+    this.name = name;
+    this.factory = factory;
+    this.index = KEYS.size();
+    KEYS.add( this );
+  }
+
+  /**
+   * Create a new instance of the default value of the parameter.
+   *
+   * @return the default value
+   */
+  public T createDefault() {
+
+    return factory.get();
+  }
+
+  /**
+   * Getter for the slot number.
+   *
+   * @return the slot number
+   */
+  public int getIndex() {
+
+    return index;
+  }
+
+  /**
+   * Getter for the name of the parameter.
+   *
+   * @return the name
+   */
+  public String getName() {
+
+    return name;
+  }
+
+  /**
+   * {@inheritDoc}
+   *
+   * @see java.lang.Object#toString()
+   */
+  @Override
+  public String toString() {
+
+    return name;
+  }
+
+}
@@ -54,13 +54,21 @@ public class UnicodeChar implements Serializable {
   private static final int CACHE_SIZE = 256;
 
   /**
-   * The field {@code cache} contains the cache for Unicode characters.
+   * The field {@code cache} contains the cache for Unicode characters. It is
+   * filled completely when the class is initialized.
    */
   private static final UnicodeChar[] cache = new UnicodeChar[ CACHE_SIZE ];
 
+  static {
+    for( int i = 0; i < CACHE_SIZE; i++ ) {
+      cache[ i ] = new UnicodeChar( i );
+    }
+  }
+
   /**
    * The field {@code cacheMap} contains the cache for Unicode characters
-   * with higher code points.
+   * with higher code points. Any access is synchronized on the map since it
+   * is shared by all threads.
    */
   private static final WeakHashMap<Integer, UnicodeChar> cacheMap =
       new WeakHashMap<Integer, UnicodeChar>();
@@ -114,23 +122,18 @@ public class UnicodeChar implements Serializable {
     if( code < UCharacter.MIN_VALUE || code > UCharacter.MAX_VALUE ) {
       return null;
     }
-    UnicodeChar uc;
     if( 0 <= code && code < CACHE_SIZE ) {
-      uc = cache[ code ];
-      if( uc == null ) {
-        uc = new UnicodeChar( code );
-        cache[ code ] = uc;
-      }
+      return cache[ code ];
     }
-    else {
-      Integer cp = Integer.valueOf( code );
-      uc = cacheMap.get( cp );
+    Integer cp = Integer.valueOf( code );
+    synchronized( cacheMap ) {
+      UnicodeChar uc = cacheMap.get( cp );
       if( uc == null ) {
         uc = new UnicodeChar( code );
         cacheMap.put( cp, uc );
       }
+      return uc;
     }
-    return uc;
   }
 
   /**
@@ -254,6 +257,20 @@ public class UnicodeChar implements Serializable {
     return UCharacter.isLetter( this.code );
   }
 
+  /**
+   * Test, if a code point is a letter. This is the same test as performed
+   * by {@link #isLetter() isLetter()} without the need to acquire an
+   * instance.
+   *
+   * @param code the code point to test
+   * @return {@code true}, if the code is a letter, otherwise
+   * {@code false}
+   */
+  public static boolean isLetter( int code ) {
+
+    return UCharacter.isLetter( code );
+  }
+
   /**
    * Test, if the code is printable.
    *
@@ -72,6 +72,17 @@ public interface FixedGlue {
    */
   FixedDimen getLength();
 
+  /**
+   * Getter for the value of the length. In contrast to
+   * {@link #getLength()} no new object has to be created.
+   *
+   * @return the natural length in scaled points
+   */
+  default long getLengthValue() {
+
+    return getLength().getValue();
+  }
+
   /**
    * Getter for shrink. Note that the value returned is independent from the
    * original object. Changing its value does not affect the shrink of the
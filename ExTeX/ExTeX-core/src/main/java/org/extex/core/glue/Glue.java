@@ -214,6 +214,18 @@ public class Glue implements Serializable, FixedGlue {
     return new Dimen( length.getValue() );
   }
 
+  /**
+   * Getter for the value of the length.
+   *
+   * @return the natural length in scaled points
+   * @see org.extex.core.glue.FixedGlue#getLengthValue()
+   */
+  @Override
+  public long getLengthValue() {
+
+    return length.getValue();
+  }
+
   /**
    * Getter for shrink. Note that the value returned is independent from the
    * original object. Changing its value does not affect the shrink of the
@@ -0,0 +1,183 @@
+/*
+ * Copyright (C) 2011 The ExTeX Group and individual authors listed below
+ *
+ * This library is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as published by the
+ * Free Software Foundation; either version 2.1 of the License, or (at your
+ * option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General Public License
+ * for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this library; if not, write to the Free Software Foundation,
+ * Inc., 59 Temple Place, Suite 330, Boston, MA 02111-1307 USA
+ *
+ */
+
+package org.extex.core.glue;
+
+import java.io.Serializable;
+
+import org.extex.core.dimen.DimenConstant;
+import org.extex.core.dimen.FixedDimen;
+
+/**
+ * This class provides an immutable glue. Since the value can not be changed
+ * an instance can be handed out several times; e.g. for the metric of a
+ * glyph.
+ *
+ * @author <a href="mailto:gene@gerd-neugebauer.de">Gerd Neugebauer</a>
+ */
+public class GlueConstant implements Serializable, FixedGlue {
+
+  /**
+   * The constant {@code serialVersionUID} contains the id for serialization.
+   */
+  protected static final long serialVersionUID = 2011L;
+
+  /**
+   * The field {@code length} contains the natural length of the glue.
+   */
+  private final FixedDimen length;
+
+  /**
+   * The field {@code shrink} contains the shrink specification.
+   */
+  private final FixedGlueComponent shrink;
+
+  /**
+   * The field {@code stretch} contains the stretch specification.
+   */
+  private final FixedGlueComponent stretch;
+
+  /**
+   * Creates a new object with a fixed length.
+   *
+   * @param theLength the natural length in scaled points
+   */
+  public GlueConstant( long theLength ) {
+
+    this.length = new DimenConstant( theLength );
+    this.stretch = GlueComponent.ZERO;
+    this.shrink = GlueComponent.ZERO;
+  }
+
+  /**
+   * Creates a new object from the three components.
+   *
+   * @param theLength  the natural length
+   * @param theStretch the stretch specification
+   * @param theShrink  the shrink specification
+   */
+  public GlueConstant( FixedDimen theLength, FixedDimen theStretch,
+                       FixedDimen theShrink ) {
+
+    this.length = new DimenConstant( theLength );
+    this.stretch = new GlueComponentConstant( theStretch.getValue() );
+    this.shrink = new GlueComponentConstant( theShrink.getValue() );
+  }
+
+  /**
+   * Make a copy of this object.
+   *
+   * @return a new mutable instance with the same internal values
+   * @see org.extex.core.glue.FixedGlue#copy()
+   */
+  @Override
+  public Glue copy() {
+
+    return new Glue( this );
+  }
+
+  /**
+   * Test that the given Glue is equal to a given one.
+   *
+   * @param glue the glue to compare with
+   * @return {@code true} iff they are the same
+   * @see org.extex.core.glue.FixedGlue#eq(org.extex.core.glue.FixedGlue)
+   */
+  @Override
+  public boolean eq( FixedGlue glue ) {
+
+    return length.eq( glue.getLength() ) && stretch.eq( glue.getStretch() )
+        && shrink.eq( glue.getShrink() );
+  }
+
+  /**
+   * Getter for the length. The value is immutable and can be returned
+   * directly.
+   *
+   * @return the natural length
+   * @see org.extex.core.glue.FixedGlue#getLength()
+   */
+  @Override
+  public FixedDimen getLength() {
+
+    return length;
+  }
+
+  /**
+   * Getter for the value of the length.
+   *
+   * @return the natural length in scaled points
+   * @see org.extex.core.glue.FixedGlue#getLengthValue()
+   */
+  @Override
+  public long getLengthValue() {
+
+    return length.getValue();
+  }
+
+  /**
+   * Getter for shrink.
+   *
+   * @return the shrink
+   * @see org.extex.core.glue.FixedGlue#getShrink()
+   */
+  @Override
+  public FixedGlueComponent getShrink() {
+
+    return shrink;
+  }
+
+  /**
+   * Getter for stretch.
+   *
+   * @return the stretch
+   * @see org.extex.core.glue.FixedGlue#getStretch()
+   */
+  @Override
+  public FixedGlueComponent getStretch() {
+
+    return stretch;
+  }
+
+  /**
+   * Test that the given Glue is different from a given one.
+   *
+   * @param glue the glue to compare with
+   * @return {@code true} iff they are different
+   * @see org.extex.core.glue.FixedGlue#ne(org.extex.core.glue.FixedGlue)
+   */
+  @Override
+  public boolean ne( FixedGlue glue ) {
+
+    return !eq( glue );
+  }
+
+  /**
+   * Determine the printable representation of the object.
+   *
+   * @return the printable representation
+   * @see java.lang.Object#toString()
+   */
+  @Override
+  public String toString() {
+
+    return new Glue( this ).toString();
+  }
+
+}
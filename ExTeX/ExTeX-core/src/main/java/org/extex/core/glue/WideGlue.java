@@ -78,7 +78,7 @@ public class WideGlue {
    */
   public void add( FixedGlue glue ) {
 
-    length.add( glue.getLength() );
+    length.add( glue.getLengthValue() );
     FixedGlueComponent s = glue.getStretch();
     stretch[ s.getOrder() ] += s.getValue();
 
@@ -138,6 +138,32 @@ public class WideGlue {
     return length;
   }
 
+  /**
+   * Determine the index of the highest non-zero component.
+   *
+   * @param a the vector to analyze
+   * @return the index of the highest non-zero component or 0
+   */
+  private static byte order( long[] a ) {
+
+    for( byte i = SIZE - 1; i > 0; i-- ) {
+      if( a[ i ] != 0 ) {
+        return i;
+      }
+    }
+    return 0;
+  }
+
+  /**
+   * Getter for the value of the natural length.
+   *
+   * @return the natural length in scaled points
+   */
+  public long getLengthValue() {
+
+    return length.getValue();
+  }
+
   /**
    * Getter for the shrink.
    *
@@ -154,6 +180,28 @@ public class WideGlue {
     return GlueComponent.ZERO;
   }
 
+  /**
+   * Getter for the order of the shrink. This is the order of the highest
+   * non-zero component.
+   *
+   * @return the order of the shrink
+   */
+  public byte getShrinkOrder() {
+
+    return order( shrink );
+  }
+
+  /**
+   * Getter for the value of the shrink in its order. In contrast to
+   * {@link #getShrink()} no new object has to be created.
+   *
+   * @return the value of the shrink
+   */
+  public long getShrinkValue() {
+
+    return shrink[ order( shrink ) ];
+  }
+
   /**
    * Getter for the stretch.
    *
@@ -170,6 +218,28 @@ public class WideGlue {
     return GlueComponent.ZERO;
   }
 
+  /**
+   * Getter for the order of the stretch. This is the order of the highest
+   * non-zero component.
+   *
+   * @return the order of the stretch
+   */
+  public byte getStretchOrder() {
+
+    return order( stretch );
+  }
+
+  /**
+   * Getter for the value of the stretch in its order. In contrast to
+   * {@link #getStretch()} no new object has to be created.
+   *
+   * @return the value of the stretch
+   */
+  public long getStretchValue() {
+
+    return stretch[ order( stretch ) ];
+  }
+
   /**
    * Setter for the glue value in all three components
    *
@@ -177,7 +247,7 @@ public class WideGlue {
    */
   public void set( FixedGlue glue ) {
 
-    this.length.set( glue.getLength() );
+    this.length.set( glue.getLengthValue() );
 
     for( int i = SIZE - 1; i >= 0; i-- ) {
       stretch[ i ] = 0;
@@ -225,7 +295,7 @@ public class WideGlue {
    */
   public void subtract( FixedGlue glue ) {
 
-    length.subtract( glue.getLength() );
+    length.add( -glue.getLengthValue() );
     FixedGlueComponent s = glue.getStretch();
     stretch[ s.getOrder() ] -= s.getValue();
 
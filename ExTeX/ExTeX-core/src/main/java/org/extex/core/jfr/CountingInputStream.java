@@ -0,0 +1,103 @@
+/*
+ * Copyright (C) 2011 The ExTeX Group and individual authors listed below
+ *
+ * This library is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as published by the
+ * Free Software Foundation; either version 2.1 of the License, or (at your
+ * option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General Public License
+ * for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this library; if not, write to the Free Software Foundation,
+ * Inc., 59 Temple Place, Suite 330, Boston, MA 02111-1307 USA
+ *
+ */
+
+package org.extex.core.jfr;
+
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+
+/**
+ * This input stream counts the bytes read from the underlying stream. It is
+ * meant to be put in place only if an event is enabled which records the
+ * number of bytes.
+ *
+ * @author <a href="mailto:gene@gerd-neugebauer.de">Gerd Neugebauer</a>
+ */
+public class CountingInputStream extends FilterInputStream {
+
+  /**
+   * The field {@code count} contains the number of bytes read so far.
+   */
+  private long count = 0;
+
+  /**
+   * Creates a new object.
+   *
+   * @param in the underlying stream
+   */
+  public CountingInputStream( InputStream in ) {
+
+    super( in );
+  }
+
+  /**
+   * Getter for the number of bytes read so far.
+   *
+   * @return the number of bytes read
+   */
+  public long getCount() {
+
+    return count;
+  }
+
+  /**
+   * {@inheritDoc}
+   *
+   * @see java.io.FilterInputStream#read()
+   */
+  @Override
+  public int read() throws IOException {
+
+    int c = super.read();
+    if( c >= 0 ) {
+      count++;
+    }
+    return c;
+  }
+
+  /**
+   * {@inheritDoc}
+   *
+   * @see java.io.FilterInputStream#read(byte[], int, int)
+   */
+  @Override
+  public int read( byte[] b, int off, int len ) throws IOException {
+
+    int n = super.read( b, off, len );
+    if( n > 0 ) {
+      count += n;
+    }
+    return n;
+  }
+
+  /**
+   * {@inheritDoc}
+   *
+   * @see java.io.FilterInputStream#skip(long)
+   */
+  @Override
+  public long skip( long n ) throws IOException {
+
+    long s = super.skip( n );
+    count += s;
+    return s;
+  }
+
+}
@@ -0,0 +1,70 @@
+/*
+ * Copyright (C) 2011 The ExTeX Group and individual authors listed below
+ *
+ * This library is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as published by the
+ * Free Software Foundation; either version 2.1 of the License, or (at your
+ * option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General Public License
+ * for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this library; if not, write to the Free Software Foundation,
+ * Inc., 59 Temple Place, Suite 330, Boston, MA 02111-1307 USA
+ *
+ */
+
+package org.extex.core.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * This event records the closing of an input file of the tokenizer. It is
+ * an instant event without a duration.
+ *
+ * @author <a href="mailto:gene@gerd-neugebauer.de">Gerd Neugebauer</a>
+ */
+@Name( "org.extex.FileClose" )
+@Label( "File Close" )
+@Category( {"ExTeX", "Scanner"} )
+public class FileCloseEvent extends Event {
+
+  /**
+   * The field {@code lines} contains the number of lines read.
+   */
+  @Label( "Lines" )
+  private int lines;
+
+  /**
+   * The field {@code name} contains the name of the file.
+   */
+  @Label( "Name" )
+  private String name;
+
+  /**
+   * Setter for lines.
+   *
+   * @param lines the lines to set
+   */
+  public void setLines( int lines ) {
+
+    this.lines = lines;
+  }
+
+  /**
+   * Setter for name.
+   *
+   * @param name the name to set
+   */
+  public void setName( String name ) {
+
+    this.name = name;
+  }
+
+}
@@ -0,0 +1,89 @@
+/*
+ * Copyright (C) 2011 The ExTeX Group and individual authors listed below
+ *
+ * This library is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as published by the
+ * Free Software Foundation; either version 2.1 of the License, or (at your
+ * option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General Public License
+ * for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this library; if not, write to the Free Software Foundation,
+ * Inc., 59 Temple Place, Suite 330, Boston, MA 02111-1307 USA
+ *
+ */
+
+package org.extex.core.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.DataAmount;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * This event records the opening of an input file for the tokenizer. It is
+ * an instant event without a duration.
+ *
+ * @author <a href="mailto:gene@gerd-neugebauer.de">Gerd Neugebauer</a>
+ */
+@Name( "org.extex.FileOpen" )
+@Label( "File Open" )
+@Category( {"ExTeX", "Scanner"} )
+public class FileOpenEvent extends Event {
+
+  /**
+   * The field {@code bytes} contains the number of bytes read in advance or 0 if the file is read
+   * lazily.
+   */
+  @Label( "Bytes" )
+  @DataAmount( DataAmount.BYTES )
+  private long bytes;
+
+  /**
+   * The field {@code name} contains the name of the file.
+   */
+  @Label( "Name" )
+  private String name;
+
+  /**
+   * The field {@code type} contains the type of the file.
+   */
+  @Label( "Type" )
+  private String type;
+
+  /**
+   * Setter for bytes.
+   *
+   * @param bytes the bytes to set
+   */
+  public void setBytes( long bytes ) {
+
+    this.bytes = bytes;
+  }
+
+  /**
+   * Setter for name.
+   *
+   * @param name the name to set
+   */
+  public void setName( String name ) {
+
+    this.name = name;
+  }
+
+  /**
+   * Setter for type.
+   *
+   * @param type the type to set
+   */
+  public void setType( String type ) {
+
+    this.type = type;
+  }
+
+}
@@ -0,0 +1,78 @@
+/*
+ * Copyright (C) 2011 The ExTeX Group and individual authors listed below
+ *
+ * This library is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as published by the
+ * Free Software Foundation; either version 2.1 of the License, or (at your
+ * option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General Public License
+ * for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this library; if not, write to the Free Software Foundation,
+ * Inc., 59 Temple Place, Suite 330, Boston, MA 02111-1307 USA
+ *
+ */
+
+package org.extex.core.jfr;
+
+/**
+ * This class tells whether the events of the flight recorder can be used.
+ * The package {@code jdk.jfr} is missing in older Java runtimes and in
+ * runtime images built without the module {@code jdk.jfr}. On those the
+ * events must not be created at all since their classes can not be loaded.
+ * <p>
+ * The check is performed once when this class is initialized.
+ * </p>
+ *
+ * @author <a href="mailto:gene@gerd-neugebauer.de">Gerd Neugebauer</a>
+ */
+public final class FlightRecorder {
+
+  /**
+   * The constant {@code AVAILABLE} contains the indicator that the class
+   * {@code jdk.jfr.Event} can be loaded.
+   */
+  private static final boolean AVAILABLE = check();
+
+  /**
+   * Check whether the class {@code jdk.jfr.Event} can be loaded.
+   *
+   * @return {@code true} iff the flight recorder is available
+   */
+  private static boolean check() {
+
+    try {
+      Class.forName( "jdk.jfr.Event", false,
+                     FlightRecorder.class.getClassLoader() );
+      return true;
+    } catch( ClassNotFoundException e ) {
+      return false;
+    } catch( LinkageError e ) {
+      return false;
+    }
+  }
+
+  /**
+   * Getter for the availability of the flight recorder. The events of this
+   * package may be created only if this method returns {@code true}.
+   *
+   * @return {@code true} iff the flight recorder is available
+   */
+  public static boolean isAvailable() {
+
+    return AVAILABLE;
+  }
+
+  /**
+   * Creates a new object. This constructor is private since this class has
+   * only static methods.
+   */
+  private FlightRecorder() {
+
+  }
+
+}
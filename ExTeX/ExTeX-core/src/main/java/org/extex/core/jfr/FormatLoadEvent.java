@@ -0,0 +1,71 @@
+/*
+ * Copyright (C) 2011 The ExTeX Group and individual authors listed below
+ *
+ * This library is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as published by the
+ * Free Software Foundation; either version 2.1 of the License, or (at your
+ * option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General Public License
+ * for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this library; if not, write to the Free Software Foundation,
+ * Inc., 59 Temple Place, Suite 330, Boston, MA 02111-1307 USA
+ *
+ */
+
+package org.extex.core.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.DataAmount;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * This event records the loading of a format.
+ *
+ * @author <a href="mailto:gene@gerd-neugebauer.de">Gerd Neugebauer</a>
+ */
+@Name( "org.extex.FormatLoad" )
+@Label( "Format Load" )
+@Category( {"ExTeX", "Interpreter"} )
+public class FormatLoadEvent extends Event {
+
+  /**
+   * The field {@code bytes} contains the number of bytes read.
+   */
+  @Label( "Bytes" )
+  @DataAmount( DataAmount.BYTES )
+  private long bytes;
+
+  /**
+   * The field {@code format} contains the name of the format.
+   */
+  @Label( "Format" )
+  private String format;
+
+  /**
+   * Setter for bytes.
+   *
+   * @param bytes the bytes to set
+   */
+  public void setBytes( long bytes ) {
+
+    this.bytes = bytes;
+  }
+
+  /**
+   * Setter for format.
+   *
+   * @param format the format to set
+   */
+  public void setFormat( String format ) {
+
+    this.format = format;
+  }
+
+}
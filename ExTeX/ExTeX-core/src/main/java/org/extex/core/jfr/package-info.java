@@ -0,0 +1,35 @@
+/*
+ * Copyright (C) 2011 The ExTeX Group and individual authors listed below
+ *
+ * This library is free software; you can redistribute it and/or modify it under
+ * the terms of the GNU Lesser General Public License as published by the Free
+ * Software Foundation; either version 2.1 of the License, or (at your option)
+ * any later version.
+ *
+ * This library is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE. See the GNU Lesser General Public License for more
+ * details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this library; if not, write to the Free Software Foundation, Inc.,
+ * 59 Temple Place, Suite 330, Boston, MA 02111-1307 USA
+ */
+/**
+ * Contains the events for the Java Flight Recorder which mark the phases of a
+ * run of εχTeX.
+ * <p>
+ * The events are used in the usual way: the event is created and begun before
+ * the phase, ended afterwards, and the sizes are filled in and the event is
+ * committed only if {@code shouldCommit()} tells so. As long as the flight
+ * recorder is not recording the events are not instrumented and these calls
+ * are empty.
+ * </p>
+ * <p>
+ * The events are created only if {@link org.extex.core.jfr.FlightRecorder}
+ * reports that the flight recorder is available in the Java runtime.
+ * Otherwise nothing is recorded.
+ * </p>
+ */
+
+package org.extex.core.jfr;
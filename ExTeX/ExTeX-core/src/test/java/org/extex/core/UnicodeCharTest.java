@@ -59,6 +59,42 @@ public class UnicodeCharTest {
     assertSame( uc, UnicodeChar.get( 0 ) );
   }
 
+  /**
+   * Test method for {@link org.extex.core.UnicodeChar#get(int)}. Threads
+   * acquiring the same characters concurrently get the same instances.
+   *
+   * @throws Exception in case of an error
+   */
+  @Test
+  public final void testGetConcurrent1() throws Exception {
+
+    final int n = 4;
+    final UnicodeChar[][] result = new UnicodeChar[ n ][ 512 ];
+    Thread[] threads = new Thread[ n ];
+    for( int i = 0; i < n; i++ ) {
+      final UnicodeChar[] r = result[ i ];
+      threads[ i ] = new Thread() {
+
+        @Override
+        public void run() {
+
+          for( int j = 0; j < r.length; j++ ) {
+            r[ j ] = UnicodeChar.get( 0x4e00 + j );
+          }
+        }
+      };
+      threads[ i ].start();
+    }
+    for( Thread t : threads ) {
+      t.join();
+    }
+    for( int i = 1; i < n; i++ ) {
+      for( int j = 0; j < result[ 0 ].length; j++ ) {
+        assertSame( result[ 0 ][ j ], result[ i ][ j ] );
+      }
+    }
+  }
+
   /**
    * Test method for {@link org.extex.core.UnicodeChar#get(int)}.
    */
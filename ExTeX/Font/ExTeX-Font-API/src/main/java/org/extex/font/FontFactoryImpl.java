@@ -19,6 +19,9 @@
 package org.extex.font;
 
 import org.extex.core.dimen.FixedDimen;
+import org.extex.core.jfr.CountingInputStream;
+import org.extex.core.jfr.FlightRecorder;
+import org.extex.core.jfr.FontLoadEvent;
 import org.extex.font.exception.FontException;
 import org.extex.font.format.NullExtexFont;
 import org.extex.font.manager.BackendFontManagerList;
@@ -278,6 +281,12 @@ public class FontFactoryImpl extends AbstractFactory<Object>
       return font;
     }
 
+    FontLoadEvent event = FlightRecorder.isAvailable()
+        ? new FontLoadEvent()
+        : null;
+    if( event != null ) {
+      event.begin();
+    }
     Iterator<Configuration> it = getConfiguration().iterator( "Font" );
     while( it.hasNext() ) {
       Configuration subcfg = it.next();
@@ -287,6 +296,9 @@ public class FontFactoryImpl extends AbstractFactory<Object>
       InputStream in = finder.findResource( key.getName(), attType );
 
       if( in != null ) {
+        if( event != null && event.isEnabled() ) {
+          in = new CountingInputStream( in );
+        }
 
         font = new Loader().getInstance( subcfg );
         if( font instanceof ResourceAware ) {
@@ -304,6 +316,17 @@ public class FontFactoryImpl extends AbstractFactory<Object>
         // store in the cache
         fontMap.put( key, font );
 
+        if( event != null ) {
+          event.end();
+          if( event.shouldCommit() ) {
+            event.setName( key.getName() );
+            event.setType( attType );
+            if( in instanceof CountingInputStream ) {
+              event.setBytes( ((CountingInputStream) in).getCount() );
+            }
+            event.commit();
+          }
+        }
         return font;
       }
 
@@ -62,7 +62,7 @@ public final class GlyphName {
    * @return Return the instance of {@code GlyphName}.
    * @throws IOException if an IO-error occurred.
    */
-  public static GlyphName getInstance() throws IOException {
+  public static synchronized GlyphName getInstance() throws IOException {
 
     if( glyphname == null ) {
       glyphname = new GlyphName();
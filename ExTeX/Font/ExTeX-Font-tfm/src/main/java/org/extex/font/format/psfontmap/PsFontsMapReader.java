@@ -34,9 +34,9 @@ import java.util.Map;
 public class PsFontsMapReader implements Serializable {
 
   /**
-   * The single instance.
+   * The single instance. It is shared by all threads.
    */
-  public static PsFontsMapReader mapreader = null;
+  private static volatile PsFontsMapReader mapreader = null;
 
   /**
    * serialVersionUID.
@@ -53,10 +53,17 @@ public class PsFontsMapReader implements Serializable {
   public static PsFontsMapReader getInstance( InputStream in )
       throws FontException {
 
-    if( mapreader == null ) {
-      mapreader = new PsFontsMapReader( in );
+    PsFontsMapReader reader = mapreader;
+    if( reader == null ) {
+      synchronized( PsFontsMapReader.class ) {
+        reader = mapreader;
+        if( reader == null ) {
+          reader = new PsFontsMapReader( in );
+          mapreader = reader;
+        }
+      }
     }
-    return mapreader;
+    return reader;
   }
 
   /**
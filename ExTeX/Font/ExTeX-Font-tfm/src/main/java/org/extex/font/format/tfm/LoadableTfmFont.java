@@ -21,12 +21,13 @@ package org.extex.font.format.tfm;
 
 import org.extex.core.Unicode;
 import org.extex.core.UnicodeChar;
-import org.extex.core.count.Count;
+import org.extex.core.count.CountConstant;
 import org.extex.core.count.FixedCount;
 import org.extex.core.dimen.Dimen;
+import org.extex.core.dimen.DimenConstant;
 import org.extex.core.dimen.FixedDimen;
 import org.extex.core.glue.FixedGlue;
-import org.extex.core.glue.Glue;
+import org.extex.core.glue.GlueConstant;
 import org.extex.font.*;
 import org.extex.font.exception.CorruptFontException;
 import org.extex.font.exception.FontException;
@@ -55,6 +56,7 @@ import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.logging.Logger;
 
 /**
@@ -71,6 +73,12 @@ public class LoadableTfmFont
     TfmMetricFont,
     CharNodeBuilder {
 
+  /**
+   * The constant {@code CHARS} contains the number of character positions in
+   * a tfm file.
+   */
+  private static final int CHARS = 256;
+
   /**
    * The actual font key.
    */
@@ -96,6 +104,12 @@ public class LoadableTfmFont
    */
   private Map<UnicodeChar, Integer> codepointmap;
 
+  /**
+   * The field {@code depthCache} contains the scaled depths of the characters
+   * already requested.
+   */
+  private final FixedGlue[] depthCache = new FixedGlue[ CHARS ];
+
   /**
    * The resource finder.
    */
@@ -106,11 +120,30 @@ public class LoadableTfmFont
    */
   private String[] fontEncvec;
 
+  /**
+   * The field {@code fontDimenCache} contains the scaled font dimens already
+   * requested.
+   */
+  private final Map<String, FixedDimen> fontDimenCache =
+      new ConcurrentHashMap<String, FixedDimen>();
+
   /**
    * The font key.
    */
   private FontKey fontKey;
 
+  /**
+   * The field {@code heightCache} contains the scaled heights of the
+   * characters already requested.
+   */
+  private final FixedGlue[] heightCache = new FixedGlue[ CHARS ];
+
+  /**
+   * The field {@code italicCache} contains the scaled italic corrections of
+   * the characters already requested.
+   */
+  private final FixedDimen[] italicCache = new FixedDimen[ CHARS ];
+
   /**
    * Is the psfont.map file loaded?
    */
@@ -148,11 +181,29 @@ public class LoadableTfmFont
    */
   private TfmReader reader;
 
+  /**
+   * The field {@code scaleFactor} contains the computed scale factor or
+   * {@code null} if it has not been requested yet.
+   */
+  private FixedCount scaleFactor = null;
+
+  /**
+   * The field {@code space} contains the interword glue or {@code null} if
+   * it has not been requested yet.
+   */
+  private FixedGlue space = null;
+
   /**
    * Is this a type1 font?
    */
   private boolean type1 = false;
 
+  /**
+   * The field {@code widthCache} contains the scaled widths of the
+   * characters already requested.
+   */
+  private final FixedGlue[] widthCache = new FixedGlue[ CHARS ];
+
   /**
    * Is this a xtf font?
    */
@@ -218,6 +269,39 @@ public class LoadableTfmFont
     return cp;
   }
 
+  /**
+   * Scale a value from the tfm file to the actual size of the font.
+   *
+   * @param fw the value from the tfm file
+   * @return the value in scaled points
+   */
+  private long scale( TfmFixWord fw ) {
+
+    return (getActualSize().getValue() * fw.getValue()) >> 20;
+  }
+
+  /**
+   * Scale a value from the tfm file to the actual size of the font.
+   *
+   * @param fw the value from the tfm file or {@code null}
+   * @return the immutable dimen or zero if the value is {@code null}
+   */
+  private FixedDimen scaleDimen( TfmFixWord fw ) {
+
+    return fw == null ? Dimen.ZERO_PT : new DimenConstant( scale( fw ) );
+  }
+
+  /**
+   * Scale a value from the tfm file to the actual size of the font.
+   *
+   * @param fw the value from the tfm file or {@code null}
+   * @return the immutable glue or zero if the value is {@code null}
+   */
+  private FixedGlue scaleGlue( TfmFixWord fw ) {
+
+    return fw == null ? FixedGlue.ZERO : new GlueConstant( scale( fw ) );
+  }
+
   /**
    * Check the tpye1.
    */
@@ -407,11 +491,18 @@ public class LoadableTfmFont
   public FixedGlue getDepth( UnicodeChar uc ) {
 
     int cp = charPos( uc );
-    if( cp >= 0 && reader.getDepth( cp ) != null ) {
-      return new Glue( (getActualSize().getValue() * reader.getDepth( cp )
-                                                           .getValue()) >> 20 );
+    if( cp < 0 ) {
+      return FixedGlue.ZERO;
     }
-    return FixedGlue.ZERO;
+    if( cp >= CHARS ) {
+      return scaleGlue( reader.getDepth( cp ) );
+    }
+    FixedGlue depth = depthCache[ cp ];
+    if( depth == null ) {
+      depth = scaleGlue( reader.getDepth( cp ) );
+      depthCache[ cp ] = depth;
+    }
+    return depth;
   }
 
   @Override
@@ -452,10 +543,8 @@ public class LoadableTfmFont
   @Override
   public FixedDimen getFontDimen( String name ) {
 
-    TfmFixWord param = reader.getParamAsFixWord( name );
-
-    return new Dimen(
-        ((getActualSize().getValue() * param.getValue()) >> 20) );
+    return fontDimenCache.computeIfAbsent( name, n -> new DimenConstant(
+        scale( reader.getParamAsFixWord( n ) ) ) );
   }
 
   @Override
@@ -474,22 +563,36 @@ public class LoadableTfmFont
   public FixedGlue getHeight( UnicodeChar uc ) {
 
     int cp = charPos( uc );
-    if( cp >= 0 && reader.getHeight( cp ) != null ) {
-      return new Glue( (getActualSize().getValue() * reader.getHeight( cp )
-                                                           .getValue()) >> 20 );
+    if( cp < 0 ) {
+      return FixedGlue.ZERO;
+    }
+    if( cp >= CHARS ) {
+      return scaleGlue( reader.getHeight( cp ) );
     }
-    return FixedGlue.ZERO;
+    FixedGlue height = heightCache[ cp ];
+    if( height == null ) {
+      height = scaleGlue( reader.getHeight( cp ) );
+      heightCache[ cp ] = height;
+    }
+    return height;
   }
 
   @Override
   public FixedDimen getItalicCorrection( UnicodeChar uc ) {
 
     int cp = charPos( uc );
-    if( cp >= 0 && reader.getItalicCorrection( cp ) != null ) {
-      return new Dimen( (getActualSize().getValue() * reader
-          .getItalicCorrection( cp ).getValue()) >> 20 );
+    if( cp < 0 ) {
+      return Dimen.ZERO_PT;
+    }
+    if( cp >= CHARS ) {
+      return scaleDimen( reader.getItalicCorrection( cp ) );
     }
-    return Dimen.ZERO_PT;
+    FixedDimen italic = italicCache[ cp ];
+    if( italic == null ) {
+      italic = scaleDimen( reader.getItalicCorrection( cp ) );
+      italicCache[ cp ] = italic;
+    }
+    return italic;
   }
 
   /**
@@ -565,18 +668,25 @@ public class LoadableTfmFont
   public FixedCount getScaleFactor() {
 
     FixedCount actualscale = actualFontKey.getCount( FontKey.SCALE );
-    if( actualscale == null ) {
-      return new Count( getActualSize().getValue() * 1000
-                            / getDesignSize().getValue() );
+    if( actualscale != null ) {
+      return actualscale;
+    }
+    if( scaleFactor == null ) {
+      scaleFactor = new CountConstant( getActualSize().getValue() * 1000
+                                           / getDesignSize().getValue() );
     }
-    return actualscale;
+    return scaleFactor;
   }
 
   @Override
   public FixedGlue getSpace() {
 
-    return new Glue( getFontDimen( "SPACE" ), getFontDimen( "STRETCH" ),
-                     getFontDimen( "SHRINK" ) );
+    if( space == null ) {
+      space = new GlueConstant( getFontDimen( "SPACE" ),
+                                getFontDimen( "STRETCH" ),
+                                getFontDimen( "SHRINK" ) );
+    }
+    return space;
   }
 
   /**
@@ -606,12 +716,18 @@ public class LoadableTfmFont
   public FixedGlue getWidth( UnicodeChar uc ) {
 
     int cp = charPos( uc );
-    if( cp >= 0 && reader.getWidth( cp ) != null ) {
-      return new Glue( (getActualSize().getValue() * reader.getWidth( cp )
-                                                           .getValue()) >> 20 );
+    if( cp < 0 ) {
+      return FixedGlue.ZERO;
     }
-    return FixedGlue.ZERO;
-
+    if( cp >= CHARS ) {
+      return scaleGlue( reader.getWidth( cp ) );
+    }
+    FixedGlue width = widthCache[ cp ];
+    if( width == null ) {
+      width = scaleGlue( reader.getWidth( cp ) );
+      widthCache[ cp ] = width;
+    }
+    return width;
   }
 
   @Override
@@ -35,9 +35,9 @@ import java.util.*;
 public class U2tFactory {
 
   /**
-   * The own factory.
+   * The own factory. It is shared by all threads.
    */
-  private static U2tFactory factory;
+  private static final U2tFactory factory = new U2tFactory();
 
   /**
    * Returns the singleton instance.
@@ -46,23 +46,24 @@ public class U2tFactory {
    */
   public static U2tFactory getInstance() {
 
-    if( factory == null ) {
-      factory = new U2tFactory();
-    }
     return factory;
   }
 
   /**
-   * Map for caching (u2t).
+   * Map for caching (u2t). The maps stored are not modified after they have
+   * been put into the cache.
    */
   private final Map<String, Map<UnicodeChar, Integer>> cacheu2t =
-      new WeakHashMap<String, Map<UnicodeChar, Integer>>();
+      Collections.synchronizedMap(
+          new WeakHashMap<String, Map<UnicodeChar, Integer>>() );
 
   /**
-   * Map for caching (t2u).
+   * Map for caching (t2u). The maps stored are not modified after they have
+   * been put into the cache.
    */
   private final Map<String, Map<Integer, UnicodeChar>> cachet2u =
-      new WeakHashMap<String, Map<Integer, UnicodeChar>>();
+      Collections.synchronizedMap(
+          new WeakHashMap<String, Map<Integer, UnicodeChar>>() );
 
   /**
    * Creates a new object only with getInstance().
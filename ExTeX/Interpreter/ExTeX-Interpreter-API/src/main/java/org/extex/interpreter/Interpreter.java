@@ -24,6 +24,7 @@ import org.extex.core.exception.helping.HelpingException;
 import org.extex.font.CoreFontFactory;
 import org.extex.framework.configuration.exception.ConfigurationException;
 import org.extex.interpreter.context.Context;
+import org.extex.interpreter.context.ForkableContext;
 import org.extex.interpreter.exception.ErrorLimitException;
 import org.extex.interpreter.interaction.Interaction;
 import org.extex.interpreter.loader.LoaderException;
@@ -45,6 +46,20 @@ import java.io.InputStream;
 */
 public interface Interpreter extends TokenSource {
 
+    /**
+     * Use a fork of a context loaded from a format before. The definitions
+     * of the format are shared with the base context instead of being read
+     * again.
+     * 
+     * @param base the context to fork
+     * @param contextType name of the context from the configuration to use
+     * @param languageType name of the language from the configuration to use
+     * 
+     * @throws LoaderException in case of an error during loading
+     */
+    void forkFormat(ForkableContext base, String contextType,
+            String languageType) throws LoaderException;
+
     /**
      * Getter for the context
      * 
@@ -82,6 +97,26 @@ public interface Interpreter extends TokenSource {
      */
     Typesetter getTypesetter();
 
+    /**
+     * Load a format as the base for forked contexts. The context is
+     * configured but it is not used by the interpreter. Use
+     * {@link #forkFormat(ForkableContext, String, String)} to work on a
+     * copy of it.
+     * 
+     * @param stream stream to read from
+     * @param fmt the name of the format to be loaded
+     * @param contextType name of the context from the configuration to use
+     * @param languageType name of the language from the configuration to use
+     * 
+     * @return the context loaded
+     * 
+     * @throws IOException in case of an IO error
+     * @throws LoaderException in case of an error during loading
+     */
+    ForkableContext loadBaseFormat(InputStream stream, String fmt,
+            String contextType, String languageType)
+            throws LoaderException, IOException;
+
     /**
      * Load the format from an external source.
      * 
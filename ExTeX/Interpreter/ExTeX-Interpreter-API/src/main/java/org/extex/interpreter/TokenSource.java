@@ -34,6 +34,7 @@ import org.extex.interpreter.type.box.Box;
 import org.extex.scanner.api.TokenStream;
 import org.extex.scanner.stream.TokenStreamFactory;
 import org.extex.scanner.type.token.CodeToken;
+import org.extex.scanner.type.token.OtherToken;
 import org.extex.scanner.type.token.Token;
 import org.extex.scanner.type.tokens.Tokens;
 import org.extex.typesetter.Typesetter;
@@ -412,6 +413,22 @@ public interface TokenSource extends CountParser, DimenParser, GlueParser {
             throws HelpingException,
                 TypesetterException;
 
+    /**
+     * Getter for the token stream the next token is read from. The stream can
+     * be used to record the current position cheaply. A locator can be
+     * derived from it later on when it is really needed.
+     * <p>
+     * The stream is meant for inspection only. Tokens should not be read from
+     * it directly. The default implementation does not provide a stream.
+     * </p>
+     * 
+     * @return the current token stream or {@code null} if none is available
+     */
+    default TokenStream getTokenStream() {
+
+        return null;
+    }
+
     /**
      * Getter for the token stream factory. The token stream factory can be used
      * to acquire a new token stream.
@@ -518,6 +535,41 @@ public interface TokenSource extends CountParser, DimenParser, GlueParser {
     UnicodeChar scanCharacterCode(Context context, Typesetter typesetter,
             CodeToken primitive) throws HelpingException, TypesetterException;
 
+    /**
+     * Append the decimal digits at the head of the input to a number. Only
+     * the digits {@code 0} to {@code 9} with the category code {@code OTHER}
+     * are consumed. No expansion is performed. The first token which is not
+     * such a digit is left in the input. This method is meant for scanning
+     * the digits of a number. Thus the digits need not be created as tokens
+     * if the underlying stream can avoid it.
+     * <p>
+     * An implementation may stop early, e.g. at the end of the current
+     * stream. The caller has to continue with
+     * {@link #getToken(Context) getToken()} anyway to find the token
+     * terminating the number.
+     * </p>
+     * 
+     * @param context the interpreter context
+     * @param n the value accumulated so far
+     * 
+     * @return the value with the digits appended
+     * 
+     * @throws HelpingException in case of an error
+     */
+    default long scanDigits(Context context, long n)
+            throws HelpingException {
+
+        long value = n;
+        for (Token t = getToken(context); t != null; t = getToken(context)) {
+            if (!OtherToken.isDigit(t)) {
+                push(t);
+                break;
+            }
+            value = value * 10 + t.getChar().getCodePoint() - '0';
+        }
+        return value;
+    }
+
     /**
      * Scan the input for the next token which has not the category code SPACE.
      * 
@@ -606,6 +658,31 @@ public interface TokenSource extends CountParser, DimenParser, GlueParser {
             throws HelpingException,
                 TypesetterException;
 
+    /**
+     * Scan the expanded token stream for the number of a register. The same
+     * syntax as for
+     * {@link #scanRegisterName(Context, TokenSource, Typesetter, CodeToken)}
+     * is accepted. If the register is given by a number then this number is
+     * returned. Otherwise the left brace is pushed back and -1 is returned.
+     * In this case the name can be acquired with
+     * {@link #scanRegisterName(Context, TokenSource, Typesetter, CodeToken)}.
+     * 
+     * @param context the interpreter context
+     * @param source the source for new tokens
+     * @param typesetter the typesetter
+     * @param primitive the name of the invoking primitive for error handling
+     * 
+     * @return the number of the register or -1 for a register given by a
+     *         name
+     * 
+     * @throws HelpingException in case of an error
+     * @throws TypesetterException in case of an error in the typesetter
+     */
+    int scanRegisterNumber(Context context, TokenSource source,
+            Typesetter typesetter, CodeToken primitive)
+            throws HelpingException,
+                TypesetterException;
+
     /**
      * Get the next expanded token form the input streams. If the current input
      * stream is at its end then the next one on the streamStack is used until a
@@ -726,6 +803,34 @@ public interface TokenSource extends CountParser, DimenParser, GlueParser {
      */
     void skipSpace();
 
+    /**
+     * Get the next control sequence or active character from the input
+     * streams. All other tokens are passed by. This method is meant for
+     * skipping the text of conditionals. Thus the tokens passed by need not
+     * be created at all if the underlying stream can avoid it.
+     * <p>
+     * The default implementation simply reads tokens until a code token is
+     * found.
+     * </p>
+     *
+     * @param context the interpreter context
+     *
+     * @return the next code token or {@code null} if all streams are at
+     *         their end
+     *
+     * @throws HelpingException in case of an error
+     */
+    default CodeToken skipToCodeToken(Context context)
+            throws HelpingException {
+
+        for (Token t = getToken(context); t != null; t = getToken(context)) {
+            if (t instanceof CodeToken) {
+                return (CodeToken) t;
+            }
+        }
+        return null;
+    }
+
     /**
      * Send the string to the named observer. The observer must be capable to
      * deal with a string argument.
@@ -24,6 +24,7 @@ import java.util.Iterator;
 
 import org.extex.color.Color;
 import org.extex.core.Locator;
+import org.extex.core.ParameterKey;
 import org.extex.core.UnicodeChar;
 import org.extex.core.count.Count;
 import org.extex.core.count.FixedCount;
@@ -222,6 +223,20 @@ public interface Context
      */
     Glue getGlue(String name);
 
+    /**
+     * Getter for a glue parameter with a pre-resolved key. This is the same
+     * register which is returned by {@link #getGlue(String)} for the name of
+     * the key.
+     * 
+     * @param key the key of the parameter
+     * 
+     * @return the value of the glue parameter
+     */
+    default Glue getGlue(ParameterKey<Glue> key) {
+
+        return getGlue(key.getName());
+    }
+
     /**
      * Getter for the id string. The id string is the classification of the
      * original source like given in the format file. The id string can be
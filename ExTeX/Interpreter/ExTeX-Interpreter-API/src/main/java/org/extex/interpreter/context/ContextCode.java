@@ -47,6 +47,20 @@ public interface ContextCode {
      */
     Code getCode(CodeToken t) throws HelpingException;
 
+    /**
+     * Getter for the current definition epoch. The epoch is an object which
+     * is replaced whenever the meaning of a control sequence in the default
+     * name space may have changed. Thus a meaning obtained from
+     * {@link #getCode(CodeToken)} can be reused as long as the epoch is the
+     * same object.
+     *
+     * @return the epoch or {@code null} if the context does not provide one
+     */
+    default Object getCodeEpoch() {
+
+        return null;
+    }
+
     /**
      * Setter for the code assigned to a Token.
      * The Token has to be either a
@@ -19,6 +19,7 @@
 
 package org.extex.interpreter.context;
 
+import org.extex.core.ParameterKey;
 import org.extex.core.count.Count;
 import org.extex.core.exception.helping.HelpingException;
 
@@ -51,6 +52,39 @@ public interface ContextCount {
      */
     Count getCount(String name);
 
+    /**
+     * Getter for a numbered {@link org.extex.core.count.Count count}
+     * register. This is the same register which is returned by
+     * {@link #getCount(String)} for the decimal representation of the number.
+     * The name does not have to be created for each access.
+     * <p>
+     * The return value is guaranteed to be a valid object. {@code null}
+     * will never be returned.
+     * </p>
+     * 
+     * @param index the non-negative number of the count register
+     * 
+     * @return the count register
+     * 
+     * @see #setCount(int, long, boolean)
+     */
+    Count getCount(int index);
+
+    /**
+     * Getter for a {@link org.extex.core.count.Count count} parameter with a
+     * pre-resolved key. This is the same register which is returned by
+     * {@link #getCount(String)} for the name of the key. Implementations can
+     * use the slot number of the key to avoid the lookup by name.
+     * 
+     * @param key the key of the parameter
+     * 
+     * @return the count register
+     */
+    default Count getCount(ParameterKey<Count> key) {
+
+        return getCount(key.getName());
+    }
+
     /**
      * Setter for the {@link org.extex.core.count.Count count} register in all
      * requested groups. Count registers are named, either with a number or an
@@ -70,4 +104,22 @@ public interface ContextCount {
     void setCount(String name, long value, boolean global)
             throws HelpingException;
 
+    /**
+     * Setter for a numbered {@link org.extex.core.count.Count count} register
+     * in all requested groups. This is the same register which is set by
+     * {@link #setCount(String, long, boolean)} for the decimal representation
+     * of the number.
+     * 
+     * @param index the non-negative number of the register
+     * @param value the new value of the register
+     * @param global the indicator for the scope; {@code true} means all
+     *        groups; otherwise the current group is affected only
+     * 
+     * @throws HelpingException in case of an error
+     * 
+     * @see #getCount(int)
+     */
+    void setCount(int index, long value, boolean global)
+            throws HelpingException;
+
 }
@@ -19,6 +19,7 @@
 
 package org.extex.interpreter.context;
 
+import org.extex.core.ParameterKey;
 import org.extex.core.dimen.Dimen;
 import org.extex.core.exception.helping.HelpingException;
 
@@ -42,6 +43,35 @@ public interface ContextDimen {
      */
     Dimen getDimen(String name);
 
+    /**
+     * Get the current value of a numbered dimen register. This is the same
+     * register which is returned by {@link #getDimen(String)} for the decimal
+     * representation of the number. The name does not have to be created for
+     * each access.
+     * 
+     * @param index the non-negative number of the register
+     * 
+     * @return the dimen register for the given number
+     * 
+     * @see #setDimen(int, Dimen, boolean)
+     */
+    Dimen getDimen(int index);
+
+    /**
+     * Get the current value of a dimen parameter with a pre-resolved key.
+     * This is the same register which is returned by
+     * {@link #getDimen(String)} for the name of the key. Implementations can
+     * use the slot number of the key to avoid the lookup by name.
+     * 
+     * @param key the key of the parameter
+     * 
+     * @return the dimen register for the given key
+     */
+    default Dimen getDimen(ParameterKey<Dimen> key) {
+
+        return getDimen(key.getName());
+    }
+
     /**
      * Setter for the {@link org.extex.core.dimen.Dimen Dimen} register in all
      * requested groups. Dimen registers are named, either with a number or an
@@ -78,4 +108,42 @@ public interface ContextDimen {
     void setDimen(String name, long value, boolean global)
             throws HelpingException;
 
+    /**
+     * Setter for a numbered {@link org.extex.core.dimen.Dimen Dimen} register
+     * in all requested groups. This is the same register which is set by
+     * {@link #setDimen(String, Dimen, boolean)} for the decimal
+     * representation of the number.
+     * 
+     * @param index the non-negative number of the register
+     * @param value the new value of the register
+     * @param global the indicator for the scope; {@code true} means all
+     *        groups; otherwise the current group is affected only
+     * 
+     * @throws HelpingException in case of problems in an observer
+     * 
+     * @see #getDimen(int)
+     */
+    void setDimen(int index, Dimen value, boolean global)
+            throws HelpingException;
+
+    /**
+     * Setter for a numbered {@link org.extex.core.dimen.Dimen Dimen} register
+     * in all requested groups. The implementation does not need to create a
+     * new register for each assignment.
+     * 
+     * @param index the non-negative number of the register
+     * @param value the new value of the register in scaled points
+     * @param global the indicator for the scope; {@code true} means all
+     *        groups; otherwise the current group is affected only
+     * 
+     * @throws HelpingException in case of problems in an observer
+     * 
+     * @see #getDimen(int)
+     */
+    default void setDimen(int index, long value, boolean global)
+            throws HelpingException {
+
+        setDimen(index, new Dimen(value), global);
+    }
+
 }
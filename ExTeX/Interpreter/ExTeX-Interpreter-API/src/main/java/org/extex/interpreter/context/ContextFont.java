@@ -50,6 +50,20 @@ public interface ContextFont {
      */
     CoreFontFactory getFontFactory();
 
+    /**
+     * Getter for the font to be used in place of a given one. A forked
+     * context uses its own copies of the fonts of the base context since
+     * fonts can be modified in place. Other contexts use the font itself.
+     *
+     * @param font the font
+     *
+     * @return the font to use
+     */
+    default Font getLocalFont(Font font) {
+
+        return font;
+    }
+
     /**
      * Setter for font registers.
      *
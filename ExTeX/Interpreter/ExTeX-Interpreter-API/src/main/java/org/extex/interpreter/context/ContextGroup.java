@@ -130,4 +130,26 @@ public interface ContextGroup {
     void openGroup(GroupType id, Locator locator, Token start)
             throws HelpingException;
 
+    /**
+     * This method can be used to open another group. The locator for the
+     * start is taken from the token source. An implementation may record the
+     * current position only and create the locator when it is requested.
+     * 
+     * @param id the type of the group
+     * @param source the token source to take the position from
+     * @param start the token which started the group
+     * 
+     * @throws HelpingException in case of an error
+     * @throws org.extex.framework.configuration.exception.ConfigurationException
+     *         in case of an error in the configuration, e.g. the class for the
+     *         group can not be determined.
+     * 
+     * @see #openGroup(GroupType, Locator, Token)
+     */
+    default void openGroup(GroupType id, TokenSource source, Token start)
+            throws HelpingException {
+
+        openGroup(id, source.getLocator(), start);
+    }
+
 }
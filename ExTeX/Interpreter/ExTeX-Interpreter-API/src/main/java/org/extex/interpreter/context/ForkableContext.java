@@ -0,0 +1,52 @@
+/*
+ * Copyright (C) 2011 The ExTeX Group and individual authors listed below
+ *
+ * This library is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as published by the
+ * Free Software Foundation; either version 2.1 of the License, or (at your
+ * option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General Public License
+ * for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this library; if not, write to the Free Software Foundation,
+ * Inc., 59 Temple Place, Suite 330, Boston, MA 02111-1307 USA
+ *
+ */
+
+package org.extex.interpreter.context;
+
+import org.extex.core.exception.helping.HelpingException;
+
+/**
+ * This interface describes a context which can be forked. A fork is a new
+ * context which starts with the definitions of this context. It shares them
+ * instead of copying them. Assignments in the fork do not affect this
+ * context or any other fork.
+ * <p>
+ * The context forked becomes the base of the forks. It must not be modified
+ * afterwards. Thus a format can be loaded once and used for any number of
+ * jobs. Each job runs in its own fork.
+ * </p>
+ *
+ * @author <a href="mailto:gene@gerd-neugebauer.de">Gerd Neugebauer</a>
+*/
+public interface ForkableContext extends Context {
+
+    /**
+     * Create a new context which shares the definitions of this context. The
+     * new context uses the factories of this context. Like a context freshly
+     * loaded from a format it has no observers registered; they are
+     * registered again when the units are notified of the load.
+     *
+     * @return the new context
+     *
+     * @throws HelpingException in case that a group or a conditional is
+     *         open
+     */
+    ForkableContext fork() throws HelpingException;
+
+}
@@ -0,0 +1,120 @@
+/*
+ * Copyright (C) 2011 The ExTeX Group and individual authors listed below
+ *
+ * This library is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as published by the
+ * Free Software Foundation; either version 2.1 of the License, or (at your
+ * option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General Public License
+ * for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this library; if not, write to the Free Software Foundation,
+ * Inc., 59 Temple Place, Suite 330, Boston, MA 02111-1307 USA
+ *
+ */
+
+package org.extex.interpreter.loader;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+
+import org.extex.scanner.type.token.Token;
+import org.extex.scanner.type.tokens.Tokens;
+
+/**
+ * This class reads the record of a piece of {@link LazyLoadable} code from the
+ * deferred code section of a format. The tokens are taken from the token
+ * table of the format. Integers are stored in a variable length encoding.
+ * See {@link CodeOutput#writeInt(int)}.
+ *
+ * @see CodeOutput
+ *
+ * @author <a href="mailto:gene@gerd-neugebauer.de">Gerd Neugebauer</a>
+*/
+public final class CodeInput {
+
+    /**
+     * The field {@code buffer} contains the record.
+     */
+    private final ByteBuffer buffer;
+
+    /**
+     * The field {@code table} contains the token table.
+     */
+    private final FormatTokenTable table;
+
+    /**
+     * Creates a new object.
+     *
+     * @param buffer the record
+     * @param table the token table
+     */
+    CodeInput(ByteBuffer buffer, FormatTokenTable table) {
+
+        this.buffer = buffer;
+        this.table = table;
+    }
+
+    /**
+     * Read a byte.
+     *
+     * @return the byte
+     */
+    public int readByte() {
+
+        return buffer.get();
+    }
+
+    /**
+     * Read an integer.
+     *
+     * @return the integer
+     */
+    public int readInt() {
+
+        int value = 0;
+        for (int shift = 0;; shift += 7) {
+            byte b = buffer.get();
+            value |= (b & 0x7f) << shift;
+            if (b >= 0) {
+                return value;
+            }
+        }
+    }
+
+    /**
+     * Read a token.
+     *
+     * @return the token or {@code null}
+     *
+     * @throws IOException in case of a format error
+     */
+    public Token readToken() throws IOException {
+
+        int i = readInt();
+        return i == 0 ? null : table.get(i - 1);
+    }
+
+    /**
+     * Read a list of tokens and add them to a given list.
+     *
+     * @param <T> the type of the list
+     * @param tokens the list to add the tokens to
+     *
+     * @return the list
+     *
+     * @throws IOException in case of a format error
+     */
+    public <T extends Tokens> T readTokens(T tokens) throws IOException {
+
+        for (int n = readInt(); n > 0; n--) {
+            tokens.add(readToken());
+        }
+        return tokens;
+    }
+
+}
@@ -0,0 +1,152 @@
+/*
+ * Copyright (C) 2011 The ExTeX Group and individual authors listed below
+ *
+ * This library is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as published by the
+ * Free Software Foundation; either version 2.1 of the License, or (at your
+ * option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General Public License
+ * for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this library; if not, write to the Free Software Foundation,
+ * Inc., 59 Temple Place, Suite 330, Boston, MA 02111-1307 USA
+ *
+ */
+
+package org.extex.interpreter.loader;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.NotSerializableException;
+
+import org.extex.scanner.type.token.Token;
+import org.extex.scanner.type.tokens.Tokens;
+
+/**
+ * This class writes the record of a piece of {@link LazyLoadable} code to the
+ * deferred code section of a format. Tokens are written as their index in
+ * the token table of the format. Thus a record contains neither class
+ * descriptors nor strings. Integers are stored in a variable length encoding
+ * since most of them are small.
+ *
+ * @see CodeInput
+ *
+ * @author <a href="mailto:gene@gerd-neugebauer.de">Gerd Neugebauer</a>
+*/
+public final class CodeOutput {
+
+    /**
+     * The field {@code bytes} contains the record written so far.
+     */
+    private final ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+
+    /**
+     * The field {@code out} contains the stream to write to.
+     */
+    private final DataOutputStream out = new DataOutputStream(bytes);
+
+    /**
+     * The field {@code table} contains the token table.
+     */
+    private final FormatTokenTable table;
+
+    /**
+     * Creates a new object.
+     *
+     * @param table the token table
+     */
+    CodeOutput(FormatTokenTable table) {
+
+        this.table = table;
+    }
+
+    /**
+     * Append the record written to a stream.
+     *
+     * @param stream the target stream
+     *
+     * @throws IOException in case of an I/O error
+     */
+    void writeTo(ByteArrayOutputStream stream) throws IOException {
+
+        out.flush();
+        bytes.writeTo(stream);
+    }
+
+    /**
+     * Write a byte.
+     *
+     * @param b the byte
+     *
+     * @throws IOException in case of an I/O error
+     */
+    public void writeByte(int b) throws IOException {
+
+        out.writeByte(b);
+    }
+
+    /**
+     * Write an integer. The integer is stored in groups of seven bits
+     * starting with the least significant ones. The highest bit of a byte
+     * indicates that another group follows. Thus small non-negative numbers
+     * take one byte.
+     *
+     * @param i the integer
+     *
+     * @throws IOException in case of an I/O error
+     */
+    public void writeInt(int i) throws IOException {
+
+        int value = i;
+        while ((value & ~0x7f) != 0) {
+            out.writeByte((value & 0x7f) | 0x80);
+            value >>>= 7;
+        }
+        out.writeByte(value);
+    }
+
+    /**
+     * Write a token as its index in the token table plus one. The value 0
+     * denotes {@code null}.
+     *
+     * @param token the token or {@code null}
+     *
+     * @throws IOException in case of an I/O error
+     * @throws NotSerializableException in case that the token can not be
+     *         stored in the token table
+     */
+    public void writeToken(Token token) throws IOException {
+
+        if (token == null) {
+            writeInt(0);
+        } else if (FormatTokenTable.accepts(token)) {
+            writeInt(table.add(token) + 1);
+        } else {
+            throw new NotSerializableException(token.getClass().getName());
+        }
+    }
+
+    /**
+     * Write a list of tokens. The length is followed by the tokens.
+     *
+     * @param tokens the tokens
+     *
+     * @throws IOException in case of an I/O error
+     * @throws NotSerializableException in case that a token can not be
+     *         stored in the token table
+     */
+    public void writeTokens(Tokens tokens) throws IOException {
+
+        int n = tokens.length();
+        writeInt(n);
+        for (int i = 0; i < n; i++) {
+            writeToken(tokens.get(i));
+        }
+    }
+
+}
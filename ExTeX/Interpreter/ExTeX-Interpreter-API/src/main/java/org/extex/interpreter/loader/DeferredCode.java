@@ -0,0 +1,213 @@
+/*
+ * Copyright (C) 2011 The ExTeX Group and individual authors listed below
+ *
+ * This library is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as published by the
+ * Free Software Foundation; either version 2.1 of the License, or (at your
+ * option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General Public License
+ * for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this library; if not, write to the Free Software Foundation,
+ * Inc., 59 Temple Place, Suite 330, Boston, MA 02111-1307 USA
+ *
+ */
+
+package org.extex.interpreter.loader;
+
+import java.io.IOException;
+import java.io.ObjectStreamException;
+import java.io.Serializable;
+import java.nio.ByteBuffer;
+
+import org.extex.core.exception.ImpossibleException;
+import org.extex.framework.Registrar;
+import org.extex.core.exception.helping.HelpingException;
+import org.extex.interpreter.Flags;
+import org.extex.interpreter.TokenSource;
+import org.extex.interpreter.context.Context;
+import org.extex.interpreter.type.Code;
+import org.extex.scanner.type.token.CodeToken;
+import org.extex.typesetter.Typesetter;
+import org.extex.typesetter.exception.TypesetterException;
+
+/**
+ * This class is a place holder for code which has been loaded from a format
+ * file but has not been decoded yet. It contains the range of the encoded
+ * code in the format and the decoder for it. The code is decoded when {@link #getCode()} is invoked
+ * for the first time.
+ * <p>
+ * The context is expected to replace the place holder by the decoded code
+ * when it finds it. The methods of {@link Code} are delegated to the decoded
+ * code for those cases where the place holder escapes.
+ * </p>
+ *
+ * @see LazyLoadable
+ *
+ * @author <a href="mailto:gene@gerd-neugebauer.de">Gerd Neugebauer</a>
+*/
+public final class DeferredCode implements Code, Serializable {
+
+    /**
+     * The constant {@code serialVersionUID} contains the id for serialization.
+     */
+    private static final long serialVersionUID = 2011L;
+
+    /**
+     * The field {@code buffer} contains the section of the format containing
+     * the encoded code. It is released after decoding.
+     */
+    private transient ByteBuffer buffer;
+
+    /**
+     * The field {@code code} contains the decoded code or {@code null} if it
+     * has not been decoded yet.
+     */
+    private transient volatile Code code;
+
+    /**
+     * The field {@code decoder} contains the decoder for the encoded code.
+     */
+    private final LazyLoadable.Decoder decoder;
+
+    /**
+     * The field {@code length} contains the length of the encoded code.
+     */
+    private final int length;
+
+    /**
+     * The field {@code offset} contains the offset of the encoded code in its
+     * section.
+     */
+    private final int offset;
+
+    /**
+     * The field {@code table} contains the token table of the format. It is
+     * released after decoding.
+     */
+    private transient FormatTokenTable table;
+
+    /**
+     * Creates a new object.
+     *
+     * @param offset the offset of the encoded code in its section
+     * @param length the length of the encoded code
+     * @param decoder the decoder for the encoded code
+     */
+    DeferredCode(int offset, int length, LazyLoadable.Decoder decoder) {
+
+        this.offset = offset;
+        this.length = length;
+        this.decoder = decoder;
+    }
+
+    /**
+     * Attach the place holder to the format it has been read from.
+     *
+     * @param buffer the section containing the encoded code
+     * @param table the token table
+     */
+    void connect(ByteBuffer buffer, FormatTokenTable table) {
+
+        this.buffer = buffer;
+        this.table = table;
+    }
+
+    /**
+     * @see org.extex.interpreter.type.Code#execute(org.extex.interpreter.Flags,
+     *      org.extex.interpreter.context.Context,
+     *      org.extex.interpreter.TokenSource,
+     *      org.extex.typesetter.Typesetter)
+     */
+    @Override
+    public void execute(Flags prefix, Context context, TokenSource source,
+            Typesetter typesetter) throws HelpingException, TypesetterException {
+
+        getCode().execute(prefix, context, source, typesetter);
+    }
+
+    /**
+     * Getter for the code. The code is decoded if this has not been done
+     * before. The place holder may be shared by forked contexts. Thus
+     * decoding is synchronized.
+     *
+     * @return the code
+     */
+    public Code getCode() {
+
+        Code c = code;
+        if (c != null) {
+            return c;
+        }
+        synchronized (this) {
+            if (code == null) {
+                ByteBuffer b = buffer.duplicate();
+                b.position(offset);
+                b.limit(offset + length);
+                try {
+                    code = (Code) Registrar.reconnect(decoder.decode(
+                        new CodeInput(b.slice(), table)));
+                } catch (IOException e) {
+                    throw new ImpossibleException(e);
+                }
+                buffer = null;
+                table = null;
+            }
+            return code;
+        }
+    }
+
+    /**
+     * @see org.extex.interpreter.type.Code#getName()
+     */
+    @Override
+    @Deprecated
+    public String getName() {
+
+        return getCode().getName();
+    }
+
+    /**
+     * @see org.extex.interpreter.type.Code#getToken()
+     */
+    @Override
+    public CodeToken getToken() {
+
+        return getCode().getToken();
+    }
+
+    /**
+     * @see org.extex.interpreter.type.Code#isIf()
+     */
+    @Override
+    public boolean isIf() {
+
+        return getCode().isIf();
+    }
+
+    /**
+     * @see org.extex.interpreter.type.Code#isOuter()
+     */
+    @Override
+    public boolean isOuter() {
+
+        return getCode().isOuter();
+    }
+
+    /**
+     * Replace the place holder by the decoded code when it is serialized.
+     *
+     * @return the decoded code
+     *
+     * @throws ObjectStreamException in case of an error
+     */
+    private Object writeReplace() throws ObjectStreamException {
+
+        return getCode();
+    }
+
+}
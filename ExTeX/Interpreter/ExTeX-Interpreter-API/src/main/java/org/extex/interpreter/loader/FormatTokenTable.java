@@ -0,0 +1,310 @@
+/*
+ * Copyright (C) 2011 The ExTeX Group and individual authors listed below
+ *
+ * This library is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as published by the
+ * Free Software Foundation; either version 2.1 of the License, or (at your
+ * option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General Public License
+ * for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this library; if not, write to the Free Software Foundation,
+ * Inc., 59 Temple Place, Suite 330, Boston, MA 02111-1307 USA
+ *
+ */
+
+package org.extex.interpreter.loader;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.extex.core.UnicodeChar;
+import org.extex.scanner.api.exception.CatcodeException;
+import org.extex.scanner.type.Catcode;
+import org.extex.scanner.type.Namespace;
+import org.extex.scanner.type.token.ActiveCharacterToken;
+import org.extex.scanner.type.token.ControlSequenceToken;
+import org.extex.scanner.type.token.CrToken;
+import org.extex.scanner.type.token.LeftBraceToken;
+import org.extex.scanner.type.token.LetterToken;
+import org.extex.scanner.type.token.MacroParamToken;
+import org.extex.scanner.type.token.MathShiftToken;
+import org.extex.scanner.type.token.OtherToken;
+import org.extex.scanner.type.token.RightBraceToken;
+import org.extex.scanner.type.token.SpaceToken;
+import org.extex.scanner.type.token.SubMarkToken;
+import org.extex.scanner.type.token.SupMarkToken;
+import org.extex.scanner.type.token.TabMarkToken;
+import org.extex.scanner.type.token.Token;
+import org.extex.scanner.type.token.TokenFactory;
+
+/**
+ * This class contains the table of tokens of a format file. The tokens are
+ * stored once in a flat table and referenced by their index from the rest of
+ * the format.
+ * <p>
+ * The table starts with the number of entries followed by the offsets of the
+ * entries. Thus an entry can be decoded without decoding the preceding ones.
+ * An entry consists of the ordinal of the category code and the code point
+ * of the character, or -1 for none. Control sequences add the name space,
+ * the name and the slot. Active characters add the name space. Strings are
+ * stored as length and UTF-8 bytes.
+ * </p>
+ * <p>
+ * The entries are decoded on first use. The tokens are acquired from the
+ * token factory. Thus they are interned with the tokens of the running
+ * interpreter.
+ * </p>
+ *
+ * @author <a href="mailto:gene@gerd-neugebauer.de">Gerd Neugebauer</a>
+*/
+final class FormatTokenTable {
+
+    /**
+     * The constant {@code TABLE_CLASSES} contains the classes of tokens which
+     * are stored in the table. Other tokens are serialized as they are.
+     */
+    private static final Class<?>[] TABLE_CLASSES = {
+            ActiveCharacterToken.class, ControlSequenceToken.class,
+            CrToken.class, LeftBraceToken.class, LetterToken.class,
+            MacroParamToken.class, MathShiftToken.class, OtherToken.class,
+            RightBraceToken.class, SpaceToken.class, SubMarkToken.class,
+            SupMarkToken.class, TabMarkToken.class};
+
+    /**
+     * The field {@code buffer} contains the encoded table or {@code null} for
+     * a table under construction.
+     */
+    private final ByteBuffer buffer;
+
+    /**
+     * The field {@code decoded} contains the decoded tokens.
+     */
+    private final Token[] decoded;
+
+    /**
+     * The field {@code factory} contains the token factory for decoding.
+     */
+    private final TokenFactory factory;
+
+    /**
+     * The field {@code index} contains the indices of the tokens of a table
+     * under construction.
+     */
+    private final Map<Token, Integer> index;
+
+    /**
+     * The field {@code list} contains the tokens of a table under
+     * construction.
+     */
+    private final List<Token> list;
+
+    /**
+     * Creates a new empty table for encoding.
+     */
+    FormatTokenTable() {
+
+        this.buffer = null;
+        this.factory = null;
+        this.decoded = null;
+        this.index = new IdentityHashMap<Token, Integer>();
+        this.list = new ArrayList<Token>();
+    }
+
+    /**
+     * Creates a new table for decoding.
+     *
+     * @param buffer the encoded table
+     * @param factory the token factory
+     */
+    FormatTokenTable(ByteBuffer buffer, TokenFactory factory) {
+
+        this.buffer = buffer;
+        this.factory = factory;
+        this.decoded = new Token[buffer.getInt(0)];
+        this.index = null;
+        this.list = null;
+    }
+
+    /**
+     * Check whether a token is stored in the table.
+     *
+     * @param token the token
+     *
+     * @return {@code true} iff the token is stored in the table
+     */
+    static boolean accepts(Token token) {
+
+        Class<?> c = token.getClass();
+        for (Class<?> k : TABLE_CLASSES) {
+            if (k == c) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Add a token to the table under construction.
+     *
+     * @param token the token
+     *
+     * @return the index of the token
+     */
+    int add(Token token) {
+
+        Integer i = index.get(token);
+        if (i == null) {
+            i = Integer.valueOf(list.size());
+            list.add(token);
+            index.put(token, i);
+        }
+        return i.intValue();
+    }
+
+    /**
+     * Encode the table under construction.
+     *
+     * @return the encoded table
+     *
+     * @throws IOException in case of an I/O error
+     */
+    byte[] encode() throws IOException {
+
+        int n = list.size();
+        ByteArrayOutputStream entries = new ByteArrayOutputStream();
+        DataOutputStream out = new DataOutputStream(entries);
+        int[] offsets = new int[n];
+        int base = 4 + 4 * n;
+
+        for (int i = 0; i < n; i++) {
+            offsets[i] = base + out.size();
+            Token t = list.get(i);
+            out.writeByte(t.getCatcode().ordinal());
+            UnicodeChar uc = t.getChar();
+            out.writeInt(uc == null ? -1 : uc.getCodePoint());
+            if (t instanceof ControlSequenceToken) {
+                ControlSequenceToken cs = (ControlSequenceToken) t;
+                writeString(out, cs.getNamespace());
+                writeString(out, cs.getName());
+                out.writeInt(cs.getSlot());
+            } else if (t instanceof ActiveCharacterToken) {
+                writeString(out, ((ActiveCharacterToken) t).getNamespace());
+            }
+        }
+        out.flush();
+
+        ByteArrayOutputStream result =
+                new ByteArrayOutputStream(base + entries.size());
+        DataOutputStream data = new DataOutputStream(result);
+        data.writeInt(n);
+        for (int offset : offsets) {
+            data.writeInt(offset);
+        }
+        entries.writeTo(data);
+        data.flush();
+        return result.toByteArray();
+    }
+
+    /**
+     * Get a token from the table. The token is decoded on the first access.
+     * The access is synchronized since the deferred code of forked contexts
+     * shares the table.
+     *
+     * @param i the index
+     *
+     * @return the token
+     *
+     * @throws IOException in case of a format error
+     */
+    synchronized Token get(int i) throws IOException {
+
+        Token t = decoded[i];
+        if (t == null) {
+            t = decode(buffer.getInt(4 + 4 * i));
+            decoded[i] = t;
+        }
+        return t;
+    }
+
+    /**
+     * Decode an entry.
+     *
+     * @param offset the offset of the entry
+     *
+     * @return the token
+     *
+     * @throws IOException in case of a format error
+     */
+    private Token decode(int offset) throws IOException {
+
+        ByteBuffer b = buffer.duplicate();
+        b.position(offset);
+        Catcode catcode = Catcode.values()[b.get()];
+        int cp = b.getInt();
+        UnicodeChar uc = (cp < 0 ? null : UnicodeChar.get(cp));
+        try {
+            switch (catcode) {
+                case ESCAPE:
+                    String namespace = readString(b);
+                    Token t =
+                            factory.createToken(catcode, uc, readString(b),
+                                namespace);
+                    int slot = b.getInt();
+                    if (slot >= 0 && t instanceof ControlSequenceToken) {
+                        ((ControlSequenceToken) t).setSlot(slot);
+                    }
+                    return t;
+                case ACTIVE:
+                    return factory.createToken(catcode, uc, readString(b));
+                default:
+                    return factory.createToken(catcode, cp,
+                        Namespace.DEFAULT_NAMESPACE);
+            }
+        } catch (CatcodeException e) {
+            throw new IOException(e);
+        }
+    }
+
+    /**
+     * Read a string from a buffer.
+     *
+     * @param b the buffer
+     *
+     * @return the string
+     */
+    private static String readString(ByteBuffer b) {
+
+        byte[] bytes = new byte[b.getInt()];
+        b.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Write a string to a stream.
+     *
+     * @param out the stream
+     * @param s the string
+     *
+     * @throws IOException in case of an I/O error
+     */
+    private static void writeString(DataOutputStream out, String s)
+            throws IOException {
+
+        byte[] bytes = s.getBytes(StandardCharsets.UTF_8);
+        out.writeInt(bytes.length);
+        out.write(bytes);
+    }
+
+}
@@ -0,0 +1,86 @@
+/*
+ * Copyright (C) 2011 The ExTeX Group and individual authors listed below
+ *
+ * This library is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as published by the
+ * Free Software Foundation; either version 2.1 of the License, or (at your
+ * option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General Public License
+ * for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this library; if not, write to the Free Software Foundation,
+ * Inc., 59 Temple Place, Suite 330, Boston, MA 02111-1307 USA
+ *
+ */
+
+package org.extex.interpreter.loader;
+
+import java.io.IOException;
+import java.io.Serializable;
+
+import org.extex.interpreter.type.Code;
+
+/**
+ * This interface describes code which can be stored in a format file in
+ * encoded form. Such code is not decoded when the format is loaded but when
+ * it is used for the first time.
+ * <p>
+ * The code is written as a flat record with {@link #encode(CodeOutput)}. The
+ * tokens in it are references into the token table of the format. The record
+ * is read by the decoder of the code. The code should be immutable. Several
+ * references to the same code are loaded as one object.
+ * </p>
+ * <p>
+ * The class of the code and the class of the decoder take part in the
+ * fingerprint of the format. Thus the serial version id of the decoder has
+ * to be changed whenever the layout of the record changes.
+ * </p>
+ *
+ * @see DeferredCode
+ *
+ * @author <a href="mailto:gene@gerd-neugebauer.de">Gerd Neugebauer</a>
+*/
+public interface LazyLoadable {
+
+    /**
+     * This interface describes the reader for the records of a kind of
+     * code. The decoder is stored in the format once for all records.
+     */
+    interface Decoder extends Serializable {
+
+        /**
+         * Read a record and create the code from it.
+         *
+         * @param in the record
+         *
+         * @return the code
+         *
+         * @throws IOException in case of a format error
+         */
+        Code decode(CodeInput in) throws IOException;
+    }
+
+    /**
+     * Write the code as a record.
+     *
+     * @param out the target
+     *
+     * @throws IOException in case of an I/O error or if the code can not be
+     *         encoded; in the latter case the code is stored with the
+     *         context
+     */
+    void encode(CodeOutput out) throws IOException;
+
+    /**
+     * Getter for the decoder reading the record written by
+     * {@link #encode(CodeOutput)}.
+     *
+     * @return the decoder
+     */
+    Decoder getDecoder();
+
+}
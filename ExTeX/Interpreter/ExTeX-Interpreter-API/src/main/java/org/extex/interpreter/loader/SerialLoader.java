@@ -20,10 +20,25 @@
 package org.extex.interpreter.loader;
 
 import org.extex.interpreter.context.Context;
+import org.extex.interpreter.type.Code;
+import org.extex.scanner.type.token.ControlSequenceToken;
+import org.extex.scanner.type.token.Token;
+import org.extex.scanner.type.token.TokenFactory;
+import org.extex.scanner.type.token.TokenFactoryImpl;
+import org.extex.scanner.type.tokens.Tokens;
 
 import java.io.*;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
 import java.util.zip.GZIPInputStream;
-import java.util.zip.GZIPOutputStream;
 
 /**
  * This class writes and reads format files.
@@ -41,23 +56,302 @@ import java.util.zip.GZIPOutputStream;
  *   make the format executable.
  *  </dt>
  *  <dd>The format identifier</dd>
- *  <dt>This string is stored as Java object and is used to distinguish
- *   formats from other types of files.
+ *  <dt>These eight bytes are used to distinguish formats from other types of
+ *   files.
  *  </dt>
  *  <dd>The format version</dd>
- *  <dt>This Java String contains the version number of the file format.
+ *  <dt>This integer contains the version number of the file format.
  *   It is used to detect incompatible implementations of formats.
  *  </dt>
+ *  <dd>The fingerprint</dd>
+ *  <dt>This long value is computed from the serial version ids and the
+ *   serializable fields of all classes written to the format and of the
+ *   token classes. The names of the classes written follow, starting with
+ *   the context class. Thus a change in the layout of any of these classes,
+ *   like the groups or the caches of the context, is detected before any
+ *   object is read.
+ *  </dt>
+ *  <dd>The token table</dd>
+ *  <dt>This section contains the tokens in a flat table. See
+ *   {@link FormatTokenTable}.
+ *  </dt>
+ *  <dd>The deferred code</dd>
+ *  <dt>This section contains the code marked as {@link LazyLoadable}, like
+ *   macros. Each piece is stored as a flat record of numbers and indexes
+ *   into the token table and referenced from the context by its range and
+ *   its decoder. It is decoded when it is used for the first time. Code
+ *   which can not be encoded this way is stored with the context. See
+ *   {@link DeferredCode}.
+ *  </dt>
  *  <dd>The Context</dd>
- *  <dt>This Java Object contains the interpreter context with all status
- *   information.
+ *  <dt>This section contains the interpreter context with all status
+ *   information as serialized Java object. The tokens in it are replaced by
+ *   references into the token table.
  *  </dt>
  * </dl>
+ * <p>
+ * All numbers are stored in big endian byte order. Each section is preceded
+ * by its length. The file is not compressed. Thus it can be mapped into
+ * memory when it is read from a file.
+ * </p>
+ * <p>
+ * Format files of the previous version are still accepted. They contain the
+ * identifier and the version as Java strings and the context in a GZIP
+ * compressed object stream.
+ * </p>
  *
  * @author <a href="mailto:gene@gerd-neugebauer.de">Gerd Neugebauer</a>
 */
 public class SerialLoader {
 
+    /**
+     * This inner class provides an input stream reading from a byte buffer.
+     */
+    private static final class BufferInputStream extends InputStream {
+
+        /**
+         * The field {@code buffer} contains the buffer to read from.
+         */
+        private final ByteBuffer buffer;
+
+        /**
+         * Creates a new object.
+         *
+         * @param buffer the buffer to read from
+         */
+        BufferInputStream(ByteBuffer buffer) {
+
+            this.buffer = buffer;
+        }
+
+        /**
+         * @see java.io.InputStream#available()
+         */
+        @Override
+        public int available() {
+
+            return buffer.remaining();
+        }
+
+        /**
+         * @see java.io.InputStream#read()
+         */
+        @Override
+        public int read() {
+
+            return buffer.hasRemaining() ? buffer.get() & 0xff : -1;
+        }
+
+        /**
+         * @see java.io.InputStream#read(byte[], int, int)
+         */
+        @Override
+        public int read(byte[] b, int off, int len) {
+
+            if (len == 0) {
+                return 0;
+            }
+            if (!buffer.hasRemaining()) {
+                return -1;
+            }
+            int n = Math.min(len, buffer.remaining());
+            buffer.get(b, off, n);
+            return n;
+        }
+
+    }
+
+    /**
+     * This inner class provides an object input stream which resolves
+     * references into the token table.
+     */
+    private static final class TokenInputStream extends ObjectInputStream {
+
+        /**
+         * The field {@code codes} contains the section of the deferred code.
+         */
+        private final ByteBuffer codes;
+
+        /**
+         * The field {@code lazy} contains the indicator that deferred code
+         * should be decoded on first use only.
+         */
+        private final boolean lazy;
+
+        /**
+         * The field {@code table} contains the token table.
+         */
+        private final FormatTokenTable table;
+
+        /**
+         * Creates a new object.
+         *
+         * @param in the stream to read from
+         * @param table the token table
+         * @param codes the section of the deferred code
+         * @param lazy the indicator for lazy decoding of deferred code
+         *
+         * @throws IOException in case of an I/O error
+         */
+        TokenInputStream(InputStream in, FormatTokenTable table,
+                ByteBuffer codes, boolean lazy) throws IOException {
+
+            super(in);
+            this.table = table;
+            this.codes = codes;
+            this.lazy = lazy;
+            enableResolveObject(true);
+        }
+
+        /**
+         * @see java.io.ObjectInputStream#resolveObject(java.lang.Object)
+         */
+        @Override
+        protected Object resolveObject(Object obj) throws IOException {
+
+            if (obj instanceof TokenRef) {
+                return table.get(((TokenRef) obj).index);
+            } else if (obj instanceof DeferredCode) {
+                DeferredCode code = (DeferredCode) obj;
+                code.connect(codes, table);
+                return lazy ? code : code.getCode();
+            }
+            return obj;
+        }
+
+    }
+
+    /**
+     * This inner class provides an object output stream which replaces
+     * tokens by references into the token table.
+     */
+    private static final class TokenOutputStream extends ObjectOutputStream {
+
+        /**
+         * The field {@code classes} contains the classes written.
+         */
+        private final Set<Class<?>> classes;
+
+        /**
+         * The field {@code codes} contains the section of the deferred code.
+         */
+        private final ByteArrayOutputStream codes;
+
+        /**
+         * The field {@code deferred} contains the mapping from code to its
+         * place holder. It makes sure that shared code is encoded only once.
+         */
+        private final Map<Object, DeferredCode> deferred =
+                new IdentityHashMap<Object, DeferredCode>();
+
+        /**
+         * The field {@code table} contains the token table.
+         */
+        private final FormatTokenTable table;
+
+        /**
+         * Creates a new object.
+         *
+         * @param out the stream to write to
+         * @param table the token table
+         * @param codes the section of the deferred code
+         * @param classes the set to collect the classes written in
+         *
+         * @throws IOException in case of an I/O error
+         */
+        TokenOutputStream(OutputStream out, FormatTokenTable table,
+                ByteArrayOutputStream codes, Set<Class<?>> classes)
+                throws IOException {
+
+            super(out);
+            this.table = table;
+            this.codes = codes;
+            this.classes = classes;
+            enableReplaceObject(true);
+        }
+
+        /**
+         * @see java.io.ObjectOutputStream#annotateClass(java.lang.Class)
+         */
+        @Override
+        protected void annotateClass(Class<?> cl) {
+
+            classes.add(cl);
+        }
+
+        /**
+         * @see java.io.ObjectOutputStream#replaceObject(java.lang.Object)
+         */
+        @Override
+        protected Object replaceObject(Object obj) throws IOException {
+
+            if (obj instanceof Token && FormatTokenTable.accepts((Token) obj)) {
+                return new TokenRef(table.add((Token) obj));
+            } else if (obj instanceof LazyLoadable
+                    && obj instanceof Code) {
+                DeferredCode code = deferred.get(obj);
+                if (code == null) {
+                    CodeOutput out = new CodeOutput(table);
+                    try {
+                        ((LazyLoadable) obj).encode(out);
+                    } catch (NotSerializableException e) {
+                        return obj;
+                    }
+                    int offset = codes.size();
+                    out.writeTo(codes);
+                    classes.add(obj.getClass());
+                    code = new DeferredCode(offset, codes.size() - offset,
+                        ((LazyLoadable) obj).getDecoder());
+                    deferred.put(obj, code);
+                }
+                return code;
+            }
+            return obj;
+        }
+
+    }
+
+    /**
+     * This inner class is a reference into the token table.
+     */
+    private static final class TokenRef implements Serializable {
+
+        /**
+         * The constant {@code serialVersionUID} contains the id for
+         * serialization.
+         */
+        private static final long serialVersionUID = 2011L;
+
+        /**
+         * The field {@code index} contains the index in the token table.
+         */
+        private final int index;
+
+        /**
+         * Creates a new object.
+         *
+         * @param index the index in the token table
+         */
+        TokenRef(int index) {
+
+            this.index = index;
+        }
+
+    }
+
+    /**
+     * The constant {@code BINARY_ID} contains the identifier of a binary
+     * format file.
+     */
+    private static final byte[] BINARY_ID =
+            "ExTeXfmt".getBytes(StandardCharsets.US_ASCII);
+
+    /**
+     * The constant {@code BINARY_VERSION} contains the version number of the
+     * binary format file.
+     */
+    private static final int BINARY_VERSION = 7;
+
     /**
      * The field {@code MAGIC_LINE} contains the first line of a format file.
      */
@@ -75,9 +369,83 @@ public class SerialLoader {
      */
     private static final String FORMAT_ID = "ExTeX format";
 
+    /**
+     * The constant {@code TOKEN_CLASSES} contains the classes contributing to
+     * the fingerprint besides the context class.
+     */
+    private static final Class<?>[] TOKEN_CLASSES =
+            {Tokens.class, ControlSequenceToken.class};
+
+    /**
+     * Compute the fingerprint of the classes a format depends on.
+     *
+     * @param classes the classes written to the format
+     *
+     * @return the fingerprint
+     */
+    private static long fingerprint(List<Class<?>> classes) {
+
+        long fp = BINARY_VERSION;
+        for (Class<?> c : classes) {
+            fp = fp * 31 + layout(c);
+        }
+        for (Class<?> c : TOKEN_CLASSES) {
+            fp = fp * 31 + layout(c);
+        }
+        return fp;
+    }
+
+    /**
+     * Compute a hash of the serialized form of a class. It covers the serial
+     * version id and the names and types of the serializable fields.
+     *
+     * @param c the class
+     *
+     * @return the hash or 0 if the class is not serializable
+     */
+    private static long layout(Class<?> c) {
 
+        ObjectStreamClass osc = ObjectStreamClass.lookup(c);
+        if (osc == null) {
+            return 0;
+        }
+        long h = osc.getSerialVersionUID();
+        for (ObjectStreamField f : osc.getFields()) {
+            h = h * 31 + f.getName().hashCode();
+            h = h * 31 + f.getTypeCode();
+            String type = f.getTypeString();
+            if (type != null) {
+                h = h * 31 + type.hashCode();
+            }
+        }
+        return h;
+    }
+
+    /**
+     * The field {@code lazy} contains the indicator that code marked as
+     * {@link LazyLoadable} is decoded on first use only.
+     */
+    private final boolean lazy;
+
+    /**
+     * Creates a new object. Code marked as {@link LazyLoadable} is decoded
+     * on first use only.
+     */
     public SerialLoader() {
 
+        this(true);
+    }
+
+    /**
+     * Creates a new object.
+     *
+     * @param lazy the indicator that code marked as {@link LazyLoadable} is
+     *        decoded on first use only; otherwise all code is decoded when
+     *        the format is loaded
+     */
+    public SerialLoader(boolean lazy) {
+
+        this.lazy = lazy;
     }
 
     /**
@@ -94,16 +462,127 @@ public class SerialLoader {
             throws IOException,
                 LoaderException {
 
-        InputStream inStream = new BufferedInputStream(stream);
+        return load(stream, null);
+    }
+
+    /**
+     * Load the interpreter context from an input stream. The tokens are
+     * acquired from a token factory.
+     *
+     * @param stream the input stream to read the context from
+     * @param factory the token factory or {@code null} for a new one
+     *
+     * @return the context read
+     *
+     * @throws LoaderException in case of an format error during the read
+     * @throws IOException in case of an IO error
+     */
+    public Context load(InputStream stream, TokenFactory factory)
+            throws IOException,
+                LoaderException {
+
+        try {
+            for (int c = stream.read(); c != '\n'; c = stream.read()) {
+                if (c < 0) {
+                    throw new LoaderException("EOF");
+                }
+            }
 
-        for (int c = inStream.read(); c != '\n'; c = inStream.read()) {
-            if (c < 0) {
-                throw new LoaderException("EOF");
+            byte[] id = new byte[BINARY_ID.length];
+            int n = 0;
+            for (int k = 0; n < id.length && k >= 0; n += k) {
+                k = stream.read(id, n, id.length - n);
+                if (k < 0) {
+                    break;
+                }
             }
+            if (n < id.length || !Arrays.equals(id, BINARY_ID)) {
+                return loadSerialized(new SequenceInputStream(
+                    new ByteArrayInputStream(id, 0, n), stream));
+            }
+
+            return loadBinary(readBuffer(stream), factory == null
+                    ? new TokenFactoryImpl()
+                    : factory);
+        } finally {
+            stream.close();
         }
+    }
+
+    /**
+     * Load the interpreter context from a buffer containing a binary format
+     * after the identifier.
+     *
+     * @param buffer the buffer
+     * @param factory the token factory
+     *
+     * @return the context read
+     *
+     * @throws LoaderException in case of an format error during the read
+     * @throws IOException in case of an IO error
+     */
+    private Context loadBinary(ByteBuffer buffer, TokenFactory factory)
+            throws IOException,
+                LoaderException {
+
+        int version = buffer.getInt();
+        if (version != BINARY_VERSION) {
+            throw new LoaderVersionException(Integer.toString(version));
+        }
+        long fp = buffer.getLong();
+        List<Class<?>> classes = new ArrayList<Class<?>>();
+        String name = null;
+        try {
+            for (int n = buffer.getInt(); n > 0; n--) {
+                byte[] b = new byte[buffer.getInt()];
+                buffer.get(b);
+                String c = new String(b, StandardCharsets.UTF_8);
+                if (name == null) {
+                    name = c;
+                }
+                classes.add(Class.forName(c));
+            }
+        } catch (ClassNotFoundException e) {
+            throw new LoaderClassNotFoundException(e);
+        }
+        if (classes.isEmpty() || fp != fingerprint(classes)) {
+            throw new LoaderVersionException(name);
+        }
+
+        FormatTokenTable table =
+                new FormatTokenTable(section(buffer), factory);
+        ByteBuffer codes = section(buffer);
+        ObjectInputStream in =
+                new TokenInputStream(new BufferInputStream(section(buffer)),
+                    table, codes, lazy);
+        try {
+            return (Context) in.readObject();
+        } catch (ClassCastException e) {
+            throw new LoaderClassCastException(e);
+        } catch (ClassNotFoundException e) {
+            throw new LoaderClassNotFoundException(e);
+        } finally {
+            in.close();
+        }
+    }
+
+    /**
+     * Load the interpreter context from a stream containing a format of the
+     * previous version after the magic line.
+     *
+     * @param stream the input stream to read the context from
+     *
+     * @return the context read
+     *
+     * @throws LoaderException in case of an format error during the read
+     * @throws IOException in case of an IO error
+     */
+    private Context loadSerialized(InputStream stream)
+            throws IOException,
+                LoaderException {
 
         ObjectInputStream in = new ObjectInputStream(new GZIPInputStream(
-                inStream));
+                new BufferedInputStream(stream)));
         Context context;
         try {
             String id = (String) in.readObject();
@@ -122,11 +601,35 @@ public class SerialLoader {
             throw new LoaderClassNotFoundException(e);
         } finally {
             in.close();
-            inStream.close();
         }
         return context;
     }
 
+    /**
+     * Read the rest of a stream into a buffer. A file is mapped into memory.
+     *
+     * @param stream the stream
+     *
+     * @return the buffer
+     *
+     * @throws IOException in case of an I/O error
+     */
+    private ByteBuffer readBuffer(InputStream stream) throws IOException {
+
+        if (stream instanceof FileInputStream) {
+            FileChannel channel = ((FileInputStream) stream).getChannel();
+            long position = channel.position();
+            return channel.map(FileChannel.MapMode.READ_ONLY, position,
+                channel.size() - position);
+        }
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        byte[] bytes = new byte[0x10000];
+        for (int n = stream.read(bytes); n >= 0; n = stream.read(bytes)) {
+            out.write(bytes, 0, n);
+        }
+        return ByteBuffer.wrap(out.toByteArray());
+    }
+
     /**
      * Write the format information to an output stream.
      *
@@ -139,19 +642,55 @@ public class SerialLoader {
     public void save(OutputStream stream, String jobname,
             Context context) throws IOException {
 
-        OutputStream outStream = new BufferedOutputStream(stream);
-
-        outStream.write(MAGIC_LINE.getBytes());
-
-        ObjectOutputStream os = new ObjectOutputStream(new GZIPOutputStream(
-                outStream));
-        os.writeObject(FORMAT_ID);
-        os.writeObject(FORMAT_VERSION);
+        FormatTokenTable table = new FormatTokenTable();
+        ByteArrayOutputStream codes = new ByteArrayOutputStream();
+        ByteArrayOutputStream contextBytes = new ByteArrayOutputStream();
+        Set<Class<?>> written = new LinkedHashSet<Class<?>>();
+        written.add(context.getClass());
+        TokenOutputStream os =
+                new TokenOutputStream(contextBytes, table, codes, written);
         os.writeObject(context);
         //@see "TeX -- The Program [1329]"
         os.close();
-        outStream.close();
+        byte[] tokenBytes = table.encode();
+        List<Class<?>> classes = new ArrayList<Class<?>>(written);
+
+        DataOutputStream out =
+                new DataOutputStream(new BufferedOutputStream(stream));
+        out.write(MAGIC_LINE.getBytes());
+        out.write(BINARY_ID);
+        out.writeInt(BINARY_VERSION);
+        out.writeLong(fingerprint(classes));
+        out.writeInt(classes.size());
+        for (Class<?> c : classes) {
+            byte[] name = c.getName().getBytes(StandardCharsets.UTF_8);
+            out.writeInt(name.length);
+            out.write(name);
+        }
+        out.writeInt(tokenBytes.length);
+        out.write(tokenBytes);
+        out.writeInt(codes.size());
+        codes.writeTo(out);
+        out.writeInt(contextBytes.size());
+        contextBytes.writeTo(out);
+        out.close();
+    }
+
+    /**
+     * Take the next section from a buffer. The section is preceded by its
+     * length.
+     *
+     * @param buffer the buffer
+     *
+     * @return the section
+     */
+    private ByteBuffer section(ByteBuffer buffer) {
 
+        int length = buffer.getInt();
+        ByteBuffer section = buffer.slice();
+        section.limit(length);
+        buffer.position(buffer.position() + length);
+        return section;
     }
 
 }
@@ -19,6 +19,7 @@
 
 package org.extex.interpreter.type;
 
+import org.extex.core.ParameterKey;
 import org.extex.core.exception.helping.HelpingException;
 import org.extex.framework.configuration.exception.ConfigurationException;
 import org.extex.interpreter.Flags;
@@ -118,7 +119,7 @@ public abstract class AbstractAssignment extends AbstractCode {
             throws HelpingException,
                 TypesetterException {
 
-        long globaldef = context.getCount("globaldefs").getValue();
+        long globaldef = context.getCount(ParameterKey.GLOBALDEFS).getValue();
         if (globaldef != 0) {
             prefix.setGlobal((globaldef > 0));
         }
@@ -116,7 +116,7 @@ public class Box implements BoxOrRule, Serializable {
                         : ListMakers.INNER_VERTICAL), source.getLocator());
 
         try {
-            context.openGroup(groupType, source.getLocator(), startToken);
+            context.openGroup(groupType, source, startToken);
             source.push(insert);
             source.executeGroup();
         } finally {
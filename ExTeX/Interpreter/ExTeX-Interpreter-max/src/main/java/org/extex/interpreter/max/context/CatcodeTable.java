@@ -0,0 +1,246 @@
+/*
+ * Copyright (C) 2011 The ExTeX Group and individual authors listed below
+ *
+ * This library is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as published by the
+ * Free Software Foundation; either version 2.1 of the License, or (at your
+ * option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General Public License
+ * for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this library; if not, write to the Free Software Foundation,
+ * Inc., 59 Temple Place, Suite 330, Boston, MA 02111-1307 USA
+ *
+ */
+
+package org.extex.interpreter.max.context;
+
+import java.io.Serializable;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+
+import org.extex.scanner.type.Catcode;
+
+/**
+ * This class provides a table of category codes indexed by code points. The
+ * Basic Multilingual Plane is covered by a dense directory of pages of 256
+ * entries each. Code points above it are kept in pages found in a sparse map.
+ * Pages are allocated when a category code is stored in them for the first
+ * time.
+ * <p>
+ * A table can be snapshot for a new group. The snapshot shares the pages with
+ * the original table. The directory and the pages are copied on the first
+ * write to them. Thus opening a group is cheap and looking up a category code
+ * is a single array access independent of the depth of the grouping.
+ * </p>
+ * <p>
+ * An entry of {@code null} means that no category code has been assigned.
+ * </p>
+ *
+ * @author <a href="mailto:gene@gerd-neugebauer.de">Gerd Neugebauer</a>
+*/
+final class CatcodeTable implements Serializable {
+
+    /**
+     * The constant {@code BMP_PAGES} contains the number of pages in the Basic
+     * Multilingual Plane.
+     */
+    private static final int BMP_PAGES = 0x10000 >> CatcodeTable.PAGE_BITS;
+
+    /**
+     * The constant {@code PAGE_BITS} contains the number of bits of a code
+     * point used to address an entry within a page.
+     */
+    private static final int PAGE_BITS = 8;
+
+    /**
+     * The constant {@code PAGE_SIZE} contains the number of entries in a page.
+     */
+    private static final int PAGE_SIZE = 1 << PAGE_BITS;
+
+    /**
+     * The constant {@code PAGE_MASK} contains the mask for the index within a
+     * page.
+     */
+    private static final int PAGE_MASK = PAGE_SIZE - 1;
+
+    /**
+     * The constant {@code serialVersionUID} contains the id for serialization.
+     */
+    private static final long serialVersionUID = 2011L;
+
+    /**
+     * The field {@code highPages} contains the pages above the Basic
+     * Multilingual Plane. It is {@code null} if none has been allocated.
+     */
+    private Map<Integer, Catcode[]> highPages = null;
+
+    /**
+     * The field {@code ownedHighPages} contains the numbers of the pages above
+     * the Basic Multilingual Plane which belong to this table and may be
+     * written to. It is {@code null} if the map of pages is shared.
+     */
+    private Set<Integer> ownedHighPages = null;
+
+    /**
+     * The field {@code ownedPages} contains the indicators for the pages of
+     * the Basic Multilingual Plane which belong to this table and may be
+     * written to. It is {@code null} if the directory is shared.
+     */
+    private boolean[] ownedPages;
+
+    /**
+     * The field {@code pages} contains the directory of the pages of the Basic
+     * Multilingual Plane.
+     */
+    private Catcode[][] pages;
+
+    /**
+     * The field {@code version} contains the version of the content. A
+     * snapshot shares the version until one of the tables is modified. It is
+     * {@code null} if a new version has to be created on demand.
+     */
+    private transient Object version = null;
+
+    /**
+     * Creates a new empty table.
+     */
+    CatcodeTable() {
+
+        this.pages = new Catcode[BMP_PAGES][];
+        this.ownedPages = new boolean[BMP_PAGES];
+    }
+
+    /**
+     * Creates a new table sharing the pages with another one.
+     *
+     * @param parent the table to share the pages with
+     */
+    private CatcodeTable(CatcodeTable parent) {
+
+        this.pages = parent.pages;
+        this.ownedPages = null;
+        this.highPages = parent.highPages;
+        this.ownedHighPages = null;
+        this.version = parent.version();
+    }
+
+    /**
+     * Getter for the category code of a code point.
+     *
+     * @param cp the code point
+     *
+     * @return the category code or {@code null} if none has been assigned
+     */
+    Catcode get(int cp) {
+
+        Catcode[] page;
+        if (cp >>> 16 == 0) {
+            page = pages[cp >> PAGE_BITS];
+        } else if (highPages != null) {
+            page = highPages.get(Integer.valueOf(cp >> PAGE_BITS));
+        } else {
+            return null;
+        }
+        return page == null ? null : page[cp & PAGE_MASK];
+    }
+
+    /**
+     * Setter for the category code of a code point.
+     *
+     * @param cp the code point
+     * @param code the category code or {@code null} to remove the assignment
+     */
+    void set(int cp, Catcode code) {
+
+        Catcode[] page;
+        if (cp >>> 16 == 0) {
+            page = writablePage(cp >> PAGE_BITS);
+        } else {
+            page = writableHighPage(Integer.valueOf(cp >> PAGE_BITS));
+        }
+        page[cp & PAGE_MASK] = code;
+        version = null;
+    }
+
+    /**
+     * Create a table with the same content as this one. The pages are shared
+     * until one of the tables is modified.
+     *
+     * @return the new table
+     */
+    CatcodeTable snapshot() {
+
+        ownedPages = null;
+        ownedHighPages = null;
+        return new CatcodeTable(this);
+    }
+
+    /**
+     * Getter for the version of the content. The version changes whenever
+     * the table is modified.
+     *
+     * @return the version
+     */
+    Object version() {
+
+        if (version == null) {
+            version = new Object();
+        }
+        return version;
+    }
+
+    /**
+     * Get a page above the Basic Multilingual Plane for writing. The map and
+     * the page are copied if they are shared.
+     *
+     * @param key the number of the page
+     *
+     * @return the page
+     */
+    private Catcode[] writableHighPage(Integer key) {
+
+        if (ownedHighPages == null) {
+            highPages =
+                    highPages == null
+                            ? new HashMap<Integer, Catcode[]>()
+                            : new HashMap<Integer, Catcode[]>(highPages);
+            ownedHighPages = new HashSet<Integer>();
+        }
+        Catcode[] page = highPages.get(key);
+        if (ownedHighPages.add(key)) {
+            page = (page == null ? new Catcode[PAGE_SIZE] : page.clone());
+            highPages.put(key, page);
+        }
+        return page;
+    }
+
+    /**
+     * Get a page of the Basic Multilingual Plane for writing. The directory
+     * and the page are copied if they are shared.
+     *
+     * @param index the number of the page
+     *
+     * @return the page
+     */
+    private Catcode[] writablePage(int index) {
+
+        if (ownedPages == null) {
+            pages = pages.clone();
+            ownedPages = new boolean[BMP_PAGES];
+        }
+        if (!ownedPages[index]) {
+            Catcode[] page = pages[index];
+            pages[index] = (page == null ? new Catcode[PAGE_SIZE] : page.clone());
+            ownedPages[index] = true;
+        }
+        return pages[index];
+    }
+
+}
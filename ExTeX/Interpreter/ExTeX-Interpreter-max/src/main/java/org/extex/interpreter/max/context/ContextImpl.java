@@ -34,6 +34,7 @@ import java.util.logging.Logger;
 import org.extex.backend.documentWriter.DocumentWriterOptions;
 import org.extex.color.Color;
 import org.extex.core.Locator;
+import org.extex.core.ParameterKey;
 import org.extex.core.UnicodeChar;
 import org.extex.core.count.Count;
 import org.extex.core.count.FixedCount;
@@ -60,6 +61,7 @@ import org.extex.interpreter.Conditional;
 import org.extex.interpreter.ConditionalSwitch;
 import org.extex.interpreter.TokenSource;
 import org.extex.interpreter.context.ContextInternals;
+import org.extex.interpreter.context.ForkableContext;
 import org.extex.interpreter.context.group.GroupInfo;
 import org.extex.interpreter.context.group.GroupType;
 import org.extex.interpreter.context.observer.code.CodeObservable;
@@ -94,6 +96,7 @@ import org.extex.scanner.type.Catcode;
 import org.extex.scanner.type.file.InFile;
 import org.extex.scanner.type.file.OutFile;
 import org.extex.scanner.type.token.CodeToken;
+import org.extex.scanner.type.token.ControlSequenceToken;
 import org.extex.scanner.type.token.Token;
 import org.extex.scanner.type.token.TokenFactory;
 import org.extex.scanner.type.tokens.FixedTokens;
@@ -113,7 +116,11 @@ import org.extex.typesetter.type.math.MathDelimiter;
  * This is a reference implementation for an interpreter context.
  * 
  * The groups are implemented as a linked list of single groups. In contrast to
- * the Knuthian implementation in TeX no undo stack is used.
+ * the Knuthian implementation in TeX no undo stack is used by the default
+ * group implementation {@link GroupImpl GroupImpl}. The group implementation
+ * is taken from the configuration. The alternative
+ * {@link SaveStackGroupImpl SaveStackGroupImpl} follows TeX and keeps a
+ * single table of current values together with a save stack.
  * <p>
  * Several operations have to be dealt with:
  * </p>
@@ -148,6 +155,7 @@ import org.extex.typesetter.type.math.MathDelimiter;
 public class ContextImpl
         implements
             ContextInternals,
+            ForkableContext,
             CodeObservable,
             ConditionalObservable,
             CountObservable,
@@ -165,18 +173,6 @@ public class ContextImpl
             Configurable,
             Serializable {
 
-    /**
-     * The field {@code bottommarks} contains the bottom marks.
-     */
-    private static final Map<Object, Tokens> bottommarks =
-            new HashMap<Object, Tokens>();
-
-    /**
-     * The field {@code firstmarks} contains the first marks.
-     */
-    private static final Map<Object, Tokens> firstmarks =
-            new HashMap<Object, Tokens>();
-
     /**
      * The constant {@code GROUP_TAG} contains the name of the tag for the
      * sub-configuration for the group factory.
@@ -191,14 +187,16 @@ public class ContextImpl
     private static final long MAGNIFICATION_MAX = 0x8000;
 
     /**
-     * The constant {@code serialVersionUID} contains the id for serialization.
+     * The constant {@code MAX_NUMBERED_REGISTER} contains the largest number
+     * of a register which is stored as numbered register. Registers with
+     * larger numbers are stored under their names.
      */
-    protected static final long serialVersionUID = 20060512L;
+    private static final int MAX_NUMBERED_REGISTER = 0x10000;
 
     /**
-     * The field {@code topmarks} contains the top marks.
+     * The constant {@code serialVersionUID} contains the id for serialization.
      */
-    private static final Map<Object, Tokens> topmarks = new HashMap<Object, Tokens>();
+    protected static final long serialVersionUID = 20060512L;
 
     /**
      * The constant {@code TYPESETTING_CONTEXT_TAG} contains the name of the
@@ -206,12 +204,44 @@ public class ContextImpl
      */
     private static final String TYPESETTING_CONTEXT_TAG = "TypesettingContext";
 
+    /**
+     * Determine the number of a numbered register from its name. The name has
+     * to be the decimal representation of the number without leading zeros.
+     * 
+     * @param name the name of the register
+     * 
+     * @return the number of the register or -1 if the name does not denote a
+     *         numbered register
+     */
+    private static int registerIndex(String name) {
+
+        int len = name.length();
+        if (len == 0 || len > 5 || (len > 1 && name.charAt(0) == '0')) {
+            return -1;
+        }
+        int index = 0;
+        for (int i = 0; i < len; i++) {
+            char c = name.charAt(i);
+            if (c < '0' || c > '9') {
+                return -1;
+            }
+            index = index * 10 + c - '0';
+        }
+        return index <= MAX_NUMBERED_REGISTER ? index : -1;
+    }
+
     /**
      * The field {@code afterassignment} contains the token to be inserted
      * after an assignment is completed or {@code null}.
      */
     private Token afterassignment = null;
 
+    /**
+     * The field {@code bottommarks} contains the bottom marks.
+     */
+    private final Map<Object, Tokens> bottommarks =
+            new HashMap<Object, Tokens>();
+
     /**
      * The field {@code changeCodeObservers} contains the list of observers
      * registered for change event on the code.
@@ -270,6 +300,12 @@ public class ContextImpl
      */
     private int errorCount = 0;
 
+    /**
+     * The field {@code firstmarks} contains the first marks.
+     */
+    private final Map<Object, Tokens> firstmarks =
+            new HashMap<Object, Tokens>();
+
     /**
      * The field {@code fontFactory} contains the font factory to use.
      */
@@ -350,6 +386,12 @@ public class ContextImpl
      */
     private long magnificationMax = MAGNIFICATION_MAX;
 
+    /**
+     * The field {@code meanings} contains the cache for the meanings of
+     * control sequences.
+     */
+    private MeaningTable meanings = new MeaningTable();
+
     /**
      * The field {@code parshape} contains the object containing the dimensions
      * of the paragraph.
@@ -380,6 +422,11 @@ public class ContextImpl
      */
     private transient TokenFactory tokenFactory;
 
+    /**
+     * The field {@code topmarks} contains the top marks.
+     */
+    private final Map<Object, Tokens> topmarks = new HashMap<Object, Tokens>();
+
     /**
      * The field {@code tcFactory} contains the factory to acquire new
      * instances of a TypesettingContext.
@@ -397,6 +444,63 @@ public class ContextImpl
         init();
     }
 
+    /**
+     * Creates a new object for a fork of a context. The groups of the base
+     * context are shared. The new context starts with an empty bottom-level
+     * group on top of them. The slots of the meanings are copied. The
+     * language manager and the token factory are forked as well; thus the
+     * fork can run in its own thread.
+     * 
+     * @param base the base context
+     */
+    private ContextImpl(ContextImpl base) {
+
+        afterassignment = base.afterassignment;
+        errorCount = base.errorCount;
+        fontFactory = base.fontFactory;
+        groupFactory = new GroupFactory(base.groupFactory);
+        id = base.id;
+        interaction = base.interaction;
+        if (base.languageManager != null) {
+            languageManager = base.languageManager.fork();
+        }
+        if (base.loadObservers != null) {
+            loadObservers = new ArrayList<LoadedObserver>(base.loadObservers);
+        }
+        localizer = base.localizer;
+        logger = base.logger;
+        magnification = base.magnification;
+        magnificationLock = base.magnificationLock;
+        magnificationMax = base.magnificationMax;
+        meanings = new MeaningTable(base.meanings);
+        parshape = base.parshape;
+        if (base.tokenFactory != null) {
+            tokenFactory = base.tokenFactory.fork();
+        }
+        if (base.typesettingContextFactory != null) {
+            typesettingContextFactory =
+                    new TypesettingContextFactory(
+                        base.typesettingContextFactory, languageManager);
+        }
+        units.addAll(base.units);
+        group =
+                groupFactory.newInstance(base.group, (Locator) null, null,
+                    GroupType.BOTTOM_LEVEL_GROUP);
+        group.fork();
+        TypesettingContext tc = base.getTypesettingContext();
+        if (typesettingContextFactory != null && tc != null) {
+            if (languageManager != null) {
+                tc = typesettingContextFactory.newInstance(tc);
+            }
+            Font font = group.getLocalFont(tc.getFont());
+            if (font != tc.getFont()) {
+                tc = typesettingContextFactory.newInstance(tc, font);
+            }
+            set(tc, true);
+        }
+        init();
+    }
+
     /**
      * Add a unit to the list of loaded units. The units can be notified when
      * the context is loaded from a format.
@@ -479,7 +583,10 @@ public class ContextImpl
         group.runAfterGroup();
 
         Tokens toks = group.getAfterGroup();
+        group.unsave();
+        groupFactory.release(group);
         group = next;
+        meanings.closeGroup();
 
         if (toks != null) {
             source.push(toks);
@@ -509,7 +616,8 @@ public class ContextImpl
                 new GroupFactory(configuration.getConfiguration(GROUP_TAG));
         if (group == null) {
             try {
-                openGroup(GroupType.BOTTOM_LEVEL_GROUP, null, null);
+                openGroup(GroupType.BOTTOM_LEVEL_GROUP, (Locator) null,
+                    null);
             } catch (HelpingException e) {
                 throw new ConfigurationWrapperException(e);
             }
@@ -612,6 +720,25 @@ public class ContextImpl
         return (esc >= 0 ? UnicodeChar.get((int) esc) : null);
     }
 
+    /**
+     * Create a new context which shares the definitions of this context.
+     * 
+     * @return the new context
+     * 
+     * @throws HelpingException in case that a group or a conditional is
+     *         open
+     * 
+     * @see org.extex.interpreter.context.ForkableContext#fork()
+     */
+    @Override
+    public ForkableContext fork() throws HelpingException {
+
+        if (group.getLevel() != 0 || !conditionalStack.isEmpty()) {
+            throw new HelpingException(getLocalizer(), "ForkInGroup");
+        }
+        return new ContextImpl(this);
+    }
+
     /**
 *      java.lang.Object)
      */
@@ -687,6 +814,34 @@ public class ContextImpl
         return group.getCatcode(uc);
     }
 
+    /**
+     * Getter for the version of the category codes.
+     * 
+     * @return the version of the category codes of the current group
+     * 
+     * @see org.extex.scanner.api.Tokenizer#getCatcodeVersion()
+     */
+    @Override
+    public Object getCatcodeVersion() {
+
+        return group.getCatcodeVersion();
+    }
+
+    /**
+     * Get the {@link Catcode Catcode} for a given code point.
+     * 
+     * @param c the code point to get the catcode for.
+     * 
+     * @return the catcode for the code point
+     * 
+     * @see org.extex.scanner.api.Tokenizer#getCatcode(int)
+     */
+    @Override
+    public Catcode getCatcode(int c) {
+
+        return group.getCatcode(c);
+    }
+
     /**
      * Convenience method to get the code assigned to a Token. If the Token is a
      * ControlSequenceToken then the macro is returned. If the Token is a
@@ -703,9 +858,34 @@ public class ContextImpl
     @Override
     public Code getCode(CodeToken t) throws HelpingException {
 
+        if (t instanceof ControlSequenceToken) {
+            int slot = meanings.slot((ControlSequenceToken) t);
+            if (slot >= 0) {
+                Code code = meanings.get(slot);
+                if (code == null) {
+                    code = group.getCode(t);
+                    meanings.put(slot, code);
+                }
+                return code;
+            }
+        }
         return group.getCode(t);
     }
 
+    /**
+     * Getter for the current definition epoch. It is provided by the table of
+     * meanings.
+     * 
+     * @return the epoch
+     * 
+     * @see org.extex.interpreter.context.ContextCode#getCodeEpoch()
+     */
+    @Override
+    public Object getCodeEpoch() {
+
+        return meanings.epoch();
+    }
+
     /**
      * Getter for the currently active conditional.
      * 
@@ -740,7 +920,45 @@ public class ContextImpl
     @Override
     public Count getCount(String name) {
 
-        return group.getCount(name);
+        int index = registerIndex(name);
+        if (index >= 0) {
+            return group.getCount(index);
+        }
+        ParameterKey<Count> key = ParameterKey.countKey(name);
+        return key != null ? group.getParameter(key) : group.getCount(name);
+    }
+
+    /**
+     * Getter for a numbered count register.
+     * 
+     * @param index the number of the count register
+     * 
+     * @return the count register
+     * 
+     * @see org.extex.interpreter.context.ContextCount#getCount(int)
+     */
+    @Override
+    public Count getCount(int index) {
+
+        return index <= MAX_NUMBERED_REGISTER
+                ? group.getCount(index)
+                : group.getCount(Integer.toString(index));
+    }
+
+    /**
+     * Getter for a count parameter with a pre-resolved key. The value is
+     * taken from the slot of the key in the groups.
+     * 
+     * @param key the key of the parameter
+     * 
+     * @return the count register
+     * 
+     * @see org.extex.interpreter.context.ContextCount#getCount(org.extex.core.ParameterKey)
+     */
+    @Override
+    public Count getCount(ParameterKey<Count> key) {
+
+        return group.getParameter(key);
     }
 
     /**
@@ -755,7 +973,22 @@ public class ContextImpl
     @Override
     public FixedCount getCountOption(String name) {
 
-        return group.getCount(name);
+        return getCount(name);
+    }
+
+    /**
+     * Getter for a count parameter with a pre-resolved key.
+     * 
+     * @param key the key of the parameter
+     * 
+     * @return the content of the count register
+     * 
+     * @see org.extex.typesetter.TypesetterOptions#getCountOption(org.extex.core.ParameterKey)
+     */
+    @Override
+    public FixedCount getCountOption(ParameterKey<Count> key) {
+
+        return group.getParameter(key);
     }
 
     /**
@@ -785,7 +1018,45 @@ public class ContextImpl
     @Override
     public Dimen getDimen(String name) {
 
-        return group.getDimen(name);
+        int index = registerIndex(name);
+        if (index >= 0) {
+            return group.getDimen(index);
+        }
+        ParameterKey<Dimen> key = ParameterKey.dimenKey(name);
+        return key != null ? group.getParameter(key) : group.getDimen(name);
+    }
+
+    /**
+     * Get the current value of a numbered dimen register.
+     * 
+     * @param index the number of the register
+     * 
+     * @return the dimen register for the given number
+     * 
+     * @see org.extex.interpreter.context.ContextDimen#getDimen(int)
+     */
+    @Override
+    public Dimen getDimen(int index) {
+
+        return index <= MAX_NUMBERED_REGISTER
+                ? group.getDimen(index)
+                : group.getDimen(Integer.toString(index));
+    }
+
+    /**
+     * Get the current value of a dimen parameter with a pre-resolved key. The
+     * value is taken from the slot of the key in the groups.
+     * 
+     * @param key the key of the parameter
+     * 
+     * @return the dimen register for the given key
+     * 
+     * @see org.extex.interpreter.context.ContextDimen#getDimen(org.extex.core.ParameterKey)
+     */
+    @Override
+    public Dimen getDimen(ParameterKey<Dimen> key) {
+
+        return group.getParameter(key);
     }
 
     /**
@@ -800,7 +1071,22 @@ public class ContextImpl
     @Override
     public FixedDimen getDimenOption(String name) {
 
-        return group.getDimen(name);
+        return getDimen(name);
+    }
+
+    /**
+     * Getter for a dimen parameter with a pre-resolved key.
+     * 
+     * @param key the key of the parameter
+     * 
+     * @return the content of the dimen register
+     * 
+     * @see org.extex.typesetter.TypesetterOptions#getDimenOption(org.extex.core.ParameterKey)
+     */
+    @Override
+    public FixedDimen getDimenOption(ParameterKey<Dimen> key) {
+
+        return group.getParameter(key);
     }
 
 @Override
@@ -833,6 +1119,22 @@ public class ContextImpl
         return font;
     }
 
+    /**
+     * Getter for the font to be used in place of a given one. A forked
+     * context uses its own copies of the fonts of the base context.
+     * 
+     * @param font the font
+     * 
+     * @return the font to use
+     * 
+     * @see org.extex.interpreter.context.ContextFont#getLocalFont(org.extex.typesetter.tc.font.Font)
+     */
+    @Override
+    public Font getLocalFont(Font font) {
+
+        return group.getLocalFont(font);
+    }
+
 @Override
     public CoreFontFactory getFontFactory() {
 
@@ -842,13 +1144,26 @@ public class ContextImpl
 @Override
     public Glue getGlue(String name) {
 
-        return group.getSkip(name);
+        ParameterKey<Glue> key = ParameterKey.glueKey(name);
+        return key != null ? group.getParameter(key) : group.getSkip(name);
+    }
+
+@Override
+    public Glue getGlue(ParameterKey<Glue> key) {
+
+        return group.getParameter(key);
     }
 
 @Override
     public FixedGlue getGlueOption(String name) {
 
-        return group.getSkip(name);
+        return getGlue(name);
+    }
+
+@Override
+    public FixedGlue getGlueOption(ParameterKey<Glue> key) {
+
+        return group.getParameter(key);
     }
 
     /**
@@ -1293,6 +1608,44 @@ public class ContextImpl
             throws HelpingException {
 
         group = groupFactory.newInstance(group, locator, start, type);
+        enterGroup();
+    }
+
+    /**
+     * {@inheritDoc}
+     * 
+     * The locator is not created here. Only the position of the current
+     * stream is recorded in the group.
+     * 
+     * @see org.extex.interpreter.context.ContextGroup#openGroup(
+     *      org.extex.interpreter.context.group.GroupType,
+     *      org.extex.interpreter.TokenSource,
+     *      org.extex.scanner.type.token.Token)
+     */
+    @Override
+    public void openGroup(GroupType type, TokenSource source, Token start)
+            throws HelpingException {
+
+        TokenStream stream = source.getTokenStream();
+        if (stream == null) {
+            openGroup(type, source.getLocator(), start);
+            return;
+        }
+        group = groupFactory.newInstance(group, stream, start, type);
+        enterGroup();
+    }
+
+    /**
+     * Complete the opening of a group after the new group has been made the
+     * current one.
+     * 
+     * @throws HelpingException in case of an error
+     */
+    private void enterGroup() throws HelpingException {
+
+        if (group.getNext() != null) {
+            meanings.openGroup();
+        }
         group.setStandardTokenStream(standardTokenStream);
         if (groupObservers != null) {
             try {
@@ -1400,6 +1753,9 @@ public class ContextImpl
     public Object readResolve() throws ObjectStreamException {
 
         Registrar.reconnect(this);
+        if (meanings == null) {
+            meanings = new MeaningTable();
+        }
         init();
         return this;
     }
@@ -1927,6 +2283,9 @@ public class ContextImpl
             throws HelpingException {
 
         group.setCode(t, code, global);
+        if (t instanceof ControlSequenceToken) {
+            meanings.assign((ControlSequenceToken) t, code, global);
+        }
 
         List<CodeObserver> observerList = changeCodeObservers.get(t);
         if (null != observerList) {
@@ -1959,9 +2318,58 @@ public class ContextImpl
     public void setCount(String name, long value, boolean global)
             throws HelpingException {
 
-        Count count = new Count(value);
-        group.setCount(name, count, global);
+        Count count;
+        int index = registerIndex(name);
+        if (index >= 0) {
+            count = group.updateCount(index, value, global);
+        } else {
+            count = new Count(value);
+            ParameterKey<Count> key = ParameterKey.countKey(name);
+            if (key != null) {
+                group.setParameter(key, count, global);
+            } else {
+                group.setCount(name, count, global);
+            }
+        }
+
+        List<CountObserver> observerList = changeCountObservers.get(name);
+        if (null != observerList) {
+            runCountObservers(name, count, observerList);
+        }
+        observerList = changeCountObservers.get(null);
+        if (null != observerList) {
+            runCountObservers(name, count, observerList);
+        }
+    }
+
+    /**
+     * Setter for a numbered count register in all requested groups. The
+     * observers are informed under the name of the register.
+     * 
+     * @param index the number of the register
+     * @param value the new value of the register
+     * @param global the indicator for the scope; {@code true} means all
+     *        groups; otherwise the current group is affected only
+     * 
+     * @throws HelpingException in case of problems in an observer
+     * 
+     * @see org.extex.interpreter.context.ContextCount#setCount(int, long,
+     *      boolean)
+     */
+    @Override
+    public void setCount(int index, long value, boolean global)
+            throws HelpingException {
+
+        if (index > MAX_NUMBERED_REGISTER) {
+            setCount(Integer.toString(index), value, global);
+            return;
+        }
+        Count count = group.updateCount(index, value, global);
 
+        if (changeCountObservers.isEmpty()) {
+            return;
+        }
+        String name = Integer.toString(index);
         List<CountObserver> observerList = changeCountObservers.get(name);
         if (null != observerList) {
             runCountObservers(name, count, observerList);
@@ -2028,7 +2436,17 @@ public class ContextImpl
     public void setDimen(String name, Dimen value, boolean global)
             throws HelpingException {
 
-        group.setDimen(name, value, global);
+        int index = registerIndex(name);
+        if (index >= 0) {
+            group.setDimen(index, value, global);
+        } else {
+            ParameterKey<Dimen> key = ParameterKey.dimenKey(name);
+            if (key != null) {
+                group.setParameter(key, value, global);
+            } else {
+                group.setDimen(name, value, global);
+            }
+        }
 
         List<DimenObserver> observerList = changeDimenObservers.get(name);
         if (null != observerList) {
@@ -2064,6 +2482,84 @@ public class ContextImpl
         setDimen(name, new Dimen(value), global);
     }
 
+    /**
+     * Setter for a numbered {@link org.extex.core.dimen.Dimen Dimen} register
+     * in all requested groups. The observers are informed under the name of
+     * the register.
+     * 
+     * @param index the number of the register
+     * @param value the new value of the register
+     * @param global the indicator for the scope; {@code true} means all
+     *        groups; otherwise the current group is affected only
+     * 
+     * @throws HelpingException in case of problems in an observer
+     * 
+     * @see org.extex.interpreter.context.ContextDimen#setDimen(int,
+     *      org.extex.core.dimen.Dimen, boolean)
+     */
+    @Override
+    public void setDimen(int index, Dimen value, boolean global)
+            throws HelpingException {
+
+        if (index > MAX_NUMBERED_REGISTER) {
+            setDimen(Integer.toString(index), value, global);
+            return;
+        }
+        group.setDimen(index, value, global);
+
+        if (changeDimenObservers.isEmpty()) {
+            return;
+        }
+        String name = Integer.toString(index);
+        List<DimenObserver> observerList = changeDimenObservers.get(name);
+        if (null != observerList) {
+            runDimenObservers(name, value, observerList);
+        }
+        observerList = changeDimenObservers.get(null);
+        if (null != observerList) {
+            runDimenObservers(name, value, observerList);
+        }
+    }
+
+    /**
+     * Setter for a numbered {@link org.extex.core.dimen.Dimen Dimen} register
+     * in all requested groups. The register object is reused if possible.
+     * The observers are informed under the name of the register.
+     * 
+     * @param index the number of the register
+     * @param value the new value of the register in scaled points
+     * @param global the indicator for the scope; {@code true} means all
+     *        groups; otherwise the current group is affected only
+     * 
+     * @throws HelpingException in case of problems in an observer
+     * 
+     * @see org.extex.interpreter.context.ContextDimen#setDimen(int, long,
+     *      boolean)
+     */
+    @Override
+    public void setDimen(int index, long value, boolean global)
+            throws HelpingException {
+
+        if (index > MAX_NUMBERED_REGISTER) {
+            setDimen(Integer.toString(index), value, global);
+            return;
+        }
+        Dimen dimen = group.updateDimen(index, value, global);
+
+        if (changeDimenObservers.isEmpty()) {
+            return;
+        }
+        String name = Integer.toString(index);
+        List<DimenObserver> observerList = changeDimenObservers.get(name);
+        if (null != observerList) {
+            runDimenObservers(name, dimen, observerList);
+        }
+        observerList = changeDimenObservers.get(null);
+        if (null != observerList) {
+            runDimenObservers(name, dimen, observerList);
+        }
+    }
+
     /**
      * Setter for font registers.
      * 
@@ -2111,7 +2607,12 @@ public class ContextImpl
     public void setGlue(String name, Glue value, boolean global)
             throws HelpingException {
 
-        group.setSkip(name, value, global);
+        ParameterKey<Glue> key = ParameterKey.glueKey(name);
+        if (key != null) {
+            group.setParameter(key, value, global);
+        } else {
+            group.setSkip(name, value, global);
+        }
 
         List<GlueObserver> observerList = changeGlueObservers.get(name);
         if (null != observerList) {
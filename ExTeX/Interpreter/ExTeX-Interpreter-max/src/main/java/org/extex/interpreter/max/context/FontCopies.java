@@ -0,0 +1,76 @@
+/*
+ * Copyright (C) 2011 The ExTeX Group and individual authors listed below
+ *
+ * This library is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as published by the
+ * Free Software Foundation; either version 2.1 of the License, or (at your
+ * option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General Public License
+ * for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this library; if not, write to the Free Software Foundation,
+ * Inc., 59 Temple Place, Suite 330, Boston, MA 02111-1307 USA
+ *
+ */
+
+package org.extex.interpreter.max.context;
+import java.io.Serializable;
+import java.util.IdentityHashMap;
+import java.util.Map;
+
+import org.extex.typesetter.tc.font.Font;
+import org.extex.typesetter.tc.font.impl.NullFont;
+
+/**
+ * This class keeps the copies of the fonts of a base context which are used
+ * in a forked context. Fonts can be modified in place, e.g. by
+ * {@code \fontdimen} or {@code \hyphenchar}. Thus a forked context works on
+ * copies of them which are made when a font is encountered for the first
+ * time.
+ * <p>
+ * The copies are mapped to themselves. Thus a font passes through unchanged
+ * once it belongs to the forked context.
+ * </p>
+ *
+ * @author <a href="mailto:gene@gerd-neugebauer.de">Gerd Neugebauer</a>
+*/
+final class FontCopies implements Serializable {
+
+    /**
+     * The constant {@code serialVersionUID} contains the id for serialization.
+     */
+    private static final long serialVersionUID = 2011L;
+
+    /**
+     * The field {@code map} contains the mapping from the fonts to their
+     * copies. The fonts are compared by identity.
+     */
+    private final Map<Font, Font> map = new IdentityHashMap<Font, Font>();
+
+    /**
+     * Getter for the copy of a font. Fonts which can not be modified are
+     * returned unchanged.
+     *
+     * @param font the font
+     *
+     * @return the copy of the font
+     */
+    Font get(Font font) {
+
+        if (!(font instanceof NullFont)) {
+            return font;
+        }
+        Font copy = map.get(font);
+        if (copy == null) {
+            copy = ((NullFont) font).copy();
+            map.put(font, copy);
+            map.put(copy, copy);
+        }
+        return copy;
+    }
+
+}
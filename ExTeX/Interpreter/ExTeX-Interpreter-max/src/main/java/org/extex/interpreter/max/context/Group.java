@@ -22,6 +22,7 @@ package org.extex.interpreter.max.context;
 import java.io.Serializable;
 
 import org.extex.core.Locator;
+import org.extex.core.ParameterKey;
 import org.extex.core.UnicodeChar;
 import org.extex.core.count.Count;
 import org.extex.core.count.FixedCount;
@@ -72,6 +73,14 @@ public interface Group extends Tokenizer, Serializable {
      */
     void afterGroup(Token t);
 
+    /**
+     * Turn this group into the bottom-level group of a forked context. The
+     * group has been created on top of the bottom-level group of the base
+     * context. Afterwards the group counts as level 0 and has no next group.
+     * Assignments to it never reach the groups of the base context.
+     */
+    void fork();
+
     /**
      * Getter for the tokens which are inserted after the group has been closed.
      * 
@@ -129,6 +138,17 @@ public interface Group extends Tokenizer, Serializable {
      */
     Count getCount(String name);
 
+    /**
+     * Getter for a numbered count register in the current group. The numbered
+     * registers are kept apart from the named ones. As a default value 0 is
+     * returned.
+     * 
+     * @param index the non-negative number of the count register
+     * 
+     * @return the value of the count register or its default
+     */
+    Count getCount(int index);
+
     /**
      * Getter for the delcode of a character. The delcode is -1 unless changed
      * explicitly.
@@ -158,6 +178,17 @@ public interface Group extends Tokenizer, Serializable {
      */
     Dimen getDimen(String name);
 
+    /**
+     * Getter for a numbered dimen register in the current group. The numbered
+     * registers are kept apart from the named ones. As a default value 0 is
+     * returned.
+     * 
+     * @param index the non-negative number of the dimen register
+     * 
+     * @return the value of the dimen register or its default
+     */
+    Dimen getDimen(int index);
+
     /**
      * Getter for the current font.
      * 
@@ -167,6 +198,17 @@ public interface Group extends Tokenizer, Serializable {
      */
     Font getFont(String name);
 
+    /**
+     * Getter for the font to be used in place of a given one. In a forked
+     * context a font of the base context is replaced by a private copy since
+     * fonts can be modified in place. Otherwise the font itself is returned.
+     * 
+     * @param font the font
+     * 
+     * @return the font to use
+     */
+    Font getLocalFont(Font font);
+
     /**
      * Getter for the boolean value.
      * 
@@ -264,6 +306,18 @@ public interface Group extends Tokenizer, Serializable {
      */
     OutFile getOutFile(String name);
 
+    /**
+     * Getter for a parameter with a pre-resolved key. The parameters are kept
+     * apart from the named registers. If the parameter has not been set then
+     * the default value of the key is returned.
+     * 
+     * @param key the key of the parameter
+     * @param <T> the type of the value
+     * 
+     * @return the value of the parameter or its default
+     */
+    <T> T getParameter(ParameterKey<T> key);
+
     /**
      * Getter for the space factor code of a character. The sfcode is 999 for
      * letters and 1000 for other characters unless changed explicitly.
@@ -374,6 +428,59 @@ public interface Group extends Tokenizer, Serializable {
      */
     void runAfterGroup() throws HelpingException;
 
+    /**
+     * Restore the values which have been overwritten by local assignments
+     * while this group has been the current group. This method is invoked
+     * when the group is closed before the next group becomes current again.
+     */
+    void unsave();
+
+    /**
+     * Clear the group after it has been closed such that it can be handed
+     * out again by the group factory. A group which is still referenced
+     * from other places &ndash; e.g. the groups of a context which has been
+     * forked &ndash; must not be recycled.
+     *
+     * @return {@code true} iff the group has been cleared and can be reused
+     */
+    boolean release();
+
+    /**
+     * Prepare a released group to be used as the current group on top of a
+     * given group. Afterwards the group behaves like a freshly created one.
+     *
+     * @param nextGroup the next group in the stack
+     */
+    void reuse(Group nextGroup);
+
+    /**
+     * Assign a new value to a numbered count register in the requested
+     * groups. The register object of the current group is reused if it can
+     * not be seen from any other group. Otherwise a new one is stored.
+     * 
+     * @param index the non-negative number of the count register
+     * @param value the new value
+     * @param global the indicator for the scope; {@code true} means all
+     *        groups; otherwise the current group is affected only
+     * 
+     * @return the count register which contains the new value
+     */
+    Count updateCount(int index, long value, boolean global);
+
+    /**
+     * Assign a new value to a numbered dimen register in the requested
+     * groups. The register object of the current group is reused if it can
+     * not be seen from any other group. Otherwise a new one is stored.
+     * 
+     * @param index the non-negative number of the dimen register
+     * @param value the new value in scaled points
+     * @param global the indicator for the scope; {@code true} means all
+     *        groups; otherwise the current group is affected only
+     * 
+     * @return the dimen register which contains the new value
+     */
+    Dimen updateDimen(int index, long value, boolean global);
+
     /**
      * Setter for the {@link org.extex.interpreter.type.box.Box box} register in
      * all requested groups. Count registers are named, either with a number or
@@ -419,6 +526,16 @@ public interface Group extends Tokenizer, Serializable {
      */
     void setCount(String name, Count value, boolean global);
 
+    /**
+     * Setter for a numbered count register in the requested groups.
+     * 
+     * @param index the non-negative number of the count register
+     * @param value the value of the count register
+     * @param global the indicator for the scope; {@code true} means all
+     *        groups; otherwise the current group is affected only
+     */
+    void setCount(int index, Count value, boolean global);
+
     /**
      * Setter for the delcode of a character.
      * 
@@ -439,6 +556,16 @@ public interface Group extends Tokenizer, Serializable {
      */
     void setDimen(String name, Dimen value, boolean global);
 
+    /**
+     * Setter for a numbered dimen register in the requested groups.
+     * 
+     * @param index the non-negative number of the dimen register
+     * @param value the value of the dimen register
+     * @param global the indicator for the scope; {@code true} means all
+     *        groups; otherwise the current group is affected only
+     */
+    void setDimen(int index, Dimen value, boolean global);
+
     /**
      * Setter for the font with a given name.
      * 
@@ -487,6 +614,17 @@ public interface Group extends Tokenizer, Serializable {
      */
     void setLocator(Locator locator);
 
+    /**
+     * Setter for the position of the start of the group. The locator is
+     * created from it when it is requested.
+     * 
+     * @param resource the name of the resource
+     * @param line the line number
+     * @param text the text of the line
+     * @param pointer the position in the line
+     */
+    void setLocator(String resource, int line, String text, int pointer);
+
     /**
      * Setter for the math code of a character.
      * 
@@ -526,6 +664,17 @@ public interface Group extends Tokenizer, Serializable {
      */
     void setOutFile(String name, OutFile file, boolean global);
 
+    /**
+     * Setter for a parameter with a pre-resolved key in the requested groups.
+     * 
+     * @param key the key of the parameter
+     * @param value the new value
+     * @param global the indicator for the scope; {@code true} means all
+     *        groups; otherwise the current group is affected only
+     * @param <T> the type of the value
+     */
+    <T> void setParameter(ParameterKey<T> key, T value, boolean global);
+
     /**
      * Setter for the space factor code of a character.
      * 
@@ -19,8 +19,10 @@
 
 package org.extex.interpreter.max.context;
 
-import java.lang.reflect.Constructor;
-import java.lang.reflect.InvocationTargetException;
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.invoke.WrongMethodTypeException;
 
 import org.extex.core.Locator;
 import org.extex.framework.configuration.Configuration;
@@ -29,6 +31,7 @@ import org.extex.framework.configuration.exception.ConfigurationException;
 import org.extex.framework.configuration.exception.ConfigurationInstantiationException;
 import org.extex.framework.configuration.exception.ConfigurationMissingAttributeException;
 import org.extex.interpreter.context.group.GroupType;
+import org.extex.scanner.api.TokenStream;
 import org.extex.scanner.type.token.Token;
 
 /**
@@ -40,6 +43,16 @@ import org.extex.scanner.type.token.Token;
  *  &lt;Group class="the.package.TheClass"&gt;
  *  &lt;/Group&gt;
  * </pre>
+ * <p>
+ * The constructor of the configured class is resolved once into a method
+ * handle. Groups which have been closed can be handed back to the factory
+ * with {@link #release(Group)}. A small number of them is kept and reused for
+ * the next group to be opened. Thus the maps and arrays allocated by a group
+ * survive the frequent opening and closing of groups.
+ * </p>
+ * <p>
+ * The pool is not synchronized. Each context uses its own factory.
+ * </p>
  * 
  * @author <a href="mailto:gene@gerd-neugebauer.de">Gerd Neugebauer</a>
 */
@@ -52,11 +65,36 @@ public class GroupFactory {
     private static final String CLASS_ATTRIBUTE = "class";
 
     /**
-     * The field {@code constructor} contains the constructor of the class to
-     * instantiate. It is kept here to speed up the method
-     * {@link #newInstance(Group, Locator, Token, GroupType) newInstance}.
+     * The constant {@code CONSTRUCTOR_TYPE} contains the type of the method
+     * handle for the constructor.
      */
-    private final Constructor<?> constructor;
+    private static final MethodType CONSTRUCTOR_TYPE =
+            MethodType.methodType(Group.class, Group.class);
+
+    /**
+     * The constant {@code POOL_SIZE} contains the maximal number of released
+     * groups kept for reuse.
+     */
+    private static final int POOL_SIZE = 32;
+
+    /**
+     * The field {@code constructor} contains the method handle for the
+     * constructor of the class to instantiate. It is kept here to speed up
+     * the method {@link #newInstance(Group, Locator, Token, GroupType)
+     * newInstance}.
+     */
+    private final MethodHandle constructor;
+
+    /**
+     * The field {@code pool} contains the released groups which can be
+     * reused.
+     */
+    private final Group[] pool = new Group[POOL_SIZE];
+
+    /**
+     * The field {@code pooled} contains the number of groups in the pool.
+     */
+    private int pooled = 0;
 
     /**
      * Creates a new object.
@@ -83,17 +121,34 @@ public class GroupFactory {
 
         try {
             constructor =
-                    Class.forName(classname).getConstructor(
-                        Group.class );
+                    MethodHandles.publicLookup().findConstructor(
+                        Class.forName(classname),
+                        MethodType.methodType(void.class, Group.class))
+                        .asType(CONSTRUCTOR_TYPE);
         } catch (SecurityException e) {
             throw new ConfigurationInstantiationException(e);
         } catch (NoSuchMethodException e) {
             throw new ConfigurationInstantiationException(e);
+        } catch (IllegalAccessException e) {
+            throw new ConfigurationInstantiationException(e);
+        } catch (WrongMethodTypeException e) {
+            throw new ConfigurationInstantiationException(e);
         } catch (ClassNotFoundException e) {
             throw new ConfigurationClassNotFoundException(classname, config);
         }
     }
 
+    /**
+     * Creates a new object for the same class as a given factory. The pool
+     * is not shared.
+     * 
+     * @param factory the factory to take the class from
+     */
+    public GroupFactory(GroupFactory factory) {
+
+        constructor = factory.constructor;
+    }
+
     /**
      * Get a instance of a {@link org.extex.interpreter.max.context.Group Group}.
      * 
@@ -102,7 +157,7 @@ public class GroupFactory {
      * @param start the token which started the group
      * @param type the group type
      * 
-     * @return a new instance for the interface Group
+     * @return a new or recycled instance for the interface Group
      * 
      * @throws ConfigurationInstantiationException in case of an error in the
      *         configuration.
@@ -110,28 +165,87 @@ public class GroupFactory {
     public Group newInstance(Group next, Locator locator, Token start,
             GroupType type) throws ConfigurationInstantiationException {
 
+        Group group = obtain(next);
+        group.setType(type);
+        group.setLocator(locator);
+        group.setStart(start);
+
+        return group;
+    }
+
+    /**
+     * Get a instance of a {@link org.extex.interpreter.max.context.Group Group}.
+     * Only the resource name, the line number, and the position in the line
+     * of the stream are recorded. The locator is created from them when it
+     * is requested.
+     * 
+     * @param next the next group
+     * @param stream the stream the start of the group has been read from
+     * @param start the token which started the group
+     * @param type the group type
+     * 
+     * @return a new or recycled instance for the interface Group
+     * 
+     * @throws ConfigurationInstantiationException in case of an error in the
+     *         configuration.
+     */
+    public Group newInstance(Group next, TokenStream stream, Token start,
+            GroupType type) throws ConfigurationInstantiationException {
+
+        Group group = obtain(next);
+        group.setType(type);
+        group.setLocator(stream.getResourceName(), stream.getLineNumber(),
+            stream.getLine(), stream.getLinePointer());
+        group.setStart(start);
+
+        return group;
+    }
+
+    /**
+     * Take a group from the pool or create a new one.
+     * 
+     * @param next the next group
+     * 
+     * @return a new or recycled instance for the interface Group
+     * 
+     * @throws ConfigurationInstantiationException in case of an error in the
+     *         configuration.
+     */
+    private Group obtain(Group next) throws ConfigurationInstantiationException {
+
         Group group;
 
-        try {
-            group = (Group) constructor.newInstance(new Object[]{next});
-            group.setType(type);
-            group.setLocator(locator);
-            group.setStart(start);
-        } catch (IllegalArgumentException e) {
-            throw new ConfigurationInstantiationException(e);
-        } catch (InstantiationException e) {
-            throw new ConfigurationInstantiationException(e);
-        } catch (IllegalAccessException e) {
-            throw new ConfigurationInstantiationException(e);
-        } catch (InvocationTargetException e) {
-            Throwable c = e.getCause();
-            if (c != null && c instanceof ConfigurationException) {
-                throw (ConfigurationException) c;
+        if (pooled > 0 && next != null) {
+            group = pool[--pooled];
+            pool[pooled] = null;
+            group.reuse(next);
+        } else {
+            try {
+                group = (Group) constructor.invokeExact(next);
+            } catch (ConfigurationException e) {
+                throw e;
+            } catch (Error e) {
+                throw e;
+            } catch (Throwable e) {
+                // the constructor or the method handle has failed
+                throw new ConfigurationInstantiationException(e);
             }
-            throw new ConfigurationInstantiationException(e);
         }
-
         return group;
     }
 
+    /**
+     * Hand back a group which has been closed. If the group can be cleared
+     * and there is room in the pool then it is kept for reuse. The group must
+     * not be used by the caller afterwards.
+     * 
+     * @param group the group to release
+     */
+    public void release(Group group) {
+
+        if (pooled < POOL_SIZE && group.release()) {
+            pool[pooled++] = group;
+        }
+    }
+
 }
@@ -19,34 +19,36 @@
 
 package org.extex.interpreter.max.context;
 
+import java.util.Arrays;
+import java.util.EnumMap;
 import java.util.HashMap;
+import java.util.HashSet;
 import java.util.Map;
+import java.util.Set;
 
 import org.extex.core.Locator;
+import org.extex.core.ParameterKey;
 import org.extex.core.UnicodeChar;
 import org.extex.core.count.Count;
 import org.extex.core.count.CountConstant;
 import org.extex.core.count.FixedCount;
 import org.extex.core.dimen.Dimen;
 import org.extex.core.exception.helping.HelpingException;
-import org.extex.core.exception.helping.NoHelpException;
 import org.extex.core.glue.Glue;
 import org.extex.core.muskip.Muskip;
 import org.extex.interpreter.context.group.GroupType;
 import org.extex.interpreter.context.observer.group.AfterGroupObserver;
 import org.extex.interpreter.context.observer.group.AfterGroupObserverList;
+import org.extex.interpreter.loader.DeferredCode;
 import org.extex.interpreter.type.Code;
 import org.extex.interpreter.type.box.Box;
 import org.extex.scanner.api.TokenStream;
-import org.extex.scanner.api.Tokenizer;
-import org.extex.scanner.api.exception.ScannerException;
 import org.extex.scanner.type.Catcode;
 import org.extex.scanner.type.Namespace;
 import org.extex.scanner.type.file.InFile;
 import org.extex.scanner.type.file.OutFile;
 import org.extex.scanner.type.token.CodeToken;
 import org.extex.scanner.type.token.Token;
-import org.extex.scanner.type.token.TokenFactory;
 import org.extex.scanner.type.tokens.Tokens;
 import org.extex.typesetter.tc.TypesettingContext;
 import org.extex.typesetter.tc.font.Font;
@@ -59,22 +61,469 @@ import org.extex.typesetter.type.noad.MathGlyph;
  * This is a simple implementation for a group. The whole stack of groups is
  * implemented as a linked list. The list itself is mixed within the pure
  * elements of the linked list.
+ * <p>
+ * A global assignment stores the value in the current group and in the
+ * bottom-level group only. The key is recorded and the value is copied into
+ * the next group when the current group is closed. Thus the costs of a global
+ * assignment do not depend on the depth of the grouping.
+ * </p>
  * 
  * @author <a href="mailto:gene@gerd-neugebauer.de">Gerd Neugebauer</a>
  * @author <a href="mailto:m.g.n@gmx.de">Michael Niedermair</a>
 */
 public class GroupImpl implements Group {
 
+    /**
+     * This enumeration denotes the tables of a group which can be assigned
+     * globally. It provides uniform access to the entries of a table such
+     * that a global assignment can be passed on to the next group when a
+     * group is closed.
+     */
+    private enum Table {
+
+        /**
+         * The constant {@code BOX} denotes the boxes.
+         */
+        BOX {
+
+            @Override
+            Object get(GroupImpl group, Object key) {
+
+                return group.boxMap.get(key);
+            }
+
+            @Override
+            void set(GroupImpl group, Object key, Object value, boolean global) {
+
+                group.setBox((String) key, (Box) value, global);
+            }
+        },
+
+        /**
+         * The constant {@code CATCODE} denotes the category codes.
+         */
+        CATCODE {
+
+            @Override
+            Object get(GroupImpl group, Object key) {
+
+                return group.catcodes.get(((UnicodeChar) key).getCodePoint());
+            }
+
+            @Override
+            void set(GroupImpl group, Object key, Object value, boolean global) {
+
+                group.setCatcode((UnicodeChar) key, (Catcode) value, global);
+            }
+        },
+
+        /**
+         * The constant {@code CODE} denotes the definitions of active characters and macros.
+         */
+        CODE {
+
+            @Override
+            Object get(GroupImpl group, Object key) {
+
+                return group.codeMap.get(key);
+            }
+
+            @Override
+            void set(GroupImpl group, Object key, Object value, boolean global) {
+
+                group.setCode((Token) key, (Code) value, global);
+            }
+        },
+
+        /**
+         * The constant {@code COUNT} denotes the named count registers.
+         */
+        COUNT {
+
+            @Override
+            Object get(GroupImpl group, Object key) {
+
+                return group.countMap.get(key);
+            }
+
+            @Override
+            void set(GroupImpl group, Object key, Object value, boolean global) {
+
+                group.setCount((String) key, (Count) value, global);
+            }
+        },
+
+        /**
+         * The constant {@code COUNT_REGISTER} denotes the numbered count registers.
+         */
+        COUNT_REGISTER {
+
+            @Override
+            Object get(GroupImpl group, Object key) {
+
+                return group.localCount(((Integer) key).intValue());
+            }
+
+            @Override
+            void set(GroupImpl group, Object key, Object value, boolean global) {
+
+                group.setCount(((Integer) key).intValue(), (Count) value, global);
+            }
+        },
+
+        /**
+         * The constant {@code DELCODE} denotes the delimiter codes.
+         */
+        DELCODE {
+
+            @Override
+            Object get(GroupImpl group, Object key) {
+
+                return group.delcodeMap.get(key);
+            }
+
+            @Override
+            void set(GroupImpl group, Object key, Object value, boolean global) {
+
+                group.setDelcode((UnicodeChar) key, (MathDelimiter) value, global);
+            }
+        },
+
+        /**
+         * The constant {@code DIMEN} denotes the named dimen registers.
+         */
+        DIMEN {
+
+            @Override
+            Object get(GroupImpl group, Object key) {
+
+                return group.dimenMap.get(key);
+            }
+
+            @Override
+            void set(GroupImpl group, Object key, Object value, boolean global) {
+
+                group.setDimen((String) key, (Dimen) value, global);
+            }
+        },
+
+        /**
+         * The constant {@code DIMEN_REGISTER} denotes the numbered dimen registers.
+         */
+        DIMEN_REGISTER {
+
+            @Override
+            Object get(GroupImpl group, Object key) {
+
+                return group.localDimen(((Integer) key).intValue());
+            }
+
+            @Override
+            void set(GroupImpl group, Object key, Object value, boolean global) {
+
+                group.setDimen(((Integer) key).intValue(), (Dimen) value, global);
+            }
+        },
+
+        /**
+         * The constant {@code FONT} denotes the fonts.
+         */
+        FONT {
+
+            @Override
+            Object get(GroupImpl group, Object key) {
+
+                return group.fontMap.get(key);
+            }
+
+            @Override
+            void set(GroupImpl group, Object key, Object value, boolean global) {
+
+                group.setFont((String) key, (Font) value, global);
+            }
+        },
+
+        /**
+         * The constant {@code IF} denotes the booleans.
+         */
+        IF {
+
+            @Override
+            Object get(GroupImpl group, Object key) {
+
+                return group.ifMap.get(key);
+            }
+
+            @Override
+            void set(GroupImpl group, Object key, Object value, boolean global) {
+
+                group.setIf((String) key, ((Boolean) value).booleanValue(), global);
+            }
+        },
+
+        /**
+         * The constant {@code IN_FILE} denotes the input files.
+         */
+        IN_FILE {
+
+            @Override
+            Object get(GroupImpl group, Object key) {
+
+                return group.inFileMap.get(key);
+            }
+
+            @Override
+            void set(GroupImpl group, Object key, Object value, boolean global) {
+
+                group.setInFile((String) key, (InFile) value, global);
+            }
+        },
+
+        /**
+         * The constant {@code LCCODE} denotes the lower case codes.
+         */
+        LCCODE {
+
+            @Override
+            Object get(GroupImpl group, Object key) {
+
+                return group.lccodeMap.get(key);
+            }
+
+            @Override
+            void set(GroupImpl group, Object key, Object value, boolean global) {
+
+                group.setLccode((UnicodeChar) key, (UnicodeChar) value, global);
+            }
+        },
+
+        /**
+         * The constant {@code MATHCODE} denotes the math codes.
+         */
+        MATHCODE {
+
+            @Override
+            Object get(GroupImpl group, Object key) {
+
+                return group.mathcodeMap.get(key);
+            }
+
+            @Override
+            void set(GroupImpl group, Object key, Object value, boolean global) {
+
+                group.setMathcode((UnicodeChar) key, (MathCode) value, global);
+            }
+        },
+
+        /**
+         * The constant {@code MUSKIP} denotes the muskip registers.
+         */
+        MUSKIP {
+
+            @Override
+            Object get(GroupImpl group, Object key) {
+
+                return group.muskipMap.get(key);
+            }
+
+            @Override
+            void set(GroupImpl group, Object key, Object value, boolean global) {
+
+                group.setMuskip((String) key, (Muskip) value, global);
+            }
+        },
+
+        /**
+         * The constant {@code NAMESPACE} denotes the name space.
+         */
+        NAMESPACE {
+
+            @Override
+            Object get(GroupImpl group, Object key) {
+
+                return group.namespace;
+            }
+
+            @Override
+            void set(GroupImpl group, Object key, Object value, boolean global) {
+
+                group.setNamespace((String) value, global);
+            }
+        },
+
+        /**
+         * The constant {@code OUT_FILE} denotes the output files.
+         */
+        OUT_FILE {
+
+            @Override
+            Object get(GroupImpl group, Object key) {
+
+                return group.outFileMap.get(key);
+            }
+
+            @Override
+            void set(GroupImpl group, Object key, Object value, boolean global) {
+
+                group.setOutFile((String) key, (OutFile) value, global);
+            }
+        },
+
+        /**
+         * The constant {@code PARAMETER} denotes the parameters with pre-resolved keys.
+         */
+        PARAMETER {
+
+            @Override
+            Object get(GroupImpl group, Object key) {
+
+                return group.parameterArray[((ParameterKey<?>) key).getIndex()];
+            }
+
+            @Override
+            @SuppressWarnings("unchecked")
+            void set(GroupImpl group, Object key, Object value, boolean global) {
+
+                group.setParameter((ParameterKey<Object>) key, value, global);
+            }
+        },
+
+        /**
+         * The constant {@code SFCODE} denotes the space factor codes.
+         */
+        SFCODE {
+
+            @Override
+            Object get(GroupImpl group, Object key) {
+
+                return group.sfcodeMap.get(key);
+            }
+
+            @Override
+            void set(GroupImpl group, Object key, Object value, boolean global) {
+
+                group.setSfcode((UnicodeChar) key, (Count) value, global);
+            }
+        },
+
+        /**
+         * The constant {@code SKIP} denotes the skip registers.
+         */
+        SKIP {
+
+            @Override
+            Object get(GroupImpl group, Object key) {
+
+                return group.skipMap.get(key);
+            }
+
+            @Override
+            void set(GroupImpl group, Object key, Object value, boolean global) {
+
+                group.setSkip((String) key, (Glue) value, global);
+            }
+        },
+
+        /**
+         * The constant {@code TOKS} denotes the toks registers.
+         */
+        TOKS {
+
+            @Override
+            Object get(GroupImpl group, Object key) {
+
+                return group.toksMap.get(key);
+            }
+
+            @Override
+            void set(GroupImpl group, Object key, Object value, boolean global) {
+
+                group.setToks((String) key, (Tokens) value, global);
+            }
+        },
+
+        /**
+         * The constant {@code TYPESETTING_CONTEXT} denotes the typesetting context.
+         */
+        TYPESETTING_CONTEXT {
+
+            @Override
+            Object get(GroupImpl group, Object key) {
+
+                return group.typesettingContext;
+            }
+
+            @Override
+            void set(GroupImpl group, Object key, Object value, boolean global) {
+
+                group.setTypesettingContext((TypesettingContext) value, global);
+            }
+        },
+
+        /**
+         * The constant {@code UCCODE} denotes the upper case codes.
+         */
+        UCCODE {
+
+            @Override
+            Object get(GroupImpl group, Object key) {
+
+                return group.uccodeMap.get(key);
+            }
+
+            @Override
+            void set(GroupImpl group, Object key, Object value, boolean global) {
+
+                group.setUccode((UnicodeChar) key, (UnicodeChar) value, global);
+            }
+        };
+
+        /**
+         * Getter for the value stored in a group. The next groups are not
+         * consulted.
+         * 
+         * @param group the group
+         * @param key the key in the table
+         * 
+         * @return the value or {@code null}
+         */
+        abstract Object get(GroupImpl group, Object key);
+
+        /**
+         * Assign a value in a group.
+         * 
+         * @param group the group
+         * @param key the key in the table
+         * @param value the value
+         * @param global the indicator for the scope
+         */
+        abstract void set(GroupImpl group, Object key, Object value,
+                boolean global);
+    }
+
+    /**
+     * The constant {@code INITIAL_REGISTERS} contains the initial capacity of
+     * the arrays for numbered registers.
+     */
+    private static final int INITIAL_REGISTERS = 16;
+
     /**
      * The constant {@code INVALID_CHAR_CODE} contains the code for an invalid
      * character.
      */
     private static final int INVALID_CHAR_CODE = 127;
 
+    /**
+     * The constant {@code RECYCLE_LIMIT} contains the maximal number of
+     * entries of a map or array which is cleared for reuse when the group is
+     * released. Larger ones are dropped.
+     */
+    private static final int RECYCLE_LIMIT = 64;
+
     /**
      * The constant {@code serialVersionUID} contains the id for serialization.
      */
-    protected static final long serialVersionUID = 20060512L;
+    protected static final long serialVersionUID = 20110512L;
 
     /**
      * The field {@code SFCODE_DEFAULT} contains the default space factor code
@@ -88,6 +537,72 @@ public class GroupImpl implements Group {
      */
     private static final FixedCount SFCODE_LETTER = new CountConstant(999);
 
+    /**
+     * Compute the capacity of an array of numbered registers which is needed
+     * to store a given index.
+     * 
+     * @param length the current length of the array
+     * @param index the index to be stored
+     * 
+     * @return the new length
+     */
+    private static int capacity(int length, int index) {
+
+        int size = Math.max(length, INITIAL_REGISTERS);
+        while (size <= index && size > 0) {
+            size <<= 1;
+        }
+        return size > index ? size : index + 1;
+    }
+
+    /**
+     * Clear an array of registers for reuse.
+     * 
+     * @param array the array or {@code null}
+     * 
+     * @return the cleared array or {@code null} if it is too large
+     */
+    private static <T> T[] recycle(T[] array) {
+
+        if (array == null || array.length > RECYCLE_LIMIT) {
+            return null;
+        }
+        Arrays.fill(array, null);
+        return array;
+    }
+
+    /**
+     * Clear a table of registers for reuse.
+     * 
+     * @param table the table or {@code null}
+     * 
+     * @return the cleared table or {@code null} if it is too large
+     */
+    private static <T> RegisterTable<T> recycle(RegisterTable<T> table) {
+
+        if (table == null || table.capacity() > RECYCLE_LIMIT) {
+            return null;
+        }
+        table.clear();
+        return table;
+    }
+
+    /**
+     * Clear a map for reuse.
+     * 
+     * @param map the map or {@code null}
+     * 
+     * @return the cleared map or {@code null} if it is too large
+     */
+    private static <K, V> Map<K, V> recycle(Map<K, V> map) {
+
+        if (map == null || map.size() > RECYCLE_LIMIT) {
+            return null;
+        }
+        map.clear();
+        return map;
+    }
+
     /**
      * The field {@code afterGroup} contains the tokens to be inserted after
      * the group has been closed.
@@ -100,6 +615,12 @@ public class GroupImpl implements Group {
      */
     private transient AfterGroupObserver afterGroupObservers = null;
 
+    /**
+     * The field {@code base} contains the bottom-level group of the chain.
+     * Global assignments are stored there. It is determined on first use.
+     */
+    private transient GroupImpl base = null;
+
     /**
      * The field {@code boxMap} contains the map for the boxes. The field is
      * initialized lacy. Thus new groups come up faster.
@@ -107,10 +628,11 @@ public class GroupImpl implements Group {
     private Map<String, Box> boxMap;
 
     /**
-     * The field {@code catcodeMap} contains the map for the category codes.
-     * The field is initialized lacy. Thus new groups come up faster.
+     * The field {@code catcodes} contains the table for the category codes.
+     * It is a snapshot of the table of the next group. Thus it contains all
+     * category codes in effect and no further lookup is needed.
      */
-    private Map<UnicodeChar, Catcode> catcodeMap;
+    private CatcodeTable catcodes;
 
     /**
      * The field {@code codeMap} contains the map for the active characters and
@@ -119,12 +641,26 @@ public class GroupImpl implements Group {
      */
     private Map<Token, Code> codeMap;
 
+    /**
+     * The field {@code countArray} contains the numbered count registers of
+     * the bottom-level group. The field is initialized lacy and grows with
+     * the highest number used.
+     */
+    private Count[] countArray;
+
     /**
      * The field {@code countMap} contains the map for the count registers. The
      * field is initialized lacy. Thus new groups come up faster.
      */
     private Map<String, Count> countMap;
 
+    /**
+     * The field {@code countTable} contains the numbered count registers
+     * assigned locally in a group above the bottom level. The field is
+     * initialized lacy. Its size depends on the number of assignments only.
+     */
+    private RegisterTable<Count> countTable;
+
     /**
      * The field {@code delcodeMap} contains the map for the delimiter code of
      * the characters. The field is initialized lacy. Thus new groups come up
@@ -132,12 +668,26 @@ public class GroupImpl implements Group {
      */
     private Map<UnicodeChar, MathDelimiter> delcodeMap;
 
+    /**
+     * The field {@code dimenArray} contains the numbered dimen registers of
+     * the bottom-level group. The field is initialized lacy and grows with
+     * the highest number used.
+     */
+    private Dimen[] dimenArray;
+
     /**
      * The field {@code dimenMap} contains the map for the dimen registers. The
      * field is initialized lacy. Thus new groups come up faster.
      */
     private Map<String, Dimen> dimenMap;
 
+    /**
+     * The field {@code dimenTable} contains the numbered dimen registers
+     * assigned locally in a group above the bottom level. The field is
+     * initialized lacy. Its size depends on the number of assignments only.
+     */
+    private RegisterTable<Dimen> dimenTable;
+
     /**
      * The field {@code extensionMap} contains the mapping from extension to
      * their HashMap. The field is initialized lacy. Thus new groups come up
@@ -151,6 +701,20 @@ public class GroupImpl implements Group {
      */
     private Map<String, Font> fontMap;
 
+    /**
+     * The field {@code fontCopies} contains the copies of the fonts of the
+     * base context. It is used in the bottom-level group of a forked context
+     * only and is initialized lacy.
+     */
+    private FontCopies fontCopies;
+
+    /**
+     * The field {@code globals} contains the keys which have been assigned
+     * globally while this group has been open. They are passed on to the next
+     * group when this group is closed.
+     */
+    private transient Map<Table, Set<Object>> globals = null;
+
     /**
      * The field {@code ifMap} contains the map for the booleans. The field is
      * initialized lacy. Thus new groups come up faster.
@@ -177,6 +741,37 @@ public class GroupImpl implements Group {
      */
     private transient Locator locator;
 
+    /**
+     * The field {@code locatorLine} contains the line number of the start of
+     * the group. It is used to create the locator on demand.
+     */
+    private transient int locatorLine;
+
+    /**
+     * The field {@code locatorPending} contains the indicator that the
+     * locator has not been created yet from the resource, the line, and the
+     * pointer.
+     */
+    private transient boolean locatorPending = false;
+
+    /**
+     * The field {@code locatorPointer} contains the position in the line of
+     * the start of the group. It is used to create the locator on demand.
+     */
+    private transient int locatorPointer;
+
+    /**
+     * The field {@code locatorResource} contains the name of the resource of
+     * the start of the group. It is used to create the locator on demand.
+     */
+    private transient String locatorResource;
+
+    /**
+     * The field {@code locatorText} contains the text of the line of the
+     * start of the group. It is used to create the locator on demand.
+     */
+    private transient String locatorText;
+
     /**
      * The field {@code mathcodeMap} contains the map for the category codes.
      * The field is initialized lacy. Thus new groups come up faster.
@@ -206,12 +801,35 @@ public class GroupImpl implements Group {
      */
     private transient Map<String, OutFile> outFileMap;
 
+    /**
+     * The field {@code parameterArray} contains the parameters with
+     * pre-resolved keys indexed by the slot number of the key. The array is
+     * created when the first parameter is stored in this group.
+     */
+    private Object[] parameterArray;
+
+    /**
+     * The field {@code root} contains the indicator that this group is the
+     * bottom-level group of a forked context. The next group belongs to the
+     * base context. It is consulted for look-ups but never modified. Register
+     * values found there are copied into this group when they are accessed
+     * for the first time since they might be modified in place.
+     */
+    private boolean root = false;
+
     /**
      * The field {@code sfcodeMap} contains the map for the space factor. The
      * field is initialized lacy. Thus new groups come up faster.
      */
     private Map<UnicodeChar, Count> sfcodeMap;
 
+    /**
+     * The field {@code shared} contains the indicator that this group belongs
+     * to a base context which is shared by forked contexts. Defaults are not
+     * stored in such a group.
+     */
+    private transient boolean shared = false;
+
     /**
      * The field {@code skipMap} contains the map for the skip registers The
      * field is initialized lacy. Thus new groups come up faster.
@@ -262,7 +880,7 @@ public class GroupImpl implements Group {
      */
     public GroupImpl(Group nextGroup) {
 
-        this.next = nextGroup;
+        link(nextGroup);
     }
 
     /**
@@ -294,6 +912,59 @@ public class GroupImpl implements Group {
         afterGroup.add(t);
     }
 
+    /**
+     * Perform the global part of an assignment. The value is stored in the
+     * bottom-level group and the key is recorded to be passed on to the next
+     * group when this group is closed. Thus the groups in between are not
+     * touched. A {@code null} value can not shadow a value in a lower group.
+     * Thus it is stored in all groups.
+     * 
+     * @param table the table
+     * @param key the key in the table
+     * @param value the value
+     */
+    private void assignGlobal(Table table, Object key, Object value) {
+
+        if (value == null) {
+            table.set((GroupImpl) next, key, null, true);
+            return;
+        }
+        table.set(base(), key, value, false);
+        record(table, key);
+    }
+
+    /**
+     * Getter for the bottom-level group which holds the global values.
+     * 
+     * @return the bottom-level group
+     */
+    private GroupImpl base() {
+
+        if (base == null) {
+            base =
+                    next == null || root || !(next instanceof GroupImpl)
+                            ? this
+                            : ((GroupImpl) next).base();
+        }
+        return base;
+    }
+
+    /**
+     * Turn this group into the bottom-level group of a forked context. The
+     * groups of the base context are marked as shared. They are consulted
+     * for look-ups but not modified any more.
+     * 
+     * @see org.extex.interpreter.max.context.Group#fork()
+     */
+    public void fork() {
+
+        root = true;
+        base = this;
+        for (Group g = next; g instanceof GroupImpl; g = ((GroupImpl) g).next) {
+            ((GroupImpl) g).shared = true;
+        }
+    }
+
     /**
      * Get some extension object stored in the group.
      * 
@@ -353,7 +1024,28 @@ public class GroupImpl implements Group {
                 return box;
             }
         }
-        return (next != null ? next.getBox(name) : null);
+        if (next == null) {
+            return null;
+        }
+        Box box = next.getBox(name);
+        if (root && box != null) {
+            box = new Box(box.isVoid() ? null : box.getNodes().deepCopy());
+            setBox(name, box, false);
+        }
+        return box;
+    }
+
+    /**
+     * Getter for the version of the category codes. The version is taken
+     * from the table of the category codes of this group.
+     * 
+     * @return the version
+     * 
+     * @see org.extex.scanner.api.Tokenizer#getCatcodeVersion()
+     */
+    public Object getCatcodeVersion() {
+
+        return catcodes.version();
     }
 
     /**
@@ -361,29 +1053,53 @@ public class GroupImpl implements Group {
      * 
      * @param c the Unicode character to analyze
      * 
-     * @return the category code of a character
+     * @return the category code of a character
+     * 
+     * @see org.extex.scanner.api.Tokenizer#getCatcode(org.extex.core.UnicodeChar)
+     */
+    public Catcode getCatcode(UnicodeChar c) {
+
+        return getCatcode(c.getCodePoint());
+    }
+
+    /**
+     * Getter for the category code of a code point.
+     * 
+     * @param c the code point to analyze
+     * 
+     * @return the category code of the code point
      * 
-     * @see org.extex.scanner.api.Tokenizer#getCatcode(org.extex.core.UnicodeChar)
+     * @see org.extex.scanner.api.Tokenizer#getCatcode(int)
      */
-    public Catcode getCatcode(UnicodeChar c) {
-
-        if (catcodeMap != null) {
-            Catcode value = catcodeMap.get(c);
+    public Catcode getCatcode(int c) {
 
-            if (value != null) {
-                return value;
-            }
+        Catcode value = catcodes.get(c);
+        if (value != null) {
+            return value;
         }
-        if (next != null) {
+        if (next != null && !(next instanceof GroupImpl)) {
             return next.getCatcode(c);
         }
 
-        // Fallback for predefined catcodes
-        if (c.isLetter()) {
+        return defaultCatcode(c);
+    }
+
+    /**
+     * Getter for the predefined category code of a character. This is the
+     * category code in effect when no assignment has been made for the
+     * character.
+     * 
+     * @param c the code point to analyze
+     * 
+     * @return the initial category code of the character
+     */
+    static Catcode defaultCatcode(int c) {
+
+        if (UnicodeChar.isLetter(c)) {
             return Catcode.LETTER;
         }
 
-        switch (c.getCodePoint()) {
+        switch (c) {
             case ' ':
                 return Catcode.SPACE;
             case '\\':
@@ -426,6 +1142,8 @@ public class GroupImpl implements Group {
 
     /**
      * Recurse down the group stack and search for the definition of a token.
+     * Code loaded from a format which has not been decoded yet is decoded
+     * and replaces its place holder.
      * 
      * @param token the token to look-up the definition for
      * 
@@ -436,6 +1154,12 @@ public class GroupImpl implements Group {
 
         if (codeMap != null) {
             Code code = codeMap.get(token);
+            if (code instanceof DeferredCode) {
+                code = ((DeferredCode) code).getCode();
+                if (!shared) {
+                    codeMap.put(token, code);
+                }
+            }
             if (code != null) {
                 return code;
             }
@@ -472,10 +1196,18 @@ public class GroupImpl implements Group {
             }
         }
         if (next != null) {
-            return next.getCount(name);
+            Count count = next.getCount(name);
+            if (root) {
+                count = new Count(count);
+                setCount(name, count, false);
+            }
+            return count;
         }
 
         Count count = new Count(0);
+        if (shared) {
+            return count;
+        }
         if (countMap == null) {
             countMap = new HashMap<String, Count>();
         }
@@ -483,6 +1215,57 @@ public class GroupImpl implements Group {
         return count;
     }
 
+    /**
+     * Getter for a numbered count register assigned in this group. The
+     * bottom-level group keeps them in an array; the other groups in a
+     * table.
+     * 
+     * @param index the number of the count register
+     * 
+     * @return the value of the count register or {@code null} if it has not
+     *         been assigned in this group
+     */
+    private Count localCount(int index) {
+
+        if (countArray != null && index < countArray.length
+                && countArray[index] != null) {
+            return countArray[index];
+        }
+        return countTable != null ? countTable.get(index) : null;
+    }
+
+    /**
+     * Getter for a numbered count register in the current group. As a default
+     * value 0 is returned.
+     * 
+     * @param index the number of the count register
+     * 
+     * @return the value of the count register or its default
+     * 
+     * @see org.extex.interpreter.max.context.Group#getCount(int)
+     */
+    public Count getCount(int index) {
+
+        Count local = localCount(index);
+        if (local != null) {
+            return local;
+        }
+        if (next != null) {
+            Count count = next.getCount(index);
+            if (root) {
+                count = new Count(count);
+                setCount(index, count, false);
+            }
+            return count;
+        }
+
+        Count count = new Count(0);
+        if (!shared) {
+            setCount(index, count, false);
+        }
+        return count;
+    }
+
     /**
      * Getter for the delimiter code of a character. The delimiter code is -1
      * unless changed explicitly.
@@ -545,10 +1328,18 @@ public class GroupImpl implements Group {
             }
         }
         if (next != null) {
-            return next.getDimen(name);
+            Dimen dimen = next.getDimen(name);
+            if (root) {
+                dimen = new Dimen(dimen);
+                setDimen(name, dimen, false);
+            }
+            return dimen;
         }
 
         Dimen dimen = new Dimen();
+        if (shared) {
+            return dimen;
+        }
         if (dimenMap == null) {
             dimenMap = new HashMap<String, Dimen>();
         }
@@ -556,6 +1347,57 @@ public class GroupImpl implements Group {
         return dimen;
     }
 
+    /**
+     * Getter for a numbered dimen register assigned in this group. The
+     * bottom-level group keeps them in an array; the other groups in a
+     * table.
+     * 
+     * @param index the number of the dimen register
+     * 
+     * @return the value of the dimen register or {@code null} if it has not
+     *         been assigned in this group
+     */
+    private Dimen localDimen(int index) {
+
+        if (dimenArray != null && index < dimenArray.length
+                && dimenArray[index] != null) {
+            return dimenArray[index];
+        }
+        return dimenTable != null ? dimenTable.get(index) : null;
+    }
+
+    /**
+     * Getter for a numbered dimen register in the current group. As a default
+     * value 0 is returned.
+     * 
+     * @param index the number of the dimen register
+     * 
+     * @return the value of the dimen register or its default
+     * 
+     * @see org.extex.interpreter.max.context.Group#getDimen(int)
+     */
+    public Dimen getDimen(int index) {
+
+        Dimen local = localDimen(index);
+        if (local != null) {
+            return local;
+        }
+        if (next != null) {
+            Dimen dimen = next.getDimen(index);
+            if (root) {
+                dimen = new Dimen(dimen);
+                setDimen(index, dimen, false);
+            }
+            return dimen;
+        }
+
+        Dimen dimen = new Dimen();
+        if (!shared) {
+            setDimen(index, dimen, false);
+        }
+        return dimen;
+    }
+
     /**
      * Getter for the current font.
      * 
@@ -574,7 +1416,38 @@ public class GroupImpl implements Group {
                 return font;
             }
         }
-        return next != null ? next.getFont(name) : null;
+        if (next == null) {
+            return null;
+        }
+        Font font = next.getFont(name);
+        if (root && font != null) {
+            font = getLocalFont(font);
+            setFont(name, font, false);
+        }
+        return font;
+    }
+
+    /**
+     * Getter for the font to be used in place of a given one. The
+     * bottom-level group of a forked context makes a copy of a font when it
+     * is encountered for the first time.
+     * 
+     * @param font the font
+     * 
+     * @return the font to use
+     * 
+     * @see org.extex.interpreter.max.context.Group#getLocalFont(org.extex.typesetter.tc.font.Font)
+     */
+    public Font getLocalFont(Font font) {
+
+        GroupImpl b = base();
+        if (!b.root || font == null) {
+            return font;
+        }
+        if (b.fontCopies == null) {
+            b.fontCopies = new FontCopies();
+        }
+        return b.fontCopies.get(font);
     }
 
     /**
@@ -611,71 +1484,7 @@ public class GroupImpl implements Group {
     public InFile getInFile(String name) {
 
         if (name == null) {
-            // return new InputFile(standardTokenStream, true);
-            return new InFile() {
-
-                /**
-                 * The field {@code serialVersionUID} contains the version
-                 * number for serialization.
-                 */
-                private static final long serialVersionUID = 2007L;
-
-                private boolean closed = false;
-
-                public void close() {
-
-                    closed = true;
-                }
-
-                public boolean isEof() throws HelpingException {
-
-                    try {
-                        return closed || standardTokenStream.isEof();
-                    } catch (ScannerException e) {
-                        throw new NoHelpException(e);
-                    }
-                }
-
-                public boolean isFileStream() {
-
-                    return false;
-                }
-
-                public boolean isOpen() {
-
-                    return !closed;
-                }
-
-                public boolean isStandardStream() {
-
-                    return true;
-                }
-
-                public Tokens read(TokenFactory factory, Tokenizer tokenizer)
-                        throws HelpingException {
-
-                    if (closed) {
-                        return null;
-                    }
-                    Tokens toks = new Tokens();
-                    Token t;
-
-                    try {
-                        for (;;) {
-                            t = standardTokenStream.get(factory, tokenizer);
-                            if (t == null) {
-                                return (toks.length() > 0 ? toks : null);
-                            } else if (standardTokenStream.isEol()) {
-                                return toks;
-                            }
-                            toks.add(t);
-                        }
-                    } catch (ScannerException e) {
-                        throw new NoHelpException(e);
-                    }
-                }
-
-            };
+            return new StandardInFile(standardTokenStream);
         }
 
         if (inFileMap != null) {
@@ -715,6 +1524,9 @@ public class GroupImpl implements Group {
         // Fallback for predefined lccodes
         if (lc.isLetter()) {
             UnicodeChar value = lc.lower();
+            if (shared) {
+                return value;
+            }
             // the value is stored to avoid constructing UnicodeChars again
             if (lccodeMap == null) {
                 lccodeMap = new HashMap<UnicodeChar, UnicodeChar>();
@@ -736,7 +1548,7 @@ public class GroupImpl implements Group {
      */
     public long getLevel() {
 
-        return (next == null ? 0 : 1 + next.getLevel());
+        return (next == null || root ? 0 : 1 + next.getLevel());
     }
 
     /**
@@ -748,6 +1560,13 @@ public class GroupImpl implements Group {
      */
     public Locator getLocator() {
 
+        if (locatorPending) {
+            locator = new Locator(locatorResource, locatorLine, locatorText,
+                locatorPointer);
+            locatorPending = false;
+            locatorResource = null;
+            locatorText = null;
+        }
         return this.locator;
     }
 
@@ -784,6 +1603,9 @@ public class GroupImpl implements Group {
             mc = new MathCode(MathClass.ORDINARY, new MathGlyph(0, c));
         }
 
+        if (shared) {
+            return mc;
+        }
         if (mathcodeMap == null) {
             mathcodeMap = new HashMap<UnicodeChar, MathCode>();
         }
@@ -814,7 +1636,15 @@ public class GroupImpl implements Group {
                 return muskip;
             }
         }
-        return next != null ? next.getMuskip(name) : new Muskip();
+        if (next == null) {
+            return new Muskip();
+        }
+        Muskip muskip = next.getMuskip(name);
+        if (root) {
+            muskip = new Muskip(muskip);
+            setMuskip(name, muskip, false);
+        }
+        return muskip;
     }
 
     /**
@@ -846,7 +1676,7 @@ public class GroupImpl implements Group {
      */
     public Group getNext() {
 
-        return next;
+        return root ? null : next;
     }
 
     /**
@@ -866,6 +1696,38 @@ public class GroupImpl implements Group {
         return null;
     }
 
+    /**
+     * Getter for a parameter with a pre-resolved key in the current group.
+     * 
+     * @param key the key of the parameter
+     * @param <T> the type of the value
+     * 
+     * @return the value of the parameter or its default
+     * 
+     * @see org.extex.interpreter.max.context.Group#getParameter(org.extex.core.ParameterKey)
+     */
+    @SuppressWarnings("unchecked")
+    public <T> T getParameter(ParameterKey<T> key) {
+
+        int index = key.getIndex();
+        if (parameterArray != null && index < parameterArray.length) {
+            Object value = parameterArray[index];
+
+            if (value != null) {
+                return (T) value;
+            }
+        }
+        if (next != null) {
+            return next.getParameter(key);
+        }
+
+        T value = key.createDefault();
+        if (!shared) {
+            setParameter(key, value, false);
+        }
+        return value;
+    }
+
     /**
      * Getter for the space factor code of a character. The sfcode is 999 for
      * letters and 1000 for other characters unless changed explicitly.
@@ -919,7 +1781,15 @@ public class GroupImpl implements Group {
                 return skip;
             }
         }
-        return next != null ? next.getSkip(name) : new Glue(0);
+        if (next == null) {
+            return new Glue(0);
+        }
+        Glue skip = next.getSkip(name);
+        if (root) {
+            skip = new Glue(skip);
+            setSkip(name, skip, false);
+        }
+        return skip;
     }
 
     /**
@@ -969,7 +1839,17 @@ public class GroupImpl implements Group {
                 return toks;
             }
         }
-        return next != null ? next.getToks(name) : new Tokens();
+        if (next == null) {
+            return new Tokens();
+        }
+        Tokens toks = next.getToks(name);
+        if (root) {
+            Tokens t = new Tokens();
+            t.add(toks);
+            toks = t;
+            setToks(name, toks, false);
+        }
+        return toks;
     }
 
     /**
@@ -993,7 +1873,10 @@ public class GroupImpl implements Group {
                 return toks;
             }
         }
-        return next != null ? next.getToks(name) : null;
+        if (next == null) {
+            return null;
+        }
+        return root ? getToks(name) : next.getToks(name);
     }
 
     /**
@@ -1050,6 +1933,9 @@ public class GroupImpl implements Group {
         // Fallback for predefined uc codes
         if (uc.isLetter()) {
             UnicodeChar value = uc.upper();
+            if (shared) {
+                return value;
+            }
             // the value is stored to avoid constructing UnicodeChars again
             if (uccodeMap == null) {
                 uccodeMap = new HashMap<UnicodeChar, UnicodeChar>();
@@ -1060,7 +1946,124 @@ public class GroupImpl implements Group {
         return null;
     }
 
-public void runAfterGroup() throws HelpingException {
+    /**
+     * Attach this group to the next group. The category codes are initialized
+     * from the next group or with the defaults for the global base.
+     * 
+     * @param nextGroup the next group in the stack or {@code null}
+     */
+    private void link(Group nextGroup) {
+
+        this.next = nextGroup;
+        this.base = null;
+        if (nextGroup instanceof GroupImpl) {
+            this.catcodes = ((GroupImpl) nextGroup).catcodes.snapshot();
+        } else {
+            this.catcodes = new CatcodeTable();
+            if (nextGroup == null) {
+                for (int i = 0; i < 256; i++) {
+                    catcodes.set(i, defaultCatcode(i));
+                }
+            }
+        }
+    }
+
+    /**
+     * Record a key which has been assigned globally.
+     * 
+     * @param table the table
+     * @param key the key in the table
+     */
+    private void record(Table table, Object key) {
+
+        if (globals == null) {
+            globals = new EnumMap<Table, Set<Object>>(Table.class);
+        }
+        Set<Object> keys = globals.get(table);
+        if (keys == null) {
+            keys = new HashSet<Object>();
+            globals.put(table, keys);
+        }
+        keys.add(key);
+    }
+
+    /**
+     * Clear the group after it has been closed. The maps and arrays are
+     * emptied and kept unless they have grown large. The bottom-level group
+     * and the groups of a forked context are never recycled.
+     * 
+     * @return {@code true} iff the group has been cleared
+     * 
+     * @see org.extex.interpreter.max.context.Group#release()
+     */
+    public boolean release() {
+
+        if (next == null || root || shared) {
+            return false;
+        }
+        afterGroup = null;
+        afterGroupObservers = null;
+        base = null;
+        boxMap = recycle(boxMap);
+        catcodes = null;
+        codeMap = recycle(codeMap);
+        countArray = recycle(countArray);
+        countMap = recycle(countMap);
+        countTable = recycle(countTable);
+        delcodeMap = recycle(delcodeMap);
+        dimenArray = recycle(dimenArray);
+        dimenMap = recycle(dimenMap);
+        dimenTable = recycle(dimenTable);
+        extensionMap = null;
+        fontMap = recycle(fontMap);
+        globals = null;
+        ifMap = recycle(ifMap);
+        inFileMap = recycle(inFileMap);
+        lccodeMap = recycle(lccodeMap);
+        locator = null;
+        locatorPending = false;
+        locatorResource = null;
+        locatorText = null;
+        mathcodeMap = recycle(mathcodeMap);
+        muskipMap = recycle(muskipMap);
+        namespace = null;
+        next = null;
+        outFileMap = recycle(outFileMap);
+        if (parameterArray != null) {
+            Arrays.fill(parameterArray, null);
+        }
+        sfcodeMap = recycle(sfcodeMap);
+        skipMap = recycle(skipMap);
+        standardTokenStream = null;
+        start = null;
+        toksMap = recycle(toksMap);
+        type = GroupType.BOTTOM_LEVEL_GROUP;
+        typesettingContext = null;
+        uccodeMap = recycle(uccodeMap);
+        return true;
+    }
+
+    /**
+     * Prepare a released group to be used again on top of a given group.
+     * 
+     * @param nextGroup the next group in the stack
+     * 
+     * @see org.extex.interpreter.max.context.Group#reuse(org.extex.interpreter.max.context.Group)
+     */
+    public void reuse(Group nextGroup) {
+
+        link(nextGroup);
+    }
+
+    /**
+     * Invoke the observers registered to be run after the group has been
+     * closed.
+     * 
+     * @throws HelpingException in case of an error
+     * 
+     * @see org.extex.interpreter.max.context.Group#runAfterGroup()
+     */
+    public void runAfterGroup() throws HelpingException {
 
         if (afterGroupObservers != null) {
             afterGroupObservers.update();
@@ -1083,7 +2086,7 @@ public void runAfterGroup() throws HelpingException {
 
         map.put(key, value);
 
-        if (global && next != null) {
+        if (global && next != null && !root) {
             next.set(extension, key, value, global);
         }
     }
@@ -1099,8 +2102,8 @@ public void runAfterGroup() throws HelpingException {
 
         boxMap.put(name, value);
 
-        if (global && next != null) {
-            next.setBox(name, value, global);
+        if (global && base() != this) {
+            assignGlobal(Table.BOX, name, value);
         }
     }
 
@@ -1109,14 +2112,10 @@ public void runAfterGroup() throws HelpingException {
      */
     public void setCatcode(UnicodeChar uc, Catcode code, boolean global) {
 
-        if (catcodeMap == null) {
-            catcodeMap = new HashMap<UnicodeChar, Catcode>();
-        }
-
-        catcodeMap.put(uc, code);
+        catcodes.set(uc.getCodePoint(), code);
 
-        if (global && next != null) {
-            next.setCatcode(uc, code, global);
+        if (global && base() != this) {
+            assignGlobal(Table.CATCODE, uc, code);
         }
     }
 
@@ -1140,8 +2139,8 @@ public void runAfterGroup() throws HelpingException {
 
         codeMap.put(token, code);
 
-        if (global && next != null) {
-            next.setCode(token, code, global);
+        if (global && base() != this) {
+            assignGlobal(Table.CODE, token, code);
         }
     }
 
@@ -1164,8 +2163,42 @@ public void runAfterGroup() throws HelpingException {
 
         countMap.put(name, value);
 
-        if (global && next != null) {
-            next.setCount(name, value, global);
+        if (global && base() != this) {
+            assignGlobal(Table.COUNT, name, value);
+        }
+    }
+
+    /**
+     * Setter for a numbered count register in the requested groups.
+     * 
+     * @param index the number of the count register
+     * @param value the value of the count register
+     * @param global the indicator for the scope; {@code true} means all
+     *        groups; otherwise the current group is affected only
+     * 
+     * @see org.extex.interpreter.max.context.Group#setCount(int,
+     *      org.extex.core.count.Count, boolean)
+     */
+    public void setCount(int index, Count value, boolean global) {
+
+        if (base() != this) {
+            if (countTable == null) {
+                countTable = new RegisterTable<Count>();
+            }
+            countTable.put(index, value);
+        } else {
+            if (countArray == null) {
+                countArray = new Count[capacity(0, index)];
+            } else if (index >= countArray.length) {
+                countArray =
+                        Arrays.copyOf(countArray,
+                            capacity(countArray.length, index));
+            }
+            countArray[index] = value;
+        }
+
+        if (global && base() != this) {
+            assignGlobal(Table.COUNT_REGISTER, index, value);
         }
     }
 
@@ -1188,8 +2221,8 @@ public void runAfterGroup() throws HelpingException {
 
         delcodeMap.put(uc, code);
 
-        if (global && next != null) {
-            next.setDelcode(uc, code, global);
+        if (global && base() != this) {
+            assignGlobal(Table.DELCODE, uc, code);
         }
     }
 
@@ -1212,8 +2245,42 @@ public void runAfterGroup() throws HelpingException {
 
         dimenMap.put(name, value);
 
-        if (global && next != null) {
-            next.setDimen(name, value, global);
+        if (global && base() != this) {
+            assignGlobal(Table.DIMEN, name, value);
+        }
+    }
+
+    /**
+     * Setter for a numbered dimen register in the requested groups.
+     * 
+     * @param index the number of the dimen register
+     * @param value the value of the dimen register
+     * @param global the indicator for the scope; {@code true} means all
+     *        groups; otherwise the current group is affected only
+     * 
+     * @see org.extex.interpreter.max.context.Group#setDimen(int,
+     *      org.extex.core.dimen.Dimen, boolean)
+     */
+    public void setDimen(int index, Dimen value, boolean global) {
+
+        if (base() != this) {
+            if (dimenTable == null) {
+                dimenTable = new RegisterTable<Dimen>();
+            }
+            dimenTable.put(index, value);
+        } else {
+            if (dimenArray == null) {
+                dimenArray = new Dimen[capacity(0, index)];
+            } else if (index >= dimenArray.length) {
+                dimenArray =
+                        Arrays.copyOf(dimenArray,
+                            capacity(dimenArray.length, index));
+            }
+            dimenArray[index] = value;
+        }
+
+        if (global && base() != this) {
+            assignGlobal(Table.DIMEN_REGISTER, index, value);
         }
     }
 
@@ -1236,8 +2303,8 @@ public void runAfterGroup() throws HelpingException {
 
         fontMap.put(name, font);
 
-        if (global && next != null) {
-            next.setFont(name, font, global);
+        if (global && base() != this) {
+            assignGlobal(Table.FONT, name, font);
         }
     }
 
@@ -1260,8 +2327,8 @@ public void runAfterGroup() throws HelpingException {
 
         ifMap.put(name, (value ? Boolean.TRUE : Boolean.FALSE));
 
-        if (global && next != null) {
-            next.setIf(name, value, global);
+        if (global && base() != this) {
+            assignGlobal(Table.IF, name, value);
         }
     }
 
@@ -1284,8 +2351,8 @@ public void runAfterGroup() throws HelpingException {
 
         inFileMap.put(name, file);
 
-        if (global && next != null) {
-            next.setInFile(name, file, global);
+        if (global && base() != this) {
+            assignGlobal(Table.IN_FILE, name, file);
         }
     }
 
@@ -1309,8 +2376,8 @@ public void runAfterGroup() throws HelpingException {
 
         lccodeMap.put(lc, uc);
 
-        if (global && next != null) {
-            next.setLccode(lc, uc, global);
+        if (global && base() != this) {
+            assignGlobal(Table.LCCODE, lc, uc);
         }
     }
 
@@ -1322,6 +2389,32 @@ public void runAfterGroup() throws HelpingException {
     public void setLocator(Locator locator) {
 
         this.locator = locator;
+        locatorPending = false;
+        locatorResource = null;
+        locatorText = null;
+    }
+
+    /**
+     * Setter for the position of the start of the group. The locator is
+     * created when it is requested for the first time.
+     *
+     * @param resource the name of the resource
+     * @param line the line number
+     * @param text the text of the line
+     * @param pointer the position in the line
+     * 
+     * @see org.extex.interpreter.max.context.Group#setLocator(java.lang.String,
+     *      int, java.lang.String, int)
+     */
+    public void setLocator(String resource, int line, String text,
+            int pointer) {
+
+        this.locator = null;
+        locatorResource = resource;
+        locatorLine = line;
+        locatorText = text;
+        locatorPointer = pointer;
+        locatorPending = true;
     }
 
     /**
@@ -1343,8 +2436,8 @@ public void runAfterGroup() throws HelpingException {
 
         mathcodeMap.put(uc, code);
 
-        if (global && next != null) {
-            next.setMathcode(uc, code, global);
+        if (global && base() != this) {
+            assignGlobal(Table.MATHCODE, uc, code);
         }
     }
 
@@ -1359,8 +2452,8 @@ public void runAfterGroup() throws HelpingException {
 
         muskipMap.put(name, value);
 
-        if (global && next != null) {
-            next.setMuskip(name, value, global);
+        if (global && base() != this) {
+            assignGlobal(Table.MUSKIP, name, value);
         }
     }
 
@@ -1371,8 +2464,8 @@ public void runAfterGroup() throws HelpingException {
 
         this.namespace = theNamespace;
 
-        if (global && next != null) {
-            next.setNamespace(theNamespace, global);
+        if (global && base() != this) {
+            assignGlobal(Table.NAMESPACE, null, theNamespace);
         }
     }
 
@@ -1387,8 +2480,36 @@ public void runAfterGroup() throws HelpingException {
 
         outFileMap.put(name, file);
 
-        if (global && next != null) {
-            next.setOutFile(name, file, global);
+        if (global && base() != this) {
+            assignGlobal(Table.OUT_FILE, name, file);
+        }
+    }
+
+    /**
+     * Setter for a parameter with a pre-resolved key in the requested groups.
+     * 
+     * @param key the key of the parameter
+     * @param value the new value
+     * @param global the indicator for the scope; {@code true} means all
+     *        groups; otherwise the current group is affected only
+     * @param <T> the type of the value
+     * 
+     * @see org.extex.interpreter.max.context.Group#setParameter(org.extex.core.ParameterKey,
+     *      java.lang.Object, boolean)
+     */
+    public <T> void setParameter(ParameterKey<T> key, T value, boolean global) {
+
+        int index = key.getIndex();
+        if (parameterArray == null) {
+            parameterArray = new Object[ParameterKey.size()];
+        } else if (index >= parameterArray.length) {
+            parameterArray = Arrays.copyOf(parameterArray, ParameterKey.size());
+        }
+
+        parameterArray[index] = value;
+
+        if (global && base() != this) {
+            assignGlobal(Table.PARAMETER, key, value);
         }
     }
 
@@ -1411,8 +2532,8 @@ public void runAfterGroup() throws HelpingException {
 
         sfcodeMap.put(uc, code);
 
-        if (global && next != null) {
-            next.setSfcode(uc, code, global);
+        if (global && base() != this) {
+            assignGlobal(Table.SFCODE, uc, code);
         }
     }
 
@@ -1435,8 +2556,8 @@ public void runAfterGroup() throws HelpingException {
 
         skipMap.put(name, value);
 
-        if (global && next != null) {
-            next.setSkip(name, value, global);
+        if (global && base() != this) {
+            assignGlobal(Table.SKIP, name, value);
         }
     }
 
@@ -1473,8 +2594,8 @@ public void runAfterGroup() throws HelpingException {
 
         toksMap.put(name, value);
 
-        if (global && next != null) {
-            next.setToks(name, value, global);
+        if (global && base() != this) {
+            assignGlobal(Table.TOKS, name, value);
         }
     }
 
@@ -1490,8 +2611,8 @@ public void setType(GroupType type) {
 
         typesettingContext = context;
 
-        if (global && next != null) {
-            next.setTypesettingContext(context, global);
+        if (global && base() != this) {
+            assignGlobal(Table.TYPESETTING_CONTEXT, null, context);
         }
     }
 
@@ -1506,9 +2627,92 @@ public void setType(GroupType type) {
 
         uccodeMap.put(uc, lc);
 
-        if (global && next != null) {
-            next.setUccode(uc, lc, global);
+        if (global && base() != this) {
+            assignGlobal(Table.UCCODE, uc, lc);
+        }
+    }
+
+    /**
+     * Restore the values overwritten by local assignments. The local values
+     * are stored in this group only. Thus they vanish together with the group.
+     * The values assigned globally while this group has been open are copied
+     * from the bottom-level group into the next group. There they shadow
+     * older local values. The keys are recorded in the next group in turn.
+     * 
+     * @see org.extex.interpreter.max.context.Group#unsave()
+     */
+    public void unsave() {
+
+        if (globals == null) {
+            return;
+        }
+        GroupImpl target = (GroupImpl) next;
+        if (target != base()) {
+            for (Map.Entry<Table, Set<Object>> entry : globals.entrySet()) {
+                Table table = entry.getKey();
+                for (Object key : entry.getValue()) {
+                    table.set(target, key, table.get(base, key), false);
+                    target.record(table, key);
+                }
+            }
+        }
+        globals = null;
+    }
+
+    /**
+     * Assign a new value to a numbered count register in the requested
+     * groups. In the bottom-level group the register object is updated in
+     * place since no other group can refer to it.
+     * 
+     * @param index the number of the count register
+     * @param value the new value
+     * @param global the indicator for the scope; {@code true} means all
+     *        groups; otherwise the current group is affected only
+     * 
+     * @return the count register which contains the new value
+     * 
+     * @see org.extex.interpreter.max.context.Group#updateCount(int, long,
+     *      boolean)
+     */
+    public Count updateCount(int index, long value, boolean global) {
+
+        if ((next == null || root) && !shared && countArray != null
+                && index < countArray.length && countArray[index] != null) {
+            Count count = countArray[index];
+            count.set(value);
+            return count;
+        }
+        Count count = new Count(value);
+        setCount(index, count, global);
+        return count;
+    }
+
+    /**
+     * Assign a new value to a numbered dimen register in the requested
+     * groups. In the bottom-level group the register object is updated in
+     * place since no other group can refer to it.
+     * 
+     * @param index the number of the dimen register
+     * @param value the new value in scaled points
+     * @param global the indicator for the scope; {@code true} means all
+     *        groups; otherwise the current group is affected only
+     * 
+     * @return the dimen register which contains the new value
+     * 
+     * @see org.extex.interpreter.max.context.Group#updateDimen(int, long,
+     *      boolean)
+     */
+    public Dimen updateDimen(int index, long value, boolean global) {
+
+        if ((next == null || root) && !shared && dimenArray != null
+                && index < dimenArray.length && dimenArray[index] != null) {
+            Dimen dimen = dimenArray[index];
+            dimen.set(value);
+            return dimen;
         }
+        Dimen dimen = new Dimen(value);
+        setDimen(index, dimen, global);
+        return dimen;
     }
 
     /**
@@ -1521,7 +2725,8 @@ public void setType(GroupType type) {
     @Override
     public String toString() {
 
-        return locator != null ? "group " + locator.toString() : super
+        Locator loc = getLocator();
+        return loc != null ? "group " + loc.toString() : super
             .toString();
     }
 
@@ -0,0 +1,297 @@
+/*
+ * Copyright (C) 2011 The ExTeX Group and individual authors listed below
+ *
+ * This library is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as published by the
+ * Free Software Foundation; either version 2.1 of the License, or (at your
+ * option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General Public License
+ * for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this library; if not, write to the Free Software Foundation,
+ * Inc., 59 Temple Place, Suite 330, Boston, MA 02111-1307 USA
+ *
+ */
+
+package org.extex.interpreter.max.context;
+
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.Serializable;
+import java.util.HashMap;
+import java.util.Map;
+
+import org.extex.interpreter.type.Code;
+import org.extex.scanner.type.Namespace;
+import org.extex.scanner.type.token.ControlSequenceToken;
+
+/**
+ * This class provides a cache for the meanings of control sequences. Each
+ * control sequence is assigned a slot, i.e. an index into the table. The slot
+ * is stored in the token itself. Thus looking up the meaning of an interned
+ * token is an array access instead of hashing the token in each group.
+ * <p>
+ * The table holds the tokens per slot to verify the slot found in a token.
+ * Tokens which are equal to a known one but not identical are assigned the
+ * same slot. The map of slots is serialized with the context. Thus the
+ * assignment of slots survives dumping and loading a format. The meanings
+ * themselves are not serialized; they are fetched from the groups on demand.
+ * </p>
+ * <p>
+ * Local assignments are recorded per group. When a group is closed the
+ * meanings assigned in it are dropped from the cache. Assignments made while
+ * no group is open are not recorded since they are never dropped. The
+ * bottom-level group does not count as an open group.
+ * </p>
+ * <p>
+ * Only control sequences which can not fall back to the default name space
+ * are cached. Others have a meaning depending on two tokens.
+ * </p>
+ *
+ * @author <a href="mailto:gene@gerd-neugebauer.de">Gerd Neugebauer</a>
+*/
+final class MeaningTable implements Serializable {
+
+    /**
+     * The constant {@code INITIAL_SIZE} contains the initial number of slots.
+     */
+    private static final int INITIAL_SIZE = 1024;
+
+    /**
+     * The constant {@code serialVersionUID} contains the id for serialization.
+     */
+    private static final long serialVersionUID = 2011L;
+
+    /**
+     * The constant {@code NO_SLOT} contains the entry in {@code dirty} for a
+     * local assignment to a token without a slot.
+     */
+    private static final int NO_SLOT = -1;
+
+    /**
+     * The field {@code dirty} contains the slots assigned locally. The slots
+     * of a group start at the mark of the group. A local assignment to a
+     * token without a slot is recorded as {@link #NO_SLOT}; thus the epoch is
+     * renewed when the group is closed.
+     */
+    private int[] dirty = new int[64];
+
+    /**
+     * The field {@code dirtySize} contains the number of used entries in
+     * {@code dirty}.
+     */
+    private int dirtySize = 0;
+
+    /**
+     * The field {@code epoch} contains the current definition epoch. It is
+     * replaced whenever a meaning is assigned or dropped.
+     */
+    private transient Object epoch = new Object();
+
+    /**
+     * The field {@code keys} contains the tokens of the slots.
+     */
+    private ControlSequenceToken[] keys =
+            new ControlSequenceToken[INITIAL_SIZE];
+
+    /**
+     * The field {@code marks} contains the start indices in {@code dirty} for
+     * the open groups.
+     */
+    private int[] marks = new int[16];
+
+    /**
+     * The field {@code marksSize} contains the number of open groups.
+     */
+    private int marksSize = 0;
+
+    /**
+     * The field {@code meanings} contains the cached meanings of the slots.
+     * An entry of {@code null} means that the meaning is not known.
+     */
+    private transient Code[] meanings = new Code[INITIAL_SIZE];
+
+    /**
+     * The field {@code slots} contains the mapping from tokens to slots.
+     */
+    private final Map<ControlSequenceToken, Integer> slots =
+            new HashMap<ControlSequenceToken, Integer>();
+
+    /**
+     * Creates a new object.
+     */
+    MeaningTable() {
+
+    }
+
+    /**
+     * Creates a new object for a forked context. The slots are copied from
+     * the table of the base context. Thus the slots stored in the tokens
+     * remain valid. The meanings are fetched from the groups on demand.
+     * 
+     * @param base the table of the base context
+     */
+    MeaningTable(MeaningTable base) {
+
+        dirty = base.dirty.clone();
+        dirtySize = base.dirtySize;
+        keys = base.keys.clone();
+        marks = base.marks.clone();
+        marksSize = base.marksSize;
+        meanings = new Code[keys.length];
+        slots.putAll(base.slots);
+    }
+
+    /**
+     * Record the assignment of a meaning. A local assignment is remembered
+     * for the current group only if a group is open.
+     * 
+     * @param token the token
+     * @param code the new meaning
+     * @param global the indicator for a global assignment
+     */
+    void assign(ControlSequenceToken token, Code code, boolean global) {
+
+        epoch = new Object();
+        int s = slot(token);
+        if (s >= 0) {
+            meanings[s] = code;
+        }
+        if (!global && marksSize > 0) {
+            if (dirtySize >= dirty.length) {
+                int[] d = new int[dirty.length * 2];
+                System.arraycopy(dirty, 0, d, 0, dirtySize);
+                dirty = d;
+            }
+            dirty[dirtySize++] = (s >= 0 ? s : NO_SLOT);
+        }
+    }
+
+    /**
+     * Drop the meanings assigned locally in the current group.
+     */
+    void closeGroup() {
+
+        if (marksSize == 0) {
+            return;
+        }
+        int mark = marks[--marksSize];
+        if (dirtySize > mark) {
+            epoch = new Object();
+        }
+        while (dirtySize > mark) {
+            int s = dirty[--dirtySize];
+            if (s != NO_SLOT) {
+                meanings[s] = null;
+            }
+        }
+    }
+
+    /**
+     * Getter for the current definition epoch.
+     * 
+     * @return the epoch
+     */
+    Object epoch() {
+
+        return epoch;
+    }
+
+    /**
+     * Getter for the cached meaning of a slot.
+     * 
+     * @param slot the slot
+     * 
+     * @return the meaning or {@code null} if it is not known
+     */
+    Code get(int slot) {
+
+        return meanings[slot];
+    }
+
+    /**
+     * Start recording the local assignments of a new group. This method is
+     * not invoked for the bottom-level group.
+     */
+    void openGroup() {
+
+        if (marksSize >= marks.length) {
+            int[] m = new int[marks.length * 2];
+            System.arraycopy(marks, 0, m, 0, marksSize);
+            marks = m;
+        }
+        marks[marksSize++] = dirtySize;
+    }
+
+    /**
+     * Store a meaning fetched from the groups.
+     * 
+     * @param slot the slot
+     * @param code the meaning
+     */
+    void put(int slot, Code code) {
+
+        meanings[slot] = code;
+    }
+
+    /**
+     * Restore the transient cache after deserialization.
+     * 
+     * @param in the stream to read from
+     * 
+     * @throws IOException in case of an I/O error
+     * @throws ClassNotFoundException in case of a missing class
+     */
+    private void readObject(ObjectInputStream in)
+            throws IOException,
+                ClassNotFoundException {
+
+        in.defaultReadObject();
+        meanings = new Code[keys.length];
+        epoch = new Object();
+    }
+
+    /**
+     * Getter for the slot of a token. A new slot is assigned if none is
+     * known yet.
+     * 
+     * @param token the token
+     * 
+     * @return the slot or -1 if the token is not cached
+     */
+    int slot(ControlSequenceToken token) {
+
+        int s = token.getSlot();
+        if (s >= 0 && s < keys.length && keys[s] == token) {
+            return s;
+        }
+        if (Namespace.SUPPORT_NAMESPACE_DEF
+                && !Namespace.DEFAULT_NAMESPACE.equals(token.getNamespace())) {
+            return -1;
+        }
+        Integer i = slots.get(token);
+        if (i == null) {
+            s = slots.size();
+            if (s >= keys.length) {
+                ControlSequenceToken[] k = new ControlSequenceToken[s * 2];
+                System.arraycopy(keys, 0, k, 0, s);
+                keys = k;
+                Code[] m = new Code[s * 2];
+                System.arraycopy(meanings, 0, m, 0, s);
+                meanings = m;
+            }
+            slots.put(token, Integer.valueOf(s));
+            keys[s] = token;
+        } else {
+            s = i.intValue();
+            keys[s] = token;
+        }
+        token.setSlot(s);
+        return s;
+    }
+
+}
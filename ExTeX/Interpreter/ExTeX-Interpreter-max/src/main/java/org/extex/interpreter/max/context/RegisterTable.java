@@ -0,0 +1,137 @@
+/*
+ * Copyright (C) 2011 The ExTeX Group and individual authors listed below
+ *
+ * This library is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as published by the
+ * Free Software Foundation; either version 2.1 of the License, or (at your
+ * option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General Public License
+ * for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this library; if not, write to the Free Software Foundation,
+ * Inc., 59 Temple Place, Suite 330, Boston, MA 02111-1307 USA
+ *
+ */
+
+package org.extex.interpreter.max.context;
+
+import java.io.Serializable;
+import java.util.Arrays;
+
+/**
+ * This class provides a small table of values indexed by non-negative
+ * integers. The keys are kept sorted in an array and the values in a parallel
+ * array. Thus the memory needed depends on the number of entries only and not
+ * on the largest key.
+ * <p>
+ * The table is meant for the local assignments to numbered registers in a
+ * group. A group usually contains few of them.
+ * </p>
+ *
+ * @param <T> the type of the values
+ *
+ * @author <a href="mailto:gene@gerd-neugebauer.de">Gerd Neugebauer</a>
+*/
+final class RegisterTable<T> implements Serializable {
+
+    /**
+     * The constant {@code INITIAL_SIZE} contains the initial capacity of the
+     * table.
+     */
+    private static final int INITIAL_SIZE = 4;
+
+    /**
+     * The constant {@code serialVersionUID} contains the id for serialization.
+     */
+    private static final long serialVersionUID = 2011L;
+
+    /**
+     * The field {@code keys} contains the keys in ascending order. Only the
+     * first {@link #size} entries are used.
+     */
+    private int[] keys = new int[INITIAL_SIZE];
+
+    /**
+     * The field {@code size} contains the number of entries.
+     */
+    private int size = 0;
+
+    /**
+     * The field {@code values} contains the values for the keys at the same
+     * position.
+     */
+    private Object[] values = new Object[INITIAL_SIZE];
+
+    /**
+     * Getter for the capacity of the table.
+     *
+     * @return the number of entries which can be stored without growing
+     */
+    int capacity() {
+
+        return keys.length;
+    }
+
+    /**
+     * Remove all entries.
+     */
+    void clear() {
+
+        Arrays.fill(values, 0, size, null);
+        size = 0;
+    }
+
+    /**
+     * Getter for the value of a key.
+     *
+     * @param key the key
+     *
+     * @return the value or {@code null} if none has been stored
+     */
+    @SuppressWarnings("unchecked")
+    T get(int key) {
+
+        int i = Arrays.binarySearch(keys, 0, size, key);
+        return i >= 0 ? (T) values[i] : null;
+    }
+
+    /**
+     * Store a value for a key. A value stored before is replaced.
+     *
+     * @param key the key
+     * @param value the value
+     */
+    void put(int key, T value) {
+
+        int i = Arrays.binarySearch(keys, 0, size, key);
+        if (i >= 0) {
+            values[i] = value;
+            return;
+        }
+        i = -i - 1;
+        if (size == keys.length) {
+            keys = Arrays.copyOf(keys, 2 * size);
+            values = Arrays.copyOf(values, 2 * size);
+        }
+        System.arraycopy(keys, i, keys, i + 1, size - i);
+        System.arraycopy(values, i, values, i + 1, size - i);
+        keys[i] = key;
+        values[i] = value;
+        size++;
+    }
+
+    /**
+     * Getter for the number of entries.
+     *
+     * @return the number of entries
+     */
+    int size() {
+
+        return size;
+    }
+
+}
@@ -0,0 +1,1963 @@
+/*
+ * Copyright (C) 2003-2011 The ExTeX Group and individual authors listed below
+ *
+ * This library is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as published by the
+ * Free Software Foundation; either version 2.1 of the License, or (at your
+ * option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General Public License
+ * for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this library; if not, write to the Free Software Foundation,
+ * Inc., 59 Temple Place, Suite 330, Boston, MA 02111-1307 USA
+ *
+ */
+
+package org.extex.interpreter.max.context;
+
+import java.io.Serializable;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+
+import org.extex.core.Locator;
+import org.extex.core.ParameterKey;
+import org.extex.core.UnicodeChar;
+import org.extex.core.count.Count;
+import org.extex.core.count.CountConstant;
+import org.extex.core.count.FixedCount;
+import org.extex.core.dimen.Dimen;
+import org.extex.core.exception.helping.HelpingException;
+import org.extex.core.glue.Glue;
+import org.extex.core.muskip.Muskip;
+import org.extex.interpreter.context.group.GroupType;
+import org.extex.interpreter.context.observer.group.AfterGroupObserver;
+import org.extex.interpreter.context.observer.group.AfterGroupObserverList;
+import org.extex.interpreter.loader.DeferredCode;
+import org.extex.interpreter.type.Code;
+import org.extex.interpreter.type.box.Box;
+import org.extex.scanner.api.TokenStream;
+import org.extex.scanner.type.Catcode;
+import org.extex.scanner.type.Namespace;
+import org.extex.scanner.type.file.InFile;
+import org.extex.scanner.type.file.OutFile;
+import org.extex.scanner.type.token.CodeToken;
+import org.extex.scanner.type.token.Token;
+import org.extex.scanner.type.tokens.Tokens;
+import org.extex.typesetter.tc.TypesettingContext;
+import org.extex.typesetter.tc.font.Font;
+import org.extex.typesetter.type.math.MathClass;
+import org.extex.typesetter.type.math.MathCode;
+import org.extex.typesetter.type.math.MathDelimiter;
+import org.extex.typesetter.type.noad.MathGlyph;
+
+/**
+ * This is an implementation of a group which follows the Knuthian approach of
+ * TeX. All groups share a single table of current values. Each entry in this
+ * table carries the group level at which it has been assigned.
+ * <p>
+ * When a local assignment overwrites a value from an outer group then the old
+ * value is recorded on the save stack of the current group. When the group is
+ * closed then the save stack is unwound and the old values are restored.
+ * Values which have been assigned globally in the meantime are retained.
+ * </p>
+ * <p>
+ * Thus reading a value costs one table access independent of the depth of the
+ * grouping. Closing a group costs the number of local assignments made in it.
+ * Global assignments just overwrite the table entry.
+ * </p>
+ * <p>
+ * This implementation can be selected in the configuration of the context
+ * instead of {@link GroupImpl GroupImpl}:
+ * </p>
+ *
+ * <pre>
+ *  &lt;Group class="org.extex.interpreter.max.context.SaveStackGroupImpl"/&gt;
+ * </pre>
+ *
+ * @author <a href="mailto:gene@gerd-neugebauer.de">Gerd Neugebauer</a>
+*/
+public class SaveStackGroupImpl implements Group {
+
+    /**
+     * This class contains a single entry of the table of current values.
+     */
+    private static final class Slot implements Serializable {
+
+        /**
+         * The constant {@code serialVersionUID} contains the id for
+         * serialization.
+         */
+        private static final long serialVersionUID = 2011L;
+
+        /**
+         * The field {@code level} contains the group level at which the value
+         * has been assigned. Global assignments use the level 0.
+         */
+        int level;
+
+        /**
+         * The field {@code value} contains the current value or {@code null}
+         * if none is defined.
+         */
+        Object value;
+
+        /**
+         * Creates a new object.
+         *
+         * @param value the initial value
+         */
+        Slot(Object value) {
+
+            this.value = value;
+        }
+    }
+
+    /**
+     * This class contains the table of current values shared by all groups of
+     * one context.
+     */
+    private static final class Equivalents implements Serializable {
+
+        /**
+         * The constant {@code serialVersionUID} contains the id for
+         * serialization.
+         */
+        private static final long serialVersionUID = 2011L;
+
+        /**
+         * The field {@code boxes} contains the box registers.
+         */
+        final Map<String, Slot> boxes = new HashMap<String, Slot>();
+
+        /**
+         * The field {@code catcodes} contains the category codes.
+         */
+        final Map<UnicodeChar, Slot> catcodes = new HashMap<UnicodeChar, Slot>();
+
+        /**
+         * The field {@code catcodeVersion} contains the version of the
+         * category codes. It is {@code null} if a new version has to be
+         * created on demand.
+         */
+        transient Object catcodeVersion = null;
+
+        /**
+         * The field {@code codes} contains the active characters and macros.
+         */
+        final Map<Token, Slot> codes = new HashMap<Token, Slot>();
+
+        /**
+         * The field {@code countSlots} contains the numbered count registers.
+         */
+        Slot[] countSlots = new Slot[INITIAL_REGISTERS];
+
+        /**
+         * The field {@code counts} contains the count registers.
+         */
+        final Map<String, Slot> counts = new HashMap<String, Slot>();
+
+        /**
+         * The field {@code delcodes} contains the delimiter codes.
+         */
+        final Map<UnicodeChar, Slot> delcodes = new HashMap<UnicodeChar, Slot>();
+
+        /**
+         * The field {@code dimenSlots} contains the numbered dimen registers.
+         */
+        Slot[] dimenSlots = new Slot[INITIAL_REGISTERS];
+
+        /**
+         * The field {@code dimens} contains the dimen registers.
+         */
+        final Map<String, Slot> dimens = new HashMap<String, Slot>();
+
+        /**
+         * The field {@code extensions} contains the values of the extensions.
+         */
+        final Map<Object, Map<Object, Slot>> extensions =
+                new HashMap<Object, Map<Object, Slot>>();
+
+        /**
+         * The field {@code fonts} contains the fonts.
+         */
+        final Map<String, Slot> fonts = new HashMap<String, Slot>();
+
+        /**
+         * The field {@code fontCopies} contains the copies of the fonts of the
+         * base context. It is {@code null} unless the table belongs to a
+         * forked context.
+         */
+        FontCopies fontCopies = null;
+
+        /**
+         * The field {@code ifs} contains the booleans.
+         */
+        final Map<String, Slot> ifs = new HashMap<String, Slot>();
+
+        /**
+         * The field {@code inFiles} contains the input files. The map is not
+         * stored in the format file since files can not be kept open.
+         */
+        transient Map<String, Slot> inFiles;
+
+        /**
+         * The field {@code lccodes} contains the translation to lower case.
+         */
+        final Map<UnicodeChar, Slot> lccodes = new HashMap<UnicodeChar, Slot>();
+
+        /**
+         * The field {@code mathcodes} contains the math codes.
+         */
+        final Map<UnicodeChar, Slot> mathcodes =
+                new HashMap<UnicodeChar, Slot>();
+
+        /**
+         * The field {@code muskips} contains the muskip registers.
+         */
+        final Map<String, Slot> muskips = new HashMap<String, Slot>();
+
+        /**
+         * The field {@code namespace} contains the current name space.
+         */
+        final Slot namespace = new Slot(Namespace.DEFAULT_NAMESPACE);
+
+        /**
+         * The field {@code outFiles} contains the output files. The map is not
+         * stored in the format file since files can not be kept open.
+         */
+        transient Map<String, Slot> outFiles;
+
+        /**
+         * The field {@code parameterSlots} contains the parameters with
+         * pre-resolved keys indexed by the slot number of the key.
+         */
+        Slot[] parameterSlots = new Slot[ParameterKey.size()];
+
+        /**
+         * The field {@code sfcodes} contains the space factor codes.
+         */
+        final Map<UnicodeChar, Slot> sfcodes = new HashMap<UnicodeChar, Slot>();
+
+        /**
+         * The field {@code skips} contains the skip registers.
+         */
+        final Map<String, Slot> skips = new HashMap<String, Slot>();
+
+        /**
+         * The field {@code toks} contains the toks registers.
+         */
+        final Map<String, Slot> toks = new HashMap<String, Slot>();
+
+        /**
+         * The field {@code typesettingContext} contains the typesetting
+         * context.
+         */
+        final Slot typesettingContext = new Slot(null);
+
+        /**
+         * The field {@code uccodes} contains the translation to upper case.
+         */
+        final Map<UnicodeChar, Slot> uccodes = new HashMap<UnicodeChar, Slot>();
+
+        /**
+         * Copy a value if it might be modified in place. Other values are
+         * shared.
+         *
+         * @param value the value
+         *
+         * @return the copy or the value itself
+         */
+        private static Object copy(Object value) {
+
+            if (value instanceof Count) {
+                return new Count((Count) value);
+            } else if (value instanceof Dimen) {
+                return new Dimen((Dimen) value);
+            } else if (value instanceof Glue) {
+                return new Glue((Glue) value);
+            } else if (value instanceof Muskip) {
+                return new Muskip((Muskip) value);
+            } else if (value instanceof Tokens) {
+                Tokens toks = new Tokens();
+                toks.add((Tokens) value);
+                return toks;
+            } else if (value instanceof Box) {
+                Box box = (Box) value;
+                return new Box(box.isVoid() ? null : box.getNodes()
+                    .deepCopy());
+            }
+            return value;
+        }
+
+        /**
+         * Copy the slots of one map into another one. The values are copied
+         * as well if they might be modified in place.
+         *
+         * @param from the map to copy from
+         * @param to the map to copy to
+         * @param <K> the type of the key
+         */
+        private static <K> void copy(Map<K, Slot> from, Map<K, Slot> to) {
+
+            for (Map.Entry<K, Slot> e : from.entrySet()) {
+                to.put(e.getKey(), new Slot(copy(e.getValue().value)));
+            }
+        }
+
+        /**
+         * Copy the slots of an array. The values are copied as well if they
+         * might be modified in place.
+         *
+         * @param from the array to copy
+         *
+         * @return the copy
+         */
+        private static Slot[] copy(Slot[] from) {
+
+            Slot[] to = new Slot[from.length];
+            for (int i = 0; i < from.length; i++) {
+                if (from[i] != null) {
+                    to[i] = new Slot(copy(from[i].value));
+                }
+            }
+            return to;
+        }
+
+        /**
+         * Find the slot for an index in an array or create a new one with the
+         * value {@code null}. The array is enlarged if needed.
+         *
+         * @param slots the array of slots
+         * @param index the index
+         *
+         * @return the array containing the slot at the index
+         */
+        private static Slot[] grow(Slot[] slots, int index) {
+
+            Slot[] a = slots;
+            if (index >= a.length) {
+                a = Arrays.copyOf(a, Math.max(index + 1, 2 * a.length));
+            }
+            if (a[index] == null) {
+                a[index] = new Slot(null);
+            }
+            return a;
+        }
+
+        /**
+         * Getter for the slot of a numbered count register.
+         *
+         * @param index the number of the register
+         *
+         * @return the slot
+         */
+        Slot countSlot(int index) {
+
+            countSlots = grow(countSlots, index);
+            return countSlots[index];
+        }
+
+        /**
+         * Getter for the slot of a numbered dimen register.
+         *
+         * @param index the number of the register
+         *
+         * @return the slot
+         */
+        Slot dimenSlot(int index) {
+
+            dimenSlots = grow(dimenSlots, index);
+            return dimenSlots[index];
+        }
+
+        /**
+         * Getter for the slot of a parameter with a pre-resolved key.
+         *
+         * @param index the slot number of the key
+         *
+         * @return the slot
+         */
+        Slot parameterSlot(int index) {
+
+            parameterSlots = grow(parameterSlots, index);
+            return parameterSlots[index];
+        }
+
+        /**
+         * Create a copy of the table with the current values as global
+         * values. The files are not copied. The fonts are copied when they
+         * are accessed for the first time.
+         *
+         * @return the copy
+         */
+        Equivalents copy() {
+
+            Equivalents e = new Equivalents();
+            copy(boxes, e.boxes);
+            copy(catcodes, e.catcodes);
+            copy(codes, e.codes);
+            e.countSlots = copy(countSlots);
+            copy(counts, e.counts);
+            copy(delcodes, e.delcodes);
+            e.dimenSlots = copy(dimenSlots);
+            copy(dimens, e.dimens);
+            for (Map.Entry<Object, Map<Object, Slot>> x : extensions.entrySet()) {
+                Map<Object, Slot> map = new HashMap<Object, Slot>();
+                copy(x.getValue(), map);
+                e.extensions.put(x.getKey(), map);
+            }
+            copy(fonts, e.fonts);
+            e.fontCopies = new FontCopies();
+            copy(ifs, e.ifs);
+            copy(lccodes, e.lccodes);
+            copy(mathcodes, e.mathcodes);
+            copy(muskips, e.muskips);
+            e.namespace.value = namespace.value;
+            e.parameterSlots = copy(parameterSlots);
+            copy(sfcodes, e.sfcodes);
+            copy(skips, e.skips);
+            copy(toks, e.toks);
+            e.typesettingContext.value = typesettingContext.value;
+            copy(uccodes, e.uccodes);
+            return e;
+        }
+
+        /**
+         * Getter for the version of the category codes.
+         *
+         * @return the version
+         */
+        Object getCatcodeVersion() {
+
+            if (catcodeVersion == null) {
+                catcodeVersion = new Object();
+            }
+            return catcodeVersion;
+        }
+
+        /**
+         * Getter for the map of input files.
+         *
+         * @return the input files
+         */
+        Map<String, Slot> getInFiles() {
+
+            if (inFiles == null) {
+                inFiles = new HashMap<String, Slot>();
+            }
+            return inFiles;
+        }
+
+        /**
+         * Getter for the map of output files.
+         *
+         * @return the output files
+         */
+        Map<String, Slot> getOutFiles() {
+
+            if (outFiles == null) {
+                outFiles = new HashMap<String, Slot>();
+            }
+            return outFiles;
+        }
+    }
+
+    /**
+     * The constant {@code INITIAL_REGISTERS} contains the initial capacity of
+     * the arrays for numbered registers.
+     */
+    private static final int INITIAL_REGISTERS = 16;
+
+    /**
+     * The constant {@code INITIAL_SAVE_SIZE} contains the initial capacity of
+     * the save stack of a group.
+     */
+    private static final int INITIAL_SAVE_SIZE = 8;
+
+    /**
+     * The constant {@code RECYCLE_LIMIT} contains the maximal capacity of a
+     * save stack which is kept when the group is released.
+     */
+    private static final int RECYCLE_LIMIT = 64;
+
+    /**
+     * The constant {@code serialVersionUID} contains the id for serialization.
+     */
+    protected static final long serialVersionUID = 2011L;
+
+    /**
+     * The field {@code SFCODE_DEFAULT} contains the default space factor code
+     * for non-letters.
+     */
+    private static final FixedCount SFCODE_DEFAULT = new CountConstant(1000);
+
+    /**
+     * The field {@code SFCODE_LETTER} contains the default space factor code
+     * for letters.
+     */
+    private static final FixedCount SFCODE_LETTER = new CountConstant(999);
+
+    /**
+     * Find the slot for a key or create a new one with the value
+     * {@code null}.
+     *
+     * @param map the map to search in
+     * @param key the key
+     * @param <K> the type of the key
+     *
+     * @return the slot for the key
+     */
+    private static <K> Slot slot(Map<K, Slot> map, K key) {
+
+        Slot slot = map.get(key);
+        if (slot == null) {
+            slot = new Slot(null);
+            map.put(key, slot);
+        }
+        return slot;
+    }
+
+    /**
+     * Get the current value for a key.
+     *
+     * @param map the map to search in
+     * @param key the key
+     * @param <K> the type of the key
+     *
+     * @return the current value or {@code null} if none is defined
+     */
+    private static <K> Object value(Map<K, Slot> map, K key) {
+
+        Slot slot = map.get(key);
+        return slot == null ? null : slot.value;
+    }
+
+    /**
+     * The field {@code afterGroup} contains the tokens to be inserted after
+     * the group has been closed.
+     */
+    private Tokens afterGroup = null;
+
+    /**
+     * The field {@code afterGroupObservers} contains the list of observers to
+     * be invoked after the group has been closed.
+     */
+    private transient AfterGroupObserver afterGroupObservers = null;
+
+    /**
+     * The field {@code catcodesSaved} contains the indicator that a category
+     * code has been saved on the save stack of this group.
+     */
+    private boolean catcodesSaved = false;
+
+    /**
+     * The field {@code eqtb} contains the table of current values. It is
+     * shared with all other groups in the chain.
+     */
+    private Equivalents eqtb;
+
+    /**
+     * The field {@code level} contains the group level of this group.
+     */
+    private int level;
+
+    /**
+     * The field {@code locator} contains the locator to determine the position
+     * a token came from.
+     */
+    private transient Locator locator;
+
+    /**
+     * The field {@code locatorLine} contains the line number of the start of
+     * the group. It is used to create the locator on demand.
+     */
+    private transient int locatorLine;
+
+    /**
+     * The field {@code locatorPending} contains the indicator that the
+     * locator has not been created yet from the resource, the line, and the
+     * pointer.
+     */
+    private transient boolean locatorPending = false;
+
+    /**
+     * The field {@code locatorPointer} contains the position in the line of
+     * the start of the group. It is used to create the locator on demand.
+     */
+    private transient int locatorPointer;
+
+    /**
+     * The field {@code locatorResource} contains the name of the resource of
+     * the start of the group. It is used to create the locator on demand.
+     */
+    private transient String locatorResource;
+
+    /**
+     * The field {@code locatorText} contains the text of the line of the
+     * start of the group. It is used to create the locator on demand.
+     */
+    private transient String locatorText;
+
+    /**
+     * The field {@code next} contains the next group in the linked list.
+     */
+    private Group next;
+
+    /**
+     * The field {@code saveLevels} contains the levels of the saved values.
+     */
+    private int[] saveLevels = null;
+
+    /**
+     * The field {@code savePointer} contains the number of entries on the save
+     * stack.
+     */
+    private int savePointer = 0;
+
+    /**
+     * The field {@code saveSlots} contains the slots which have been
+     * overwritten by local assignments in this group.
+     */
+    private Slot[] saveSlots = null;
+
+    /**
+     * The field {@code saveValues} contains the saved values.
+     */
+    private Object[] saveValues = null;
+
+    /**
+     * The field {@code standardTokenStream} contains the standard token
+     * stream.
+     */
+    private transient TokenStream standardTokenStream = null;
+
+    /**
+     * The field {@code start} contains the start token.
+     */
+    private Token start;
+
+    /**
+     * The field {@code type} contains the type number of the group as returned
+     * by {@code \currentgrouptype}.
+     */
+    private GroupType type = GroupType.BOTTOM_LEVEL_GROUP;
+
+    /**
+     * Creates a new object.
+     *
+     * @param nextGroup the next group in the stack. If the value is
+     *        {@code null} then this is the global base
+     */
+    public SaveStackGroupImpl(Group nextGroup) {
+
+        link(nextGroup);
+    }
+
+    /**
+     * Register an observer to be invoked after the group has been closed.
+     *
+     * @param observer the observer to register
+     *
+     * @see org.extex.interpreter.max.context.Group#afterGroup(AfterGroupObserver)
+     */
+    public void afterGroup(AfterGroupObserver observer) {
+
+        afterGroupObservers =
+                AfterGroupObserverList.register(afterGroupObservers, observer);
+    }
+
+    /**
+     * Add the token to the tokens to be inserted after the group is closed.
+     *
+     * @param t the token to add
+     *
+     * @see org.extex.interpreter.max.context.Group#afterGroup(org.extex.scanner.type.token.Token)
+     */
+    public void afterGroup(Token t) {
+
+        if (afterGroup == null) {
+            afterGroup = new Tokens();
+        }
+
+        afterGroup.add(t);
+    }
+
+    /**
+     * Turn this group into the bottom-level group of a forked context. The
+     * table of current values is copied since it is shared by all groups of
+     * the base context.
+     *
+     * @see org.extex.interpreter.max.context.Group#fork()
+     */
+    public void fork() {
+
+        eqtb = eqtb.copy();
+        level = 0;
+        next = null;
+    }
+
+    /**
+     * Assign a value to a slot. For a local assignment the old value is
+     * recorded on the save stack unless it has already been saved in this
+     * group.
+     *
+     * @param slot the slot to assign to
+     * @param value the new value
+     * @param global the indicator for the scope; {@code true} means all
+     *        groups; otherwise the current group is affected only
+     */
+    private void assign(Slot slot, Object value, boolean global) {
+
+        if (global) {
+            slot.level = 0;
+        } else if (slot.level != level) {
+            save(slot);
+            slot.level = level;
+        }
+        slot.value = value;
+    }
+
+    /**
+     * Get some extension object stored in the group.
+     *
+     * @param extension the reference for the extension
+     * @param key the key of the object
+     *
+     * @return the object stored for the extension under the given key or
+     *         {@code null} if none is there
+     *
+     * @see org.extex.interpreter.max.context.Group#get(java.lang.Object,
+     *      java.lang.Object)
+     */
+    public Object get(Object extension, Object key) {
+
+        Map<Object, Slot> map = eqtb.extensions.get(extension);
+        return map == null ? null : value(map, key);
+    }
+
+    /**
+     * Getter for the tokens which are inserted after the group has been closed.
+     *
+     * @return the after group tokens
+     *
+     * @see org.extex.interpreter.max.context.Group#getAfterGroup()
+     */
+    public Tokens getAfterGroup() {
+
+        return afterGroup;
+    }
+
+    /**
+     * Getter for the {@link org.extex.interpreter.type.box.Box box} register.
+     *
+     * @param name the name or number of the box register
+     *
+     * @return the box register or {@code null} if it is not defined
+     *
+     * @see org.extex.interpreter.max.context.Group#getBox(java.lang.String)
+     */
+    public Box getBox(String name) {
+
+        return (Box) value(eqtb.boxes, name);
+    }
+
+    /**
+     * Getter for the version of the category codes. The version is shared by
+     * all groups of the context.
+     *
+     * @return the version
+     *
+     * @see org.extex.scanner.api.Tokenizer#getCatcodeVersion()
+     */
+    public Object getCatcodeVersion() {
+
+        return eqtb.getCatcodeVersion();
+    }
+
+    /**
+     * Getter for the category code of a character.
+     *
+     * @param c the Unicode character to analyze
+     *
+     * @return the category code of a character
+     *
+     * @see org.extex.scanner.api.Tokenizer#getCatcode(org.extex.core.UnicodeChar)
+     */
+    public Catcode getCatcode(UnicodeChar c) {
+
+        Catcode value = (Catcode) value(eqtb.catcodes, c);
+        return value != null ? value : GroupImpl.defaultCatcode(c
+            .getCodePoint());
+    }
+
+    /**
+     * Get the current code for a token. A code which has been loaded from a
+     * format and not been decoded yet is decoded and stored in its slot.
+     *
+     * @param token the token
+     *
+     * @return the code or {@code null} if none is defined
+     */
+    private Code code(CodeToken token) {
+
+        Slot slot = eqtb.codes.get(token);
+        if (slot == null) {
+            return null;
+        }
+        if (slot.value instanceof DeferredCode) {
+            slot.value = ((DeferredCode) slot.value).getCode();
+        }
+        return (Code) slot.value;
+    }
+
+    /**
+     * Getter for the definition of an active character or macro.
+     *
+     * @param token the name of the active character or macro
+     *
+     * @return the code associated to the name or {@code null} if none is
+     *         defined yet
+     *
+     * @see org.extex.interpreter.max.context.Group#getCode(CodeToken)
+     */
+    public Code getCode(CodeToken token) {
+
+        Code code = code(token);
+
+        if (Namespace.SUPPORT_NAMESPACE_DEF && code == null) {
+            CodeToken t = token.cloneInDefaultNamespace();
+            if (t != token) {
+                code = code(t);
+            }
+        }
+        return code;
+    }
+
+    /**
+     * Getter for the named count register. As a default value 0 is returned.
+     *
+     * @param name the name of the count register
+     *
+     * @return the value of the count register or its default
+     *
+     * @see org.extex.interpreter.max.context.Group#getCount(java.lang.String)
+     */
+    public Count getCount(String name) {
+
+        Slot slot = slot(eqtb.counts, name);
+        if (slot.value == null) {
+            slot.value = new Count(0);
+        }
+        return (Count) slot.value;
+    }
+
+    /**
+     * Getter for a numbered count register. As a default value 0 is returned.
+     *
+     * @param index the number of the count register
+     *
+     * @return the value of the count register or its default
+     *
+     * @see org.extex.interpreter.max.context.Group#getCount(int)
+     */
+    public Count getCount(int index) {
+
+        Slot slot = eqtb.countSlot(index);
+        if (slot.value == null) {
+            slot.value = new Count(0);
+        }
+        return (Count) slot.value;
+    }
+
+    /**
+     * Getter for the delimiter code of a character.
+     *
+     * @param c the character to get the delimiter code for
+     *
+     * @return the delimiter code for the given character
+     *
+     * @see org.extex.interpreter.max.context.Group#getDelcode(org.extex.core.UnicodeChar)
+     */
+    public MathDelimiter getDelcode(UnicodeChar c) {
+
+        MathDelimiter delcode = (MathDelimiter) value(eqtb.delcodes, c);
+        if (delcode != null) {
+            return delcode;
+        }
+        // Fallback for predefined delimiter codes
+        if (c.getCodePoint() == '.') {
+            return new MathDelimiter(null, null, null);
+        }
+        return null;
+    }
+
+    /**
+     * Getter for the named dimen register. As a default value 0 is returned.
+     *
+     * @param name the name of the dimen register
+     *
+     * @return the value of the dimen register or its default
+     *
+     * @see org.extex.interpreter.max.context.Group#getDimen(java.lang.String)
+     */
+    public Dimen getDimen(String name) {
+
+        Slot slot = slot(eqtb.dimens, name);
+        if (slot.value == null) {
+            slot.value = new Dimen();
+        }
+        return (Dimen) slot.value;
+    }
+
+    /**
+     * Getter for a numbered dimen register. As a default value 0 is returned.
+     *
+     * @param index the number of the dimen register
+     *
+     * @return the value of the dimen register or its default
+     *
+     * @see org.extex.interpreter.max.context.Group#getDimen(int)
+     */
+    public Dimen getDimen(int index) {
+
+        Slot slot = eqtb.dimenSlot(index);
+        if (slot.value == null) {
+            slot.value = new Dimen();
+        }
+        return (Dimen) slot.value;
+    }
+
+    /**
+     * Getter for the current font.
+     *
+     * @param name the name of the font
+     *
+     * @return the current font
+     *
+     * @see org.extex.interpreter.max.context.Group#getFont(java.lang.String)
+     */
+    public Font getFont(String name) {
+
+        return getLocalFont((Font) value(eqtb.fonts, name));
+    }
+
+    /**
+     * Getter for the font to be used in place of a given one. A forked
+     * context makes a copy of a font when it is encountered for the first
+     * time.
+     *
+     * @param font the font
+     *
+     * @return the font to use
+     *
+     * @see org.extex.interpreter.max.context.Group#getLocalFont(org.extex.typesetter.tc.font.Font)
+     */
+    public Font getLocalFont(Font font) {
+
+        return eqtb.fontCopies == null || font == null
+                ? font
+                : eqtb.fontCopies.get(font);
+    }
+
+    /**
+     * Getter for the boolean value.
+     *
+     * @param name the name of the boolean
+     *
+     * @return the value
+     *
+     * @see org.extex.interpreter.max.context.Group#getIf(java.lang.String)
+     */
+    public boolean getIf(String name) {
+
+        return Boolean.TRUE.equals(value(eqtb.ifs, name));
+    }
+
+    /**
+     * Getter for a input file register. If the name is {@code null} then the
+     * default input stream is used.
+     *
+     * @param name the name or the number of the file register
+     *
+     * @return the input file descriptor or {@code null}
+     *
+     * @see org.extex.interpreter.max.context.Group#getInFile(java.lang.String)
+     */
+    public InFile getInFile(String name) {
+
+        if (name == null) {
+            return new StandardInFile(standardTokenStream);
+        }
+        return (InFile) value(eqtb.getInFiles(), name);
+    }
+
+    /**
+     * Getter for the lccode mapping of upper case characters to their lower
+     * case equivalent.
+     *
+     * @param lc the upper case character
+     *
+     * @return the lower case equivalent or null if none exists
+     *
+     * @see org.extex.interpreter.max.context.Group#getLccode(org.extex.core.UnicodeChar)
+     */
+    public UnicodeChar getLccode(UnicodeChar lc) {
+
+        Slot slot = eqtb.lccodes.get(lc);
+        if (slot != null) {
+            return (UnicodeChar) slot.value;
+        }
+        // Fallback for predefined lccodes
+        if (lc.isLetter()) {
+            UnicodeChar value = lc.lower();
+            // the value is stored to avoid constructing UnicodeChars again
+            eqtb.lccodes.put(lc, new Slot(value));
+            return value;
+        }
+        return null;
+    }
+
+    /**
+     * Getter for the group level.
+     *
+     * @return the group level
+     *
+     * @see org.extex.interpreter.max.context.Group#getLevel()
+     */
+    public long getLevel() {
+
+        return level;
+    }
+
+    /**
+     * Getter for the locator describing where the group started.
+     *
+     * @return the locator
+     *
+     * @see org.extex.interpreter.max.context.Group#getLocator()
+     */
+    public Locator getLocator() {
+
+        if (locatorPending) {
+            locator = new Locator(locatorResource, locatorLine, locatorText,
+                locatorPointer);
+            locatorPending = false;
+            locatorResource = null;
+            locatorText = null;
+        }
+        return this.locator;
+    }
+
+    /**
+     * Getter for the math code of a character.
+     *
+     * @param c the character to get the math code for
+     *
+     * @return the math code for the given character
+     *
+     * @see org.extex.interpreter.max.context.Group#getMathcode(org.extex.core.UnicodeChar)
+     */
+    public MathCode getMathcode(UnicodeChar c) {
+
+        Slot slot = slot(eqtb.mathcodes, c);
+        if (slot.value == null) {
+            if (c.isDigit()) {
+                slot.value =
+                        new MathCode(MathClass.VARIABLE, new MathGlyph(0, c));
+            } else if (c.isLetter()) {
+                slot.value =
+                        new MathCode(MathClass.VARIABLE, new MathGlyph(1, c));
+            } else {
+                slot.value =
+                        new MathCode(MathClass.ORDINARY, new MathGlyph(0, c));
+            }
+        }
+        return (MathCode) slot.value;
+    }
+
+    /**
+     * Getter for the named muskip register. As a default value 0 is returned.
+     *
+     * @param name the name of the muskip register
+     *
+     * @return the value of the muskip register or its default
+     *
+     * @see org.extex.interpreter.max.context.Group#getMuskip(java.lang.String)
+     */
+    public Muskip getMuskip(String name) {
+
+        Muskip muskip = (Muskip) value(eqtb.muskips, name);
+        return muskip != null ? muskip : new Muskip();
+    }
+
+    /**
+     * Getter for the name space.
+     *
+     * @return the name space
+     *
+     * @see org.extex.interpreter.max.context.Group#getNamespace()
+     */
+    public String getNamespace() {
+
+        return (String) eqtb.namespace.value;
+    }
+
+    /**
+     * Getter for the next group in the linked list.
+     *
+     * @return the next group
+     *
+     * @see org.extex.interpreter.max.context.Group#getNext()
+     */
+    public Group getNext() {
+
+        return next;
+    }
+
+    /**
+     * Getter for the output file descriptor.
+     *
+     * @param name the name of the descriptor to get
+     *
+     * @return the output file descriptor
+     *
+     * @see org.extex.interpreter.max.context.Group#getOutFile(java.lang.String)
+     */
+    public OutFile getOutFile(String name) {
+
+        return (OutFile) value(eqtb.getOutFiles(), name);
+    }
+
+    /**
+     * Getter for a parameter with a pre-resolved key.
+     *
+     * @param key the key of the parameter
+     * @param <T> the type of the value
+     *
+     * @return the value of the parameter or its default
+     *
+     * @see org.extex.interpreter.max.context.Group#getParameter(org.extex.core.ParameterKey)
+     */
+    @SuppressWarnings("unchecked")
+    public <T> T getParameter(ParameterKey<T> key) {
+
+        Slot slot = eqtb.parameterSlot(key.getIndex());
+        if (slot.value == null) {
+            slot.value = key.createDefault();
+        }
+        return (T) slot.value;
+    }
+
+    /**
+     * Getter for the space factor code of a character. The sfcode is 999 for
+     * letters and 1000 for other characters unless changed explicitly.
+     *
+     * @param c the character for which the sfcode is requested
+     *
+     * @return the sfcode of the given character
+     *
+     * @see org.extex.interpreter.max.context.Group#getSfcode(org.extex.core.UnicodeChar)
+     */
+    public FixedCount getSfcode(UnicodeChar c) {
+
+        Count sfcode = (Count) value(eqtb.sfcodes, c);
+        if (sfcode != null) {
+            return sfcode;
+        }
+        return c.isLetter() ? SFCODE_LETTER : SFCODE_DEFAULT;
+    }
+
+    /**
+     * Getter for the named skip register. As a default value 0 is returned.
+     *
+     * @param name the name of the skip register
+     *
+     * @return the value of the skip register or its default
+     *
+     * @see org.extex.interpreter.max.context.Group#getSkip(java.lang.String)
+     */
+    public Glue getSkip(String name) {
+
+        Glue skip = (Glue) value(eqtb.skips, name);
+        return skip != null ? skip : new Glue(0);
+    }
+
+    /**
+     * Getter for standardTokenStream.
+     *
+     * @return the standardTokenStream
+     *
+     * @see org.extex.interpreter.max.context.Group#getStandardTokenStream()
+     */
+    public TokenStream getStandardTokenStream() {
+
+        return this.standardTokenStream;
+    }
+
+    /**
+     * Getter for the token which started the group.
+     *
+     * @return the start token
+     *
+     * @see org.extex.interpreter.max.context.Group#getStart()
+     */
+    public Token getStart() {
+
+        return this.start;
+    }
+
+    /**
+     * Getter for the named toks register. As a default value the empty toks
+     * register is returned.
+     *
+     * @param name the name of the toks register
+     *
+     * @return the value of the toks register or its default
+     *
+     * @see org.extex.interpreter.max.context.Group#getToks(java.lang.String)
+     */
+    public Tokens getToks(String name) {
+
+        Tokens toks = (Tokens) value(eqtb.toks, name);
+        return toks != null ? toks : new Tokens();
+    }
+
+    /**
+     * Getter for the named toks register.
+     *
+     * @param name the name of the toks register
+     *
+     * @return the value of the toks register or {@code null} if none is
+     *         defined
+     *
+     * @see org.extex.interpreter.max.context.Group#getToksOrNull(java.lang.String)
+     */
+    public Tokens getToksOrNull(String name) {
+
+        return (Tokens) value(eqtb.toks, name);
+    }
+
+    /**
+     * Getter for the group type.
+     *
+     * @return the group type
+     *
+     * @see org.extex.interpreter.max.context.Group#getType()
+     */
+    public GroupType getType() {
+
+        return type;
+    }
+
+    /**
+     * Getter for the typesetting context.
+     *
+     * @return the typesetting context
+     *
+     * @see org.extex.interpreter.max.context.Group#getTypesettingContext()
+     */
+    public TypesettingContext getTypesettingContext() {
+
+        return (TypesettingContext) eqtb.typesettingContext.value;
+    }
+
+    /**
+     * Getter for the uccode mapping of lower case characters to their upper
+     * case equivalent.
+     *
+     * @param uc the upper case character
+     *
+     * @return the upper case equivalent or null if none exists
+     *
+     * @see org.extex.interpreter.max.context.Group#getUccode(org.extex.core.UnicodeChar)
+     */
+    public UnicodeChar getUccode(UnicodeChar uc) {
+
+        Slot slot = eqtb.uccodes.get(uc);
+        if (slot != null) {
+            return (UnicodeChar) slot.value;
+        }
+        // Fallback for predefined uc codes
+        if (uc.isLetter()) {
+            UnicodeChar value = uc.upper();
+            // the value is stored to avoid constructing UnicodeChars again
+            eqtb.uccodes.put(uc, new Slot(value));
+            return value;
+        }
+        return null;
+    }
+
+    /**
+     * Attach this group to the next group. The table of current values is
+     * shared with the next group.
+     *
+     * @param nextGroup the next group in the stack or {@code null}
+     *
+     * @throws IllegalArgumentException in case that the next group is not a
+     *         save stack group
+     */
+    private void link(Group nextGroup) {
+
+        this.next = nextGroup;
+        if (nextGroup == null) {
+            this.eqtb = new Equivalents();
+            this.level = 0;
+        } else if (nextGroup instanceof SaveStackGroupImpl) {
+            SaveStackGroupImpl g = (SaveStackGroupImpl) nextGroup;
+            this.eqtb = g.eqtb;
+            this.level = g.level + 1;
+        } else {
+            throw new IllegalArgumentException(nextGroup.getClass().getName());
+        }
+    }
+
+    /**
+     * Clear the group after it has been closed. The save stack has been
+     * unwound already; its arrays are kept unless they have grown large. The
+     * bottom-level group is never recycled.
+     *
+     * @return {@code true} iff the group has been cleared
+     *
+     * @see org.extex.interpreter.max.context.Group#release()
+     */
+    public boolean release() {
+
+        if (next == null || savePointer != 0) {
+            return false;
+        }
+        afterGroup = null;
+        afterGroupObservers = null;
+        catcodesSaved = false;
+        eqtb = null;
+        locator = null;
+        locatorPending = false;
+        locatorResource = null;
+        locatorText = null;
+        next = null;
+        if (saveSlots != null && saveSlots.length > RECYCLE_LIMIT) {
+            saveLevels = null;
+            saveSlots = null;
+            saveValues = null;
+        }
+        standardTokenStream = null;
+        start = null;
+        type = GroupType.BOTTOM_LEVEL_GROUP;
+        return true;
+    }
+
+    /**
+     * Prepare a released group to be used again on top of a given group.
+     *
+     * @param nextGroup the next group in the stack
+     *
+     * @see org.extex.interpreter.max.context.Group#reuse(org.extex.interpreter.max.context.Group)
+     */
+    public void reuse(Group nextGroup) {
+
+        link(nextGroup);
+    }
+
+    /**
+     * Invoke all registered observers for the end-of-group event.
+     *
+     * @throws HelpingException in case of an error
+     *
+     * @see org.extex.interpreter.max.context.Group#runAfterGroup()
+     */
+    public void runAfterGroup() throws HelpingException {
+
+        if (afterGroupObservers != null) {
+            afterGroupObservers.update();
+        }
+    }
+
+    /**
+     * Push the current content of a slot onto the save stack.
+     *
+     * @param slot the slot to save
+     */
+    private void save(Slot slot) {
+
+        if (saveSlots == null) {
+            saveSlots = new Slot[INITIAL_SAVE_SIZE];
+            saveValues = new Object[INITIAL_SAVE_SIZE];
+            saveLevels = new int[INITIAL_SAVE_SIZE];
+        } else if (savePointer >= saveSlots.length) {
+            int size = 2 * savePointer;
+            Slot[] slots = new Slot[size];
+            System.arraycopy(saveSlots, 0, slots, 0, savePointer);
+            saveSlots = slots;
+            Object[] values = new Object[size];
+            System.arraycopy(saveValues, 0, values, 0, savePointer);
+            saveValues = values;
+            int[] levels = new int[size];
+            System.arraycopy(saveLevels, 0, levels, 0, savePointer);
+            saveLevels = levels;
+        }
+        saveSlots[savePointer] = slot;
+        saveValues[savePointer] = slot.value;
+        saveLevels[savePointer] = slot.level;
+        savePointer++;
+    }
+
+    /**
+     * Store some extension object in the group.
+     *
+     * @param extension the reference for the extension
+     * @param key the key of the object
+     * @param value the value to store
+     * @param global the indicator that the assignment should be performed
+     *        globally
+     *
+     * @see org.extex.interpreter.max.context.Group#set(java.lang.Object,
+     *      java.lang.Object, java.lang.Object, boolean)
+     */
+    public void set(Object extension, Object key, Object value, boolean global) {
+
+        Map<Object, Slot> map = eqtb.extensions.get(extension);
+        if (map == null) {
+            map = new HashMap<Object, Slot>();
+            eqtb.extensions.put(extension, map);
+        }
+        assign(slot(map, key), value, global);
+    }
+
+    /**
+     * Setter for the {@link org.extex.interpreter.type.box.Box box} register.
+     *
+     * @param name the name or the number of the register
+     * @param value the new value of the register
+     * @param global the indicator for the scope; {@code true} means all
+     *        groups; otherwise the current group is affected only
+     *
+     * @see org.extex.interpreter.max.context.Group#setBox(java.lang.String,
+     *      org.extex.interpreter.type.box.Box, boolean)
+     */
+    public void setBox(String name, Box value, boolean global) {
+
+        assign(slot(eqtb.boxes, name), value, global);
+    }
+
+    /**
+     * Setter for the catcode of a character.
+     *
+     * @param c the character
+     * @param code the catcode
+     * @param global the indicator for the scope; {@code true} means all
+     *        groups; otherwise the current group is affected only
+     *
+     * @see org.extex.interpreter.max.context.Group#setCatcode(org.extex.core.UnicodeChar,
+     *      org.extex.scanner.type.Catcode, boolean)
+     */
+    public void setCatcode(UnicodeChar c, Catcode code, boolean global) {
+
+        assign(slot(eqtb.catcodes, c), code, global);
+        eqtb.catcodeVersion = null;
+        if (!global) {
+            catcodesSaved = true;
+        }
+    }
+
+    /**
+     * Setter for active characters or macros.
+     *
+     * @param token the name of the active character or macro
+     * @param code the new code
+     * @param global the indicator for the scope; {@code true} means all
+     *        groups; otherwise the current group is affected only
+     *
+     * @see org.extex.interpreter.max.context.Group#setCode(org.extex.scanner.type.token.Token,
+     *      org.extex.interpreter.type.Code, boolean)
+     */
+    public void setCode(Token token, Code code, boolean global) {
+
+        assign(slot(eqtb.codes, token), code, global);
+    }
+
+    /**
+     * Setter for a count register.
+     *
+     * @param name the name of the count register
+     * @param value the value of the count register
+     * @param global the indicator for the scope; {@code true} means all
+     *        groups; otherwise the current group is affected only
+     *
+     * @see org.extex.interpreter.max.context.Group#setCount(java.lang.String,
+     *      org.extex.core.count.Count, boolean)
+     */
+    public void setCount(String name, Count value, boolean global) {
+
+        assign(slot(eqtb.counts, name), value, global);
+    }
+
+    /**
+     * Setter for a numbered count register.
+     *
+     * @param index the number of the count register
+     * @param value the value of the count register
+     * @param global the indicator for the scope; {@code true} means all
+     *        groups; otherwise the current group is affected only
+     *
+     * @see org.extex.interpreter.max.context.Group#setCount(int,
+     *      org.extex.core.count.Count, boolean)
+     */
+    public void setCount(int index, Count value, boolean global) {
+
+        assign(eqtb.countSlot(index), value, global);
+    }
+
+    /**
+     * Setter for the delimiter code of a character.
+     *
+     * @param uc the character to set the delimiter code for
+     * @param code the new delimiter code
+     * @param global the indicator for the scope; {@code true} means all
+     *        groups; otherwise the current group is affected only
+     *
+     * @see org.extex.interpreter.max.context.Group#setDelcode(org.extex.core.UnicodeChar,
+     *      MathDelimiter, boolean)
+     */
+    public void setDelcode(UnicodeChar uc, MathDelimiter code, boolean global) {
+
+        assign(slot(eqtb.delcodes, uc), code, global);
+    }
+
+    /**
+     * Setter for a dimen register.
+     *
+     * @param name the name of the dimen register
+     * @param value the value of the dimen register
+     * @param global the indicator for the scope; {@code true} means all
+     *        groups; otherwise the current group is affected only
+     *
+     * @see org.extex.interpreter.max.context.Group#setDimen(java.lang.String,
+     *      org.extex.core.dimen.Dimen, boolean)
+     */
+    public void setDimen(String name, Dimen value, boolean global) {
+
+        assign(slot(eqtb.dimens, name), value, global);
+    }
+
+    /**
+     * Setter for a numbered dimen register.
+     *
+     * @param index the number of the dimen register
+     * @param value the value of the dimen register
+     * @param global the indicator for the scope; {@code true} means all
+     *        groups; otherwise the current group is affected only
+     *
+     * @see org.extex.interpreter.max.context.Group#setDimen(int,
+     *      org.extex.core.dimen.Dimen, boolean)
+     */
+    public void setDimen(int index, Dimen value, boolean global) {
+
+        assign(eqtb.dimenSlot(index), value, global);
+    }
+
+    /**
+     * Setter for the font with a given name.
+     *
+     * @param name the name of the font
+     * @param font the new font
+     * @param global the indicator for the scope; {@code true} means all
+     *        groups; otherwise the current group is affected only
+     *
+     * @see org.extex.interpreter.max.context.Group#setFont(java.lang.String,
+     *      org.extex.typesetter.tc.font.Font, boolean)
+     */
+    public void setFont(String name, Font font, boolean global) {
+
+        assign(slot(eqtb.fonts, name), font, global);
+    }
+
+    /**
+     * Setter for the value of a boolean.
+     *
+     * @param name the name of the boolean
+     * @param value the truth value
+     * @param global the indicator for the scope; {@code true} means all
+     *        groups; otherwise the current group is affected only
+     *
+     * @see org.extex.interpreter.max.context.Group#setIf(java.lang.String,
+     *      boolean, boolean)
+     */
+    public void setIf(String name, boolean value, boolean global) {
+
+        assign(slot(eqtb.ifs, name), (value ? Boolean.TRUE : Boolean.FALSE),
+            global);
+    }
+
+    /**
+     * Setter for an input file.
+     *
+     * @param name the name of the input file
+     * @param file the input file specification
+     * @param global the indicator for the scope; {@code true} means all
+     *        groups; otherwise the current group is affected only
+     *
+     * @see org.extex.interpreter.max.context.Group#setInFile(java.lang.String,
+     *      org.extex.scanner.type.file.InFile, boolean)
+     */
+    public void setInFile(String name, InFile file, boolean global) {
+
+        assign(slot(eqtb.getInFiles(), name), file, global);
+    }
+
+    /**
+     * Declare the translation from an upper case character to a lower case
+     * character.
+     *
+     * @param uc upper case character
+     * @param lc lower case equivalent
+     * @param global the indicator for the scope; {@code true} means all
+     *        groups; otherwise the current group is affected only
+     *
+     * @see org.extex.interpreter.max.context.Group#setLccode(org.extex.core.UnicodeChar,
+     *      org.extex.core.UnicodeChar, boolean)
+     */
+    public void setLccode(UnicodeChar uc, UnicodeChar lc, boolean global) {
+
+        assign(slot(eqtb.lccodes, uc), lc, global);
+    }
+
+    /**
+     * Setter for locator.
+     *
+     * @param locator the locator to set
+     *
+     * @see org.extex.interpreter.max.context.Group#setLocator(org.extex.core.Locator)
+     */
+    public void setLocator(Locator locator) {
+
+        this.locator = locator;
+        locatorPending = false;
+        locatorResource = null;
+        locatorText = null;
+    }
+
+    /**
+     * Setter for the position of the start of the group. The locator is
+     * created when it is requested for the first time.
+     *
+     * @param resource the name of the resource
+     * @param line the line number
+     * @param text the text of the line
+     * @param pointer the position in the line
+     *
+     * @see org.extex.interpreter.max.context.Group#setLocator(java.lang.String,
+     *      int, java.lang.String, int)
+     */
+    public void setLocator(String resource, int line, String text,
+            int pointer) {
+
+        this.locator = null;
+        locatorResource = resource;
+        locatorLine = line;
+        locatorText = text;
+        locatorPointer = pointer;
+        locatorPending = true;
+    }
+
+    /**
+     * Setter for the math code of a character.
+     *
+     * @param uc the character to set the math code for
+     * @param code the new math code
+     * @param global the indicator for the scope; {@code true} means all
+     *        groups; otherwise the current group is affected only
+     *
+     * @see org.extex.interpreter.max.context.Group#setMathcode(org.extex.core.UnicodeChar,
+     *      MathCode, boolean)
+     */
+    public void setMathcode(UnicodeChar uc, MathCode code, boolean global) {
+
+        assign(slot(eqtb.mathcodes, uc), code, global);
+    }
+
+    /**
+     * Setter for the muskip register.
+     *
+     * @param name the name of the register
+     * @param value the value of the register
+     * @param global the indicator for the scope; {@code true} means all
+     *        groups; otherwise the current group is affected only
+     *
+     * @see org.extex.interpreter.max.context.Group#setMuskip(java.lang.String,
+     *      org.extex.core.muskip.Muskip, boolean)
+     */
+    public void setMuskip(String name, Muskip value, boolean global) {
+
+        assign(slot(eqtb.muskips, name), value, global);
+    }
+
+    /**
+     * Setter for the name space.
+     *
+     * @param theNamespace the new name space
+     * @param global the indicator for the scope; {@code true} means all
+     *        groups; otherwise the current group is affected only
+     *
+     * @see org.extex.interpreter.max.context.Group#setNamespace(java.lang.String,
+     *      boolean)
+     */
+    public void setNamespace(String theNamespace, boolean global) {
+
+        assign(eqtb.namespace, theNamespace, global);
+    }
+
+    /**
+     * Setter for the output file for a given name.
+     *
+     * @param name the name of the output file
+     * @param file the output file specification
+     * @param global the indicator for the scope; {@code true} means all
+     *        groups; otherwise the current group is affected only
+     *
+     * @see org.extex.interpreter.max.context.Group#setOutFile(java.lang.String,
+     *      org.extex.scanner.type.file.OutFile, boolean)
+     */
+    public void setOutFile(String name, OutFile file, boolean global) {
+
+        assign(slot(eqtb.getOutFiles(), name), file, global);
+    }
+
+    /**
+     * Setter for a parameter with a pre-resolved key.
+     *
+     * @param key the key of the parameter
+     * @param value the new value
+     * @param global the indicator for the scope; {@code true} means all
+     *        groups; otherwise the current group is affected only
+     * @param <T> the type of the value
+     *
+     * @see org.extex.interpreter.max.context.Group#setParameter(org.extex.core.ParameterKey,
+     *      java.lang.Object, boolean)
+     */
+    public <T> void setParameter(ParameterKey<T> key, T value, boolean global) {
+
+        assign(eqtb.parameterSlot(key.getIndex()), value, global);
+    }
+
+    /**
+     * Setter for the space factor code of a character.
+     *
+     * @param uc the character to set the space factor code for
+     * @param code the new space factor code
+     * @param global the indicator for the scope; {@code true} means all
+     *        groups; otherwise the current group is affected only
+     *
+     * @see org.extex.interpreter.max.context.Group#setSfcode(org.extex.core.UnicodeChar,
+     *      org.extex.core.count.Count, boolean)
+     */
+    public void setSfcode(UnicodeChar uc, Count code, boolean global) {
+
+        assign(slot(eqtb.sfcodes, uc), code, global);
+    }
+
+    /**
+     * Setter for a skip register.
+     *
+     * @param name the name of the skip register
+     * @param value the value of the skip register
+     * @param global the indicator for the scope; {@code true} means all
+     *        groups; otherwise the current group is affected only
+     *
+     * @see org.extex.interpreter.max.context.Group#setSkip(java.lang.String,
+     *      org.extex.core.glue.Glue, boolean)
+     */
+    public void setSkip(String name, Glue value, boolean global) {
+
+        assign(slot(eqtb.skips, name), value, global);
+    }
+
+    /**
+     * Setter for standard Token stream.
+     *
+     * @param standardTokenStream the standardTokenStream to set.
+     *
+     * @see org.extex.interpreter.max.context.Group#setStandardTokenStream(org.extex.scanner.api.TokenStream)
+     */
+    public void setStandardTokenStream(TokenStream standardTokenStream) {
+
+        this.standardTokenStream = standardTokenStream;
+    }
+
+    /**
+     * Setter for start token.
+     *
+     * @param start the start token to set
+     *
+     * @see org.extex.interpreter.max.context.Group#setStart(org.extex.scanner.type.token.Token)
+     */
+    public void setStart(Token start) {
+
+        this.start = start;
+    }
+
+    /**
+     * Setter for a toks register.
+     *
+     * @param name the name of the toks register
+     * @param value the value of the toks register
+     * @param global the indicator for the scope; {@code true} means all
+     *        groups; otherwise the current group is affected only
+     *
+     * @see org.extex.interpreter.max.context.Group#setToks(java.lang.String,
+     *      org.extex.scanner.type.tokens.Tokens, boolean)
+     */
+    public void setToks(String name, Tokens value, boolean global) {
+
+        assign(slot(eqtb.toks, name), value, global);
+    }
+
+    /**
+     * Setter for the type.
+     *
+     * @param type the type of the group
+     *
+     * @see org.extex.interpreter.max.context.Group#setType(org.extex.interpreter.context.group.GroupType)
+     */
+    public void setType(GroupType type) {
+
+        this.type = type;
+    }
+
+    /**
+     * Setter for the typesetting context.
+     *
+     * @param context the new typesetting context
+     * @param global the indicator for the scope; {@code true} means all
+     *        groups; otherwise the current group is affected only
+     *
+     * @see org.extex.interpreter.max.context.Group#setTypesettingContext(org.extex.typesetter.tc.TypesettingContext,
+     *      boolean)
+     */
+    public void setTypesettingContext(TypesettingContext context, boolean global) {
+
+        assign(eqtb.typesettingContext, context, global);
+    }
+
+    /**
+     * Declare the translation from a lower case character to an upper case
+     * character.
+     *
+     * @param lc lower case character
+     * @param uc uppercase equivalent
+     * @param global the indicator for the scope; {@code true} means all
+     *        groups; otherwise the current group is affected only
+     *
+     * @see org.extex.interpreter.max.context.Group#setUccode(org.extex.core.UnicodeChar,
+     *      org.extex.core.UnicodeChar, boolean)
+     */
+    public void setUccode(UnicodeChar lc, UnicodeChar uc, boolean global) {
+
+        assign(slot(eqtb.uccodes, lc), uc, global);
+    }
+
+    /**
+     * Get the string representation of this object for debugging purposes.
+     *
+     * @return the string representation
+     *
+     * @see java.lang.Object#toString()
+     */
+    @Override
+    public String toString() {
+
+        Locator loc = getLocator();
+        return loc != null ? "group " + loc.toString() : super
+            .toString();
+    }
+
+    /**
+     * Restore the values overwritten by local assignments in this group. The
+     * save stack is unwound in reverse order. Values which have been assigned
+     * globally after they have been saved are retained.
+     *
+     * @see org.extex.interpreter.max.context.Group#unsave()
+     */
+    public void unsave() {
+
+        while (savePointer > 0) {
+            Slot slot = saveSlots[--savePointer];
+            if (slot.level != 0) {
+                slot.value = saveValues[savePointer];
+                slot.level = saveLevels[savePointer];
+            }
+            saveSlots[savePointer] = null;
+            saveValues[savePointer] = null;
+        }
+        if (catcodesSaved) {
+            eqtb.catcodeVersion = null;
+            catcodesSaved = false;
+        }
+    }
+
+    /**
+     * Assign a new value to a numbered count register. If the current value
+     * has been assigned in this group then it is not referenced from the save
+     * stack and it is updated in place.
+     *
+     * @param index the number of the count register
+     * @param value the new value
+     * @param global the indicator for the scope; {@code true} means all
+     *        groups; otherwise the current group is affected only
+     *
+     * @return the count register which contains the new value
+     *
+     * @see org.extex.interpreter.max.context.Group#updateCount(int, long,
+     *      boolean)
+     */
+    public Count updateCount(int index, long value, boolean global) {
+
+        Slot slot = eqtb.countSlot(index);
+        if (slot.level == level && slot.value != null) {
+            Count count = (Count) slot.value;
+            count.set(value);
+            if (global) {
+                slot.level = 0;
+            }
+            return count;
+        }
+        Count count = new Count(value);
+        assign(slot, count, global);
+        return count;
+    }
+
+    /**
+     * Assign a new value to a numbered dimen register. If the current value
+     * has been assigned in this group then it is not referenced from the save
+     * stack and it is updated in place.
+     *
+     * @param index the number of the dimen register
+     * @param value the new value in scaled points
+     * @param global the indicator for the scope; {@code true} means all
+     *        groups; otherwise the current group is affected only
+     *
+     * @return the dimen register which contains the new value
+     *
+     * @see org.extex.interpreter.max.context.Group#updateDimen(int, long,
+     *      boolean)
+     */
+    public Dimen updateDimen(int index, long value, boolean global) {
+
+        Slot slot = eqtb.dimenSlot(index);
+        if (slot.level == level && slot.value != null) {
+            Dimen dimen = (Dimen) slot.value;
+            dimen.set(value);
+            if (global) {
+                slot.level = 0;
+            }
+            return dimen;
+        }
+        Dimen dimen = new Dimen(value);
+        assign(slot, dimen, global);
+        return dimen;
+    }
+
+}
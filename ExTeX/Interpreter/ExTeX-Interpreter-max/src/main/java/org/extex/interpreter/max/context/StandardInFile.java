@@ -0,0 +1,142 @@
+/*
+ * Copyright (C) 2003-2011 The ExTeX Group and individual authors listed below
+ *
+ * This library is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as published by the
+ * Free Software Foundation; either version 2.1 of the License, or (at your
+ * option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General Public License
+ * for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this library; if not, write to the Free Software Foundation,
+ * Inc., 59 Temple Place, Suite 330, Boston, MA 02111-1307 USA
+ *
+ */
+
+package org.extex.interpreter.max.context;
+
+import org.extex.core.exception.helping.HelpingException;
+import org.extex.core.exception.helping.NoHelpException;
+import org.extex.scanner.api.TokenStream;
+import org.extex.scanner.api.Tokenizer;
+import org.extex.scanner.api.exception.ScannerException;
+import org.extex.scanner.type.file.InFile;
+import org.extex.scanner.type.token.Token;
+import org.extex.scanner.type.token.TokenFactory;
+import org.extex.scanner.type.tokens.Tokens;
+
+/**
+ * This class provides an input file which reads from the standard token
+ * stream. It is handed out by the groups when the input file without a name
+ * is requested.
+ *
+ * @author <a href="mailto:gene@gerd-neugebauer.de">Gerd Neugebauer</a>
+*/
+class StandardInFile implements InFile {
+
+    /**
+     * The field {@code serialVersionUID} contains the version number for
+     * serialization.
+     */
+    private static final long serialVersionUID = 2007L;
+
+    /**
+     * The field {@code closed} contains the indicator that the file has been
+     * closed.
+     */
+    private boolean closed = false;
+
+    /**
+     * The field {@code standardTokenStream} contains the token stream to read
+     * from.
+     */
+    private final transient TokenStream standardTokenStream;
+
+    /**
+     * Creates a new object.
+     *
+     * @param standardTokenStream the standard token stream
+     */
+    StandardInFile(TokenStream standardTokenStream) {
+
+        this.standardTokenStream = standardTokenStream;
+    }
+
+    /**
+     * @see org.extex.scanner.type.file.InFile#close()
+     */
+    public void close() {
+
+        closed = true;
+    }
+
+    /**
+     * @see org.extex.scanner.type.file.InFile#isEof()
+     */
+    public boolean isEof() throws HelpingException {
+
+        try {
+            return closed || standardTokenStream.isEof();
+        } catch (ScannerException e) {
+            throw new NoHelpException(e);
+        }
+    }
+
+    /**
+     * @see org.extex.scanner.type.file.InFile#isFileStream()
+     */
+    public boolean isFileStream() {
+
+        return false;
+    }
+
+    /**
+     * @see org.extex.scanner.type.file.InFile#isOpen()
+     */
+    public boolean isOpen() {
+
+        return !closed;
+    }
+
+    /**
+     * @see org.extex.scanner.type.file.InFile#isStandardStream()
+     */
+    public boolean isStandardStream() {
+
+        return true;
+    }
+
+    /**
+     * @see org.extex.scanner.type.file.InFile#read(
+     *      org.extex.scanner.type.token.TokenFactory,
+     *      org.extex.scanner.api.Tokenizer)
+     */
+    public Tokens read(TokenFactory factory, Tokenizer tokenizer)
+            throws HelpingException {
+
+        if (closed) {
+            return null;
+        }
+        Tokens toks = new Tokens();
+        Token t;
+
+        try {
+            for (;;) {
+                t = standardTokenStream.get(factory, tokenizer);
+                if (t == null) {
+                    return (toks.length() > 0 ? toks : null);
+                } else if (standardTokenStream.isEol()) {
+                    return toks;
+                }
+                toks.add(t);
+            }
+        } catch (ScannerException e) {
+            throw new NoHelpException(e);
+        }
+    }
+
+}
@@ -21,8 +21,11 @@ package org.extex.scanner.api;
 
 import org.extex.core.Locator;
 import org.extex.scanner.api.exception.ScannerException;
+import org.extex.scanner.type.token.CodeToken;
+import org.extex.scanner.type.token.OtherToken;
 import org.extex.scanner.type.token.Token;
 import org.extex.scanner.type.token.TokenFactory;
+import org.extex.scanner.type.tokens.Tokens;
 
 /**
  * This interface describes the features of a stream capable of delivering
@@ -69,6 +72,59 @@ public interface TokenStream {
    */
   Locator getLocator();
 
+  /**
+   * Getter for the text of the current line. This is the value
+   * {@link #getLocator() getLocator()} would report. Implementations are
+   * encouraged to deliver it without creating a locator.
+   *
+   * @return the current line or {@code null} if it is undefined
+   */
+  default String getLine() {
+
+    Locator locator = getLocator();
+    return locator == null ? null : locator.getLine();
+  }
+
+  /**
+   * Getter for the line number of the current position. This is the value
+   * {@link #getLocator() getLocator()} would report. Implementations are
+   * encouraged to deliver it without creating a locator.
+   *
+   * @return the line number or a negative value if it is undefined
+   */
+  default int getLineNumber() {
+
+    Locator locator = getLocator();
+    return locator == null ? -1 : locator.getLineNumber();
+  }
+
+  /**
+   * Getter for the position in the current line. This is the value
+   * {@link #getLocator() getLocator()} would report. Implementations are
+   * encouraged to deliver it without creating a locator.
+   *
+   * @return the line pointer or a negative value if it is undefined
+   */
+  default int getLinePointer() {
+
+    Locator locator = getLocator();
+    return locator == null ? -1 : locator.getLinePointer();
+  }
+
+  /**
+   * Getter for the name of the resource the tokens are read from. This is
+   * the value {@link #getLocator() getLocator()} would report.
+   * Implementations are encouraged to deliver it without creating a
+   * locator.
+   *
+   * @return the resource name or {@code null}
+   */
+  default String getResourceName() {
+
+    Locator locator = getLocator();
+    return locator == null ? null : locator.getResourceName();
+  }
+
   /**
    * Check to see if a further token can be acquired from the token stream.
    *
@@ -111,4 +167,73 @@ public interface TokenStream {
    */
   void put( Token token );
 
+  /**
+   * Push back a list of tokens into the stream. The first token of the list
+   * is delivered first. Implementations may keep a reference to the list
+   * instead of pushing the tokens one by one.
+   *
+   * @param tokens the tokens to push back
+   */
+  default void put( Tokens tokens ) {
+
+    for( int i = tokens.length() - 1; i >= 0; i-- ) {
+      put( tokens.get( i ) );
+    }
+  }
+
+  /**
+   * Append the decimal digits at the head of the token stream to a number.
+   * Only the digits {@code 0} to {@code 9} with the category code
+   * {@code OTHER} are consumed. The first token which is not such a digit is
+   * left in the stream. Implementations are free to scan the characters
+   * without creating tokens for them.
+   *
+   * @param factory   the token factory
+   * @param tokenizer the tokenizer
+   * @param n         the value accumulated so far
+   * @return the value with the digits appended
+   * @throws ScannerException in case of an error
+   */
+  default long scanDigits( TokenFactory factory, Tokenizer tokenizer,
+                           long n )
+      throws ScannerException {
+
+    long value = n;
+    for( Token t = get( factory, tokenizer ); t != null; t =
+        get( factory, tokenizer ) ) {
+      if( !OtherToken.isDigit( t ) ) {
+        put( t );
+        break;
+      }
+      value = value * 10 + t.getChar().getCodePoint() - '0';
+    }
+    return value;
+  }
+
+  /**
+   * Get the next control sequence or active character from the token
+   * stream. Any other tokens are passed by. Implementations are free to
+   * scan the characters without creating tokens for them. The category codes
+   * are taken into account as usual; thus comments and the state of the
+   * line are treated as in {@link #get(TokenFactory, Tokenizer) get()}.
+   *
+   * @param factory   the token factory
+   * @param tokenizer the tokenizer
+   * @return the next code token or {@code null} if no more tokens are
+   * available
+   * @throws ScannerException in case of an error
+   */
+  default CodeToken skipToCodeToken( TokenFactory factory,
+                                     Tokenizer tokenizer )
+      throws ScannerException {
+
+    for( Token t = get( factory, tokenizer ); t != null; t =
+        get( factory, tokenizer ) ) {
+      if( t instanceof CodeToken ) {
+        return (CodeToken) t;
+      }
+    }
+    return null;
+  }
+
 }
@@ -38,6 +38,19 @@ public interface Tokenizer {
    */
   Catcode getCatcode( UnicodeChar c );
 
+  /**
+   * Getter for the category code of a code point. Implementations are
+   * encouraged to overwrite this method to avoid the acquisition of a
+   * {@link UnicodeChar UnicodeChar} in the inner loop of the scanner.
+   *
+   * @param c the code point to analyze
+   * @return the category code of the code point
+   */
+  default Catcode getCatcode( int c ) {
+
+    return getCatcode( UnicodeChar.get( c ) );
+  }
+
   /**
    * Getter for the name space.
    *
@@ -45,4 +58,17 @@ public interface Tokenizer {
    */
   String getNamespace();
 
+  /**
+   * Getter for the version of the category codes. A new version is delivered
+   * whenever a category code is assigned or restored at the end of a group.
+   * Thus the category codes have not been changed as long as the same
+   * version is delivered.
+   *
+   * @return the version or {@code null} if the changes are not tracked
+   */
+  default Object getCatcodeVersion() {
+
+    return null;
+  }
+
 }
@@ -0,0 +1,317 @@
+/*
+ * Copyright (C) 2011 The ExTeX Group and individual authors listed below
+ *
+ * This library is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as published by the
+ * Free Software Foundation; either version 2.1 of the License, or (at your
+ * option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General Public License
+ * for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this library; if not, write to the Free Software Foundation,
+ * Inc., 59 Temple Place, Suite 330, Boston, MA 02111-1307 USA
+ *
+ */
+
+
+package org.extex.scanner.stream;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InterruptedIOException;
+import java.lang.reflect.Method;
+
+/**
+ * This input stream reads another input stream completely into memory on a
+ * background thread. The reading starts as soon as the instance is created
+ * with {@link #start(InputStream) start()}. The consumer can read the bytes
+ * already arrived and waits only if it overtakes the background thread.
+ * <p>
+ * A virtual thread is used if the Java runtime provides them. Otherwise a
+ * daemon thread is used.
+ * </p>
+ * <p>
+ * Any exception raised in the background thread is delivered to the consumer
+ * as {@link IOException} after the bytes read before. Errors are rethrown
+ * unchanged.
+ * </p>
+ *
+ * @author <a href="mailto:gene@gerd-neugebauer.de">Gerd Neugebauer</a>
+ */
+public class ReadAheadInputStream extends InputStream implements Runnable {
+
+  /**
+   * The constant {@code CHUNK_SIZE} contains the size of the chunks read by
+   * the background thread.
+   */
+  private static final int CHUNK_SIZE = 65536;
+
+  /**
+   * The constant {@code THREAD_NAME} contains the name of the background
+   * threads.
+   */
+  private static final String THREAD_NAME = "ExTeX read-ahead";
+
+  /**
+   * The constant {@code UNSTARTED} contains the method to create an unstarted
+   * thread from the builder in {@link #VIRTUAL} or {@code null} if virtual
+   * threads are not available.
+   */
+  private static final Method UNSTARTED;
+
+  /**
+   * The constant {@code VIRTUAL} contains the builder for virtual threads or
+   * {@code null} if they are not available.
+   */
+  private static final Object VIRTUAL;
+
+  static {
+    Method unstarted = null;
+    Object virtual = null;
+    try {
+      virtual = Thread.class.getMethod( "ofVirtual" ).invoke( null );
+      unstarted = Class.forName( "java.lang.Thread$Builder" )
+                       .getMethod( "unstarted", Runnable.class );
+    } catch( Exception e ) {
+      virtual = null;
+      unstarted = null;
+    }
+    VIRTUAL = virtual;
+    UNSTARTED = unstarted;
+  }
+
+  /**
+   * Create a new thread for a task.
+   *
+   * @param task the task
+   * @return the new thread; it is not started yet
+   */
+  private static Thread newThread( Runnable task ) {
+
+    if( UNSTARTED != null ) {
+      try {
+        Thread thread = (Thread) UNSTARTED.invoke( VIRTUAL, task );
+        thread.setName( THREAD_NAME );
+        return thread;
+      } catch( Exception e ) {
+        // fall through to a platform thread
+      }
+    }
+    Thread thread = new Thread( task, THREAD_NAME );
+    thread.setDaemon( true );
+    return thread;
+  }
+
+  /**
+   * Create a new instance and start the background thread reading the given
+   * input stream.
+   *
+   * @param in the input stream to read; it is closed by the background
+   *           thread at its end
+   * @return the new instance
+   */
+  public static ReadAheadInputStream start( InputStream in ) {
+
+    ReadAheadInputStream stream = new ReadAheadInputStream( in );
+    newThread( stream ).start();
+    return stream;
+  }
+
+  /**
+   * The field {@code buffer} contains the bytes read so far.
+   */
+  private byte[] buffer = new byte[ CHUNK_SIZE ];
+
+  /**
+   * The field {@code closed} contains the indicator that the consumer has
+   * closed this stream.
+   */
+  private volatile boolean closed = false;
+
+  /**
+   * The field {@code count} contains the number of bytes in the buffer.
+   */
+  private int count = 0;
+
+  /**
+   * The field {@code done} contains the indicator that the background thread
+   * has finished.
+   */
+  private boolean done = false;
+
+  /**
+   * The field {@code error} contains the exception or error encountered by
+   * the background thread or {@code null}.
+   */
+  private Throwable error = null;
+
+  /**
+   * The field {@code in} contains the input stream to read from.
+   */
+  private final InputStream in;
+
+  /**
+   * The field {@code position} contains the index of the next byte to
+   * deliver.
+   */
+  private int position = 0;
+
+  /**
+   * Creates a new object. The background thread is not started.
+   *
+   * @param in the input stream to read from
+   */
+  protected ReadAheadInputStream( InputStream in ) {
+
+    this.in = in;
+  }
+
+  /**
+   * Append a chunk to the buffer and wake up the consumer.
+   *
+   * @param chunk the bytes
+   * @param n     the number of bytes to use
+   */
+  private synchronized void append( byte[] chunk, int n ) {
+
+    if( closed ) {
+      return;
+    }
+    if( count + n > buffer.length ) {
+      byte[] b = new byte[ Math.max( buffer.length * 2, count + n ) ];
+      System.arraycopy( buffer, 0, b, 0, count );
+      buffer = b;
+    }
+    System.arraycopy( chunk, 0, buffer, count, n );
+    count += n;
+    notifyAll();
+  }
+
+  /**
+   * {@inheritDoc}
+   *
+   * @see java.io.InputStream#available()
+   */
+  @Override
+  public synchronized int available() {
+
+    return count - position;
+  }
+
+  /**
+   * Wait until a byte is available or the end has been reached.
+   *
+   * @return {@code true} iff a byte is available
+   * @throws IOException in case of an error in the background thread or an
+   *                     interruption
+   */
+  private boolean await() throws IOException {
+
+    while( position >= count && !done && !closed ) {
+      try {
+        wait();
+      } catch( InterruptedException e ) {
+        Thread.currentThread().interrupt();
+        throw new InterruptedIOException();
+      }
+    }
+    if( position < count ) {
+      return true;
+    }
+    if( error instanceof IOException ) {
+      throw (IOException) error;
+    } else if( error instanceof Error ) {
+      throw (Error) error;
+    }
+    return false;
+  }
+
+  /**
+   * Close the stream. The background thread stops after the current chunk.
+   * The bytes read so far are released.
+   *
+   * @see java.io.InputStream#close()
+   */
+  @Override
+  public synchronized void close() {
+
+    closed = true;
+    buffer = new byte[ 0 ];
+    count = 0;
+    position = 0;
+    notifyAll();
+  }
+
+  /**
+   * {@inheritDoc}
+   *
+   * @see java.io.InputStream#read()
+   */
+  @Override
+  public synchronized int read() throws IOException {
+
+    return await() ? buffer[ position++ ] & 0xff : -1;
+  }
+
+  /**
+   * {@inheritDoc}
+   *
+   * @see java.io.InputStream#read(byte[], int, int)
+   */
+  @Override
+  public synchronized int read( byte[] b, int off, int len )
+      throws IOException {
+
+    if( len == 0 ) {
+      return 0;
+    }
+    if( !await() ) {
+      return -1;
+    }
+    int n = Math.min( len, count - position );
+    System.arraycopy( buffer, position, b, off, n );
+    position += n;
+    return n;
+  }
+
+  /**
+   * Read the underlying input stream until its end. This method is executed
+   * in the background thread. Anything thrown is stored for the consumer;
+   * runtime exceptions are wrapped into an {@link IOException}.
+   *
+   * @see java.lang.Runnable#run()
+   */
+  @Override
+  public void run() {
+
+    Throwable exception = null;
+    try {
+      byte[] chunk = new byte[ CHUNK_SIZE ];
+      for( int n = in.read( chunk ); n >= 0 && !closed; n = in.read( chunk ) ) {
+        append( chunk, n );
+      }
+    } catch( IOException e ) {
+      exception = e;
+    } catch( RuntimeException e ) {
+      exception = new IOException( e );
+    } catch( Error e ) {
+      exception = e;
+    } finally {
+      try {
+        in.close();
+      } catch( Throwable e ) {
+        // ignored since all data has been read
+      }
+      synchronized( this ) {
+        error = exception;
+        done = true;
+        notifyAll();
+      }
+    }
+  }
+
+}
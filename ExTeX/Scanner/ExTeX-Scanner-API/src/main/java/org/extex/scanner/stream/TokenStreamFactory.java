@@ -19,11 +19,14 @@
 
 package org.extex.scanner.stream;
 
+import org.extex.core.jfr.FileOpenEvent;
+import org.extex.core.jfr.FlightRecorder;
 import org.extex.framework.AbstractFactory;
 import org.extex.framework.configuration.Configuration;
 import org.extex.framework.configuration.exception.*;
 import org.extex.resource.ResourceFinder;
 import org.extex.scanner.api.TokenStream;
+import org.extex.scanner.stream.cache.TokenStreamCache;
 import org.extex.scanner.stream.exception.MissingResourceFinderException;
 import org.extex.scanner.stream.observer.file.OpenFileObservable;
 import org.extex.scanner.stream.observer.file.OpenFileObserver;
@@ -40,6 +43,10 @@ import org.extex.scanner.stream.observer.writer.OpenWriterObserverList;
 
 import java.io.*;
 import java.lang.reflect.Constructor;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
 import java.util.ArrayList;
 import java.util.List;
 
@@ -102,6 +109,49 @@ import java.util.List;
  * value is the empty string then {@code java.io.InputStreamReader} is used
  * instead.
  * </p>
+ * <p>
+ * Files can be read without a reader if the attribute {@code bytes} has the
+ * value {@code true}:
+ * </p>
+ *
+ * <pre>
+ *   &lt;Scanner class="the.pack.age.TheClass"
+ *         bytes="true"/&gt;
+ * </pre>
+ *
+ * <p>
+ * In this case the class needs the constructor
+ * </p>
+ *
+ * <pre>
+ *     public TheClass(Configuration config, TokenStreamOptions options,
+ *          ByteBuffer buffer, Charset charset, Boolean isFile,
+ *          String theSource)
+ * </pre>
+ *
+ * <p>
+ * It is used for files in the encodings UTF-8 and ISO-8859-1 when no reader
+ * interceptor is registered. Files from the file system are mapped into
+ * memory; other resources are read into a buffer completely. In all other
+ * cases the reader is used as described above.
+ * </p>
+ * <p>
+ * Files can be read ahead on a background thread if the attribute
+ * {@code readahead} has the value {@code true}:
+ * </p>
+ *
+ * <pre>
+ *   &lt;Scanner class="the.pack.age.TheClass"
+ *         readahead="true"/&gt;
+ * </pre>
+ *
+ * <p>
+ * In this case the complete contents of a file is loaded into memory in the
+ * background as soon as the file has been found. The scanner consumes the
+ * bytes already arrived and does not wait for the rest. Since the scanner
+ * starts before the end of the file is known the reader is used for those
+ * files even if the attribute {@code bytes} is set.
+ * </p>
  * <p>Observable Events</p>
  * <p>
  * Observers can be registered for several events:
@@ -135,18 +185,49 @@ public class TokenStreamFactory extends AbstractFactory<Object>
    */
   private static final String BUFFERSIZE_ATTRIBUTE = "buffersize";
 
+  /**
+   * The constant {@code BYTES_ATTRIBUTE} contains the name of the attribute
+   * used to enable the reading of files as bytes.
+   */
+  private static final String BYTES_ATTRIBUTE = "bytes";
+
+  /**
+   * The constant {@code CHUNK_SIZE} contains the size of the chunks used
+   * when an input stream is read into a buffer of bytes.
+   */
+  private static final int CHUNK_SIZE = 8192;
+
   /**
    * The constant {@code CLASS_ATTRIBUTE} contains the name of the attribute
    * used to get the class name.
    */
   private static final String CLASS_ATTRIBUTE = "class";
 
+  /**
+   * The constant {@code READAHEAD_ATTRIBUTE} contains the name of the
+   * attribute used to enable the reading ahead of files.
+   */
+  private static final String READAHEAD_ATTRIBUTE = "readahead";
+
   /**
    * The field {@code bufferSize} contains the buffer size. A value less than
    * 1 indicates that the default should be used.
    */
   private int bufferSize;
 
+  /**
+   * The field {@code bytesConstructor} contains the constructor for the
+   * variant reading from a buffer of bytes. It is {@code null} if this
+   * variant is not enabled.
+   */
+  private Constructor<?> bytesConstructor = null;
+
+  /**
+   * The field {@code cache} contains the cache for the tokens of files or
+   * {@code null} if none is used.
+   */
+  private TokenStreamCache cache = null;
+
   /**
    * The field {@code configuration} contains the configuration for this
    * instance.
@@ -194,6 +275,12 @@ public class TokenStreamFactory extends AbstractFactory<Object>
    */
   private TokenStreamOptions options;
 
+  /**
+   * The field {@code readAhead} contains the indicator that files are read
+   * ahead on a background thread.
+   */
+  private boolean readAhead = false;
+
   /**
    * The field {@code readerConstructor} contains the constructor for the
    * reader variant.
@@ -253,6 +340,24 @@ public class TokenStreamFactory extends AbstractFactory<Object>
       throw new ConfigurationClassNotFoundException( classname,
                                                      configuration );
     }
+    if( Boolean.parseBoolean( configuration.getAttribute( BYTES_ATTRIBUTE ) ) ) {
+      try {
+        bytesConstructor =
+            Class.forName( classname ).getConstructor(
+                Configuration.class,
+                TokenStreamOptions.class, ByteBuffer.class,
+                Charset.class, Boolean.class, String.class );
+      } catch( SecurityException e ) {
+        throw new ConfigurationInstantiationException( e );
+      } catch( NoSuchMethodException e ) {
+        throw new ConfigurationNoSuchMethodException( e );
+      } catch( ClassNotFoundException e ) {
+        throw new ConfigurationClassNotFoundException( classname,
+                                                       configuration );
+      }
+    }
+    readAhead = Boolean.parseBoolean(
+        configuration.getAttribute( READAHEAD_ATTRIBUTE ) );
     String bs = config.getAttribute( BUFFERSIZE_ATTRIBUTE );
     if( bs != null && bs.matches( "^[0-9]+$" ) ) {
       bufferSize = Integer.parseInt( bs );
@@ -353,6 +458,47 @@ public class TokenStreamFactory extends AbstractFactory<Object>
   public TokenStream getStream( String name, String type, String encoding )
       throws ConfigurationException {
 
+    return getStream( name, type, encoding, false );
+  }
+
+  /**
+   * Provide a new instance of a token stream reading from a file or other
+   * resource. The tokens may be taken from the token cache if one is set.
+   * This is meant for streams which are read by the interpreter until their
+   * end &ndash; like the ones opened by {@code \input}. Streams which are
+   * read line by line should be acquired with
+   * {@link #getStream(String, String, String) getStream()}.
+   *
+   * @param name     the name of the file to be read
+   * @param type     the type of the file to be read
+   * @param encoding the name of the encoding to use
+   * @return the new instance or {@code null} if the resource could not
+   * be located
+   * @throws ConfigurationException in case of an error in the configuration
+   */
+  public TokenStream getCachedStream( String name, String type,
+                                      String encoding )
+      throws ConfigurationException {
+
+    return getStream( name, type, encoding, cache != null );
+  }
+
+  /**
+   * Provide a new instance of a token stream reading from a file or other
+   * resource.
+   *
+   * @param name     the name of the file to be read
+   * @param type     the type of the file to be read
+   * @param encoding the name of the encoding to use
+   * @param cached   the indicator that the token cache should be used
+   * @return the new instance or {@code null} if the resource could not
+   * be located
+   * @throws ConfigurationException in case of an error in the configuration
+   */
+  private TokenStream getStream( String name, String type, String encoding,
+                                 boolean cached )
+      throws ConfigurationException {
+
     ResourceFinder resourceFinder = getResourceFinder();
     if( resourceFinder == null ) {
       throw new MissingResourceFinderException( "" );
@@ -362,6 +508,16 @@ public class TokenStreamFactory extends AbstractFactory<Object>
     if( istream == null ) {
       return null;
     }
+    Charset charset = bytesConstructor != null && inReaderInterceptors == null
+        && !readAhead
+        ? bytesCharset( encoding )
+        : null;
+    FileChannel channel = charset != null
+        && istream instanceof FileInputStream
+        && inStreamInterceptors == null
+        ? ((FileInputStream) istream).getChannel()
+        : null;
+
     if( bufferSize > 0 ) {
       istream = new BufferedInputStream( istream, bufferSize );
     }
@@ -374,6 +530,29 @@ public class TokenStreamFactory extends AbstractFactory<Object>
         istream = isi.pipe( istream );
       }
     }
+    if( readAhead ) {
+      istream = ReadAheadInputStream.start( istream );
+    }
+
+    if( charset != null ) {
+      if( openFileObservers != null ) {
+        openFileObservers.update( name, type, istream );
+      }
+      ByteBuffer bytes = readBytes( istream, channel );
+      commit( name, type, bytes.remaining() );
+      TokenStream stream = getStream( bytes, charset, name );
+      return cached
+          ? cache.wrap( stream, bytes, charset.name(), name )
+          : stream;
+    }
+
+    ByteBuffer contents = null;
+    if( cached && inReaderInterceptors == null ) {
+      contents = readBytes( istream, null );
+      istream = new ByteArrayInputStream( contents.array(),
+                                          contents.arrayOffset(),
+                                          contents.remaining() );
+    }
 
     TokenStream stream;
     try {
@@ -390,10 +569,122 @@ public class TokenStreamFactory extends AbstractFactory<Object>
     if( openFileObservers != null ) {
       openFileObservers.update( name, type, istream );
     }
+    if( contents == null ) {
+      commit( name, type, 0 );
+      return stream;
+    }
+    commit( name, type, contents.remaining() );
+
+    return cache.wrap( stream, contents, encoding == null
+        ? Charset.defaultCharset().name()
+        : encoding, name );
+  }
+
+  /**
+   * Commit the instant event for opening a file if the flight recorder asks
+   * for it.
+   *
+   * @param name  the name of the file
+   * @param type  the type of the file
+   * @param bytes the number of bytes read in advance
+   */
+  private static void commit( String name, String type, long bytes ) {
+
+    if( !FlightRecorder.isAvailable() ) {
+      return;
+    }
+    FileOpenEvent event = new FileOpenEvent();
+    if( event.shouldCommit() ) {
+      event.setName( name );
+      event.setType( type );
+      event.setBytes( bytes );
+      event.commit();
+    }
+  }
+
+  /**
+   * Determine the character set for reading a file as bytes.
+   *
+   * @param encoding the name of the encoding or {@code null} for the
+   *                 default encoding
+   * @return the character set or {@code null} if the encoding is not
+   * supported for reading bytes
+   */
+  private static Charset bytesCharset( String encoding ) {
+
+    Charset charset;
+    try {
+      charset = encoding == null
+          ? Charset.defaultCharset()
+          : Charset.forName( encoding );
+    } catch( IllegalArgumentException e ) {
+      return null;
+    }
+    return StandardCharsets.UTF_8.equals( charset )
+        || StandardCharsets.ISO_8859_1.equals( charset ) ? charset : null;
+  }
+
+  /**
+   * Provide a new instance of a token stream reading from a buffer of bytes.
+   *
+   * @param buffer  the bytes to read from
+   * @param charset the encoding of the bytes
+   * @param source  the description of the source
+   * @return the new instance
+   * @throws ConfigurationException in case of an error in the configuration
+   */
+  private TokenStream getStream( ByteBuffer buffer, Charset charset,
+                                 String source )
+      throws ConfigurationException {
+
+    TokenStream stream;
+    try {
+      stream = (TokenStream) bytesConstructor.newInstance(
+          new Object[]{configuration, options, buffer, charset, Boolean.TRUE,
+              source} );
+    } catch( final Exception e ) {
+      throw new ConfigurationInstantiationException( e );
+    }
+
+    enableLogging( stream, getLogger() );
 
     return stream;
   }
 
+  /**
+   * Acquire the complete contents of a resource as bytes. If a file channel
+   * is given then the file is mapped into memory. Otherwise the input stream
+   * is read until its end. In any case the input stream is closed afterwards.
+   *
+   * @param istream the input stream
+   * @param channel the file channel of the input stream or {@code null}
+   * @return the buffer of bytes
+   * @throws ConfigurationException in case of an I/O error
+   */
+  private static ByteBuffer readBytes( InputStream istream,
+                                       FileChannel channel )
+      throws ConfigurationException {
+
+    try {
+      try {
+        if( channel != null ) {
+          return channel.map( FileChannel.MapMode.READ_ONLY, 0,
+                              channel.size() );
+        }
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        byte[] chunk = new byte[ CHUNK_SIZE ];
+        for( int n = istream.read( chunk ); n >= 0; n = istream.read( chunk ) ) {
+          out.write( chunk, 0, n );
+        }
+        return ByteBuffer.wrap( out.toByteArray() );
+      } finally {
+        istream.close();
+      }
+    } catch( IOException e ) {
+      throw new ConfigurationIOException( e );
+    }
+  }
+
   /**
    * Register an input stream interceptor to be applied for each token stream
    * originated at a resource.
@@ -477,6 +768,16 @@ public class TokenStreamFactory extends AbstractFactory<Object>
         OpenWriterObserverList.register( openWriterObservers, observer );
   }
 
+  /**
+   * Setter for the token cache.
+   *
+   * @param cache the cache or {@code null} to disable it
+   */
+  public void setCache( TokenStreamCache cache ) {
+
+    this.cache = cache;
+  }
+
   /**
    * Setter for options.
    *
@@ -0,0 +1,395 @@
+/*
+ * Copyright (C) 2011 The ExTeX Group and individual authors listed below
+ *
+ * This library is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as published by the
+ * Free Software Foundation; either version 2.1 of the License, or (at your
+ * option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General Public License
+ * for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this library; if not, write to the Free Software Foundation,
+ * Inc., 59 Temple Place, Suite 330, Boston, MA 02111-1307 USA
+ *
+ */
+
+
+package org.extex.scanner.stream.cache;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.extex.core.UnicodeChar;
+import org.extex.scanner.api.Tokenizer;
+import org.extex.scanner.api.exception.CatcodeException;
+import org.extex.scanner.type.Catcode;
+import org.extex.scanner.type.token.CodeToken;
+import org.extex.scanner.type.token.ControlSequenceToken;
+import org.extex.scanner.type.token.Token;
+import org.extex.scanner.type.token.TokenFactory;
+
+/**
+ * This class represents the tokens of a file as stored in the cache. Along
+ * with the tokens the category codes of all characters inspected while
+ * scanning are kept. The tokens can be replayed if the tokenizer assigns the
+ * same category codes to those characters. Entries are only created for files
+ * which have been tokenized without any change of the category codes.
+ * <p>
+ * The external representation consists of a header, the category codes,
+ * a table of the names of control sequences and the tokens. Numbers are
+ * written in a variable length encoding with seven bits per byte.
+ * </p>
+ *
+ * @author <a href="mailto:gene@gerd-neugebauer.de">Gerd Neugebauer</a>
+ */
+final class CacheEntry {
+
+  /**
+   * The constant {@code CATCODES} contains the category codes by ordinal.
+   */
+  private static final Catcode[] CATCODES = Catcode.values();
+
+  /**
+   * The constant {@code MAGIC} contains the magic number at the beginning of
+   * the external representation.
+   */
+  private static final int MAGIC = 0x45785443;
+
+  /**
+   * The constant {@code VERSION} contains the version of the external
+   * representation.
+   */
+  private static final int VERSION = 1;
+
+  /**
+   * Create a new entry from the tokens recorded while scanning a file.
+   *
+   * @param namespace the name space of the tokenizer
+   * @param seen      the category codes of the characters inspected
+   * @param tokens    the tokens
+   * @param lines     the line numbers of the tokens
+   * @return the new entry or {@code null} if the tokens can not be
+   * represented
+   */
+  static CacheEntry create( String namespace, Map<Integer, Catcode> seen,
+                            List<Token> tokens, int[] lines ) {
+
+    int n = tokens.size();
+    int[] chars = new int[ seen.size() ];
+    byte[] catcodes = new byte[ chars.length ];
+    int i = 0;
+    for( Map.Entry<Integer, Catcode> e : seen.entrySet() ) {
+      chars[ i ] = e.getKey().intValue();
+      catcodes[ i++ ] = (byte) e.getValue().ordinal();
+    }
+
+    Map<String, Integer> index = new HashMap<String, Integer>();
+    String[] names = new String[ n ];
+    byte[] codes = new byte[ n ];
+    int[] values = new int[ n ];
+    int[] refs = new int[ n ];
+    for( i = 0; i < n; i++ ) {
+      Token t = tokens.get( i );
+      UnicodeChar uc = t.getChar();
+      if( uc == null || (t instanceof CodeToken
+          && !namespace.equals( ((CodeToken) t).getNamespace() )) ) {
+        return null;
+      }
+      codes[ i ] = (byte) t.getCatcode().ordinal();
+      values[ i ] = uc.getCodePoint();
+      if( t instanceof ControlSequenceToken ) {
+        String name = ((ControlSequenceToken) t).getName();
+        Integer ref = index.get( name );
+        if( ref == null ) {
+          ref = Integer.valueOf( index.size() );
+          names[ index.size() ] = name;
+          index.put( name, ref );
+        }
+        refs[ i ] = ref.intValue();
+      }
+    }
+    String[] table = new String[ index.size() ];
+    System.arraycopy( names, 0, table, 0, table.length );
+
+    return new CacheEntry( namespace, chars, catcodes, table, codes, values,
+                           refs, lines );
+  }
+
+  /**
+   * Read an entry from its external representation.
+   *
+   * @param in the input to read from
+   * @return the entry read or {@code null} if the input does not contain an
+   * entry of the current version
+   * @throws IOException in case of an I/O error
+   */
+  static CacheEntry read( DataInput in ) throws IOException {
+
+    if( in.readInt() != MAGIC || in.readInt() != VERSION ) {
+      return null;
+    }
+    String namespace = in.readUTF();
+    int[] chars = new int[ readNumber( in ) ];
+    byte[] catcodes = new byte[ chars.length ];
+    for( int i = 0; i < chars.length; i++ ) {
+      chars[ i ] = readNumber( in );
+      catcodes[ i ] = in.readByte();
+    }
+    String[] names = new String[ readNumber( in ) ];
+    for( int i = 0; i < names.length; i++ ) {
+      names[ i ] = in.readUTF();
+    }
+    int n = readNumber( in );
+    byte[] codes = new byte[ n ];
+    int[] values = new int[ n ];
+    int[] refs = new int[ n ];
+    int[] lines = new int[ n ];
+    int line = 0;
+    for( int i = 0; i < n; i++ ) {
+      codes[ i ] = in.readByte();
+      if( codes[ i ] < 0 || codes[ i ] >= CATCODES.length ) {
+        return null;
+      }
+      line += readNumber( in );
+      lines[ i ] = line;
+      values[ i ] = readNumber( in );
+      if( CATCODES[ codes[ i ] ] == Catcode.ESCAPE ) {
+        refs[ i ] = readNumber( in );
+        if( refs[ i ] >= names.length ) {
+          return null;
+        }
+      }
+    }
+    return new CacheEntry( namespace, chars, catcodes, names, codes, values,
+                           refs, lines );
+  }
+
+  /**
+   * Read a non-negative number in the variable length encoding.
+   *
+   * @param in the input to read from
+   * @return the number
+   * @throws IOException in case of an I/O error
+   */
+  private static int readNumber( DataInput in ) throws IOException {
+
+    int n = 0;
+    for( int shift = 0; shift < 32; shift += 7 ) {
+      int b = in.readUnsignedByte();
+      n |= (b & 0x7f) << shift;
+      if( b < 0x80 ) {
+        return n;
+      }
+    }
+    throw new IOException( "number too long" );
+  }
+
+  /**
+   * Write a non-negative number in the variable length encoding.
+   *
+   * @param out the output to write to
+   * @param n   the number
+   * @throws IOException in case of an I/O error
+   */
+  private static void writeNumber( DataOutput out, int n )
+      throws IOException {
+
+    while( (n & ~0x7f) != 0 ) {
+      out.writeByte( (n & 0x7f) | 0x80 );
+      n >>>= 7;
+    }
+    out.writeByte( n );
+  }
+
+  /**
+   * The field {@code catcodes} contains the ordinals of the category codes
+   * of the characters inspected.
+   */
+  private final byte[] catcodes;
+
+  /**
+   * The field {@code chars} contains the code points of the characters
+   * inspected.
+   */
+  private final int[] chars;
+
+  /**
+   * The field {@code codes} contains the ordinals of the category codes of
+   * the tokens.
+   */
+  private final byte[] codes;
+
+  /**
+   * The field {@code lines} contains the line numbers of the tokens.
+   */
+  private final int[] lines;
+
+  /**
+   * The field {@code names} contains the table of the names of control
+   * sequences.
+   */
+  private final String[] names;
+
+  /**
+   * The field {@code namespace} contains the name space of the tokenizer.
+   */
+  private final String namespace;
+
+  /**
+   * The field {@code refs} contains the indices into the table of names for
+   * control sequences.
+   */
+  private final int[] refs;
+
+  /**
+   * The field {@code values} contains the code points of the tokens. For
+   * control sequences this is the escape character.
+   */
+  private final int[] values;
+
+  /**
+   * Creates a new object.
+   *
+   * @param namespace the name space
+   * @param chars     the code points of the characters inspected
+   * @param catcodes  the category codes of the characters inspected
+   * @param names     the names of control sequences
+   * @param codes     the category codes of the tokens
+   * @param values    the code points of the tokens
+   * @param refs      the indices of the names of control sequences
+   * @param lines     the line numbers of the tokens
+   */
+  private CacheEntry( String namespace, int[] chars, byte[] catcodes,
+                      String[] names, byte[] codes, int[] values, int[] refs,
+                      int[] lines ) {
+
+    this.namespace = namespace;
+    this.chars = chars;
+    this.catcodes = catcodes;
+    this.names = names;
+    this.codes = codes;
+    this.values = values;
+    this.refs = refs;
+    this.lines = lines;
+  }
+
+  /**
+   * Create the tokens of this entry.
+   *
+   * @param factory the token factory
+   * @return the tokens
+   * @throws CatcodeException in case of an error
+   */
+  Token[] createTokens( TokenFactory factory ) throws CatcodeException {
+
+    Token[] tokens = new Token[ codes.length ];
+    for( int i = 0; i < tokens.length; i++ ) {
+      Catcode cc = CATCODES[ codes[ i ] ];
+      if( cc == Catcode.ESCAPE ) {
+        tokens[ i ] = factory.createToken( cc, UnicodeChar.get( values[ i ] ),
+                                           names[ refs[ i ] ], namespace );
+      }
+      else {
+        tokens[ i ] = factory.createToken( cc, values[ i ], namespace );
+      }
+    }
+    return tokens;
+  }
+
+  /**
+   * Getter for the category codes of the characters inspected while the file
+   * has been scanned.
+   *
+   * @return the category codes by code point
+   */
+  Map<Integer, Catcode> getCatcodes() {
+
+    Map<Integer, Catcode> map = new HashMap<Integer, Catcode>();
+    for( int i = 0; i < chars.length; i++ ) {
+      map.put( Integer.valueOf( chars[ i ] ), CATCODES[ catcodes[ i ] ] );
+    }
+    return map;
+  }
+
+  /**
+   * Getter for the name space of the tokenizer.
+   *
+   * @return the name space
+   */
+  String getNamespace() {
+
+    return namespace;
+  }
+
+  /**
+   * Getter for the line numbers of the tokens.
+   *
+   * @return the line numbers
+   */
+  int[] getLines() {
+
+    return lines;
+  }
+
+  /**
+   * Check whether the tokenizer assigns the same category codes to the
+   * characters inspected as the tokenizer used for scanning the file.
+   *
+   * @param tokenizer the tokenizer
+   * @return {@code true} iff the tokens can be replayed
+   */
+  boolean matches( Tokenizer tokenizer ) {
+
+    if( !namespace.equals( tokenizer.getNamespace() ) ) {
+      return false;
+    }
+    for( int i = 0; i < chars.length; i++ ) {
+      if( tokenizer.getCatcode( chars[ i ] ).ordinal() != catcodes[ i ] ) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  /**
+   * Write the external representation of this entry.
+   *
+   * @param out the output to write to
+   * @throws IOException in case of an I/O error
+   */
+  void write( DataOutput out ) throws IOException {
+
+    out.writeInt( MAGIC );
+    out.writeInt( VERSION );
+    out.writeUTF( namespace );
+    writeNumber( out, chars.length );
+    for( int i = 0; i < chars.length; i++ ) {
+      writeNumber( out, chars[ i ] );
+      out.writeByte( catcodes[ i ] );
+    }
+    writeNumber( out, names.length );
+    for( String name : names ) {
+      out.writeUTF( name );
+    }
+    writeNumber( out, codes.length );
+    int line = 0;
+    for( int i = 0; i < codes.length; i++ ) {
+      out.writeByte( codes[ i ] );
+      writeNumber( out, lines[ i ] - line );
+      line = lines[ i ];
+      writeNumber( out, values[ i ] );
+      if( CATCODES[ codes[ i ] ] == Catcode.ESCAPE ) {
+        writeNumber( out, refs[ i ] );
+      }
+    }
+  }
+
+}
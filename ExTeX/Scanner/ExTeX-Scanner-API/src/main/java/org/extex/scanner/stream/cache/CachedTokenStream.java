@@ -0,0 +1,674 @@
+/*
+ * Copyright (C) 2011 The ExTeX Group and individual authors listed below
+ *
+ * This library is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as published by the
+ * Free Software Foundation; either version 2.1 of the License, or (at your
+ * option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General Public License
+ * for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this library; if not, write to the Free Software Foundation,
+ * Inc., 59 Temple Place, Suite 330, Boston, MA 02111-1307 USA
+ *
+ */
+
+
+package org.extex.scanner.stream.cache;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.extex.core.Locator;
+import org.extex.core.UnicodeChar;
+import org.extex.scanner.api.TokenStream;
+import org.extex.scanner.api.Tokenizer;
+import org.extex.scanner.api.exception.CatcodeException;
+import org.extex.scanner.api.exception.ScannerException;
+import org.extex.scanner.type.Catcode;
+import org.extex.scanner.type.token.CodeToken;
+import org.extex.scanner.type.token.Token;
+import org.extex.scanner.type.token.TokenFactory;
+import org.extex.scanner.type.tokens.Tokens;
+
+/**
+ * This token stream either replays the tokens of a file from the cache or
+ * records the tokens delivered by the underlying stream for the cache. The
+ * decision is made when the first token is requested since the tokenizer is
+ * not known before.
+ * <p>
+ * While recording the category codes of all characters inspected by the
+ * underlying stream are remembered. The recording is abandoned as soon as the
+ * tokenizer reports a new version of the category codes, i.e. when a category
+ * code is assigned or restored at the end of a group while the file is read.
+ * Thus only files which are tokenized with one set of category codes are
+ * stored. If the tokenizer does not track the version then nothing is
+ * recorded or replayed. The tokens pushed back are not recorded since they have been
+ * recorded already.
+ * </p>
+ * <p>
+ * While replaying the version of the category codes is watched as well. If
+ * it changes and the characters of the file do not have the same category
+ * codes any more then the replay is given up. The underlying stream is
+ * advanced over the tokens replayed so far using the category codes of the
+ * cache and continues from there with the current ones.
+ * </p>
+ *
+ * @author <a href="mailto:gene@gerd-neugebauer.de">Gerd Neugebauer</a>
+ */
+class CachedTokenStream implements TokenStream {
+
+  /**
+   * This tokenizer remembers the category codes delivered by another one.
+   */
+  private static final class RecordingTokenizer implements Tokenizer {
+
+    /**
+     * The field {@code namespace} contains the name space at the beginning.
+     */
+    private final String namespace;
+
+    /**
+     * The field {@code seen} contains the category codes delivered so far.
+     */
+    private final Map<Integer, Catcode> seen =
+        new HashMap<Integer, Catcode>();
+
+    /**
+     * The field {@code tokenizer} contains the tokenizer to ask.
+     */
+    private Tokenizer tokenizer;
+
+    /**
+     * The field {@code valid} contains the indicator that all category codes
+     * have been consistent so far.
+     */
+    private boolean valid = true;
+
+    /**
+     * The field {@code version} contains the version of the category codes
+     * at the beginning.
+     */
+    private final Object version;
+
+    /**
+     * Creates a new object.
+     *
+     * @param tokenizer the tokenizer to ask
+     * @param version   the version of the category codes
+     */
+    RecordingTokenizer( Tokenizer tokenizer, Object version ) {
+
+      this.tokenizer = tokenizer;
+      this.namespace = tokenizer.getNamespace();
+      this.version = version;
+    }
+
+    /**
+     * {@inheritDoc}
+     *
+     * @see org.extex.scanner.api.Tokenizer#getCatcode(int)
+     */
+    @Override
+    public Catcode getCatcode( int c ) {
+
+      Catcode cc = tokenizer.getCatcode( c );
+      Catcode old = seen.put( Integer.valueOf( c ), cc );
+      if( old != null && old != cc ) {
+        valid = false;
+      }
+      return cc;
+    }
+
+    /**
+     * {@inheritDoc}
+     *
+     * @see org.extex.scanner.api.Tokenizer#getCatcode(org.extex.core.UnicodeChar)
+     */
+    @Override
+    public Catcode getCatcode( UnicodeChar c ) {
+
+      return getCatcode( c.getCodePoint() );
+    }
+
+    /**
+     * {@inheritDoc}
+     *
+     * @see org.extex.scanner.api.Tokenizer#getNamespace()
+     */
+    @Override
+    public String getNamespace() {
+
+      String ns = tokenizer.getNamespace();
+      if( !namespace.equals( ns ) ) {
+        valid = false;
+      }
+      return ns;
+    }
+
+  }
+
+  /**
+   * This tokenizer delivers the category codes a file has been scanned with
+   * when its tokens have been recorded.
+   */
+  private static final class ReplayTokenizer implements Tokenizer {
+
+    /**
+     * The field {@code catcodes} contains the category codes by code point.
+     */
+    private final Map<Integer, Catcode> catcodes;
+
+    /**
+     * The field {@code namespace} contains the name space.
+     */
+    private final String namespace;
+
+    /**
+     * The field {@code tokenizer} contains the tokenizer to ask for
+     * characters which have not been inspected.
+     */
+    private final Tokenizer tokenizer;
+
+    /**
+     * Creates a new object.
+     *
+     * @param entry     the cache entry
+     * @param tokenizer the tokenizer to ask for other characters
+     */
+    ReplayTokenizer( CacheEntry entry, Tokenizer tokenizer ) {
+
+      this.catcodes = entry.getCatcodes();
+      this.namespace = entry.getNamespace();
+      this.tokenizer = tokenizer;
+    }
+
+    /**
+     * {@inheritDoc}
+     *
+     * @see org.extex.scanner.api.Tokenizer#getCatcode(int)
+     */
+    @Override
+    public Catcode getCatcode( int c ) {
+
+      Catcode cc = catcodes.get( Integer.valueOf( c ) );
+      return cc != null ? cc : tokenizer.getCatcode( c );
+    }
+
+    /**
+     * {@inheritDoc}
+     *
+     * @see org.extex.scanner.api.Tokenizer#getCatcode(org.extex.core.UnicodeChar)
+     */
+    @Override
+    public Catcode getCatcode( UnicodeChar c ) {
+
+      return getCatcode( c.getCodePoint() );
+    }
+
+    /**
+     * {@inheritDoc}
+     *
+     * @see org.extex.scanner.api.Tokenizer#getNamespace()
+     */
+    @Override
+    public String getNamespace() {
+
+      return namespace;
+    }
+
+  }
+
+  /**
+   * The field {@code cache} contains the cache.
+   */
+  private final TokenStreamCache cache;
+
+  /**
+   * The field {@code entry} contains the cache entry replayed or
+   * {@code null} if the underlying stream is used.
+   */
+  private CacheEntry entry = null;
+
+  /**
+   * The field {@code index} contains the index of the next token to replay.
+   */
+  private int index = 0;
+
+  /**
+   * The field {@code key} contains the key of the contents.
+   */
+  private final String key;
+
+  /**
+   * The field {@code lines} contains the line numbers of the tokens to
+   * replay or of the tokens recorded.
+   */
+  private int[] lines = null;
+
+  /**
+   * The field {@code pending} contains the number of tokens pushed back
+   * into the underlying stream while recording.
+   */
+  private int pending = 0;
+
+  /**
+   * The field {@code pushback} contains the tokens pushed back while
+   * replaying.
+   */
+  private List<Token> pushback = null;
+
+  /**
+   * The field {@code recorded} contains the tokens recorded or {@code null}
+   * if nothing is recorded.
+   */
+  private List<Token> recorded = null;
+
+  /**
+   * The field {@code recorder} contains the tokenizer passed to the
+   * underlying stream while recording.
+   */
+  private RecordingTokenizer recorder = null;
+
+  /**
+   * The field {@code source} contains the description of the source.
+   */
+  private final String source;
+
+  /**
+   * The field {@code started} contains the indicator that the decision
+   * between replaying and recording has been made.
+   */
+  private boolean started = false;
+
+  /**
+   * The field {@code stream} contains the underlying stream.
+   */
+  private final TokenStream stream;
+
+  /**
+   * The field {@code tokens} contains the tokens to replay or {@code null}
+   * if the underlying stream is used.
+   */
+  private Token[] tokens = null;
+
+  /**
+   * The field {@code version} contains the version of the category codes
+   * the replay has been checked against.
+   */
+  private Object version = null;
+
+  /**
+   * Creates a new object.
+   *
+   * @param cache  the cache
+   * @param key    the key of the contents
+   * @param stream the underlying stream
+   * @param source the description of the source
+   */
+  CachedTokenStream( TokenStreamCache cache, String key, TokenStream stream,
+                     String source ) {
+
+    this.cache = cache;
+    this.key = key;
+    this.stream = stream;
+    this.source = source;
+  }
+
+  /**
+   * Abandon the recording.
+   */
+  private void abandon() {
+
+    recorder = null;
+    recorded = null;
+    lines = null;
+  }
+
+  /**
+   * {@inheritDoc}
+   *
+   * @see org.extex.scanner.api.TokenStream#closeFileStream()
+   */
+  @Override
+  public boolean closeFileStream() {
+
+    started = true;
+    if( tokens != null ) {
+      pushback.clear();
+      index = tokens.length;
+      return true;
+    }
+    abandon();
+    return stream.closeFileStream();
+  }
+
+  /**
+   * {@inheritDoc}
+   *
+   * @see org.extex.scanner.api.TokenStream#get(org.extex.scanner.type.token.TokenFactory,
+   * org.extex.scanner.api.Tokenizer)
+   */
+  @Override
+  public Token get( TokenFactory factory, Tokenizer tokenizer )
+      throws ScannerException {
+
+    if( !started ) {
+      start( factory, tokenizer );
+    }
+    if( tokens != null ) {
+      int n = pushback.size();
+      if( n > 0 ) {
+        return pushback.remove( n - 1 );
+      }
+      if( tokenizer.getCatcodeVersion() != version ) {
+        resume( factory, tokenizer );
+      }
+      if( tokens != null ) {
+        return index < tokens.length ? tokens[ index++ ] : null;
+      }
+      return stream.get( factory, tokenizer );
+    }
+    if( recorder != null
+        && tokenizer.getCatcodeVersion() != recorder.version ) {
+      abandon();
+    }
+    if( recorder == null ) {
+      return stream.get( factory, tokenizer );
+    }
+
+    recorder.tokenizer = tokenizer;
+    Token t;
+    try {
+      t = stream.get( factory, recorder );
+    } catch( ScannerException e ) {
+      abandon();
+      throw e;
+    }
+    if( !recorder.valid ) {
+      abandon();
+    }
+    else if( pending > 0 ) {
+      pending--;
+    }
+    else if( t != null ) {
+      record( t );
+    }
+    else {
+      CacheEntry entry = CacheEntry.create( recorder.namespace,
+                                            recorder.seen, recorded,
+                                            lines );
+      abandon();
+      if( entry != null ) {
+        cache.store( key, entry );
+      }
+    }
+    return t;
+  }
+
+  /**
+   * {@inheritDoc}
+   *
+   * @see org.extex.scanner.api.TokenStream#getLocator()
+   */
+  @Override
+  public Locator getLocator() {
+
+    if( tokens == null ) {
+      return stream.getLocator();
+    }
+    return new Locator( source, getLineNumber(), null, 0 );
+  }
+
+  /**
+   * {@inheritDoc}
+   *
+   * @see org.extex.scanner.api.TokenStream#getLine()
+   */
+  @Override
+  public String getLine() {
+
+    return tokens == null ? stream.getLine() : null;
+  }
+
+  /**
+   * {@inheritDoc}
+   *
+   * @see org.extex.scanner.api.TokenStream#getLineNumber()
+   */
+  @Override
+  public int getLineNumber() {
+
+    if( tokens == null ) {
+      return stream.getLineNumber();
+    }
+    return index > 0 ? lines[ index - 1 ] : 0;
+  }
+
+  /**
+   * {@inheritDoc}
+   *
+   * @see org.extex.scanner.api.TokenStream#getLinePointer()
+   */
+  @Override
+  public int getLinePointer() {
+
+    return tokens == null ? stream.getLinePointer() : 0;
+  }
+
+  /**
+   * {@inheritDoc}
+   *
+   * @see org.extex.scanner.api.TokenStream#getResourceName()
+   */
+  @Override
+  public String getResourceName() {
+
+    return tokens == null ? stream.getResourceName() : source;
+  }
+
+  /**
+   * {@inheritDoc}
+   *
+   * @see org.extex.scanner.api.TokenStream#isEof()
+   */
+  @Override
+  public boolean isEof() throws ScannerException {
+
+    if( tokens == null ) {
+      return stream.isEof();
+    }
+    return pushback.isEmpty() && index >= tokens.length;
+  }
+
+  /**
+   * {@inheritDoc}
+   *
+   * @see org.extex.scanner.api.TokenStream#isEol()
+   */
+  @Override
+  public boolean isEol() throws ScannerException {
+
+    if( tokens == null ) {
+      return stream.isEol();
+    }
+    return pushback.isEmpty()
+        && (index >= tokens.length
+            || index > 0 && lines[ index ] != lines[ index - 1 ]);
+  }
+
+  /**
+   * {@inheritDoc}
+   *
+   * @see org.extex.scanner.api.TokenStream#isFileStream()
+   */
+  @Override
+  public boolean isFileStream() {
+
+    return stream.isFileStream();
+  }
+
+  /**
+   * {@inheritDoc}
+   *
+   * @see org.extex.scanner.api.TokenStream#put(org.extex.scanner.type.token.Token)
+   */
+  @Override
+  public void put( Token token ) {
+
+    started = true;
+    if( tokens != null ) {
+      if( token != null ) {
+        pushback.add( token );
+      }
+      return;
+    }
+    stream.put( token );
+    if( token != null && recorder != null ) {
+      pending++;
+    }
+  }
+
+  /**
+   * {@inheritDoc}
+   *
+   * @see org.extex.scanner.api.TokenStream#put(org.extex.scanner.type.tokens.Tokens)
+   */
+  @Override
+  public void put( Tokens toks ) {
+
+    started = true;
+    if( tokens != null ) {
+      for( int i = toks.length() - 1; i >= 0; i-- ) {
+        pushback.add( toks.get( i ) );
+      }
+      return;
+    }
+    stream.put( toks );
+    if( recorder != null ) {
+      pending += toks.length();
+    }
+  }
+
+  /**
+   * Record a token delivered by the underlying stream.
+   *
+   * @param t the token
+   */
+  private void record( Token t ) {
+
+    int n = recorded.size();
+    if( n >= lines.length ) {
+      int[] a = new int[ n * 2 ];
+      System.arraycopy( lines, 0, a, 0, n );
+      lines = a;
+    }
+    Locator locator = stream.getLocator();
+    lines[ n ] = locator != null ? locator.getLineNumber() : 0;
+    recorded.add( t );
+  }
+
+  /**
+   * Check the replay after the category codes have been changed. If the
+   * characters of the file still have the same category codes then the
+   * replay goes on. Otherwise the underlying stream is advanced over the
+   * tokens replayed so far and the replay is given up.
+   *
+   * @param factory   the token factory
+   * @param tokenizer the tokenizer
+   * @throws ScannerException in case of an error in the underlying stream
+   */
+  private void resume( TokenFactory factory, Tokenizer tokenizer )
+      throws ScannerException {
+
+    if( entry.matches( tokenizer ) ) {
+      version = tokenizer.getCatcodeVersion();
+      return;
+    }
+    Tokenizer replay = new ReplayTokenizer( entry, tokenizer );
+    for( int i = 0; i < index; i++ ) {
+      stream.get( factory, replay );
+    }
+    tokens = null;
+    entry = null;
+    lines = null;
+    pushback = null;
+  }
+
+  /**
+   * {@inheritDoc}
+   *
+   * @see org.extex.scanner.api.TokenStream#scanDigits(org.extex.scanner.type.token.TokenFactory,
+   * org.extex.scanner.api.Tokenizer, long)
+   */
+  @Override
+  public long scanDigits( TokenFactory factory, Tokenizer tokenizer, long n )
+      throws ScannerException {
+
+    if( !started ) {
+      start( factory, tokenizer );
+    }
+    if( tokens == null && recorder == null ) {
+      return stream.scanDigits( factory, tokenizer, n );
+    }
+    return TokenStream.super.scanDigits( factory, tokenizer, n );
+  }
+
+  /**
+   * {@inheritDoc}
+   *
+   * @see org.extex.scanner.api.TokenStream#skipToCodeToken(org.extex.scanner.type.token.TokenFactory,
+   * org.extex.scanner.api.Tokenizer)
+   */
+  @Override
+  public CodeToken skipToCodeToken( TokenFactory factory,
+                                    Tokenizer tokenizer )
+      throws ScannerException {
+
+    if( !started ) {
+      start( factory, tokenizer );
+    }
+    if( tokens == null && recorder == null ) {
+      return stream.skipToCodeToken( factory, tokenizer );
+    }
+    return TokenStream.super.skipToCodeToken( factory, tokenizer );
+  }
+
+  /**
+   * Decide whether the tokens are replayed from the cache or recorded.
+   *
+   * @param factory   the token factory
+   * @param tokenizer the tokenizer
+   */
+  private void start( TokenFactory factory, Tokenizer tokenizer ) {
+
+    started = true;
+    Object v = tokenizer.getCatcodeVersion();
+    if( v == null ) {
+      return;
+    }
+    CacheEntry cached = cache.load( key );
+    if( cached != null && cached.matches( tokenizer ) ) {
+      try {
+        tokens = cached.createTokens( factory );
+        lines = cached.getLines();
+        pushback = new ArrayList<Token>();
+        entry = cached;
+        version = v;
+        return;
+      } catch( CatcodeException e ) {
+        tokens = null;
+      }
+    }
+    recorder = new RecordingTokenizer( tokenizer, v );
+    recorded = new ArrayList<Token>();
+    lines = new int[ 1024 ];
+  }
+
+}
@@ -0,0 +1,201 @@
+/*
+ * Copyright (C) 2011 The ExTeX Group and individual authors listed below
+ *
+ * This library is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as published by the
+ * Free Software Foundation; either version 2.1 of the License, or (at your
+ * option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General Public License
+ * for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this library; if not, write to the Free Software Foundation,
+ * Inc., 59 Temple Place, Suite 330, Boston, MA 02111-1307 USA
+ *
+ */
+
+
+package org.extex.scanner.stream.cache;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+
+import org.extex.scanner.api.TokenStream;
+
+/**
+ * This class provides a persistent cache for the tokens of input files. The
+ * cache is kept in a directory. Each file is stored under the hash of its
+ * contents.
+ * <p>
+ * When a file is read for the first time the tokens are recorded. They are
+ * stored in the cache when the end of the file is reached and no category
+ * code has been assigned or restored while the file has been read. When
+ * the same contents is read again the tokens are replayed from the cache
+ * &ndash; provided the category codes of those characters are still the
+ * same. Otherwise the file is scanned and recorded anew.
+ * </p>
+ * <p>
+ * The cache is a pure optimization. Any problem in reading or writing an
+ * entry is treated like a missing entry.
+ * </p>
+ *
+ * @author <a href="mailto:gene@gerd-neugebauer.de">Gerd Neugebauer</a>
+ */
+public class TokenStreamCache {
+
+  /**
+   * The constant {@code DIGEST} contains the name of the algorithm for the
+   * hash of the contents.
+   */
+  private static final String DIGEST = "SHA-256";
+
+  /**
+   * The constant {@code EXTENSION} contains the extension of the files in the
+   * cache directory.
+   */
+  private static final String EXTENSION = ".tok";
+
+  /**
+   * The constant {@code HEX} contains the hexadecimal digits.
+   */
+  private static final char[] HEX = "0123456789abcdef".toCharArray();
+
+  /**
+   * The field {@code directory} contains the directory for the cache files.
+   */
+  private final File directory;
+
+  /**
+   * Creates a new object.
+   *
+   * @param directory the directory for the cache files; it is created when
+   *                  the first entry is stored
+   */
+  public TokenStreamCache( File directory ) {
+
+    this.directory = directory;
+  }
+
+  /**
+   * Getter for the directory.
+   *
+   * @return the directory
+   */
+  public File getDirectory() {
+
+    return directory;
+  }
+
+  /**
+   * Compute the key for some contents.
+   *
+   * @param bytes   the contents; the position is not changed
+   * @param variant additional information which influences the scanning
+   * @return the key or {@code null} if no key can be computed
+   */
+  private static String key( ByteBuffer bytes, String variant ) {
+
+    MessageDigest digest;
+    try {
+      digest = MessageDigest.getInstance( DIGEST );
+    } catch( NoSuchAlgorithmException e ) {
+      return null;
+    }
+    digest.update( variant.getBytes( StandardCharsets.UTF_8 ) );
+    digest.update( bytes.duplicate() );
+    byte[] hash = digest.digest();
+    StringBuilder sb = new StringBuilder( hash.length * 2 );
+    for( byte b : hash ) {
+      sb.append( HEX[ (b >> 4) & 0xf ] ).append( HEX[ b & 0xf ] );
+    }
+    return sb.toString();
+  }
+
+  /**
+   * Load an entry from the cache.
+   *
+   * @param key the key
+   * @return the entry or {@code null} if none is present
+   */
+  CacheEntry load( String key ) {
+
+    File file = new File( directory, key + EXTENSION );
+    if( !file.isFile() ) {
+      return null;
+    }
+    try( DataInputStream in = new DataInputStream(
+        new BufferedInputStream( new FileInputStream( file ) ) ) ) {
+      return CacheEntry.read( in );
+    } catch( IOException e ) {
+      return null;
+    }
+  }
+
+  /**
+   * Store an entry in the cache. The entry is written to a temporary file
+   * first which is renamed afterwards. Thus concurrent runs never see a
+   * partial entry.
+   *
+   * @param key   the key
+   * @param entry the entry
+   */
+  void store( String key, CacheEntry entry ) {
+
+    File tmp = null;
+    try {
+      if( !directory.isDirectory() && !directory.mkdirs() ) {
+        return;
+      }
+      tmp = File.createTempFile( key, ".tmp", directory );
+      try( DataOutputStream out = new DataOutputStream(
+          new BufferedOutputStream( new FileOutputStream( tmp ) ) ) ) {
+        entry.write( out );
+      }
+      Files.move( tmp.toPath(), new File( directory, key + EXTENSION ).toPath(),
+                  StandardCopyOption.REPLACE_EXISTING );
+      tmp = null;
+    } catch( IOException e ) {
+      // the entry is simply missing
+    } finally {
+      if( tmp != null ) {
+        tmp.delete();
+      }
+    }
+  }
+
+  /**
+   * Wrap a token stream such that its tokens are taken from the cache or
+   * recorded for the cache.
+   *
+   * @param stream  the token stream scanning the contents
+   * @param bytes   the contents of the file; the position is not changed
+   * @param charset the name of the character set of the contents
+   * @param source  the description of the source
+   * @return the token stream to use instead of the given one
+   */
+  public TokenStream wrap( TokenStream stream, ByteBuffer bytes,
+                           String charset, String source ) {
+
+    String key = key( bytes, stream.getClass().getName() + ":" + charset );
+    if( key == null ) {
+      return stream;
+    }
+    return new CachedTokenStream( this, key, stream, source );
+  }
+
+}
@@ -0,0 +1,135 @@
+/*
+ * Copyright (C) 2011 The ExTeX Group and individual authors listed below
+ *
+ * This library is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as published by the
+ * Free Software Foundation; either version 2.1 of the License, or (at your
+ * option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General Public License
+ * for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this library; if not, write to the Free Software Foundation,
+ * Inc., 59 Temple Place, Suite 330, Boston, MA 02111-1307 USA
+ *
+ */
+
+package org.extex.scanner.type.token;
+
+import java.lang.ref.WeakReference;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * This class provides a cache for tokens consisting of a single character.
+ * The tokens of the Basic Multilingual Plane are kept in pages of 256 entries
+ * indexed by the code point. Pages are allocated when a token is stored in
+ * them for the first time. The set of these tokens is bounded. Thus they are
+ * held directly and no weak references are needed.
+ * <p>
+ * Tokens for code points above the Basic Multilingual Plane are rare. They
+ * are kept in a map of weak references.
+ * </p>
+ *
+ * @param <T> the type of the tokens
+ * @author <a href="mailto:gene@gerd-neugebauer.de">Gerd Neugebauer</a>
+ */
+final class CharTokenTable<T extends Token> {
+
+  /**
+   * The constant {@code PAGE_BITS} contains the number of bits of a code
+   * point used to address an entry within a page.
+   */
+  private static final int PAGE_BITS = 8;
+
+  /**
+   * The constant {@code PAGE_MASK} contains the mask for the index within a
+   * page.
+   */
+  private static final int PAGE_MASK = (1 << PAGE_BITS) - 1;
+
+  /**
+   * The field {@code high} contains the tokens above the Basic Multilingual
+   * Plane. It is {@code null} if none has been stored.
+   */
+  private Map<Integer, WeakReference<T>> high = null;
+
+  /**
+   * The field {@code pages} contains the directory of the pages of the Basic
+   * Multilingual Plane.
+   */
+  private final Token[][] pages = new Token[0x10000 >> PAGE_BITS][];
+
+  /**
+   * Creates a new object.
+   */
+  CharTokenTable() {
+
+  }
+
+  /**
+   * Creates a new object which contains the tokens of another table. The
+   * pages are copied; thus later modifications are not shared.
+   *
+   * @param base the table to copy
+   */
+  CharTokenTable( CharTokenTable<T> base ) {
+
+    for( int i = 0; i < pages.length; i++ ) {
+      Token[] page = base.pages[ i ];
+      if( page != null ) {
+        pages[ i ] = page.clone();
+      }
+    }
+    if( base.high != null ) {
+      high = new HashMap<Integer, WeakReference<T>>( base.high );
+    }
+  }
+
+  /**
+   * Getter for the token of a code point.
+   *
+   * @param cp the code point
+   * @return the token or {@code null} if none is cached
+   */
+  @SuppressWarnings("unchecked")
+  T get( int cp ) {
+
+    if( cp >>> 16 == 0 ) {
+      Token[] page = pages[ cp >> PAGE_BITS ];
+      return page == null ? null : (T) page[ cp & PAGE_MASK ];
+    }
+    if( high == null ) {
+      return null;
+    }
+    WeakReference<T> wr = high.get( Integer.valueOf( cp ) );
+    return wr == null ? null : wr.get();
+  }
+
+  /**
+   * Store a token for a code point.
+   *
+   * @param cp    the code point
+   * @param token the token
+   */
+  void put( int cp, T token ) {
+
+    if( cp >>> 16 == 0 ) {
+      Token[] page = pages[ cp >> PAGE_BITS ];
+      if( page == null ) {
+        page = new Token[ PAGE_MASK + 1 ];
+        pages[ cp >> PAGE_BITS ] = page;
+      }
+      page[ cp & PAGE_MASK ] = token;
+      return;
+    }
+    if( high == null ) {
+      high = new HashMap<Integer, WeakReference<T>>();
+    }
+    high.put( Integer.valueOf( cp ), new WeakReference<T>( token ) );
+  }
+
+}
@@ -0,0 +1,168 @@
+/*
+ * Copyright (C) 2011 The ExTeX Group and individual authors listed below
+ *
+ * This library is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as published by the
+ * Free Software Foundation; either version 2.1 of the License, or (at your
+ * option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General Public License
+ * for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this library; if not, write to the Free Software Foundation,
+ * Inc., 59 Temple Place, Suite 330, Boston, MA 02111-1307 USA
+ *
+ */
+
+package org.extex.scanner.type.token;
+
+import org.extex.core.UnicodeChar;
+
+import java.lang.ref.WeakReference;
+
+/**
+ * This class provides an intern table for the control sequence tokens of one
+ * name space. It uses open addressing with linear probing on parallel arrays
+ * of names and tokens. Thus a look-up needs no allocation.
+ * <p>
+ * The tokens are held by weak references since the set of names is not
+ * bounded. A slot whose token has been collected is reused when the same name
+ * is requested again. Those slots are dropped when the table is rehashed.
+ * </p>
+ *
+ * @author <a href="mailto:gene@gerd-neugebauer.de">Gerd Neugebauer</a>
+ */
+final class ControlSequenceTable {
+
+  /**
+   * The constant {@code INITIAL_CAPACITY} contains the initial number of
+   * slots. It must be a power of two.
+   */
+  private static final int INITIAL_CAPACITY = 1024;
+
+  /**
+   * The field {@code names} contains the names of the slots.
+   */
+  private String[] names = new String[ INITIAL_CAPACITY ];
+
+  /**
+   * The field {@code size} contains the number of used slots.
+   */
+  private int size = 0;
+
+  /**
+   * The field {@code tokens} contains the references to the tokens of the
+   * slots.
+   */
+  private WeakReference<?>[] tokens = new WeakReference<?>[ INITIAL_CAPACITY ];
+
+  /**
+   * Creates a new object.
+   */
+  ControlSequenceTable() {
+
+  }
+
+  /**
+   * Creates a new object which contains the tokens of another table. The
+   * arrays are copied; thus later modifications are not shared.
+   *
+   * @param base the table to copy
+   */
+  ControlSequenceTable( ControlSequenceTable base ) {
+
+    names = base.names.clone();
+    size = base.size;
+    tokens = base.tokens.clone();
+  }
+
+  /**
+   * Compute the start index for a name.
+   *
+   * @param name the name
+   * @param mask the mask for the index
+   * @return the index
+   */
+  private static int index( String name, int mask ) {
+
+    int h = name.hashCode();
+    return (h ^ (h >>> 16)) & mask;
+  }
+
+  /**
+   * Get the token for a name. A new token is created if none is present.
+   *
+   * @param name      the name of the control sequence
+   * @param esc       the escape character for a new token
+   * @param namespace the name space for a new token
+   * @return the token
+   */
+  ControlSequenceToken intern( String name, UnicodeChar esc,
+                               String namespace ) {
+
+    int mask = names.length - 1;
+    int i = index( name, mask );
+    for( String n = names[ i ]; n != null; n = names[ i ] ) {
+      if( n.equals( name ) ) {
+        ControlSequenceToken token = (ControlSequenceToken) tokens[ i ].get();
+        if( token == null ) {
+          token = new ControlSequenceToken( esc, name, namespace );
+          tokens[ i ] = new WeakReference<ControlSequenceToken>( token );
+        }
+        return token;
+      }
+      i = (i + 1) & mask;
+    }
+
+    ControlSequenceToken token =
+        new ControlSequenceToken( esc, name, namespace );
+    names[ i ] = name;
+    tokens[ i ] = new WeakReference<ControlSequenceToken>( token );
+    if( ++size * 4 > names.length * 3 ) {
+      rehash();
+    }
+    return token;
+  }
+
+  /**
+   * Copy the live slots into new arrays. The capacity is doubled unless the
+   * collected tokens make up for enough free slots.
+   */
+  private void rehash() {
+
+    String[] oldNames = names;
+    WeakReference<?>[] oldTokens = tokens;
+    int live = 0;
+    for( WeakReference<?> wr : oldTokens ) {
+      if( wr != null && wr.get() != null ) {
+        live++;
+      }
+    }
+    int capacity = oldNames.length;
+    if( live * 2 > capacity ) {
+      capacity *= 2;
+    }
+    names = new String[ capacity ];
+    tokens = new WeakReference<?>[ capacity ];
+    size = 0;
+    int mask = capacity - 1;
+
+    for( int j = 0; j < oldNames.length; j++ ) {
+      WeakReference<?> wr = oldTokens[ j ];
+      if( wr == null || wr.get() == null ) {
+        continue;
+      }
+      int i = index( oldNames[ j ], mask );
+      while( names[ i ] != null ) {
+        i = (i + 1) & mask;
+      }
+      names[ i ] = oldNames[ j ];
+      tokens[ i ] = wr;
+      size++;
+    }
+  }
+
+}
@@ -46,6 +46,13 @@ public class ControlSequenceToken extends AbstractToken implements CodeToken {
    */
   protected static final long serialVersionUID = 2011L;
 
+  /**
+   * The field {@code cache} contains an object attached by the interpreter
+   * to speed up the lookup of the meaning. It is a hint only; the owner has
+   * to verify it.
+   */
+  private transient Object cache = null;
+
   /**
    * The field {@code value} contains the string value.
    */
@@ -56,6 +63,13 @@ public class ControlSequenceToken extends AbstractToken implements CodeToken {
    */
   private final String namespace;
 
+  /**
+   * The field {@code slot} contains the index of the token in the table of
+   * meanings of the context or -1 if none has been assigned. It is a hint
+   * only; the owner of the table has to verify it.
+   */
+  private int slot = -1;
+
   /**
    * Creates a new object from the first character of a String. If the string
    * is empty then a space character is used instead.
@@ -215,6 +229,27 @@ public class ControlSequenceToken extends AbstractToken implements CodeToken {
     return namespace;
   }
 
+  /**
+   * Getter for the cache attached by the interpreter.
+   *
+   * @return the cache or {@code null} if none has been attached
+   */
+  public Object getCache() {
+
+    return cache;
+  }
+
+  /**
+   * Getter for the slot. The slot is the index of the token in the table of
+   * meanings of the context.
+   *
+   * @return the slot or -1 if none has been assigned
+   */
+  public int getSlot() {
+
+    return slot;
+  }
+
   /**
    * Returns a hash code value for the object.
    *
@@ -227,6 +262,27 @@ public class ControlSequenceToken extends AbstractToken implements CodeToken {
     return name.hashCode(); // + HASH_FACTOR * namespace.hashCode();
   }
 
+  /**
+   * Setter for the cache attached by the interpreter.
+   *
+   * @param cache the cache
+   */
+  public void setCache( Object cache ) {
+
+    this.cache = cache;
+  }
+
+  /**
+   * Setter for the slot. The slot is the index of the token in the table of
+   * meanings of the context.
+   *
+   * @param slot the slot
+   */
+  public void setSlot( int slot ) {
+
+    this.slot = slot;
+  }
+
   /**
    * Get the string representation of this object for debugging purposes.
    *
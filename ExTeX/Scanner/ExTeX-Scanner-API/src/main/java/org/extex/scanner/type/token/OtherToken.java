@@ -62,6 +62,22 @@ public class OtherToken extends AbstractToken implements Token {
     return Catcode.OTHER;
   }
 
+  /**
+   * Check whether a token is one of the digits {@code 0} to {@code 9} with
+   * the category code {@code OTHER}.
+   *
+   * @param t the token to check or {@code null}
+   * @return {@code true} iff the token is a decimal digit
+   */
+  public static boolean isDigit( Token t ) {
+
+    if( !(t instanceof OtherToken) ) {
+      return false;
+    }
+    int c = t.getChar().getCodePoint();
+    return c >= '0' && c <= '9';
+  }
+
   /**
    * Get the string representation of this object for debugging purposes.
    *
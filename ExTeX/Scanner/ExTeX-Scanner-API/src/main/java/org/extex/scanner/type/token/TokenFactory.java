@@ -76,6 +76,20 @@ public interface TokenFactory {
   Token createToken( Catcode code, UnicodeChar c, String namespace )
       throws CatcodeException;
 
+  /**
+   * Create a token factory for a forked context. The new factory delivers
+   * the same tokens as this one for the tokens known so far. Tokens created
+   * later are not shared. The default implementation returns the factory
+   * itself; it is only suitable for factories which can be used by several
+   * threads.
+   *
+   * @return the token factory for the fork
+   */
+  default TokenFactory fork() {
+
+    return this;
+  }
+
   /**
    * Convert a character sequence to a list of tokens.
    * <p>
@@ -28,7 +28,6 @@ import org.extex.scanner.type.CatcodeVisitor;
 import org.extex.scanner.type.Namespace;
 import org.extex.scanner.type.tokens.Tokens;
 
-import java.lang.ref.WeakReference;
 import java.util.HashMap;
 import java.util.Map;
 
@@ -37,6 +36,14 @@ import java.util.Map;
  * pattern is applied here. This pattern opens the possibility to cache the
  * instances for Tokens to reduce the number of objects present in the system.
  *
+ * <h2>The Caches</h2>
+ * <p>
+ * Tokens consisting of a single character are kept in tables indexed by the
+ * code point; one table per category code. Thus the hot path of creating
+ * such a token is an array access. Control sequences are interned in an
+ * open-addressed table per name space.
+ * </p>
+ *
  * <h2>The Visitor Pattern</h2>
  * <p>
  * In addition the visitor pattern is used to select the appropriate
@@ -78,75 +85,149 @@ public class TokenFactoryImpl
    * The field {@code activeCache} contains the cache for active character
    * tokens.
    */
-  private final Map<String, Map<UnicodeChar,
-      WeakReference<ActiveCharacterToken>>> activeCache =
-      new HashMap<String, Map<UnicodeChar,
-          WeakReference<ActiveCharacterToken>>>();
+  private final Map<String, CharTokenTable<ActiveCharacterToken>> activeCache =
+      new HashMap<String, CharTokenTable<ActiveCharacterToken>>();
 
   /**
    * The field {@code csCache} contains the cache for control sequence
    * tokens.
    */
-  private final Map<String, Map<String, WeakReference<ControlSequenceToken>>> csCache =
-      new HashMap<String, Map<String, WeakReference<ControlSequenceToken>>>();
+  private final Map<String, ControlSequenceTable> csCache =
+      new HashMap<String, ControlSequenceTable>();
+
+  /**
+   * The field {@code csNamespace} contains the name space of the table of
+   * control sequences used last.
+   */
+  private String csNamespace = null;
+
+  /**
+   * The field {@code csTable} contains the table of control sequences used
+   * last. It belongs to the name space {@code csNamespace}.
+   */
+  private ControlSequenceTable csTable = null;
 
   /**
    * The field {@code leftBraceCache} contains the cache for left brace
    * tokens.
    */
-  private final Map<UnicodeChar, WeakReference<LeftBraceToken>> leftBraceCache =
-      new HashMap<UnicodeChar, WeakReference<LeftBraceToken>>();
+  private final CharTokenTable<LeftBraceToken> leftBraceCache;
 
   /**
    * The field {@code letterCache} contains the cache for letter tokens.
    */
-  private final Map<UnicodeChar, WeakReference<LetterToken>> letterCache =
-      new HashMap<UnicodeChar, WeakReference<LetterToken>>();
+  private final CharTokenTable<LetterToken> letterCache;
 
   /**
    * The field {@code macroParamCache} contains the cache for macro parameter
    * tokens.
    */
-  private final Map<UnicodeChar, WeakReference<MacroParamToken>> macroParamCache =
-      new HashMap<UnicodeChar, WeakReference<MacroParamToken>>();
+  private final CharTokenTable<MacroParamToken> macroParamCache;
 
   /**
    * The field {@code mathShiftCache} contains the cache for math shift
    * tokens.
    */
-  private final Map<UnicodeChar, WeakReference<MathShiftToken>> mathShiftCache =
-      new HashMap<UnicodeChar, WeakReference<MathShiftToken>>();
+  private final CharTokenTable<MathShiftToken> mathShiftCache;
 
   /**
    * The field {@code otherCache} contains the cache for other tokens.
    */
-  private final Map<UnicodeChar, WeakReference<OtherToken>> otherCache =
-      new HashMap<UnicodeChar, WeakReference<OtherToken>>();
+  private final CharTokenTable<OtherToken> otherCache;
 
   /**
    * The field {@code rightBraceCache} contains the cache for right brace
    * tokens.
    */
-  private final Map<UnicodeChar, WeakReference<RightBraceToken>> rightBraceCache =
-      new HashMap<UnicodeChar, WeakReference<RightBraceToken>>();
+  private final CharTokenTable<RightBraceToken> rightBraceCache;
 
   /**
    * The field {@code subMarkCache} contains the cache for sub mark tokens.
    */
-  private final Map<UnicodeChar, WeakReference<SubMarkToken>> subMarkCache =
-      new HashMap<UnicodeChar, WeakReference<SubMarkToken>>();
+  private final CharTokenTable<SubMarkToken> subMarkCache;
 
   /**
    * The field {@code supMarkCache} contains the cache for super mark tokens.
    */
-  private final Map<UnicodeChar, WeakReference<SupMarkToken>> supMarkCache =
-      new HashMap<UnicodeChar, WeakReference<SupMarkToken>>();
+  private final CharTokenTable<SupMarkToken> supMarkCache;
 
   /**
    * The field {@code tabMarkCache} contains the cache for tab mark tokens.
    */
-  private final Map<UnicodeChar, WeakReference<TabMarkToken>> tabMarkCache =
-      new HashMap<UnicodeChar, WeakReference<TabMarkToken>>();
+  private final CharTokenTable<TabMarkToken> tabMarkCache;
+
+  /**
+   * The field {@code charTables} contains the caches for single character
+   * tokens indexed by the ordinal of the category code. The entries for the
+   * other category codes are {@code null}.
+   */
+  private final CharTokenTable<?>[] charTables =
+      new CharTokenTable<?>[ Catcode.values().length ];
+
+  /**
+   * Creates a new object.
+   */
+  public TokenFactoryImpl() {
+
+    leftBraceCache = new CharTokenTable<LeftBraceToken>();
+    letterCache = new CharTokenTable<LetterToken>();
+    macroParamCache = new CharTokenTable<MacroParamToken>();
+    mathShiftCache = new CharTokenTable<MathShiftToken>();
+    otherCache = new CharTokenTable<OtherToken>();
+    rightBraceCache = new CharTokenTable<RightBraceToken>();
+    subMarkCache = new CharTokenTable<SubMarkToken>();
+    supMarkCache = new CharTokenTable<SupMarkToken>();
+    tabMarkCache = new CharTokenTable<TabMarkToken>();
+    initCharTables();
+  }
+
+  /**
+   * Creates a new object which delivers the same tokens as another factory
+   * for the tokens known to it. The caches are copied; thus the two
+   * factories can be used in different threads.
+   *
+   * @param base the factory to copy
+   */
+  protected TokenFactoryImpl( TokenFactoryImpl base ) {
+
+    leftBraceCache = new CharTokenTable<LeftBraceToken>( base.leftBraceCache );
+    letterCache = new CharTokenTable<LetterToken>( base.letterCache );
+    macroParamCache =
+        new CharTokenTable<MacroParamToken>( base.macroParamCache );
+    mathShiftCache = new CharTokenTable<MathShiftToken>( base.mathShiftCache );
+    otherCache = new CharTokenTable<OtherToken>( base.otherCache );
+    rightBraceCache =
+        new CharTokenTable<RightBraceToken>( base.rightBraceCache );
+    subMarkCache = new CharTokenTable<SubMarkToken>( base.subMarkCache );
+    supMarkCache = new CharTokenTable<SupMarkToken>( base.supMarkCache );
+    tabMarkCache = new CharTokenTable<TabMarkToken>( base.tabMarkCache );
+    for( Map.Entry<String, CharTokenTable<ActiveCharacterToken>> e : base.activeCache
+        .entrySet() ) {
+      activeCache.put( e.getKey(),
+                       new CharTokenTable<ActiveCharacterToken>( e.getValue() ) );
+    }
+    for( Map.Entry<String, ControlSequenceTable> e : base.csCache.entrySet() ) {
+      csCache.put( e.getKey(), new ControlSequenceTable( e.getValue() ) );
+    }
+    initCharTables();
+  }
+
+  /**
+   * Fill the caches for single character tokens into the table indexed by
+   * the ordinal of the category code.
+   */
+  private void initCharTables() {
+
+    charTables[ Catcode.LEFTBRACE.ordinal() ] = leftBraceCache;
+    charTables[ Catcode.LETTER.ordinal() ] = letterCache;
+    charTables[ Catcode.MACROPARAM.ordinal() ] = macroParamCache;
+    charTables[ Catcode.MATHSHIFT.ordinal() ] = mathShiftCache;
+    charTables[ Catcode.OTHER.ordinal() ] = otherCache;
+    charTables[ Catcode.RIGHTBRACE.ordinal() ] = rightBraceCache;
+    charTables[ Catcode.SUBMARK.ordinal() ] = subMarkCache;
+    charTables[ Catcode.SUPMARK.ordinal() ] = supMarkCache;
+    charTables[ Catcode.TABMARK.ordinal() ] = tabMarkCache;
+  }
 
   /**
    * Create a new {@link org.extex.scanner.type.token.Token Token} of the
@@ -165,6 +246,14 @@ public class TokenFactoryImpl
   public Token createToken( Catcode code, int c, String namespace )
       throws CatcodeException {
 
+    CharTokenTable<?> table = charTables[ code.ordinal() ];
+    if( table != null ) {
+      Token token = table.get( c );
+      if( token != null ) {
+        return token;
+      }
+    }
+
     try {
       return (Token) code.visit( this, null, UnicodeChar.get( c ),
                                  namespace );
@@ -236,6 +325,20 @@ public class TokenFactoryImpl
     }
   }
 
+  /**
+   * Create a token factory for a forked context. The caches are copied. Thus
+   * the tokens known so far are shared and the new factory can be used in
+   * another thread.
+   *
+   * @return the token factory for the fork
+   * @see org.extex.scanner.type.token.TokenFactory#fork()
+   */
+  @Override
+  public TokenFactory fork() {
+
+    return new TokenFactoryImpl( this );
+  }
+
   /**
    * Convert a character sequence to a list of tokens.
    * <p>
@@ -327,21 +430,18 @@ public class TokenFactoryImpl
       throw new CatcodeVisitorException();
     }
 
-    Map<UnicodeChar, WeakReference<ActiveCharacterToken>> map =
-        activeCache.get( namespace );
+    CharTokenTable<ActiveCharacterToken> table = activeCache.get( namespace );
 
-    if( map == null ) {
-      map =
-          new HashMap<UnicodeChar, WeakReference<ActiveCharacterToken>>();
-      activeCache.put( namespace, map );
+    if( table == null ) {
+      table = new CharTokenTable<ActiveCharacterToken>();
+      activeCache.put( namespace, table );
     }
 
-    WeakReference<ActiveCharacterToken> wr = map.get( uc );
-    ActiveCharacterToken token = (wr != null ? wr.get() : null);
+    ActiveCharacterToken token = table.get( uc.getCodePoint() );
 
     if( token == null ) {
       token = new ActiveCharacterToken( uc, namespace );
-      map.put( uc, new WeakReference<ActiveCharacterToken>( token ) );
+      table.put( uc.getCodePoint(), token );
     }
 
     return token;
@@ -407,26 +507,20 @@ public class TokenFactoryImpl
       throw new CatcodeVisitorException();
     }
 
-    Map<String, WeakReference<ControlSequenceToken>> map =
-        csCache.get( namespace );
-
-    if( map == null ) {
-      map = new HashMap<String, WeakReference<ControlSequenceToken>>();
-      csCache.put( namespace, map );
-    }
-
-    WeakReference<ControlSequenceToken> wr = map.get( name );
-    ControlSequenceToken token = null;
+    ControlSequenceTable table = csTable;
 
-    if( wr != null ) {
-      token = wr.get();
-    }
-    if( token == null ) {
-      token = new ControlSequenceToken( uchar, name, namespace );
-      map.put( name, new WeakReference<ControlSequenceToken>( token ) );
+    if( namespace != csNamespace
+        && (namespace == null || !namespace.equals( csNamespace )) ) {
+      table = csCache.get( namespace );
+      if( table == null ) {
+        table = new ControlSequenceTable();
+        csCache.put( namespace, table );
+      }
+      csNamespace = namespace;
+      csTable = table;
     }
 
-    return token;
+    return table.intern( name, uchar, namespace );
   }
 
   /**
@@ -492,12 +586,11 @@ public class TokenFactoryImpl
       throw new CatcodeVisitorException();
     }
 
-    WeakReference<LeftBraceToken> wr = leftBraceCache.get( uc );
-    LeftBraceToken token = (wr != null ? wr.get() : null);
+    LeftBraceToken token = leftBraceCache.get( uc.getCodePoint() );
 
     if( token == null ) {
       token = new LeftBraceToken( uc );
-      leftBraceCache.put( uc, new WeakReference<LeftBraceToken>( token ) );
+      leftBraceCache.put( uc.getCodePoint(), token );
     }
 
     return token;
@@ -532,12 +625,11 @@ public class TokenFactoryImpl
       throw new CatcodeVisitorException();
     }
 
-    WeakReference<LetterToken> wr = letterCache.get( uc );
-    LetterToken token = (wr != null ? wr.get() : null);
+    LetterToken token = letterCache.get( uc.getCodePoint() );
 
     if( token == null ) {
       token = new LetterToken( uc );
-      letterCache.put( uc, new WeakReference<LetterToken>( token ) );
+      letterCache.put( uc.getCodePoint(), token );
     }
 
     return token;
@@ -570,12 +662,11 @@ public class TokenFactoryImpl
       throw new CatcodeVisitorException();
     }
 
-    WeakReference<MacroParamToken> wr = macroParamCache.get( uc );
-    MacroParamToken token = (wr != null ? wr.get() : null);
+    MacroParamToken token = macroParamCache.get( uc.getCodePoint() );
 
     if( token == null ) {
       token = new MacroParamToken( uc );
-      macroParamCache.put( uc, new WeakReference<MacroParamToken>( token ) );
+      macroParamCache.put( uc.getCodePoint(), token );
     }
 
     return token;
@@ -608,12 +699,11 @@ public class TokenFactoryImpl
       throw new CatcodeVisitorException();
     }
 
-    WeakReference<MathShiftToken> wr = mathShiftCache.get( uc );
-    MathShiftToken token = (wr != null ? wr.get() : null);
+    MathShiftToken token = mathShiftCache.get( uc.getCodePoint() );
 
     if( token == null ) {
       token = new MathShiftToken( uc );
-      mathShiftCache.put( uc, new WeakReference<MathShiftToken>( token ) );
+      mathShiftCache.put( uc.getCodePoint(), token );
     }
 
     return token;
@@ -646,12 +736,11 @@ public class TokenFactoryImpl
       throw new CatcodeVisitorException();
     }
 
-    WeakReference<OtherToken> wr = otherCache.get( uc );
-    OtherToken token = (wr != null ? wr.get() : null);
+    OtherToken token = otherCache.get( uc.getCodePoint() );
 
     if( token == null ) {
       token = new OtherToken( uc );
-      otherCache.put( uc, new WeakReference<OtherToken>( token ) );
+      otherCache.put( uc.getCodePoint(), token );
     }
 
     return token;
@@ -684,12 +773,11 @@ public class TokenFactoryImpl
       throw new CatcodeVisitorException();
     }
 
-    WeakReference<RightBraceToken> wr = rightBraceCache.get( uc );
-    RightBraceToken token = (wr != null ? wr.get() : null);
+    RightBraceToken token = rightBraceCache.get( uc.getCodePoint() );
 
     if( token == null ) {
       token = new RightBraceToken( uc );
-      rightBraceCache.put( uc, new WeakReference<RightBraceToken>( token ) );
+      rightBraceCache.put( uc.getCodePoint(), token );
     }
 
     return token;
@@ -739,12 +827,11 @@ public class TokenFactoryImpl
       throw new CatcodeVisitorException();
     }
 
-    WeakReference<SubMarkToken> wr = subMarkCache.get( uc );
-    SubMarkToken token = (wr != null ? wr.get() : null);
+    SubMarkToken token = subMarkCache.get( uc.getCodePoint() );
 
     if( token == null ) {
       token = new SubMarkToken( uc );
-      subMarkCache.put( uc, new WeakReference<SubMarkToken>( token ) );
+      subMarkCache.put( uc.getCodePoint(), token );
     }
 
     return token;
@@ -777,12 +864,11 @@ public class TokenFactoryImpl
       throw new CatcodeVisitorException();
     }
 
-    WeakReference<SupMarkToken> wr = supMarkCache.get( uc );
-    SupMarkToken token = (wr != null ? wr.get() : null);
+    SupMarkToken token = supMarkCache.get( uc.getCodePoint() );
 
     if( token == null ) {
       token = new SupMarkToken( uc );
-      supMarkCache.put( uc, new WeakReference<SupMarkToken>( token ) );
+      supMarkCache.put( uc.getCodePoint(), token );
     }
 
     return token;
@@ -815,12 +901,11 @@ public class TokenFactoryImpl
       throw new CatcodeVisitorException();
     }
 
-    WeakReference<TabMarkToken> wr = tabMarkCache.get( uc );
-    TabMarkToken token = (wr != null ? wr.get() : null);
+    TabMarkToken token = tabMarkCache.get( uc.getCodePoint() );
 
     if( token == null ) {
       token = new TabMarkToken( uc );
-      tabMarkCache.put( uc, new WeakReference<TabMarkToken>( token ) );
+      tabMarkCache.put( uc.getCodePoint(), token );
     }
 
     return token;
@@ -29,6 +29,7 @@ import org.extex.scanner.type.token.TokenFactory;
 
 import java.io.Serializable;
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.Iterator;
 import java.util.List;
 
@@ -51,10 +52,17 @@ public class Tokens implements Serializable, FixedTokens, Iterable<Token> {
    */
   protected static final long serialVersionUID = 20060415L;
 
+  /**
+   * The field {@code shared} contains the indicator that the internal list
+   * has been handed out with {@link #share()}. It is copied before the next
+   * modification.
+   */
+  private transient boolean shared = false;
+
   /**
    * The internal list of tokens
    */
-  private final List<Token> tokens = new ArrayList<Token>();
+  private List<Token> tokens = new ArrayList<Token>();
 
   /**
    * Creates a new object which does not contain any elements.
@@ -80,6 +88,7 @@ public class Tokens implements Serializable, FixedTokens, Iterable<Token> {
    */
   public void add( Token t ) {
 
+    unshare();
     tokens.add( t );
   }
 
@@ -90,6 +99,7 @@ public class Tokens implements Serializable, FixedTokens, Iterable<Token> {
    */
   public void add( Tokens toks ) {
 
+    unshare();
     int len = toks.length();
     for( int i = 0; i < len; i++ ) {
       tokens.add( toks.get( i ) );
@@ -102,7 +112,13 @@ public class Tokens implements Serializable, FixedTokens, Iterable<Token> {
    */
   public void clear() {
 
-    tokens.clear();
+    if( shared ) {
+      tokens = new ArrayList<Token>();
+      shared = false;
+    }
+    else {
+      tokens.clear();
+    }
   }
 
   @Override
@@ -162,13 +178,16 @@ public class Tokens implements Serializable, FixedTokens, Iterable<Token> {
    */
   public void insert( int index, Token t ) {
 
+    unshare();
     tokens.add( index, t );
   }
 
   @Override
   public Iterator<Token> iterator() {
 
-    return tokens.iterator();
+    return shared
+        ? Collections.unmodifiableList( tokens ).iterator()
+        : tokens.iterator();
   }
 
   /**
@@ -194,6 +213,7 @@ public class Tokens implements Serializable, FixedTokens, Iterable<Token> {
     if( tokens.size() == 0 ) {
       return null;
     }
+    unshare();
     Token t = tokens.get( 0 );
     tokens.remove( 0 );
     return t;
@@ -206,6 +226,7 @@ public class Tokens implements Serializable, FixedTokens, Iterable<Token> {
    */
   public void push( Token token ) {
 
+    unshare();
     tokens.add( 0, token );
   }
 
@@ -220,6 +241,7 @@ public class Tokens implements Serializable, FixedTokens, Iterable<Token> {
     if( tokens.size() == 0 ) {
       return null;
     }
+    unshare();
     return tokens.remove( 0 );
   }
 
@@ -234,9 +256,23 @@ public class Tokens implements Serializable, FixedTokens, Iterable<Token> {
     if( tokens.size() == 0 ) {
       return null;
     }
+    unshare();
     return tokens.remove( tokens.size() - 1 );
   }
 
+  /**
+   * Hand out the internal list of tokens without copying it. The list must
+   * not be modified by the caller. This object copies the list before it is
+   * modified the next time. Thus the list handed out stays unchanged.
+   *
+   * @return the list of tokens
+   */
+  public List<Token> share() {
+
+    shared = true;
+    return tokens;
+  }
+
   /**
    * Determine the printable representation of the object and append it to a
    * list of Tokens.
@@ -338,4 +374,15 @@ public class Tokens implements Serializable, FixedTokens, Iterable<Token> {
     return sb.toString();
   }
 
+  /**
+   * Make sure that the internal list is not shared before it is modified.
+   */
+  private void unshare() {
+
+    if( shared ) {
+      tokens = new ArrayList<Token>( tokens );
+      shared = false;
+    }
+  }
+
 }
@@ -153,6 +153,17 @@ public class ControlSequenceTokenTest extends TokenTester {
     assertEquals( "abc", token.getNamespace() );
   }
 
+  @Test
+  public void testSlot1() {
+
+    ControlSequenceToken t =
+        new ControlSequenceToken( UnicodeChar.get( '\\' ), "x", "" );
+    assertEquals( -1, t.getSlot() );
+    t.setSlot( 42 );
+    assertEquals( 42, t.getSlot() );
+    assertEquals( token.cloneInNamespace( "" ), t );
+  }
+
   @Test
   @Override
   public void testToTextString0() {
@@ -1173,4 +1173,99 @@ public class TokenFactoryImplTest {
     assertEquals( "123", tokens.toText() );
   }
 
+  /**
+   * Test that single character tokens are shared.
+   *
+   * @throws CatcodeException in case of an error
+   */
+  @Test
+  public void testCache1() throws CatcodeException {
+
+    TokenFactoryImpl tf = new TokenFactoryImpl();
+    Token t = tf.createToken( Catcode.LETTER, 'a', "" );
+    assertSame( t, tf.createToken( Catcode.LETTER, 'a', "" ) );
+    assertSame( t, tf.createToken( Catcode.LETTER, UnicodeChar.get( 'a' ),
+                                   "" ) );
+    assertNotSame( t, tf.createToken( Catcode.OTHER, 'a', "" ) );
+  }
+
+  /**
+   * Test that single character tokens above the Basic Multilingual Plane
+   * are shared.
+   *
+   * @throws CatcodeException in case of an error
+   */
+  @Test
+  public void testCache2() throws CatcodeException {
+
+    TokenFactoryImpl tf = new TokenFactoryImpl();
+    Token t = tf.createToken( Catcode.OTHER, 0x1d400, "" );
+    assertEquals( 0x1d400, t.getChar().getCodePoint() );
+    assertSame( t, tf.createToken( Catcode.OTHER, 0x1d400, "" ) );
+  }
+
+  /**
+   * Test that control sequences are interned per name space.
+   *
+   * @throws CatcodeException in case of an error
+   */
+  @Test
+  public void testCache3() throws CatcodeException {
+
+    TokenFactoryImpl tf = new TokenFactoryImpl();
+    UnicodeChar esc = UnicodeChar.get( '\\' );
+    Token t = tf.createToken( Catcode.ESCAPE, esc, "relax", "" );
+    assertSame( t, tf.createToken( Catcode.ESCAPE, esc, "relax", "" ) );
+    Token t2 = tf.createToken( Catcode.ESCAPE, esc, "relax", "ns" );
+    assertNotSame( t, t2 );
+    assertEquals( "ns", ((ControlSequenceToken) t2).getNamespace() );
+    assertSame( t, tf.createToken( Catcode.ESCAPE, esc, "relax", "" ) );
+  }
+
+  /**
+   * Test that the table of control sequences grows.
+   *
+   * @throws CatcodeException in case of an error
+   */
+  @Test
+  public void testCache4() throws CatcodeException {
+
+    TokenFactoryImpl tf = new TokenFactoryImpl();
+    UnicodeChar esc = UnicodeChar.get( '\\' );
+    Token[] t = new Token[ 5000 ];
+    for( int i = 0; i < t.length; i++ ) {
+      t[ i ] = tf.createToken( Catcode.ESCAPE, esc, "cs" + i, "" );
+    }
+    for( int i = 0; i < t.length; i++ ) {
+      assertSame( t[ i ], tf.createToken( Catcode.ESCAPE, esc, "cs" + i, "" ) );
+      assertEquals( "cs" + i, ((ControlSequenceToken) t[ i ]).getName() );
+    }
+  }
+
+  /**
+   * Test that a forked factory delivers the tokens known to the base and
+   * that tokens created afterwards are not shared.
+   *
+   * @throws CatcodeException in case of an error
+   */
+  @Test
+  public void testFork1() throws CatcodeException {
+
+    TokenFactoryImpl tf = new TokenFactoryImpl();
+    UnicodeChar esc = UnicodeChar.get( '\\' );
+    Token relax = tf.createToken( Catcode.ESCAPE, esc, "relax", "" );
+    Token a = tf.createToken( Catcode.LETTER, 'a', "" );
+    Token at = tf.createToken( Catcode.ACTIVE, '@', "" );
+
+    TokenFactory fork = tf.fork();
+    assertNotSame( tf, fork );
+    assertSame( relax, fork.createToken( Catcode.ESCAPE, esc, "relax", "" ) );
+    assertSame( a, fork.createToken( Catcode.LETTER, 'a', "" ) );
+    assertSame( at, fork.createToken( Catcode.ACTIVE, '@', "" ) );
+
+    Token x = fork.createToken( Catcode.ESCAPE, esc, "x", "" );
+    assertSame( x, fork.createToken( Catcode.ESCAPE, esc, "x", "" ) );
+    assertNotSame( x, tf.createToken( Catcode.ESCAPE, esc, "x", "" ) );
+  }
+
 }
@@ -23,14 +23,26 @@ import org.extex.core.Locator;
 import org.extex.scanner.api.TokenStream;
 import org.extex.scanner.api.Tokenizer;
 import org.extex.scanner.api.exception.ScannerException;
+import org.extex.scanner.type.token.CodeToken;
+import org.extex.scanner.type.token.OtherToken;
 import org.extex.scanner.type.token.SpaceToken;
 import org.extex.scanner.type.token.Token;
 import org.extex.scanner.type.token.TokenFactory;
 import org.extex.scanner.type.tokens.Tokens;
 
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
 /**
  * This is the base implementation of a token stream. It has an internal stack
  * of tokens which can be enlarged with push() or reduced with pop().
+ * <p>
+ * The stack consists of frames. A frame is either a list of single tokens
+ * pushed back or a list of tokens pushed back as a whole. The latter is
+ * shared with the {@link Tokens} it comes from and is read with a cursor.
+ * Thus pushing back a list of tokens does not copy the tokens.
+ * </p>
  *
  * @author <a href="mailto:gene@gerd-neugebauer.de">Gerd Neugebauer</a>
  * @author <a href="mailto:m.g.n@gmx.de">Michael Niedermair</a>
@@ -50,10 +62,30 @@ public class TokenStreamBaseImpl implements TokenStream {
   private boolean skipSpaces;
 
   /**
-   * The field {@code stack} contains the Token stack for the push-back
-   * operation.
+   * The field {@code depth} contains the number of frames on the stack.
+   */
+  private int depth = 0;
+
+  /**
+   * The field {@code frames} contains the lists of tokens of the frames on
+   * the stack for the push-back operation.
+   */
+  @SuppressWarnings("unchecked")
+  private List<Token>[] frames = (List<Token>[]) new List<?>[ 8 ];
+
+  /**
+   * The field {@code positions} contains the cursors of the frames. A
+   * negative value denotes a frame of single tokens which is used as a stack
+   * itself.
    */
-  private Tokens stack = new Tokens();
+  private int[] positions = new int[ 8 ];
+
+  /**
+   * The field {@code spare} contains an empty list for a frame of single
+   * tokens which can be reused instead of allocating a new one. Thus pushing
+   * back a token after a look-ahead does not allocate a list each time.
+   */
+  private List<Token> spare = null;
 
   /**
    * Creates a new object.
@@ -77,8 +109,8 @@ public class TokenStreamBaseImpl implements TokenStream {
 
     this.fileStream = isFile;
 
-    for( int i = tokens.length() - 1; i >= 0; i-- ) {
-      stack.add( tokens.get( i ) );
+    if( tokens.length() > 0 ) {
+      pushFrame( tokens.share(), 0 );
     }
   }
 
@@ -91,7 +123,9 @@ public class TokenStreamBaseImpl implements TokenStream {
   @Override
   public boolean closeFileStream() {
 
-    stack = new Tokens();
+    while( depth > 0 ) {
+      frames[ --depth ] = null;
+    }
     return fileStream;
   }
 
@@ -113,14 +147,12 @@ public class TokenStreamBaseImpl implements TokenStream {
       throws ScannerException {
 
     if( !skipSpaces ) {
-      return (stack.length() > 0 ?
-          stack.removeLast()
-          :
-          getNext( factory, tokenizer ));
+      Token t = pop();
+      return (t != null ? t : getNext( factory, tokenizer ));
     }
     Token t;
 
-    for( t = stack.removeLast(); t != null; t = stack.removeLast() ) {
+    for( t = pop(); t != null; t = pop() ) {
       if( !(t instanceof SpaceToken) ) {
         return t;
       }
@@ -170,7 +202,7 @@ public class TokenStreamBaseImpl implements TokenStream {
    */
   @Override
   public boolean isEof() throws ScannerException {
-    return stack.length() == 0;
+    return isStackEmpty();
   }
 
   /**
@@ -180,7 +212,7 @@ public class TokenStreamBaseImpl implements TokenStream {
    */
   @Override
   public boolean isEol() {
-    return stack.length() == 0;
+    return isStackEmpty();
   }
 
   /**
@@ -208,9 +240,190 @@ public class TokenStreamBaseImpl implements TokenStream {
   @Override
   public void put( Token token ) {
 
-    if( token != null ) {
-      stack.add( token );
+    if( token == null ) {
+      return;
+    }
+    if( depth == 0 || positions[ depth - 1 ] >= 0 ) {
+      List<Token> list = spare;
+      spare = null;
+      pushFrame( list != null ? list : new ArrayList<Token>(), -1 );
+    }
+    frames[ depth - 1 ].add( token );
+  }
+
+  /**
+   * Push back a list of tokens into the stream. The list is shared with the
+   * tokens instead of being copied.
+   *
+   * @param tokens the tokens to push back
+   * @see org.extex.scanner.api.TokenStream#put(org.extex.scanner.type.tokens.Tokens)
+   */
+  @Override
+  public void put( Tokens tokens ) {
+
+    if( tokens.length() > 0 ) {
+      pushFrame( tokens.share(), 0 );
+    }
+  }
+
+  /**
+   * Remove the topmost frame from the stack. An exhausted frame of single
+   * tokens is kept for reuse.
+   *
+   * @param d the index of the topmost frame
+   */
+  private void dropFrame( int d ) {
+
+    if( positions[ d ] < 0 ) {
+      spare = frames[ d ];
     }
+    frames[ d ] = null;
+    depth = d;
+  }
+
+  /**
+   * Check whether the push-back stack is empty. Exhausted frames are
+   * dropped on the way.
+   *
+   * @return {@code true} iff no token has been pushed back
+   */
+  private boolean isStackEmpty() {
+
+    while( depth > 0 ) {
+      int d = depth - 1;
+      int p = positions[ d ];
+      if( p < 0 ? !frames[ d ].isEmpty() : p < frames[ d ].size() ) {
+        return false;
+      }
+      dropFrame( d );
+    }
+    return true;
+  }
+
+  /**
+   * Get the next token from the push-back stack without removing it.
+   *
+   * @return the token or {@code null} if the stack is empty
+   */
+  private Token peek() {
+
+    if( isStackEmpty() ) {
+      return null;
+    }
+    int d = depth - 1;
+    List<Token> list = frames[ d ];
+    int p = positions[ d ];
+    return list.get( p < 0 ? list.size() - 1 : p );
+  }
+
+  /**
+   * Take the next token from the push-back stack.
+   *
+   * @return the token or {@code null} if the stack is empty
+   */
+  private Token pop() {
+
+    while( depth > 0 ) {
+      int d = depth - 1;
+      List<Token> list = frames[ d ];
+      int p = positions[ d ];
+      if( p < 0 ) {
+        int n = list.size();
+        if( n > 0 ) {
+          return list.remove( n - 1 );
+        }
+      }
+      else if( p < list.size() ) {
+        positions[ d ] = p + 1;
+        return list.get( p );
+      }
+      dropFrame( d );
+    }
+    return null;
+  }
+
+  /**
+   * Push a new frame onto the push-back stack.
+   *
+   * @param list     the tokens of the frame
+   * @param position the initial cursor or -1 for a frame of single tokens
+   */
+  private void pushFrame( List<Token> list, int position ) {
+
+    if( depth >= frames.length ) {
+      frames = Arrays.copyOf( frames, depth * 2 );
+      int[] pos = new int[ depth * 2 ];
+      System.arraycopy( positions, 0, pos, 0, depth );
+      positions = pos;
+    }
+    frames[ depth ] = list;
+    positions[ depth++ ] = position;
+  }
+
+  /**
+   * Append the decimal digits to a number. The tokens on the push-back stack
+   * are considered first. Afterwards the digits are taken from
+   * {@link #scanNextDigits(Tokenizer, long) scanNextDigits()}.
+   *
+   * @param factory   the token factory
+   * @param tokenizer the tokenizer
+   * @param n         the value accumulated so far
+   * @return the value with the digits appended
+   * @throws ScannerException in case of an error
+   * @see org.extex.scanner.api.TokenStream#scanDigits(org.extex.scanner.type.token.TokenFactory,
+   * org.extex.scanner.api.Tokenizer, long)
+   */
+  @Override
+  public long scanDigits( TokenFactory factory, Tokenizer tokenizer, long n )
+      throws ScannerException {
+
+    long value = n;
+    for( Token t = peek(); t != null; t = peek() ) {
+      if( !OtherToken.isDigit( t ) ) {
+        return value;
+      }
+      pop();
+      value = value * 10 + t.getChar().getCodePoint() - '0';
+    }
+    return scanNextDigits( tokenizer, value );
+  }
+
+  /**
+   * Append the decimal digits to a number when the stack is empty. This
+   * method is meant to be overloaded by derived classes which can read the
+   * digits without creating tokens for them.
+   *
+   * @param tokenizer the classifies for characters
+   * @param n         the value accumulated so far
+   * @return the value with the digits appended
+   * @throws ScannerException in case of an error
+   */
+  protected long scanNextDigits( Tokenizer tokenizer, long n )
+      throws ScannerException {
+
+    return n;
+  }
+
+  /**
+   * Get the next code token when the stack is empty. Other tokens are passed
+   * by. This method is meant to be overloaded by derived classes which can
+   * avoid the creation of the tokens passed by.
+   *
+   * @param factory   the factory for new tokens
+   * @param tokenizer the classifies for characters
+   * @return the next code token or {@code null}
+   * @throws ScannerException in case of an error
+   */
+  protected CodeToken skipNext( TokenFactory factory, Tokenizer tokenizer )
+      throws ScannerException {
+
+    for( Token t = getNext( factory, tokenizer ); t != null; t =
+        getNext( factory, tokenizer ) ) {
+      if( t instanceof CodeToken ) {
+        return (CodeToken) t;
+      }
+    }
+    return null;
   }
 
   /**
@@ -221,4 +434,29 @@ public class TokenStreamBaseImpl implements TokenStream {
     this.skipSpaces = true;
   }
 
+  /**
+   * Get the next control sequence or active character. The tokens on the
+   * push-back stack are considered first.
+   *
+   * @param factory   the token factory
+   * @param tokenizer the tokenizer
+   * @return the next code token or {@code null} if no more tokens are
+   * available
+   * @throws ScannerException in case of an error
+   * @see org.extex.scanner.api.TokenStream#skipToCodeToken(org.extex.scanner.type.token.TokenFactory,
+   * org.extex.scanner.api.Tokenizer)
+   */
+  @Override
+  public CodeToken skipToCodeToken( TokenFactory factory,
+                                    Tokenizer tokenizer )
+      throws ScannerException {
+
+    for( Token t = pop(); t != null; t = pop() ) {
+      if( t instanceof CodeToken ) {
+        return (CodeToken) t;
+      }
+    }
+    return skipNext( factory, tokenizer );
+  }
+
 }
@@ -31,16 +31,27 @@ import org.extex.scanner.stream.TokenStreamOptions;
 import org.extex.scanner.type.Catcode;
 import org.extex.scanner.type.CatcodeVisitor;
 import org.extex.scanner.type.Namespace;
+import org.extex.scanner.type.token.CodeToken;
 import org.extex.scanner.type.token.Token;
 import org.extex.scanner.type.token.TokenFactory;
 
 import java.io.IOException;
 import java.io.LineNumberReader;
 import java.io.Reader;
+import java.nio.ByteBuffer;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
 
 /**
  * This class contains an implementation of a token stream which is fed from a
  * Reader.
+ * <p>
+ * Alternatively the token stream can be fed from a buffer of bytes in the
+ * encoding UTF-8 or ISO-8859-1. In this case the line ends are found by
+ * scanning the bytes and each line is decoded directly into a reusable
+ * buffer of code points. No string is created for a line unless a locator
+ * is requested.
+ * </p>
  *
  * @author <a href="mailto:gene@gerd-neugebauer.de">Gerd Neugebauer</a>
  * @author <a href="mailto:m.g.n@gmx.de">Michael Niedermair</a>
@@ -92,9 +103,9 @@ public class TokenStreamImpl extends TokenStreamBaseImpl
   protected static final int CARET_LIMIT = 0100; // 0100 = 64
 
   /**
-   * The constant {@code CR} contains the one and only CR character.
+   * The constant {@code CR} contains the code point of the CR character.
    */
-  private static final UnicodeChar CR = UnicodeChar.get( 13 );
+  private static final int CR = 13;
 
   /**
    * The constant {@code MID_LINE} contains the state for the processing in
@@ -102,6 +113,12 @@ public class TokenStreamImpl extends TokenStreamBaseImpl
    */
   protected static final State MID_LINE = new State( "mid line" );
 
+  /**
+   * The constant {@code NO_CHAR} contains the value returned when no
+   * character is available.
+   */
+  protected static final int NO_CHAR = -1;
+
   /**
    * The constant {@code NEW_LINE} contains the state for the processing at
    * the beginning of a new line.
@@ -114,15 +131,52 @@ public class TokenStreamImpl extends TokenStreamBaseImpl
    */
   protected static final State SKIP_BLANKS = new State( "skip blanks" );
 
+  /**
+   * The constant {@code INITIAL_LINE_SIZE} contains the initial size of the
+   * buffer for a line.
+   */
+  private static final int INITIAL_LINE_SIZE = 128;
+
+  /**
+   * The constant {@code REPLACEMENT_CHAR} contains the code point used for
+   * malformed input in UTF-8.
+   */
+  private static final int REPLACEMENT_CHAR = 0xfffd;
+
+  /**
+   * The field {@code bytes} contains the buffer of bytes to read lines from.
+   * It is {@code null} if the input is read from a reader or the input is
+   * exhausted.
+   */
+  private ByteBuffer bytes = null;
+
   /**
    * The field {@code in} contains the buffered reader for lines.
    */
   private LineNumberReader in;
 
   /**
-   * The field {@code line} contains the current line of input.
+   * The field {@code line} contains the code points of the current line of
+   * input.
+   */
+  private int[] line = new int[ INITIAL_LINE_SIZE ];
+
+  /**
+   * The field {@code lineLength} contains the length of the current line or
+   * -1 if the input is exhausted.
    */
-  private String line = "";
+  private int lineLength = 0;
+
+  /**
+   * The field {@code lineNumber} contains the number of lines read so far.
+   */
+  private int lineNumber = 0;
+
+  /**
+   * The field {@code lineString} contains the current line as string. It is
+   * created on demand only.
+   */
+  private String lineString = "";
 
   /**
    * The index in the buffer for the next character to consider. This is an
@@ -133,7 +187,13 @@ public class TokenStreamImpl extends TokenStreamBaseImpl
   /**
    * The field {@code saveChar} contains the saved look-ahead character.
    */
-  private UnicodeChar saveChar = null;
+  private int saveChar = NO_CHAR;
+
+  /**
+   * The field {@code utf8} contains the indicator that the bytes are encoded
+   * in UTF-8. Otherwise they are taken as ISO-8859-1.
+   */
+  private boolean utf8 = false;
 
   /**
    * The field {@code source} contains the description of the source for
@@ -268,30 +328,30 @@ public class TokenStreamImpl extends TokenStreamBaseImpl
                                         namespace );
           }
 
-          UnicodeChar uc = getChar( tokenizer );
+          int c = getChar( tokenizer );
 
-          if( uc == null ) {
+          if( c < 0 ) {
             return factory.createToken( Catcode.ESCAPE, uchar, "",
                                         namespace );
 
           }
-          else if( tokenizer.getCatcode( uc ) == Catcode.LETTER ) {
+          else if( tokenizer.getCatcode( c ) == Catcode.LETTER ) {
             StringBuilder sb = new StringBuilder();
-            sb.append( (char) (uc.getCodePoint()) );
+            sb.appendCodePoint( c );
             state = SKIP_BLANKS;
 
             while( !atEndofLine() ) {
-              uc = getChar( tokenizer );
-              if( uc == null ) {
+              c = getChar( tokenizer );
+              if( c < 0 ) {
                 break;
               }
 
-              if( tokenizer.getCatcode( uc ) != Catcode.LETTER ) {
-                ungetChar( uc );
+              if( tokenizer.getCatcode( c ) != Catcode.LETTER ) {
+                ungetChar( c );
                 return factory.createToken( Catcode.ESCAPE,
                                             uchar, sb.toString(), namespace );
               }
-              sb.append( (char) (uc.getCodePoint()) );
+              sb.appendCodePoint( c );
             }
 
             return factory.createToken( Catcode.ESCAPE, uchar,
@@ -301,7 +361,7 @@ public class TokenStreamImpl extends TokenStreamBaseImpl
           else {
             state = MID_LINE;
             return factory.createToken( Catcode.ESCAPE, uchar,
-                                        Character.toString( (char) (uc.getCodePoint()) ),
+                                        new String( Character.toChars( c ) ),
                                         namespace );
 
           }
@@ -632,6 +692,35 @@ public class TokenStreamImpl extends TokenStreamBaseImpl
     this.source = theSource;
   }
 
+  /**
+   * Creates a new object which is fed from a buffer of bytes. The buffer
+   * might be a mapped file.
+   *
+   * @param config    the configuration object for this instance; This
+   *                  configuration is ignored in this implementation.
+   * @param options   ignored here
+   * @param buffer    the bytes to read from
+   * @param charset   the encoding of the bytes; only UTF-8 and ISO-8859-1
+   *                  are supported
+   * @param isFile    indicator for file streams
+   * @param theSource the description of the input source
+   * @throws IllegalArgumentException in case of an unsupported encoding
+   */
+  public TokenStreamImpl( Configuration config, TokenStreamOptions options,
+                          ByteBuffer buffer, Charset charset, Boolean isFile,
+                          String theSource ) {
+
+    super( isFile.booleanValue() );
+    if( StandardCharsets.UTF_8.equals( charset ) ) {
+      this.utf8 = true;
+    }
+    else if( !StandardCharsets.ISO_8859_1.equals( charset ) ) {
+      throw new IllegalArgumentException( String.valueOf( charset ) );
+    }
+    this.bytes = buffer;
+    this.source = theSource;
+  }
+
   /**
    * Checks whether the pointer is at the end of line.
    *
@@ -640,7 +729,7 @@ public class TokenStreamImpl extends TokenStreamBaseImpl
    */
   protected boolean atEndofLine() {
 
-    return (pointer >= line.length());
+    return (pointer >= lineLength);
   }
 
   /**
@@ -648,37 +737,37 @@ public class TokenStreamImpl extends TokenStreamBaseImpl
    *
    * @param caret1 the first caret
    * @param caret2 the second caret
-   * @return the UnicodeChar to use instead
+   * @return the code point to use instead
    */
-  private UnicodeChar caretCaret( UnicodeChar caret1, UnicodeChar caret2 ) {
+  private int caretCaret( int caret1, int caret2 ) {
 
-    UnicodeChar c = getRawChar();
-    if( c == null ) {
+    int c = getRawChar();
+    if( c < 0 ) {
       // this should be impossible since a space is added to the end of
       // the input stream
-      return null; // ^^ at end is silently ignored
+      return NO_CHAR; // ^^ at end is silently ignored
     }
-    int hexHigh = hex2int( c.getCodePoint() );
+    int hexHigh = hex2int( c );
     if( hexHigh < 0 ) {
-      hexHigh = c.getCodePoint();
-      return UnicodeChar.get( ((hexHigh < CARET_LIMIT)
+      hexHigh = c;
+      return ((hexHigh < CARET_LIMIT)
           ? hexHigh + CARET_LIMIT
-          : hexHigh - CARET_LIMIT) );
+          : hexHigh - CARET_LIMIT);
     }
 
     c = getRawChar();
-    if( c == null ) {
+    if( c < 0 ) {
       // this should be impossible since a space is added to the end of
       // the input stream
-      return UnicodeChar.get( hexHigh );
+      return hexHigh;
     }
-    int hexLow = hex2int( c.getCodePoint() );
+    int hexLow = hex2int( c );
     if( hexLow < 0 ) {
       ungetChar( c );
-      return UnicodeChar.get( hexHigh );
+      return hexHigh;
     }
 
-    return UnicodeChar.get( (hexHigh << 4) + hexLow );
+    return (hexHigh << 4) + hexLow;
   }
 
   /**
@@ -686,7 +775,7 @@ public class TokenStreamImpl extends TokenStreamBaseImpl
    */
   protected void endLine() {
 
-    pointer = line.length() + 1;
+    pointer = lineLength + 1;
   }
 
   /**
@@ -698,28 +787,29 @@ public class TokenStreamImpl extends TokenStreamBaseImpl
    * </p>
    *
    * @param tokenizer the classifier for characters
-   * @return the character or {@code null} if no character is available
+   * @return the code point of the character or {@link #NO_CHAR NO_CHAR} if
+   * no character is available
    * @throws ScannerException in the rare case that an IO Exception has
    *                          occurred.
    */
-  protected UnicodeChar getChar( Tokenizer tokenizer ) throws ScannerException {
+  protected int getChar( Tokenizer tokenizer ) throws ScannerException {
 
-    if( saveChar != null ) {
-      UnicodeChar uc = saveChar;
-      saveChar = null;
-      return uc;
+    if( saveChar >= 0 ) {
+      int c = saveChar;
+      saveChar = NO_CHAR;
+      return c;
     }
 
-    UnicodeChar uc = getRawChar();
+    int uc = getRawChar();
 
-    if( uc == null ) {
+    if( uc < 0 ) {
       do {
         if( !refill() ) {
-          return null;
+          return NO_CHAR;
         }
         uc = getRawChar();
 
-      } while( uc == null );
+      } while( uc < 0 );
 
       state = NEW_LINE;
     }
@@ -727,9 +817,9 @@ public class TokenStreamImpl extends TokenStreamBaseImpl
     if( tokenizer.getCatcode( uc ) == Catcode.SUPMARK ) {
 
       int savePointer = pointer;
-      UnicodeChar c = getRawChar();
+      int c = getRawChar();
 
-      if( uc.equals( c ) ) {
+      if( uc == c ) {
         return caretCaret( uc, c );
       }
       pointer = savePointer;
@@ -749,8 +839,61 @@ public class TokenStreamImpl extends TokenStreamBaseImpl
   @Override
   public Locator getLocator() {
 
-    return new Locator( source, (in == null ? 0 : in.getLineNumber()), line,
-                        pointer - 1 );
+    return new Locator( source,
+                        (in == null && bytes == null ? 0 : lineNumber),
+                        getLine(), pointer - 1 );
+  }
+
+  /**
+   * Getter for the text of the current line. The string is created from the
+   * characters of the line if it is not present already.
+   *
+   * @return the current line
+   * @see org.extex.scanner.api.TokenStream#getLine()
+   */
+  @Override
+  public String getLine() {
+
+    if( lineString == null && lineLength >= 0 ) {
+      lineString = new String( line, 0, lineLength );
+    }
+    return lineString;
+  }
+
+  /**
+   * Getter for the line number of the current position.
+   *
+   * @return the line number
+   * @see org.extex.scanner.api.TokenStream#getLineNumber()
+   */
+  @Override
+  public int getLineNumber() {
+
+    return in == null && bytes == null ? 0 : lineNumber;
+  }
+
+  /**
+   * Getter for the position in the current line.
+   *
+   * @return the line pointer
+   * @see org.extex.scanner.api.TokenStream#getLinePointer()
+   */
+  @Override
+  public int getLinePointer() {
+
+    return pointer - 1;
+  }
+
+  /**
+   * Getter for the name of the resource the tokens are read from.
+   *
+   * @return the resource name
+   * @see org.extex.scanner.api.TokenStream#getResourceName()
+   */
+  @Override
+  public String getResourceName() {
+
+    return source;
   }
 
   /**
@@ -771,14 +914,15 @@ public class TokenStreamImpl extends TokenStreamBaseImpl
     Token t = null;
 
     do {
-      UnicodeChar uc = getChar( tokenizer );
-      if( uc == null ) {
+      int c = getChar( tokenizer );
+      if( c < 0 ) {
         return null;
       }
 
       try {
-        t = (Token) tokenizer.getCatcode( uc ).visit( visitor,
-                                                      factory, tokenizer, uc );
+        t = (Token) tokenizer.getCatcode( c ).visit( visitor,
+                                                     factory, tokenizer,
+                                                     UnicodeChar.get( c ) );
       } catch( Exception e ) {
         throw new ScannerException( e );
       }
@@ -790,18 +934,19 @@ public class TokenStreamImpl extends TokenStreamBaseImpl
   /**
    * Get the next character from the input line.
    *
-   * @return the next raw character or {@code null} if none is available.
+   * @return the code point of the next raw character or
+   * {@link #NO_CHAR NO_CHAR} if none is available.
    */
-  protected UnicodeChar getRawChar() {
+  protected int getRawChar() {
 
-    if( line == null ) {
-      return null;
+    if( lineLength < 0 ) {
+      return NO_CHAR;
     }
 
-    if( pointer < line.length() ) {
-      return UnicodeChar.get( line.charAt( pointer++ ) );
+    if( pointer < lineLength ) {
+      return line[ pointer++ ];
     }
-    return (pointer++ > line.length() ? null : CR);
+    return (pointer++ > lineLength ? NO_CHAR : CR);
   }
 
   /**
@@ -837,13 +982,13 @@ public class TokenStreamImpl extends TokenStreamBaseImpl
   @Override
   public boolean isEof() throws ScannerException {
 
-    if( saveChar != null || !super.isEof() ) {
+    if( saveChar >= 0 || !super.isEof() ) {
       return false;
     }
 
     try {
       do {
-        if( pointer < line.length() ) {
+        if( pointer < lineLength ) {
           return false;
         }
       } while( refill() );
@@ -863,7 +1008,7 @@ public class TokenStreamImpl extends TokenStreamBaseImpl
   @Override
   public boolean isEol() {
 
-    return pointer > line.length();
+    return pointer > lineLength;
   }
 
   /**
@@ -874,16 +1019,31 @@ public class TokenStreamImpl extends TokenStreamBaseImpl
    */
   protected boolean refill() throws ScannerException {
 
+    if( bytes != null ) {
+      return refillFromBytes();
+    }
     if( in == null ) {
       return false;
     }
     try {
-      line = in.readLine();
-      if( line == null ) {
+      String s = in.readLine();
+      if( s == null ) {
         in.close();
         in = null;
+        lineLength = -1;
+        lineString = null;
         return false;
       }
+      int len = s.length();
+      if( len > line.length ) {
+        line = new int[ len ];
+      }
+      for( int i = 0; i < len; i++ ) {
+        line[ i ] = s.charAt( i );
+      }
+      lineLength = len;
+      lineString = s;
+      lineNumber++;
     } catch( IOException e ) {
       throw new ScannerException( e );
     }
@@ -891,6 +1051,210 @@ public class TokenStreamImpl extends TokenStreamBaseImpl
     return true;
   }
 
+  /**
+   * Get the next line from the buffer of bytes. The end of the line is
+   * determined by scanning for CR or LF. Afterwards the bytes of the line
+   * are decoded into the line buffer.
+   *
+   * @return {@code true} iff the next line could be acquired.
+   */
+  private boolean refillFromBytes() {
+
+    int start = bytes.position();
+    int limit = bytes.limit();
+    if( start >= limit ) {
+      bytes = null;
+      lineLength = -1;
+      lineString = null;
+      return false;
+    }
+    int end = start;
+    byte b = 0;
+    while( end < limit ) {
+      b = bytes.get( end );
+      if( b == '\n' || b == '\r' ) {
+        break;
+      }
+      end++;
+    }
+    if( end - start > line.length ) {
+      line = new int[ end - start ];
+    }
+    lineLength = utf8 ? decodeUtf8( start, end ) : decodeLatin1( start, end );
+    lineString = null;
+    lineNumber++;
+
+    int next = end;
+    if( end < limit ) {
+      next++;
+      if( b == '\r' && next < limit && bytes.get( next ) == '\n' ) {
+        next++;
+      }
+    }
+    bytes.position( next );
+    pointer = 0;
+    return true;
+  }
+
+  /**
+   * Decode a range of bytes in ISO-8859-1 into the line buffer.
+   *
+   * @param start the index of the first byte
+   * @param end   the index after the last byte
+   * @return the number of code points
+   */
+  private int decodeLatin1( int start, int end ) {
+
+    int n = 0;
+    for( int i = start; i < end; i++ ) {
+      line[ n++ ] = bytes.get( i ) & 0xff;
+    }
+    return n;
+  }
+
+  /**
+   * Decode a range of bytes in UTF-8 into the line buffer. Malformed
+   * sequences are replaced by U+FFFD. Since a code point never takes more
+   * bytes than its encoding the line buffer is large enough.
+   *
+   * @param start the index of the first byte
+   * @param end   the index after the last byte
+   * @return the number of code points
+   */
+  private int decodeUtf8( int start, int end ) {
+
+    int n = 0;
+    int i = start;
+    while( i < end ) {
+      int c = bytes.get( i++ ) & 0xff;
+      if( c >= 0x80 ) {
+        int more;
+        int min;
+        if( c >= 0xc2 && c <= 0xdf ) {
+          c &= 0x1f;
+          more = 1;
+          min = 0x80;
+        }
+        else if( c >= 0xe0 && c <= 0xef ) {
+          c &= 0x0f;
+          more = 2;
+          min = 0x800;
+        }
+        else if( c >= 0xf0 && c <= 0xf4 ) {
+          c &= 0x07;
+          more = 3;
+          min = 0x10000;
+        }
+        else {
+          line[ n++ ] = REPLACEMENT_CHAR;
+          continue;
+        }
+        for( ; more > 0 && i < end; more-- ) {
+          int d = bytes.get( i );
+          if( (d & 0xc0) != 0x80 ) {
+            break;
+          }
+          c = (c << 6) | (d & 0x3f);
+          i++;
+        }
+        if( more > 0 || c < min || c > Character.MAX_CODE_POINT
+            || (c >= Character.MIN_SURROGATE && c <= Character.MAX_SURROGATE) ) {
+          c = REPLACEMENT_CHAR;
+        }
+      }
+      line[ n++ ] = c;
+    }
+    return n;
+  }
+
+  /**
+   * Append the decimal digits to a number when the stack is empty. The
+   * digits are taken directly from the current line as long as they have the
+   * category code {@code OTHER}. Thus no tokens are created for them. Any
+   * other character is left for the next reading operation; this includes
+   * the end of the line and the {@code ^^} notation.
+   *
+   * @param tokenizer the classifies for characters
+   * @param n         the value accumulated so far
+   * @return the value with the digits appended
+   * @throws ScannerException in case of an error
+   * @see org.extex.scanner.base.TokenStreamBaseImpl#scanNextDigits(org.extex.scanner.api.Tokenizer,
+   * long)
+   */
+  @Override
+  protected long scanNextDigits( Tokenizer tokenizer, long n )
+      throws ScannerException {
+
+    if( saveChar < 0 && pointer > lineLength ) {
+      if( !refill() ) {
+        return n;
+      }
+      state = NEW_LINE;
+    }
+    long value = n;
+    while( saveChar < 0 && pointer < lineLength ) {
+      int c = line[ pointer ];
+      if( c < '0' || c > '9' || tokenizer.getCatcode( c ) != Catcode.OTHER ) {
+        break;
+      }
+      pointer++;
+      state = MID_LINE;
+      value = value * 10 + c - '0';
+    }
+    return value;
+  }
+
+  /**
+   * Get the next code token when the stack is empty. Only the characters
+   * which might lead to a control sequence or an active character are passed
+   * to the visitor. For all other characters just the state is updated as
+   * the visitor would do it. Thus no tokens are created for them.
+   *
+   * @param factory   the factory for new tokens
+   * @param tokenizer the classifies for characters
+   * @return the next code token or {@code null}
+   * @throws ScannerException in case of an error
+   * @see org.extex.scanner.base.TokenStreamBaseImpl#skipNext(org.extex.scanner.type.token.TokenFactory,
+   * org.extex.scanner.api.Tokenizer)
+   */
+  @Override
+  protected CodeToken skipNext( TokenFactory factory, Tokenizer tokenizer )
+      throws ScannerException {
+
+    for( ; ; ) {
+      int c = getChar( tokenizer );
+      if( c < 0 ) {
+        return null;
+      }
+      Catcode cc = tokenizer.getCatcode( c );
+
+      if( cc == Catcode.ESCAPE || cc == Catcode.ACTIVE
+          || cc == Catcode.INVALID || (cc == Catcode.CR && state == NEW_LINE) ) {
+        Token t;
+        try {
+          t = (Token) cc.visit( visitor, factory, tokenizer,
+                                UnicodeChar.get( c ) );
+        } catch( Exception e ) {
+          throw new ScannerException( e );
+        }
+        if( t instanceof CodeToken ) {
+          return (CodeToken) t;
+        }
+      }
+      else if( cc == Catcode.CR || cc == Catcode.COMMENT ) {
+        endLine();
+      }
+      else if( cc == Catcode.SPACE ) {
+        if( state == MID_LINE ) {
+          state = SKIP_BLANKS;
+        }
+      }
+      else if( cc != Catcode.IGNORE ) {
+        state = MID_LINE;
+      }
+    }
+  }
+
   /**
    * Returns a string representation of the object.
    *
@@ -900,17 +1264,18 @@ public class TokenStreamImpl extends TokenStreamBaseImpl
   @Override
   public String toString() {
 
-    return source + ":" + in.getLineNumber() + "[" + pointer + "]:" + line;
+    return source + ":" + lineNumber + "[" + pointer + "]:"
+        + (lineLength < 0 ? null : new String( line, 0, lineLength ));
   }
 
   /**
    * Save the look-ahead character.
    *
-   * @param uc the character to save
+   * @param c the code point of the character to save
    */
-  private void ungetChar( UnicodeChar uc ) {
+  private void ungetChar( int c ) {
 
-    saveChar = uc;
+    saveChar = c;
   }
 
 }
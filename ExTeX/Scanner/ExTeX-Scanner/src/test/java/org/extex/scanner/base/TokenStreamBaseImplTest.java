@@ -331,4 +331,57 @@ public class TokenStreamBaseImplTest {
                             TokenStreamStringImplTest.TOKENIZER ) );
   }
 
+  /**
+   * This test case validates that a list of tokens pushed back is
+   * delivered in order and interleaved correctly with single tokens.
+   *
+   * @throws Exception in case of an error
+   */
+  @Test
+  public void testPutTokens1() throws Exception {
+
+    TokenStreamBaseImpl stream = new TokenStreamBaseImpl( false );
+    Tokens toks = new Tokens();
+    for( char c = 'b'; c <= 'd'; c++ ) {
+      toks.add( TokenStreamStringImplTest.FACTORY.createToken(
+          Catcode.LETTER, c, "" ) );
+    }
+    stream.put( TokenStreamStringImplTest.FACTORY.createToken(
+        Catcode.LETTER, 'e', "" ) );
+    stream.put( toks );
+    stream.put( TokenStreamStringImplTest.FACTORY.createToken(
+        Catcode.LETTER, 'a', "" ) );
+    StringBuilder sb = new StringBuilder();
+    while( !stream.isEof() ) {
+      sb.append( stream.get( TokenStreamStringImplTest.FACTORY,
+                             TokenStreamStringImplTest.TOKENIZER )
+                       .toText() );
+    }
+    assertEquals( "abcde", sb.toString() );
+  }
+
+  /**
+   * This test case validates that a list of tokens pushed back is not
+   * affected by later modifications of the list.
+   *
+   * @throws Exception in case of an error
+   */
+  @Test
+  public void testPutTokens2() throws Exception {
+
+    TokenStreamBaseImpl stream = new TokenStreamBaseImpl( false );
+    Tokens toks = new Tokens();
+    toks.add( TokenStreamStringImplTest.FACTORY.createToken(
+        Catcode.LETTER, 'a', "" ) );
+    stream.put( toks );
+    toks.add( TokenStreamStringImplTest.FACTORY.createToken(
+        Catcode.LETTER, 'b', "" ) );
+    toks.removeFirst();
+    assertEquals( "a", stream.get( TokenStreamStringImplTest.FACTORY,
+                                   TokenStreamStringImplTest.TOKENIZER )
+                             .toText() );
+    assertTrue( stream.isEof() );
+    assertEquals( "b", toks.toText() );
+  }
+
 }
@@ -0,0 +1,142 @@
+/*
+ * Copyright (C) 2011 The ExTeX Group and individual authors listed below
+ *
+ * This library is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as published by the
+ * Free Software Foundation; either version 2.1 of the License, or (at your
+ * option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General Public License
+ * for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this library; if not, write to the Free Software Foundation,
+ * Inc., 59 Temple Place, Suite 330, Boston, MA 02111-1307 USA
+ *
+ */
+
+package org.extex.scanner.base;
+
+import org.extex.scanner.api.TokenStream;
+import org.extex.scanner.type.token.Token;
+import org.junit.Test;
+import org.junit.runner.JUnitCore;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+
+/**
+ * Test cases for the implementation of a token stream fed from a buffer of
+ * bytes.
+ *
+ * @author <a href="mailto:gene@gerd-neugebauer.de">Gerd Neugebauer</a>
+ */
+public class TokenStreamBytesImplTest extends TokenStreamStringImplTest {
+
+  /**
+   * Command line interface.
+   *
+   * @param args the arguments
+   */
+  public static void main( String[] args ) {
+
+    (new JUnitCore()).run( TokenStreamBytesImplTest.class );
+  }
+
+
+  public TokenStreamBytesImplTest() {
+
+  }
+
+  /**
+   * Create a stream of tokens fed from a string encoded in UTF-8.
+   *
+   * @param line the input string
+   * @return the new token stream
+   * @throws IOException in case of an error
+   */
+  @Override
+  protected TokenStream makeStream( String line ) throws IOException {
+
+    return new TokenStreamImpl( null, null, ByteBuffer.wrap( line
+        .getBytes( StandardCharsets.UTF_8 ) ), StandardCharsets.UTF_8,
+                                Boolean.FALSE, "test" );
+  }
+
+  /**
+   * Test that the line ends LF, CR, and CR LF are recognized.
+   *
+   * @throws Exception in case of an error
+   */
+  @Test
+  public void testLineEnds() throws Exception {
+
+    TokenStream stream = makeStream( "1\n2\r3\r\n4" );
+    for( char c = '1'; c <= '4'; c++ ) {
+      assertEquals( "the character " + c, stream.get( FACTORY, TOKENIZER )
+                                                .toString() );
+      Token token = stream.get( FACTORY, TOKENIZER );
+      assertEquals( ' ', token.getChar().getCodePoint() );
+    }
+    assertNull( stream.get( FACTORY, TOKENIZER ) );
+  }
+
+  /**
+   * Test that the bytes are decoded as ISO-8859-1.
+   *
+   * @throws Exception in case of an error
+   */
+  @Test
+  public void testLatin1() throws Exception {
+
+    TokenStream stream =
+        new TokenStreamImpl( null, null,
+                             ByteBuffer.wrap( new byte[]{(byte) 0xe4} ),
+                             StandardCharsets.ISO_8859_1, Boolean.FALSE,
+                             "test" );
+    Token token = stream.get( FACTORY, TOKENIZER );
+    assertEquals( 0xe4, token.getChar().getCodePoint() );
+  }
+
+  /**
+   * Test that multi-byte sequences are decoded as UTF-8.
+   *
+   * @throws Exception in case of an error
+   */
+  @Test
+  public void testUtf8() throws Exception {
+
+    TokenStream stream = makeStream( "\u00e4\u20ac\ud835\udc00" );
+    assertEquals( 0xe4,
+                  stream.get( FACTORY, TOKENIZER ).getChar().getCodePoint() );
+    assertEquals( 0x20ac,
+                  stream.get( FACTORY, TOKENIZER ).getChar().getCodePoint() );
+    assertEquals( 0x1d400,
+                  stream.get( FACTORY, TOKENIZER ).getChar().getCodePoint() );
+  }
+
+  /**
+   * Test that malformed UTF-8 is replaced by U+FFFD.
+   *
+   * @throws Exception in case of an error
+   */
+  @Test
+  public void testUtf8Malformed() throws Exception {
+
+    TokenStream stream =
+        new TokenStreamImpl( null, null,
+                             ByteBuffer.wrap( new byte[]{(byte) 0xc3, 'a'} ),
+                             StandardCharsets.UTF_8, Boolean.FALSE, "test" );
+    assertEquals( 0xfffd,
+                  stream.get( FACTORY, TOKENIZER ).getChar().getCodePoint() );
+    assertEquals( 'a',
+                  stream.get( FACTORY, TOKENIZER ).getChar().getCodePoint() );
+  }
+
+}
@@ -0,0 +1,254 @@
+/*
+ * Copyright (C) 2011 The ExTeX Group and individual authors listed below
+ *
+ * This library is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as published by the
+ * Free Software Foundation; either version 2.1 of the License, or (at your
+ * option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General Public License
+ * for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this library; if not, write to the Free Software Foundation,
+ * Inc., 59 Temple Place, Suite 330, Boston, MA 02111-1307 USA
+ *
+ */
+
+package org.extex.scanner.base;
+
+import org.extex.framework.configuration.Configuration;
+import org.extex.scanner.api.TokenStream;
+import org.extex.scanner.api.exception.ScannerException;
+import org.extex.scanner.stream.ReadAheadInputStream;
+import org.junit.Test;
+import org.junit.runner.JUnitCore;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Test cases for the implementation of a token stream fed from an input
+ * stream which is read ahead on a background thread.
+ *
+ * @author <a href="mailto:gene@gerd-neugebauer.de">Gerd Neugebauer</a>
+ */
+public class TokenStreamReadAheadImplTest extends TokenStreamStringImplTest {
+
+  /**
+   * Command line interface.
+   *
+   * @param args the arguments
+   */
+  public static void main( String[] args ) {
+
+    (new JUnitCore()).run( TokenStreamReadAheadImplTest.class );
+  }
+
+  /**
+   * The field {@code conf} contains the configuration.
+   */
+  private static final Configuration CONF = new MyConfiguration( "16" );
+
+  /**
+   * Create a stream of tokens fed from a string.
+   *
+   * @param line the input string
+   * @return the new token stream
+   * @throws IOException in case of an error
+   */
+  @Override
+  protected TokenStream makeStream( String line ) throws IOException {
+
+    return new TokenStreamImpl( CONF, null, new InputStreamReader(
+        ReadAheadInputStream.start( new ByteArrayInputStream(
+            line.getBytes() ) ) ), Boolean.FALSE, "test" );
+  }
+
+  /**
+   * This test case validates that the bytes are delivered in order if the
+   * underlying stream delivers them one by one.
+   *
+   * @throws Exception in case of an error
+   */
+  @Test
+  public void testSlow1() throws Exception {
+
+    final byte[] bytes = "abc".getBytes();
+    TokenStreamImpl stream =
+        new TokenStreamImpl( CONF, null, new InputStreamReader(
+            ReadAheadInputStream.start( new InputStream() {
+
+              private int i = 0;
+
+              @Override
+              public int read() throws IOException {
+
+                try {
+                  Thread.sleep( 10 );
+                } catch( InterruptedException e ) {
+                  throw new IOException( e );
+                }
+                return i < bytes.length ? bytes[ i++ ] : -1;
+              }
+
+              @Override
+              public int read( byte[] b, int off, int len )
+                  throws IOException {
+
+                int c = read();
+                if( c < 0 ) {
+                  return -1;
+                }
+                b[ off ] = (byte) c;
+                return 1;
+              }
+            } ) ), Boolean.FALSE, "test" );
+    assertEquals( "the letter a", stream.get( FACTORY, TOKENIZER )
+                                        .toString() );
+    assertEquals( "the letter b", stream.get( FACTORY, TOKENIZER )
+                                        .toString() );
+    assertEquals( "the letter c", stream.get( FACTORY, TOKENIZER )
+                                        .toString() );
+    assertEquals( "blank space  ", stream.get( FACTORY, TOKENIZER )
+                                         .toString() );
+    assertNull( stream.get( FACTORY, TOKENIZER ) );
+  }
+
+  /**
+   * This test case validates that an IOException of the background thread
+   * is remapped into a Scanner Exception.
+   *
+   * @throws Exception in case of an error
+   */
+  @Test
+  public void testException1() throws Exception {
+
+    TokenStreamImpl stream =
+        new TokenStreamImpl( CONF, null, new InputStreamReader(
+            ReadAheadInputStream.start( new InputStream() {
+
+              @Override
+              public int read() throws IOException {
+
+                throw new IOException();
+              }
+            } ) ), Boolean.FALSE, "test" );
+    try {
+      stream.get( FACTORY, TOKENIZER );
+      assertFalse( true );
+    } catch( ScannerException e ) {
+      assertTrue( true );
+    }
+  }
+
+  /**
+   * This test case validates that a runtime exception thrown by the
+   * underlying stream after some bytes is delivered to the consumer as
+   * IOException after those bytes.
+   *
+   * @throws Exception in case of an error
+   */
+  @Test
+  public void testException2() throws Exception {
+
+    final byte[] bytes = "ab".getBytes();
+    final IllegalStateException failure = new IllegalStateException();
+    InputStream in = ReadAheadInputStream.start( new InputStream() {
+
+      private int i = 0;
+
+      @Override
+      public int read() {
+
+        if( i >= bytes.length ) {
+          throw failure;
+        }
+        return bytes[ i++ ];
+      }
+
+      @Override
+      public int read( byte[] b, int off, int len ) {
+
+        b[ off ] = (byte) read();
+        return 1;
+      }
+    } );
+    assertEquals( 'a', in.read() );
+    assertEquals( 'b', in.read() );
+    try {
+      in.read();
+      assertFalse( true );
+    } catch( IOException e ) {
+      assertSame( failure, e.getCause() );
+    }
+  }
+
+  /**
+   * This test case validates that an error thrown by the underlying stream
+   * is delivered to the consumer unchanged after the bytes read before.
+   *
+   * @throws Exception in case of an error
+   */
+  @Test
+  public void testException3() throws Exception {
+
+    final StackOverflowError failure = new StackOverflowError();
+    InputStream in = ReadAheadInputStream.start( new InputStream() {
+
+      private boolean first = true;
+
+      @Override
+      public int read() {
+
+        if( !first ) {
+          throw failure;
+        }
+        first = false;
+        return 'a';
+      }
+
+      @Override
+      public int read( byte[] b, int off, int len ) {
+
+        b[ off ] = (byte) read();
+        return 1;
+      }
+    } );
+    assertEquals( 'a', in.read() );
+    try {
+      in.read();
+      assertFalse( true );
+    } catch( StackOverflowError e ) {
+      assertSame( failure, e );
+    }
+  }
+
+  /**
+   * This test case validates that a closed stream delivers no more bytes.
+   *
+   * @throws Exception in case of an error
+   */
+  @Test
+  public void testClose1() throws Exception {
+
+    InputStream in =
+        ReadAheadInputStream.start( new ByteArrayInputStream( "abc"
+            .getBytes() ) );
+    assertEquals( 'a', in.read() );
+    in.close();
+    assertEquals( 0, in.available() );
+    assertEquals( -1, in.read() );
+  }
+
+}
@@ -853,6 +853,68 @@ public class TokenStreamStringImplTest {
     assertNull( stream.get( FACTORY, TOKENIZER ) );
   }
 
+  /**
+   * The digits of a number are consumed up to the space.
+   *
+   * @throws Exception in case of an error
+   */
+  @Test
+  public void testScanDigits1() throws Exception {
+
+    TokenStream stream = makeStream( "123 4" );
+    assertEquals( 123L, stream.scanDigits( FACTORY, TOKENIZER, 0 ) );
+    assertEquals( "blank space  ",
+                  stream.get( FACTORY, TOKENIZER ).toString() );
+    assertEquals( "the character 4", stream.get( FACTORY, TOKENIZER )
+                                           .toString() );
+  }
+
+  /**
+   * The digits are appended to the value given and a letter is left in the
+   * stream.
+   *
+   * @throws Exception in case of an error
+   */
+  @Test
+  public void testScanDigits2() throws Exception {
+
+    TokenStream stream = makeStream( "ab" );
+    assertEquals( 5L, stream.scanDigits( FACTORY, TOKENIZER, 5 ) );
+    assertEquals( "the letter a", stream.get( FACTORY, TOKENIZER )
+                                        .toString() );
+  }
+
+  /**
+   * A digit in ^^ notation is left for the regular scanning.
+   *
+   * @throws Exception in case of an error
+   */
+  @Test
+  public void testScanDigits3() throws Exception {
+
+    TokenStream stream = makeStream( "12^^354" );
+    assertEquals( 12L, stream.scanDigits( FACTORY, TOKENIZER, 0 ) );
+    assertEquals( "the character 5", stream.get( FACTORY, TOKENIZER )
+                                           .toString() );
+    assertEquals( 4L, stream.scanDigits( FACTORY, TOKENIZER, 0 ) );
+  }
+
+  /**
+   * The digits pushed back are considered first.
+   *
+   * @throws Exception in case of an error
+   */
+  @Test
+  public void testScanDigits4() throws Exception {
+
+    TokenStream stream = makeStream( "89x" );
+    stream.put( FACTORY.createToken( Catcode.OTHER, UnicodeChar.get( '7' ),
+                                     "" ) );
+    assertEquals( 789L, stream.scanDigits( FACTORY, TOKENIZER, 0 ) );
+    assertEquals( "the letter x", stream.get( FACTORY, TOKENIZER )
+                                        .toString() );
+  }
+
   /**
    * A single space at the beginning of the processing is skipped
    *
@@ -93,9 +93,9 @@ public class TokenStreamImpl extends TokenStreamBaseImpl
   protected static final int CARET_LIMIT = 0100; // 0100 = 64
 
   /**
-   * The constant {@code CR} contains the one and only CR character.
+   * The constant {@code CR} contains the code point of the CR character.
    */
-  private static final UnicodeChar CR = UnicodeChar.get( 13 );
+  private static final int CR = 13;
 
   /**
    * The constant {@code MID_LINE} contains the state for the processing in
@@ -103,6 +103,12 @@ public class TokenStreamImpl extends TokenStreamBaseImpl
    */
   protected static final State MID_LINE = new State( "mid line" );
 
+  /**
+   * The constant {@code NO_CHAR} contains the value returned when no
+   * character is available.
+   */
+  protected static final int NO_CHAR = -1;
+
   /**
    * The constant {@code NEW_LINE} contains the state for the processing at
    * the beginning of a new line.
@@ -134,7 +140,7 @@ public class TokenStreamImpl extends TokenStreamBaseImpl
   /**
    * The field {@code saveChar} contains the saved look-ahead character.
    */
-  protected UnicodeChar saveChar = null;
+  protected int saveChar = NO_CHAR;
 
   /**
    * The field {@code source} contains the description of the source for
@@ -220,26 +226,26 @@ public class TokenStreamImpl extends TokenStreamBaseImpl
                                         namespace );
           }
 
-          UnicodeChar uc = getChar( tokenizer );
+          int c = getChar( tokenizer );
 
-          if( uc == null ) {
+          if( c < 0 ) {
             return factory.createToken( Catcode.ESCAPE, uchar, "",
                                         namespace );
 
           }
-          else if( tokenizer.getCatcode( uc ) == Catcode.LETTER ) {
+          else if( tokenizer.getCatcode( c ) == Catcode.LETTER ) {
             StringBuilder sb = new StringBuilder();
-            sb.append( (char) (uc.getCodePoint()) );
+            sb.append( (char) c );
             state = SKIP_BLANKS;
 
             while( !atEndOfLine()
-                && (uc = getChar( tokenizer )) != null ) {
-              if( tokenizer.getCatcode( uc ) != Catcode.LETTER ) {
-                ungetChar( uc );
+                && (c = getChar( tokenizer )) >= 0 ) {
+              if( tokenizer.getCatcode( c ) != Catcode.LETTER ) {
+                ungetChar( c );
                 return factory.createToken( Catcode.ESCAPE,
                                             uchar, sb.toString(), namespace );
               }
-              sb.append( (char) (uc.getCodePoint()) );
+              sb.append( (char) c );
             }
 
             return factory.createToken( Catcode.ESCAPE, uchar,
@@ -248,7 +254,7 @@ public class TokenStreamImpl extends TokenStreamBaseImpl
           }
           else {
             state = MID_LINE;
-            return factory.createToken( Catcode.ESCAPE, uc,
+            return factory.createToken( Catcode.ESCAPE, c,
                                         namespace );
 
           }
@@ -469,29 +475,29 @@ public class TokenStreamImpl extends TokenStreamBaseImpl
    * </p>
    *
    * @param tokenizer the classifier for characters
-   * @return the character or {@code null} if no more character is
-   * available
+   * @return the code point of the character or {@link #NO_CHAR NO_CHAR} if
+   * no more character is available
    * @throws ScannerException in the rare case that an IO Exception has
    *                          occurred.
    */
-  protected UnicodeChar getChar( Tokenizer tokenizer ) throws ScannerException {
+  protected int getChar( Tokenizer tokenizer ) throws ScannerException {
 
-    if( saveChar != null ) {
-      UnicodeChar uc = saveChar;
-      saveChar = null;
+    if( saveChar >= 0 ) {
+      int uc = saveChar;
+      saveChar = NO_CHAR;
       return uc;
     }
 
-    UnicodeChar uc = getRawChar();
+    int uc = getRawChar();
 
-    if( uc == null ) {
+    if( uc < 0 ) {
       do {
         if( !refill() ) {
-          return null;
+          return NO_CHAR;
         }
         uc = getRawChar();
 
-      } while( uc == null );
+      } while( uc < 0 );
 
       state = NEW_LINE;
     }
@@ -499,36 +505,36 @@ public class TokenStreamImpl extends TokenStreamBaseImpl
     if( tokenizer.getCatcode( uc ) == Catcode.SUPMARK ) {
 
       int savePointer = pointer;
-      UnicodeChar c = getRawChar();
+      int c = getRawChar();
 
-      if( uc.equals( c ) ) {
+      if( uc == c ) {
         c = getRawChar();
-        if( c == null ) {
-          return null; // ^^ at end is silently ignored
+        if( c < 0 ) {
+          return NO_CHAR; // ^^ at end is silently ignored
         }
-        int hexHigh = hex2int( c.getCodePoint() );
+        int hexHigh = hex2int( c );
         if( hexHigh >= 0 ) {
           savePointer = pointer;
           uc = getRawChar();
-          if( uc == null ) {
-            uc = UnicodeChar.get( hexHigh );
+          if( uc < 0 ) {
+            uc = hexHigh;
           }
           else {
-            int hexLow = hex2int( uc.getCodePoint() );
+            int hexLow = hex2int( uc );
             if( hexLow < 0 ) {
               pointer = savePointer;
-              uc = UnicodeChar.get( hexHigh );
+              uc = hexHigh;
             }
             else {
-              uc = UnicodeChar.get( (hexHigh << 4) + hexLow );
+              uc = (hexHigh << 4) + hexLow;
             }
           }
         }
         else {
-          hexHigh = c.getCodePoint();
-          uc = UnicodeChar.get( ((hexHigh < CARET_LIMIT)
+          hexHigh = c;
+          uc = ((hexHigh < CARET_LIMIT)
               ? hexHigh + CARET_LIMIT
-              : hexHigh - CARET_LIMIT) );
+              : hexHigh - CARET_LIMIT);
         }
       }
       else {
@@ -564,15 +570,16 @@ public class TokenStreamImpl extends TokenStreamBaseImpl
     Token t;
 
     do {
-      UnicodeChar uc = getChar( tokenizer );
-      if( uc == null ) {
+      int c = getChar( tokenizer );
+      if( c < 0 ) {
         return null;
       }
 
       try {
         t =
-            (Token) tokenizer.getCatcode( uc ).visit( visitor,
-                                                      factory, tokenizer, uc );
+            (Token) tokenizer.getCatcode( c ).visit( visitor,
+                                                     factory, tokenizer,
+                                                     UnicodeChar.get( c ) );
       } catch( Exception e ) {
         throw new ScannerException( e );
       }
@@ -584,18 +591,19 @@ public class TokenStreamImpl extends TokenStreamBaseImpl
   /**
    * Get the next character from the input line.
    *
-   * @return the next raw character or {@code null} if none is available.
+   * @return the code point of the next raw character or
+   * {@link #NO_CHAR NO_CHAR} if none is available.
    */
-  protected UnicodeChar getRawChar() {
+  protected int getRawChar() {
 
     if( line == null ) {
-      return null;
+      return NO_CHAR;
     }
 
     if( pointer < line.length() ) {
-      return UnicodeChar.get( line.charAt( pointer++ ) );
+      return line.charAt( pointer++ );
     }
-    return (pointer++ > line.length() ? null : CR);
+    return (pointer++ > line.length() ? NO_CHAR : CR);
   }
 
   /**
@@ -693,11 +701,11 @@ public class TokenStreamImpl extends TokenStreamBaseImpl
   /**
    * Save the look-ahead character.
    *
-   * @param uc the character to save
+   * @param c the code point of the character to save
    */
-  private void ungetChar( UnicodeChar uc ) {
+  private void ungetChar( int c ) {
 
-    saveChar = uc;
+    saveChar = c;
   }
 
 }
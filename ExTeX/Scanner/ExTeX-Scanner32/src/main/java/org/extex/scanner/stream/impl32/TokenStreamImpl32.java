@@ -44,7 +44,7 @@ import java.io.Reader;
  */
 public class TokenStreamImpl32 extends TokenStreamImpl {
 
-  private static final UnicodeChar CPOINT = UnicodeChar.get( ';' );
+  private static final int CPOINT = ';';
 
   private static final int HEX = 16;
 
@@ -75,24 +75,24 @@ public class TokenStreamImpl32 extends TokenStreamImpl {
    * org.extex.scanner.api.Tokenizer)
    */
   @Override
-  protected UnicodeChar getChar( Tokenizer tokenizer ) throws ScannerException {
+  protected int getChar( Tokenizer tokenizer ) throws ScannerException {
 
-    if( saveChar != null ) {
-      UnicodeChar uc = saveChar;
-      saveChar = null;
+    if( saveChar >= 0 ) {
+      int uc = saveChar;
+      saveChar = NO_CHAR;
       return uc;
     }
 
-    UnicodeChar uc = getRawChar();
+    int uc = getRawChar();
 
-    if( uc == null ) {
+    if( uc < 0 ) {
       do {
         if( !refill() ) {
-          return null;
+          return NO_CHAR;
         }
         uc = getRawChar();
 
-      } while( uc == null );
+      } while( uc < 0 );
 
       state = NEW_LINE;
     }
@@ -101,12 +101,12 @@ public class TokenStreamImpl32 extends TokenStreamImpl {
     if( tokenizer.getCatcode( uc ) == Catcode.SUPMARK ) {
 
       int savePointer = pointer;
-      UnicodeChar c = getRawChar();
+      int c = getRawChar();
 
-      if( uc.equals( c ) ) {
+      if( uc == c ) {
         c = getRawChar();
-        if( c == null ) {
-          return null;
+        if( c < 0 ) {
+          return NO_CHAR;
         }
         else if( tokenizer.getCatcode( c ) == Catcode.SUPMARK ) {
           c = getRawChar();
@@ -124,37 +124,34 @@ public class TokenStreamImpl32 extends TokenStreamImpl {
             if( ucn == null ) {
               throw new ScannerNoUnicodeNameException( unicodename );
             }
-            uc = ucn;
+            uc = ucn.getCodePoint();
           }
         }
         else {
           // '^^'
-          int hexHigh = hex2int( c.getCodePoint() );
+          int hexHigh = hex2int( c );
           if( hexHigh >= 0 ) {
             savePointer = pointer;
             uc = getRawChar();
-            if( uc == null ) {
-              uc = UnicodeChar.get( hexHigh );
+            if( uc < 0 ) {
+              uc = hexHigh;
             }
             else {
-              int hexLow = hex2int( uc.getCodePoint() );
+              int hexLow = hex2int( uc );
               if( hexLow < 0 ) {
                 pointer = savePointer;
-                uc = UnicodeChar.get( hexHigh );
+                uc = hexHigh;
               }
               else {
-                uc =
-                    UnicodeChar.get( (hexHigh << SHIFT4)
-                                         + hexLow );
+                uc = (hexHigh << SHIFT4) + hexLow;
               }
             }
           }
           else {
-            hexHigh = c.getCodePoint();
-            uc =
-                UnicodeChar.get( ((hexHigh < CARET_LIMIT)
-                    ? hexHigh + CARET_LIMIT
-                    : hexHigh - CARET_LIMIT) );
+            hexHigh = c;
+            uc = ((hexHigh < CARET_LIMIT)
+                ? hexHigh + CARET_LIMIT
+                : hexHigh - CARET_LIMIT);
           }
         }
       }
@@ -189,21 +186,21 @@ public class TokenStreamImpl32 extends TokenStreamImpl {
    *
    * @param n         number of digits
    * @param tokenizer the tokenizer
-   * @return UnicodeChar of a hex number
+   * @return the code point of a hex number
    * @throws ScannerException if no hex digit is found
    */
-  private UnicodeChar scanHex( int n, Tokenizer tokenizer )
+  private int scanHex( int n, Tokenizer tokenizer )
       throws ScannerException {
 
     StringBuilder buf = new StringBuilder();
-    UnicodeChar uc;
+    int uc;
     for( int i = 0; i < n; i++ ) {
       uc = getRawChar();
-      if( uc == null ) {
+      if( uc < 0 ) {
         break;
       }
 
-      char hex = hex2char( uc.getCodePoint() );
+      char hex = hex2char( uc );
 
       // hex digit ?
       if( hex > 0 ) {
@@ -216,7 +213,7 @@ public class TokenStreamImpl32 extends TokenStreamImpl {
     if( buf.length() == 0 ) {
       throw new ScannerNoHexDigitFoundException();
     }
-    return UnicodeChar.get( Integer.parseInt( buf.toString(), HEX ) );
+    return Integer.parseInt( buf.toString(), HEX );
   }
 
   /**
@@ -233,11 +230,11 @@ public class TokenStreamImpl32 extends TokenStreamImpl {
 
     StringBuilder buf = new StringBuilder();
     while( true ) {
-      UnicodeChar uc = getRawChar();
+      int uc = getRawChar();
 
       // parse until ';'
-      if( uc.getCodePoint() != CPOINT.getCodePoint() ) {
-        buf.append( uc.toString() );
+      if( uc != CPOINT ) {
+        buf.appendCodePoint( uc );
       }
       else {
         if( buf.length() == 0 ) {
@@ -63,4 +63,17 @@ public interface LanguageManager extends Serializable {
    */
   Language getLanguage( String index ) throws ConfigurationException;
 
+  /**
+   * Create a language manager for a forked context. Modifications of the
+   * languages in the fork must neither be seen by this manager nor by other
+   * forks. The default implementation returns the manager itself; it is only
+   * suitable for managers without modifiable languages.
+   *
+   * @return the language manager for the fork
+   */
+  default LanguageManager fork() {
+
+    return this;
+  }
+
 }
@@ -19,11 +19,15 @@
 
 package org.extex.typesetter;
 
+import org.extex.core.ParameterKey;
 import org.extex.core.UnicodeChar;
+import org.extex.core.count.Count;
 import org.extex.core.count.FixedCount;
+import org.extex.core.dimen.Dimen;
 import org.extex.core.dimen.FixedDimen;
 import org.extex.core.exception.GeneralException;
 import org.extex.core.glue.FixedGlue;
+import org.extex.core.glue.Glue;
 import org.extex.core.muskip.Muskip;
 import org.extex.scanner.type.token.TokenFactory;
 import org.extex.typesetter.paragraphBuilder.ParagraphShape;
@@ -47,6 +51,17 @@ public interface TypesetterOptions {
    */
   FixedCount getCountOption( String name );
 
+  /**
+   * Getter for a count parameter with a pre-resolved key.
+   *
+   * @param key the key of the parameter
+   * @return the content of the count register
+   */
+  default FixedCount getCountOption( ParameterKey<Count> key ) {
+
+    return getCountOption( key.getName() );
+  }
+
   /**
    * Getter for a dimen register.
    *
@@ -55,6 +70,17 @@ public interface TypesetterOptions {
    */
   FixedDimen getDimenOption( String name );
 
+  /**
+   * Getter for a dimen parameter with a pre-resolved key.
+   *
+   * @param key the key of the parameter
+   * @return the content of the dimen register
+   */
+  default FixedDimen getDimenOption( ParameterKey<Dimen> key ) {
+
+    return getDimenOption( key.getName() );
+  }
+
   /**
    * Getter for a current font register.
    *
@@ -71,6 +97,17 @@ public interface TypesetterOptions {
    */
   FixedGlue getGlueOption( String name );
 
+  /**
+   * Getter for a glue parameter with a pre-resolved key.
+   *
+   * @param key the key of the parameter
+   * @return the content of the glue register
+   */
+  default FixedGlue getGlueOption( ParameterKey<Glue> key ) {
+
+    return getGlueOption( key.getName() );
+  }
+
   /**
    * Getter for a muskip register.
    *
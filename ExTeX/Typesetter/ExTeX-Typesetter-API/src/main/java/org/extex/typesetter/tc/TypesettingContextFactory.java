@@ -62,6 +62,21 @@ public class TypesettingContextFactory extends AbstractFactory<Object> {
 
   }
 
+  /**
+   * Creates a new object which instantiates the same class as another
+   * factory. This is used for a forked context which has its own language
+   * manager.
+   *
+   * @param base    the factory to take the class from
+   * @param manager the language manager
+   */
+  public TypesettingContextFactory( TypesettingContextFactory base,
+                                    LanguageManager manager ) {
+
+    theClass = base.theClass;
+    languageManager = manager;
+  }
+
   /**
    * Configure the factory according to a given Configuration. The
    * configuration must have the attribute {@code class} which names a fully
@@ -24,6 +24,7 @@ import org.extex.core.count.Count;
 import org.extex.core.count.FixedCount;
 import org.extex.core.dimen.Dimen;
 import org.extex.core.dimen.FixedDimen;
+import org.extex.core.exception.ImpossibleException;
 import org.extex.core.glue.FixedGlue;
 import org.extex.core.glue.Glue;
 import org.extex.font.FontKey;
@@ -40,7 +41,7 @@ import java.util.Map;
  * @author <a href="mailto:gene@gerd-neugebauer.de">Gerd Neugebauer</a>
  * @author <a href="mailto:m.g.n@gmx.de">Michael Niedermair</a>
  */
-public class NullFont implements Font, Serializable {
+public class NullFont implements Font, Cloneable, Serializable {
 
   /**
    * The field {@code DEFAULT_EF_CODE} contains the default value for the
@@ -79,6 +80,35 @@ public class NullFont implements Font, Serializable {
 
   }
 
+  /**
+   * Create a copy of this font which can be modified without affecting the
+   * original. The font dimens and ef codes are copied; the underlying font
+   * data is shared.
+   *
+   * @return the copy
+   */
+  public NullFont copy() {
+
+    NullFont copy;
+    try {
+      copy = (NullFont) clone();
+    } catch( CloneNotSupportedException e ) {
+      throw new ImpossibleException( e );
+    }
+    if( efCode != null ) {
+      copy.efCode = new HashMap<UnicodeChar, Long>( efCode );
+    }
+    if( fontDimens != null ) {
+      copy.fontDimens = new HashMap<String, Dimen>();
+      for( Map.Entry<String, Dimen> e : fontDimens.entrySet() ) {
+        Dimen value = e.getValue();
+        copy.fontDimens.put( e.getKey(),
+                             value == null ? null : new Dimen( value ) );
+      }
+    }
+    return copy;
+  }
+
   /**
    * Returns the actual FontKey for this font.
    * The font key may differ from the one requested.
@@ -81,6 +81,15 @@ public interface NodeList extends Node, Iterable<Node>, Cloneable {
    */
   NodeList copy();
 
+  /**
+   * Clone the current object together with the nodes contained. Node lists
+   * contained are copied recursively. Thus the copy can be modified without
+   * affecting the original.
+   *
+   * @return the copy
+   */
+  NodeList deepCopy();
+
   /**
    * Getter for a node at a given position.
    *
@@ -37,7 +37,7 @@ import org.extex.typesetter.type.Node;
  *
  * @author <a href="mailto:gene@gerd-neugebauer.de">Gerd Neugebauer</a>
  */
-public abstract class AbstractNode implements Node {
+public abstract class AbstractNode implements Node, Cloneable {
 
   /**
    * The field {@code serialVersionUID} contains the version number for
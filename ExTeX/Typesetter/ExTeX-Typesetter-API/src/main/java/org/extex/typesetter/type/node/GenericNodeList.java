@@ -188,6 +188,33 @@ public class GenericNodeList extends AbstractNode implements NodeList {
     }
   }
 
+  /**
+   * Clone the current object together with the nodes contained.
+   *
+   * @return the copy
+   * @see org.extex.typesetter.type.NodeList#deepCopy()
+   */
+  @Override
+  public NodeList deepCopy() {
+
+    try {
+      GenericNodeList clone = (GenericNodeList) this.clone();
+      clone.list = new ArrayList<>( list.size() );
+      for( Node node : list ) {
+        if( node instanceof NodeList ) {
+          node = ((NodeList) node).deepCopy();
+        }
+        else if( node instanceof AbstractNode ) {
+          node = (Node) ((AbstractNode) node).clone();
+        }
+        clone.list.add( node );
+      }
+      return clone;
+    } catch( CloneNotSupportedException e ) {
+      throw new ImpossibleException( e );
+    }
+  }
+
   /**
    * This method determines the number of characters contained in a node.
    *
@@ -236,6 +236,19 @@ public class VirtualCharNode extends CharNode implements NodeList {
     }
   }
 
+  /**
+   * Clone the current object. The nodes making up the virtual character are
+   * shared with the copy since they are held in a final field.
+   *
+   * @return the copy
+   * @see org.extex.typesetter.type.NodeList#deepCopy()
+   */
+  @Override
+  public NodeList deepCopy() {
+
+    return copy();
+  }
+
   /**
    * This method determines the number of characters contained in a node.
    *
@@ -860,7 +860,7 @@ public class MathListMaker extends HorizontalListMaker
       man.push( lm );
       if( t.isa( Catcode.LEFTBRACE ) ) {
         lm.leftBrace();
-        context.openGroup( groupType, source.getLocator(), t );
+        context.openGroup( groupType, source, t );
         source.executeGroup();
       }
       else {
@@ -20,8 +20,11 @@
 package org.extex.typesetter.tex.pageBuilder.impl;
 
 import org.extex.backend.BackendDriver;
+import org.extex.core.ParameterKey;
 import org.extex.core.dimen.FixedDimen;
 import org.extex.core.exception.GeneralException;
+import org.extex.core.jfr.FlightRecorder;
+import org.extex.core.jfr.PageBuildEvent;
 import org.extex.interpreter.context.Context;
 import org.extex.typesetter.PageContext;
 import org.extex.typesetter.Typesetter;
@@ -118,9 +121,21 @@ public class PageBuilderImpl implements PageBuilder {
       throws TypesetterException {
 
     FixedDimen d = nodes.getVerticalSize();
-    if( d.ge( options.getDimenOption( "vsize" ) ) ) {
-
-      flush( nodes, typesetter );
+    if( d.ge( options.getDimenOption( ParameterKey.VSIZE ) ) ) {
+
+      if( FlightRecorder.isAvailable() ) {
+        PageBuildEvent event = new PageBuildEvent();
+        event.begin();
+        int size = nodes.size();
+        flush( nodes, typesetter );
+        event.end();
+        if( event.shouldCommit() ) {
+          event.setNodes( size );
+          event.commit();
+        }
+      } else {
+        flush( nodes, typesetter );
+      }
       nodes.clear(); // TODO gene: split off the appropriate amount and
       // leave the rest
     }
@@ -20,6 +20,7 @@
 package org.extex.typesetter.tex.paragraph;
 
 import org.extex.core.Locator;
+import org.extex.core.ParameterKey;
 import org.extex.core.UnicodeChar;
 import org.extex.core.count.Count;
 import org.extex.core.dimen.Dimen;
@@ -27,6 +28,8 @@ import org.extex.core.dimen.FixedDimen;
 import org.extex.core.exception.GeneralException;
 import org.extex.core.exception.helping.HelpingException;
 import org.extex.core.glue.*;
+import org.extex.core.jfr.FlightRecorder;
+import org.extex.core.jfr.ParagraphBuildEvent;
 import org.extex.framework.i18n.Localizer;
 import org.extex.framework.i18n.LocalizerFactory;
 import org.extex.framework.logger.LogEnabled;
@@ -1369,18 +1372,16 @@ public class TeXParagraphBuilder implements ParagraphBuilder, LogEnabled {
     private int badnessForShrinking() {
 
         // begin if -shortfall > cur_active_width[6] then
-        GlueComponent minusShortfall = new GlueComponent( shortfall );
-        minusShortfall.negate();
+        long minusShortfall = -shortfall.getValue();
+        long shrink = curActiveWidth.getShrinkValue();
         int badness;
-        if( minusShortfall.gt( curActiveWidth.getShrink() ) ) {
+        if( curActiveWidth.getShrinkOrder() == 0 && minusShortfall > shrink ) {
             // b <-- inf_bad+1
             badness = Badness.INF_BAD + 1;
             // else b <-- badness(-shortfall,cur_active_width[6]);
         }
         else {
-            badness =
-                Badness.badness( minusShortfall.getValue(), curActiveWidth
-                    .getShrink().getValue() );
+            badness = Badness.badness( minusShortfall, shrink );
         }
         // if b > 12 then
         // fit_class <-- tight_fit else fit_class <-- decent_fit;
@@ -1418,10 +1419,10 @@ public class TeXParagraphBuilder implements ParagraphBuilder, LogEnabled {
 
         // if (cur_active_width[3] != 0) || (cur_active_width[4] != 0) || (
         // cur_active_width[5] != 0) then
-        FixedGlueComponent stretch = curActiveWidth.getStretch();
+        long stretch = curActiveWidth.getStretchValue();
         // begin b <-- 0;
         int badness;
-        if( stretch.getOrder() > 0 ) {
+        if( curActiveWidth.getStretchOrder() > 0 ) {
             // fit_class <-- decent_fit; {infinite stretch}
             fitClass = Fitness.DECENT;
             // end
@@ -1429,7 +1430,7 @@ public class TeXParagraphBuilder implements ParagraphBuilder, LogEnabled {
         else if( shortfall.gt( D_7230584 ) ) {
             // else begin if shortfall > 7230584 then
             // if cur_active_width[2] < 1663497 then
-            if( stretch.getValue() < 1663497 ) {
+            if( stretch < 1663497 ) {
                 // begin b <-- inf_bad;
                 badness = Badness.INF_BAD;
                 // fit_class <-- very_loose_fit;
@@ -1440,7 +1441,7 @@ public class TeXParagraphBuilder implements ParagraphBuilder, LogEnabled {
             }
         }
         // b <-- badness(shortfall,cur_active_width[2]);
-        badness = Badness.badness( shortfall.getValue(), stretch.getValue() );
+        badness = Badness.badness( shortfall.getValue(), stretch );
         // if b > 12 then
         // if b > 99 then
         // fit_class <-- very_loose_fit
@@ -1466,32 +1467,50 @@ public class TeXParagraphBuilder implements ParagraphBuilder, LogEnabled {
         if( nodes.size() == 0 ) {
             return new VerticalListNode();
         }
-        adjDemerits = options.getCountOption( "adjdemerits" ).getValue();
-        clubPenalty = options.getCountOption( "clubpenalty" ).getValue();
-        brokenPenalty = options.getCountOption( "brokenpenalty" ).getValue();
+        ParagraphBuildEvent event = FlightRecorder.isAvailable()
+            ? new ParagraphBuildEvent()
+            : null;
+        if( event != null ) {
+            event.begin();
+        }
+        int size = nodes.size();
+        adjDemerits =
+            options.getCountOption( ParameterKey.ADJDEMERITS ).getValue();
+        clubPenalty =
+            options.getCountOption( ParameterKey.CLUBPENALTY ).getValue();
+        brokenPenalty =
+            options.getCountOption( ParameterKey.BROKENPENALTY ).getValue();
         doubleHyphenDemerits =
-            options.getCountOption( "doublehyphendemerits" ).getValue();
-        emergencyStretch = options.getDimenOption( "emergencystretch" );
-        exHyphenPenalty = options.getCountOption( "exhyphenpenalty" )
+            options.getCountOption( ParameterKey.DOUBLEHYPHENDEMERITS )
+                   .getValue();
+        emergencyStretch =
+            options.getDimenOption( ParameterKey.EMERGENCYSTRETCH );
+        exHyphenPenalty = options.getCountOption( ParameterKey.EXHYPHENPENALTY )
                                  .getValue();
         finalHyphenDemerits =
-            options.getCountOption( "finalhyphendemerits" ).getValue();
+            options.getCountOption( ParameterKey.FINALHYPHENDEMERITS )
+                   .getValue();
         finalWidowPenalty =
-            options.getCountOption( "finalwidowpenalty" ).getValue();
-        hyphenPenalty = options.getCountOption( "hyphenpenalty" ).getValue();
+            options.getCountOption( ParameterKey.FINALWIDOWPENALTY ).getValue();
+        hyphenPenalty =
+            options.getCountOption( ParameterKey.HYPHENPENALTY ).getValue();
         interLinePenalty =
-            options.getCountOption( "interlinepenalty" ).getValue();
-        leftSkip = options.getGlueOption( "leftskip" );
-        linePenalty = options.getCountOption( "linepenalty" ).getValue();
-        looseness = options.getCountOption( "looseness" ).getValue();
-        parfillSkip = options.getGlueOption( "parfillskip" );
-        preTolerance = options.getCountOption( "pretolerance" ).getValue();
+            options.getCountOption( ParameterKey.INTERLINEPENALTY ).getValue();
+        leftSkip = options.getGlueOption( ParameterKey.LEFTSKIP );
+        linePenalty =
+            options.getCountOption( ParameterKey.LINEPENALTY ).getValue();
+        looseness = options.getCountOption( ParameterKey.LOOSENESS ).getValue();
+        parfillSkip = options.getGlueOption( ParameterKey.PARFILLSKIP );
+        preTolerance =
+            options.getCountOption( ParameterKey.PRETOLERANCE ).getValue();
         prevGraf = (int) options.getCountOption( "prevgraf" ).getValue();
-        rightSkip = options.getGlueOption( "rightskip" );
-        tolerance = options.getCountOption( "tolerance" ).getValue();
+        rightSkip = options.getGlueOption( ParameterKey.RIGHTSKIP );
+        tolerance = options.getCountOption( ParameterKey.TOLERANCE ).getValue();
         tracingParagraphs =
-            options.getCountOption( "tracingparagraphs" ).gt( Count.ZERO );
+            options.getCountOption( ParameterKey.TRACINGPARAGRAPHS )
+                   .gt( Count.ZERO );
         prepareParshape();
+        int graf = prevGraf;
 
         NodeList result;
         Locator modeLine = null;
@@ -1535,6 +1554,14 @@ public class TeXParagraphBuilder implements ParagraphBuilder, LogEnabled {
 
         options.setParshape( null );
 
+        if( event != null ) {
+            event.end();
+            if( event.shouldCommit() ) {
+                event.setNodes( size );
+                event.setLines( prevGraf - graf );
+                event.commit();
+            }
+        }
         return result;
     }
 
@@ -3196,18 +3223,20 @@ public class TeXParagraphBuilder implements ParagraphBuilder, LogEnabled {
 
         if( parshape == null ) {
             int hangafter =
-                (int) options.getCountOption( "hangafter" ).getValue();
+                (int) options.getCountOption( ParameterKey.HANGAFTER ).getValue();
 
             if( hangafter != 0 ) {
                 hangingParshape.setHangafter( hangafter );
                 hangingParshape.setHangindent( options
                                                    .getDimenOption(
                                                        "hangindent" ) );
-                hangingParshape.setHsize( options.getDimenOption( "hsize" ) );
+                hangingParshape.setHsize(
+                    options.getDimenOption( ParameterKey.HSIZE ) );
                 parshape = hangingParshape;
             }
             else {
-                fixedParshape.setHsize( options.getDimenOption( "hsize" ) );
+                fixedParshape.setHsize(
+                    options.getDimenOption( ParameterKey.HSIZE ) );
                 parshape = fixedParshape;
             }
         }
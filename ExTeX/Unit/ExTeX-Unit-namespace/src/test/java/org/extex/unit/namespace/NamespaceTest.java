@@ -116,5 +116,22 @@ public class NamespaceTest extends NoFlagsButGlobalPrimitiveTester {
                   ":TeX:" + TERM );
   }
 
+  /**
+   * <testcase primitive="\namespace"> Test case checking that a local
+   * definition in a name space is undone when the group is closed.
+   *
+   * @throws Exception in case of an error
+   */
+  @Test
+  public void test30() throws Exception {
+
+    assertSuccess(// --- input code ---
+                  DEFINE_CATCODES + "\\namespace{TeX}" + "\\def\\x{a}"
+                      + "\\begingroup\\def\\x{b}.\\x.\\endgroup"
+                      + ".\\x." + "\\end ",
+                  // --- output channel ---
+                  ".b..a." + TERM );
+  }
+
   // TODO implement the primitive specific test cases
 }
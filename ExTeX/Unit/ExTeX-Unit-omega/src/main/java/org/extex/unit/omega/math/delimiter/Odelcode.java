@@ -19,6 +19,7 @@
 
 package org.extex.unit.omega.math.delimiter;
 
+import org.extex.core.ParameterKey;
 import org.extex.core.UnicodeChar;
 import org.extex.core.exception.helping.ArithmeticOverflowException;
 import org.extex.core.exception.helping.HelpingException;
@@ -196,7 +197,7 @@ public class Odelcode extends AbstractAssignment
                        UnicodeChar charCode, long value )
       throws HelpingException {
 
-    long globaldef = context.getCount( "globaldefs" ).getValue();
+    long globaldef = context.getCount( ParameterKey.GLOBALDEFS ).getValue();
     if( globaldef != 0 ) {
       prefix.setGlobal( (globaldef > 0) );
     }
@@ -27,7 +27,6 @@ import org.extex.interpreter.TokenSource;
 import org.extex.interpreter.context.Context;
 import org.extex.interpreter.type.Code;
 import org.extex.scanner.type.token.CodeToken;
-import org.extex.scanner.type.token.Token;
 import org.extex.typesetter.Typesetter;
 import org.extex.typesetter.exception.TypesetterException;
 import org.extex.unit.base.conditional.AbstractIf;
@@ -184,13 +183,10 @@ public class Ifcase extends AbstractIf {
     int n = 0;
     Locator locator = source.getLocator();
 
-    for( Token t = source.getToken( context ); t != null; t =
-        source.getToken( context ) ) {
+    for( CodeToken t = source.skipToCodeToken( context ); t != null; t =
+        source.skipToCodeToken( context ) ) {
       locator = source.getLocator();
-      Code code =
-          (t instanceof CodeToken
-              ? context.getCode( (CodeToken) t )
-              : null);
+      Code code = context.getCode( t );
       if( code == null ) {
         // continue
       }
@@ -115,8 +115,8 @@ public class Input extends AbstractFileCode implements ExpandableCode {
 
     String name = scanFileName( context, source );
     TokenStream stream =
-        source.getTokenStreamFactory().getStream( name, FILE_TYPE,
-                                                  getEncoding( context ) );
+        source.getTokenStreamFactory().getCachedStream( name, FILE_TYPE,
+                                                        getEncoding( context ) );
     if( stream == null ) {
       throw new HelpingException( getLocalizer(), "TTP.FileNotFound", name );
     }
@@ -135,8 +135,8 @@ public class Input extends AbstractFileCode implements ExpandableCode {
 
     String name = scanFileName( context, source );
     TokenStream stream =
-        source.getTokenStreamFactory().getStream( name, FILE_TYPE,
-                                                  getEncoding( context ) );
+        source.getTokenStreamFactory().getCachedStream( name, FILE_TYPE,
+                                                        getEncoding( context ) );
     if( stream == null ) {
       throw new HelpingException( getLocalizer(), "TTP.FileNotFound", name );
     }
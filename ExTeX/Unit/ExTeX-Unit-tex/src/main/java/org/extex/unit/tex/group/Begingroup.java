@@ -89,7 +89,7 @@ public class Begingroup extends AbstractCode {
                        Typesetter typesetter )
       throws HelpingException, TypesetterException {
 
-    context.openGroup( GroupType.SEMI_SIMPLE_GROUP, source.getLocator(),
+    context.openGroup( GroupType.SEMI_SIMPLE_GROUP, source,
                        source.getLastToken() );
   }
 
@@ -19,6 +19,7 @@
 
 package org.extex.unit.tex.hyphen;
 
+import org.extex.core.ParameterKey;
 import org.extex.core.exception.helping.ArithmeticOverflowException;
 import org.extex.core.exception.helping.HelpingException;
 import org.extex.core.exception.helping.NoHelpException;
@@ -109,7 +110,7 @@ public class RightHyphenmin extends AbstractHyphenationCode
                        Typesetter typesetter )
       throws HelpingException, TypesetterException {
 
-    long globaldef = context.getCount( "globaldefs" ).getValue();
+    long globaldef = context.getCount( ParameterKey.GLOBALDEFS ).getValue();
     if( globaldef > 0 ) {
       prefix.setGlobal( true );
     }
@@ -181,7 +182,7 @@ public class RightHyphenmin extends AbstractHyphenationCode
                       Typesetter typesetter )
       throws HelpingException, TypesetterException {
 
-    long globaldef = context.getCount( "globaldefs" ).getValue();
+    long globaldef = context.getCount( ParameterKey.GLOBALDEFS ).getValue();
     if( globaldef > 0 ) {
       prefix.setGlobal( true );
     }
@@ -227,7 +228,7 @@ public class RightHyphenmin extends AbstractHyphenationCode
                        Typesetter typesetter )
       throws HelpingException, TypesetterException {
 
-    long globaldef = context.getCount( "globaldefs" ).getValue();
+    long globaldef = context.getCount( ParameterKey.GLOBALDEFS ).getValue();
     if( globaldef > 0 ) {
       prefix.setGlobal( true );
     }
@@ -263,7 +264,7 @@ public class RightHyphenmin extends AbstractHyphenationCode
                         Typesetter typesetter )
       throws HelpingException, TypesetterException {
 
-    long globaldef = context.getCount( "globaldefs" ).getValue();
+    long globaldef = context.getCount( ParameterKey.GLOBALDEFS ).getValue();
     if( globaldef > 0 ) {
       prefix.setGlobal( true );
     }
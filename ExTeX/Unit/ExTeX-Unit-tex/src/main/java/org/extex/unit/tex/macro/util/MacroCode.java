@@ -20,6 +20,7 @@
 package org.extex.unit.tex.macro.util;
 
 import org.extex.core.Locator;
+import org.extex.core.ParameterKey;
 import org.extex.core.count.Count;
 import org.extex.core.exception.GeneralException;
 import org.extex.core.exception.ImpossibleException;
@@ -31,6 +32,9 @@ import org.extex.framework.logger.LogEnabled;
 import org.extex.interpreter.Flags;
 import org.extex.interpreter.TokenSource;
 import org.extex.interpreter.context.Context;
+import org.extex.interpreter.loader.CodeInput;
+import org.extex.interpreter.loader.CodeOutput;
+import org.extex.interpreter.loader.LazyLoadable;
 import org.extex.interpreter.type.*;
 import org.extex.scanner.api.TokenStream;
 import org.extex.scanner.api.Tokenizer;
@@ -45,6 +49,9 @@ import org.extex.typesetter.exception.TypesetterException;
 import org.extex.unit.base.macro.LetCode;
 import org.extex.unit.tex.macro.exceptions.EofInDefException;
 
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.logging.Logger;
 
 /**
@@ -64,17 +71,156 @@ public class MacroCode extends AbstractCode
     ExpandableCode,
     ComparableCode,
     Showable,
-    LogEnabled {
+    LogEnabled,
+    LazyLoadable {
 
   /**
-   * This inner class provides the tokens of a macro as a token stream.
+   * This inner class provides the tokens of a macro as a token stream. The
+   * stream is made up of segments of the body of the macro and the arguments
+   * according to a template. The tokens are taken from those lists by
+   * reference; they are not copied.
+   * <p>
+   * The locator of the invocation is determined on demand only. Up to then
+   * the resource name, the line number, the text of the line, and the
+   * position in the line of the stream the macro has been invoked from are
+   * kept. The stream itself is
+   * not referenced.
+   * </p>
    */
   private static class MacroTokenStream implements TokenStream {
 
     /**
-     * The field {@code locator} contains the locator.
+     * This class describes the place a macro has been invoked from. The
+     * locator is created when it is requested for the first time.
      */
-    private final Locator locator;
+    private static final class Invocation {
+
+      /**
+       * The field {@code cause} contains the invocation of the enclosing
+       * macro or {@code null}.
+       */
+      private Invocation cause;
+
+      /**
+       * The field {@code line} contains the line number.
+       */
+      private final int line;
+
+      /**
+       * The field {@code locator} contains the locator or {@code null} if it
+       * has not been created yet.
+       */
+      private Locator locator;
+
+      /**
+       * The field {@code pointer} contains the position in the line.
+       */
+      private final int pointer;
+
+      /**
+       * The field {@code text} contains the text of the line or
+       * {@code null}.
+       */
+      private final String text;
+
+      /**
+       * The field {@code resource} contains the name of the resource.
+       */
+      private final String resource;
+
+      /**
+       * Creates a new object.
+       *
+       * @param resource the name of the resource
+       * @param line     the line number
+       * @param text     the text of the line or {@code null}
+       * @param pointer  the position in the line
+       * @param cause    the invocation of the enclosing macro or
+       *                 {@code null}
+       */
+      Invocation( String resource, int line, String text, int pointer,
+                  Invocation cause ) {
+
+        this.resource = resource;
+        this.line = line;
+        this.text = text;
+        this.pointer = pointer;
+        this.cause = cause;
+      }
+
+      /**
+       * Creates a new object for a known locator.
+       *
+       * @param locator the locator
+       */
+      Invocation( Locator locator ) {
+
+        this( null, -1, null, -1, null );
+        this.locator = locator;
+      }
+
+      /**
+       * Getter for the locator. Nested invocations are resolved in a loop to
+       * avoid a deep recursion.
+       *
+       * @return the locator
+       */
+      Locator getLocator() {
+
+        ArrayList<Invocation> chain = new ArrayList<>();
+        for( Invocation i = this; i != null && i.locator == null;
+             i = i.cause ) {
+          chain.add( i );
+        }
+        for( int i = chain.size() - 1; i >= 0; i-- ) {
+          Invocation inv = chain.get( i );
+          inv.locator = new Locator( inv.resource, inv.line, inv.text,
+                                     inv.pointer );
+          if( inv.cause != null ) {
+            inv.locator.setCause( inv.cause.locator );
+          }
+          inv.cause = null;
+        }
+        return locator;
+      }
+    }
+
+    /**
+     * The field {@code args} contains the arguments of the invocation.
+     */
+    private final Tokens[] args;
+
+    /**
+     * The field {@code back} contains the tokens pushed back. The last one
+     * is delivered first.
+     */
+    private Token[] back = null;
+
+    /**
+     * The field {@code backSize} contains the number of tokens pushed back.
+     */
+    private int backSize = 0;
+
+    /**
+     * The field {@code body} contains the tokens of the literal segments.
+     */
+    private final Tokens body;
+
+    /**
+     * The field {@code current} contains the list of the current segment.
+     */
+    private Tokens current = null;
+
+    /**
+     * The field {@code end} contains the end index of the current segment.
+     */
+    private int end = 0;
+
+    /**
+     * The field {@code invocation} contains the place the macro has been
+     * invoked from or {@code null} if it is not known.
+     */
+    private final Invocation invocation;
 
     /**
      * The field {@code name} contains the name of the primitive.
@@ -82,22 +228,103 @@ public class MacroCode extends AbstractCode
     private final String name;
 
     /**
-     * The field {@code tokens} contains the tokens.
+     * The field {@code pos} contains the index of the next token in the
+     * current segment.
      */
-    private final Tokens tokens;
+    private int pos = 0;
+
+    /**
+     * The field {@code segment} contains the index of the current segment.
+     */
+    private int segment = -1;
+
+    /**
+     * The field {@code subst} contains the replacements for tokens of the
+     * body indexed by their position or {@code null} for none.
+     */
+    private final Token[] subst;
+
+    /**
+     * The field {@code template} contains the segments.
+     */
+    private final Template template;
 
     /**
      * Creates a new object.
      *
+     * @param body     the tokens of the literal segments
+     * @param subst    the replacements for tokens of the body or
+     *                 {@code null}
+     * @param args     the arguments
+     * @param template the segments
+     * @param source   the source the macro is invoked from
+     * @param name     the name of the primitive
+     */
+    public MacroTokenStream( Tokens body, Token[] subst, Tokens[] args,
+                             Template template, TokenSource source,
+                             String name ) {
+
+      this.body = body;
+      this.subst = subst;
+      this.args = args;
+      this.template = template;
+      TokenStream parent = source.getTokenStream();
+      if( parent instanceof MacroTokenStream ) {
+        MacroTokenStream m = (MacroTokenStream) parent;
+        this.invocation = new Invocation( m.name, -1, null, -1,
+                                          m.invocation );
+      }
+      else if( parent != null ) {
+        this.invocation = new Invocation( parent.getResourceName(),
+                                          parent.getLineNumber(),
+                                          parent.getLine(),
+                                          parent.getLinePointer(), null );
+      }
+      else {
+        Locator locator = source.getLocator();
+        this.invocation = locator == null ? null : new Invocation( locator );
+      }
+      this.name = name;
+    }
+
+    /**
+     * Creates a new object for a list of tokens.
+     *
      * @param tokens  the tokens
-     * @param locator the locator of the invocation
+     * @param source  the source the macro is invoked from
      * @param name    the name of the primitive
      */
-    public MacroTokenStream( Tokens tokens, Locator locator, String name ) {
+    public MacroTokenStream( Tokens tokens, TokenSource source, String name ) {
 
-      this.tokens = tokens;
-      this.locator = locator;
-      this.name = name;
+      this( tokens, null, NO_TOKENS,
+            new Template( new int[]{0}, new int[]{tokens.length()},
+                          NO_CODES ), source, name );
+    }
+
+    /**
+     * Move to the next non-empty segment if the current one is exhausted.
+     *
+     * @return {@code true} if a token is available in the current segment
+     */
+    private boolean advance() {
+
+      while( pos >= end ) {
+        if( ++segment >= template.starts.length ) {
+          return false;
+        }
+        int start = template.starts[ segment ];
+        if( start < 0 ) {
+          current = args[ -start - 1 ];
+          pos = 0;
+          end = current.length();
+        }
+        else {
+          current = body;
+          pos = start;
+          end = template.ends[ segment ];
+        }
+      }
+      return true;
     }
 
     /**
@@ -129,7 +356,28 @@ public class MacroCode extends AbstractCode
     public Token get( TokenFactory factory, Tokenizer tokenizer )
         throws ScannerException {
 
-      return tokens.pop();
+      if( backSize > 0 ) {
+        return back[ --backSize ];
+      }
+      if( !advance() ) {
+        return null;
+      }
+      Token t = current.get( pos );
+      if( subst != null && current == body && subst[ pos ] != null ) {
+        t = subst[ pos ];
+      }
+      pos++;
+      return t;
+    }
+
+    /**
+     * Getter for the locator of the invocation.
+     *
+     * @return the locator of the invocation or {@code null}
+     */
+    private Locator getInvocation() {
+
+      return invocation == null ? null : invocation.getLocator();
     }
 
     /**
@@ -144,10 +392,59 @@ public class MacroCode extends AbstractCode
     public Locator getLocator() {
 
       Locator loc = new Locator( name, -1, null, -1 );
-      loc.setCause( locator );
+      loc.setCause( getInvocation() );
       return loc;
     }
 
+    /**
+     * Getter for the text of the current line. A macro has no lines.
+     *
+     * @return {@code null}
+     * @see org.extex.scanner.api.TokenStream#getLine()
+     */
+    @Override
+    public String getLine() {
+
+      return null;
+    }
+
+    /**
+     * Getter for the line number of the current position. A macro has no
+     * lines.
+     *
+     * @return -1
+     * @see org.extex.scanner.api.TokenStream#getLineNumber()
+     */
+    @Override
+    public int getLineNumber() {
+
+      return -1;
+    }
+
+    /**
+     * Getter for the position in the current line. A macro has no lines.
+     *
+     * @return -1
+     * @see org.extex.scanner.api.TokenStream#getLinePointer()
+     */
+    @Override
+    public int getLinePointer() {
+
+      return -1;
+    }
+
+    /**
+     * Getter for the name of the resource the tokens are read from.
+     *
+     * @return the name of the primitive
+     * @see org.extex.scanner.api.TokenStream#getResourceName()
+     */
+    @Override
+    public String getResourceName() {
+
+      return name;
+    }
+
     /**
      * Check to see if a further token can be acquired from the token
      * stream.
@@ -162,7 +459,7 @@ public class MacroCode extends AbstractCode
     @Override
     public boolean isEof() throws ScannerException {
 
-      return tokens.length() == 0;
+      return backSize == 0 && !advance();
     }
 
     /**
@@ -209,21 +506,200 @@ public class MacroCode extends AbstractCode
     @Override
     public void put( Token token ) {
 
-      tokens.push( token );
+      if( token == null ) {
+        return;
+      }
+      if( back == null ) {
+        back = new Token[ 8 ];
+      }
+      else if( backSize >= back.length ) {
+        Token[] b = new Token[ back.length * 2 ];
+        System.arraycopy( back, 0, b, 0, backSize );
+        back = b;
+      }
+      back[ backSize++ ] = token;
+    }
+
+    /**
+     * Append the decimal digits to a number. The digits are taken from the
+     * segments in place; the first token which is not a digit is not
+     * consumed. Thus no push-back is needed for it.
+     *
+     * @param factory   the token factory
+     * @param tokenizer the tokenizer
+     * @param n         the value accumulated so far
+     * @return the value with the digits appended
+     * @see org.extex.scanner.api.TokenStream#scanDigits(org.extex.scanner.type.token.TokenFactory,
+     * org.extex.scanner.api.Tokenizer, long)
+     */
+    @Override
+    public long scanDigits( TokenFactory factory, Tokenizer tokenizer,
+                            long n ) {
+
+      long value = n;
+      while( backSize > 0 && OtherToken.isDigit( back[ backSize - 1 ] ) ) {
+        value = value * 10 + back[ --backSize ].getChar().getCodePoint() - '0';
+      }
+      if( backSize > 0 ) {
+        return value;
+      }
+      while( advance() ) {
+        Token t = current.get( pos );
+        if( subst != null && current == body && subst[ pos ] != null ) {
+          t = subst[ pos ];
+        }
+        if( !OtherToken.isDigit( t ) ) {
+          break;
+        }
+        pos++;
+        value = value * 10 + t.getChar().getCodePoint() - '0';
+      }
+      return value;
     }
 
     @Override
     public String toString() {
 
-      return name + " -> " + locator.toString();
+      return name + " -> " + getInvocation();
+    }
+  }
+
+  /**
+   * This inner class reads the record of a macro from a format. The record
+   * consists of the token, the flags, the pattern if present, and the body.
+   *
+   * @see MacroCode#encode(CodeOutput)
+   */
+  private static final class MacroDecoder implements LazyLoadable.Decoder {
+
+    /**
+     * The constant {@code serialVersionUID} contains the id for
+     * serialization.
+     */
+    private static final long serialVersionUID = 2011L;
+
+    @Override
+    public Code decode( CodeInput in ) throws IOException {
+
+      CodeToken token = (CodeToken) in.readToken();
+      int flags = in.readByte();
+      MacroPattern pattern = (flags & PATTERN) != 0
+          ? MacroPattern.decode( in )
+          : null;
+      Tokens body = in.readTokens( new Tokens() );
+      boolean notLong = (flags & NOT_LONG) != 0;
+      boolean outer = (flags & OUTER) != 0;
+      if( (flags & PROTECTED) != 0 ) {
+        return new ProtectedMacroCode( token, outer, notLong, pattern, body );
+      }
+      return new MacroCode( token, outer, notLong, pattern, body );
+    }
+
+    /**
+     * Return the shared instance when deserialized.
+     *
+     * @return the decoder
+     */
+    private Object readResolve() {
+
+      return DECODER;
     }
   }
 
+  /**
+   * This inner class contains the compiled form of the body of a macro. The
+   * body is split into segments. A segment is either a range of the body or
+   * an argument.
+   */
+  private static final class Template {
+
+    /**
+     * The field {@code codes} contains the positions of the code tokens in
+     * the body. They have to be checked for {@code \let} on each expansion.
+     */
+    private final int[] codes;
+
+    /**
+     * The field {@code ends} contains the end indices of the segments
+     * (exclusive).
+     */
+    private final int[] ends;
+
+    /**
+     * The field {@code starts} contains the start indices of the segments.
+     * A negative value {@code -n-1} denotes the argument {@code n}.
+     */
+    private final int[] starts;
+
+    /**
+     * Creates a new object.
+     *
+     * @param starts the start indices of the segments
+     * @param ends   the end indices of the segments
+     * @param codes  the positions of the code tokens
+     */
+    Template( int[] starts, int[] ends, int[] codes ) {
+
+      this.starts = starts;
+      this.ends = ends;
+      this.codes = codes;
+    }
+  }
+
+  /**
+   * The constant {@code NOT_LONG} contains the bit of the record for the
+   * negated {@code \long} flag.
+   */
+  private static final int NOT_LONG = 1;
+
+  /**
+   * The constant {@code OUTER} contains the bit of the record for the
+   * {@code \outer} flag.
+   */
+  private static final int OUTER = 2;
+
+  /**
+   * The constant {@code PATTERN} contains the bit of the record indicating
+   * that a pattern follows.
+   */
+  private static final int PATTERN = 4;
+
+  /**
+   * The constant {@code PROTECTED} contains the bit of the record for
+   * protected macros.
+   */
+  private static final int PROTECTED = 8;
+
+  /**
+   * The constant {@code DECODER} contains the decoder for the records of
+   * macros.
+   */
+  private static final MacroDecoder DECODER = new MacroDecoder();
+
   /**
    * The constant {@code NO_TOKENS} contains the empty tokens array.
    */
   private static final Tokens[] NO_TOKENS = new Tokens[ 0 ];
 
+  /**
+   * The constant {@code NO_CODES} contains the empty array of positions.
+   */
+  private static final int[] NO_CODES = new int[ 0 ];
+
+  /**
+   * The constant {@code INTERPRETED} contains the template for a body which
+   * can not be compiled. Such a body is interpreted on each expansion to
+   * report the error.
+   */
+  private static final Template INTERPRETED = new Template( null, null, null );
+
+  /**
+   * The constant {@code INTERPRETED_SUBST} contains the indicator that the
+   * body has to be interpreted since a parameter token is bound to a code
+   * token.
+   */
+  private static final Token[] INTERPRETED_SUBST = new Token[ 0 ];
+
   /**
    * The constant {@code serialVersionUID} contains the id for serialization.
    */
@@ -234,6 +710,12 @@ public class MacroCode extends AbstractCode
    */
   private final Tokens body;
 
+  /**
+   * The field {@code template} contains the compiled body. It is not
+   * serialized but compiled again on demand.
+   */
+  private transient Template template;
+
   /**
    * The field {@code logger} contains the logger for debugging.
    */
@@ -292,9 +774,26 @@ public class MacroCode extends AbstractCode
   public MacroCode( CodeToken token, Flags flags, boolean notLong,
                     MacroPattern pattern, Tokens body ) {
 
+    this( token, flags.clearOuter(), notLong, pattern, body );
+  }
+
+  /**
+   * Creates a new object from the values read from a format.
+   *
+   * @param token   the initial token for the macro
+   * @param outer   the indicator for outer definitions
+   * @param notLong inverted indicator for the long macros
+   * @param pattern the pattern for the acquiring of the arguments. The value
+   *                of {@code null} means that no arguments are expected
+   * @param body    the expansion text
+   */
+  protected MacroCode( CodeToken token, boolean outer, boolean notLong,
+                       MacroPattern pattern, Tokens body ) {
+
     super( token );
     this.body = body;
-    this.outerP = flags.clearOuter();
+    this.template = compile( body );
+    this.outerP = outer;
     this.notLong = notLong;
     if( pattern == null || pattern.length() == 0 ) {
       this.pattern = null;
@@ -346,6 +845,82 @@ public class MacroCode extends AbstractCode
         && body.equals( macro.body ));
   }
 
+  /**
+   * Compile the body of a macro into a template. Each parameter reference
+   * starts a new segment. The positions of code tokens are recorded since
+   * they might be bound to {@code \let} at the time of the expansion.
+   *
+   * @param body the body of the macro
+   * @return the template or {@code INTERPRETED} if the body contains an
+   * invalid parameter reference
+   */
+  private static Template compile( Tokens body ) {
+
+    int len = body.length();
+    int[] starts = new int[ len + 1 ];
+    int[] ends = new int[ len + 1 ];
+    int[] codes = new int[ len ];
+    int n = 0;
+    int nc = 0;
+    int start = 0;
+
+    for( int i = 0; i < len; i++ ) {
+      Token t = body.get( i );
+
+      if( t instanceof CodeToken ) {
+        codes[ nc++ ] = i;
+      }
+      else if( t instanceof MacroParamToken ) {
+        if( i > start ) {
+          starts[ n ] = start;
+          ends[ n++ ] = i;
+        }
+        t = body.get( ++i );
+        if( t instanceof MacroParamToken ) {
+          start = i;
+        }
+        else if( t instanceof OtherToken
+            && t.getChar().getCodePoint() >= '1'
+            && t.getChar().getCodePoint() <= '9' ) {
+          starts[ n++ ] = '0' - t.getChar().getCodePoint();
+          start = i + 1;
+        }
+        else {
+          return INTERPRETED;
+        }
+      }
+    }
+    if( len > start ) {
+      starts[ n ] = start;
+      ends[ n++ ] = len;
+    }
+
+    return new Template( Arrays.copyOf( starts, n ), Arrays.copyOf( ends, n ),
+                         nc == 0 ? NO_CODES : Arrays.copyOf( codes, nc ) );
+  }
+
+  /**
+   * Write the macro as a record to a format. The record consists of the
+   * token, the flags, the pattern if present, and the body.
+   *
+   * @param out the record
+   * @throws IOException in case of an error
+   * @see org.extex.interpreter.loader.LazyLoadable#encode(CodeOutput)
+   */
+  @Override
+  public void encode( CodeOutput out ) throws IOException {
+
+    out.writeToken( getToken() );
+    out.writeByte( (notLong ? NOT_LONG : 0)
+                       | (outerP ? OUTER : 0)
+                       | (pattern != null ? PATTERN : 0)
+                       | (this instanceof ProtectedCode ? PROTECTED : 0) );
+    if( pattern != null ) {
+      pattern.encode( out );
+    }
+    out.writeTokens( body );
+  }
+
   @Override
   public void enableLogging( Logger log ) {
 
@@ -366,7 +941,7 @@ public class MacroCode extends AbstractCode
       args = NO_TOKENS;
     }
     else {
-      Count tracingmaros = context.getCount( "tracingmacros" );
+      Count tracingmaros = context.getCount( ParameterKey.TRACINGMACROS );
       ArgumentMatchingObserver observer =
           (tracingmaros != null && tracingmaros.gt( Count.ZERO )
               ? tracer
@@ -375,6 +950,56 @@ public class MacroCode extends AbstractCode
           pattern.match( context, source, typesetter, notLong,
                          observer );
     }
+    if( template == null ) {
+      template = compile( body );
+    }
+    if( template != INTERPRETED ) {
+      Token[] subst = substitutions( context );
+      if( subst != INTERPRETED_SUBST && checkArgs( args ) ) {
+        source.addStream( new MacroTokenStream( body, subst, args, template,
+                                                source,
+                                                toText() ) );
+        return;
+      }
+    }
+
+    source.addStream( new MacroTokenStream( interpret( context, args ),
+                                            source,
+                                            toText() ) );
+  }
+
+  /**
+   * Check that all arguments referenced in the template are present.
+   *
+   * @param args the arguments
+   * @return {@code true} iff all referenced arguments are present
+   */
+  private boolean checkArgs( Tokens[] args ) {
+
+    for( int start : template.starts ) {
+      if( start < 0 ) {
+        int no = -start - 1;
+        if( no >= args.length || args[ no ] == null ) {
+          return false;
+        }
+      }
+    }
+    return true;
+  }
+
+  /**
+   * Expand the body of the macro token by token. This is the fallback for
+   * bodies which can not be compiled or which have a parameter token bound
+   * to a code token with {@code \let}.
+   *
+   * @param context the interpreter context
+   * @param args    the arguments
+   * @return the expansion
+   * @throws HelpingException in case of an error
+   */
+  private Tokens interpret( Context context, Tokens[] args )
+      throws HelpingException {
+
     Tokens toks = new Tokens();
     int len = body.length();
     int no = 1;
@@ -413,14 +1038,41 @@ public class MacroCode extends AbstractCode
       }
     }
 
-    source.addStream( new MacroTokenStream( toks, source.getLocator(),
-                                            toText() ) );
+    return toks;
   }
 
   /**
-   * org.extex.interpreter.context.Context,
-   * org.extex.interpreter.TokenSource, org.extex.typesetter.Typesetter)
+   * Determine the replacements for code tokens of the body bound to a
+   * token with {@code \let}.
+   *
+   * @param context the interpreter context
+   * @return the replacements indexed by the position in the body,
+   * {@code null} for none, or {@code INTERPRETED_SUBST} if the body has to
+   * be interpreted
+   * @throws HelpingException in case of an error
    */
+  private Token[] substitutions( Context context ) throws HelpingException {
+
+    Token[] subst = null;
+    int[] codes = template.codes;
+
+    for( int i = 0; i < codes.length; i++ ) {
+      int at = codes[ i ];
+      Code code = context.getCode( (CodeToken) body.get( at ) );
+      if( code instanceof LetCode ) {
+        Token t = ((LetCode) code).getLetToken();
+        if( t instanceof MacroParamToken ) {
+          return INTERPRETED_SUBST;
+        }
+        if( subst == null ) {
+          subst = new Token[ body.length() ];
+        }
+        subst[ at ] = t;
+      }
+    }
+    return subst;
+  }
+
   @Override
   public void expand( Flags prefix, Context context, TokenSource source,
                       Typesetter typesetter )
@@ -429,6 +1081,19 @@ public class MacroCode extends AbstractCode
     execute( prefix, context, source, typesetter );
   }
 
+  /**
+   * Getter for the decoder of the records written by
+   * {@link #encode(CodeOutput)}.
+   *
+   * @return the decoder
+   * @see org.extex.interpreter.loader.LazyLoadable#getDecoder()
+   */
+  @Override
+  public LazyLoadable.Decoder getDecoder() {
+
+    return DECODER;
+  }
+
   /**
    * Getter for localizer.
    *
@@ -498,7 +1163,7 @@ public class MacroCode extends AbstractCode
       throws CatcodeException {
 
     TokenFactory factory = context.getTokenFactory();
-    long esc = context.getCount( "escapechar" ).getValue();
+    long esc = context.getCount( ParameterKey.ESCAPECHAR ).getValue();
     Token t;
 
     for( int i = 0; i < tokens.length(); i++ ) {
@@ -26,6 +26,8 @@ import org.extex.framework.i18n.Localizer;
 import org.extex.framework.i18n.LocalizerFactory;
 import org.extex.interpreter.TokenSource;
 import org.extex.interpreter.context.Context;
+import org.extex.interpreter.loader.CodeInput;
+import org.extex.interpreter.loader.CodeOutput;
 import org.extex.interpreter.type.Code;
 import org.extex.scanner.type.Catcode;
 import org.extex.scanner.type.token.*;
@@ -36,6 +38,7 @@ import org.extex.unit.base.macro.LetCode;
 import org.extex.unit.tex.macro.exceptions.*;
 import org.extex.unit.tex.typesetter.paragraph.Par;
 
+import java.io.IOException;
 import java.io.Serializable;
 import java.util.ArrayList;
 import java.util.List;
@@ -318,6 +321,21 @@ public class MacroPattern extends Tokens {
    */
   protected static final long serialVersionUID = 2007L;
 
+  /**
+   * Read a pattern from the record of a macro in a format.
+   *
+   * @param in the record
+   * @return the pattern
+   * @throws IOException in case of a format error
+   * @see #encode(CodeOutput)
+   */
+  static MacroPattern decode( CodeInput in ) throws IOException {
+
+    MacroPattern pattern = new MacroPattern( (CodeToken) in.readToken() );
+    pattern.setArity( in.readInt() );
+    return in.readTokens( pattern );
+  }
+
   /**
    * Getter for the localizer.
    *
@@ -760,6 +778,20 @@ public class MacroPattern extends Tokens {
     throw new EofInMatchException( cs.toText( context.escapechar() ) );
   }
 
+  /**
+   * Write the pattern to the record of a macro in a format. The invoking
+   * control sequence and the arity are followed by the tokens.
+   *
+   * @param out the record
+   * @throws IOException in case of an error
+   */
+  void encode( CodeOutput out ) throws IOException {
+
+    out.writeToken( cs );
+    out.writeInt( arity );
+    out.writeTokens( this );
+  }
+
   /**
    * Setter for the arity.
    *
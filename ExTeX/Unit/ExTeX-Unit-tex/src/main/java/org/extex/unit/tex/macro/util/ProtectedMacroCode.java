@@ -57,4 +57,21 @@ public class ProtectedMacroCode extends MacroCode implements ProtectedCode {
     super( token, flags, notLong, thePattern, theBody );
   }
 
+  /**
+   * Creates a new object from the values read from a format.
+   *
+   * @param token      the initial token for the primitive
+   * @param outer      the indicator for outer definitions
+   * @param notLong    the indicator that the macro does not allow embedded
+   *                  pars
+   * @param thePattern the pattern for the acquiring of the arguments
+   * @param theBody    the expansion text
+   */
+  protected ProtectedMacroCode( CodeToken token, boolean outer,
+                                boolean notLong, MacroPattern thePattern,
+                                Tokens theBody ) {
+
+    super( token, outer, notLong, thePattern, theBody );
+  }
+
 }
@@ -19,6 +19,7 @@
 
 package org.extex.unit.tex.register.count;
 
+import org.extex.core.count.Count;
 import org.extex.core.exception.helping.HelpingException;
 import org.extex.interpreter.TokenSource;
 import org.extex.interpreter.context.Context;
@@ -56,6 +57,72 @@ public abstract class AbstractCount extends AbstractAssignment
     super( token );
   }
 
+  /**
+   * Getter for the value of a register which is given either by its number
+   * or by its key.
+   *
+   * @param context the interpreter context to use
+   * @param index   the number of the register or -1 if the key is used
+   * @param key     the key of the register; it is used if the index is
+   *                negative
+   * @return the count register
+   */
+  protected static Count getCount( Context context, int index, String key ) {
+
+    return index < 0 ? context.getCount( key ) : context.getCount( index );
+  }
+
+  /**
+   * Setter for the value of a register which is given either by its number
+   * or by its key.
+   *
+   * @param context the interpreter context to use
+   * @param index   the number of the register or -1 if the key is used
+   * @param key     the key of the register; it is used if the index is
+   *                negative
+   * @param value   the new value
+   * @param global  the indicator for a global assignment
+   * @throws HelpingException in case of an error
+   */
+  protected static void setCount( Context context, int index, String key,
+                                  long value, boolean global )
+      throws HelpingException {
+
+    if( index < 0 ) {
+      context.setCount( key, value, global );
+    }
+    else {
+      context.setCount( index, value, global );
+    }
+  }
+
+  /**
+   * Return the number of the numbered count register. This method avoids
+   * the creation of a name for the register. If the register can not be
+   * addressed by a number then -1 is returned; the register has to be
+   * determined with
+   * {@link #getKey(Context, TokenSource, Typesetter) getKey()} instead.
+   * Derived classes which override {@code getKey()} have to override this
+   * method as well.
+   *
+   * @param context    the interpreter context to use
+   * @param source     the source for new tokens
+   * @param typesetter the typesetter
+   * @return the number of the current register or -1
+   * @throws HelpingException    in case of an error
+   * @throws TypesetterException in case of an error in the typesetter
+   */
+  protected int getIndex( Context context, TokenSource source,
+                          Typesetter typesetter )
+      throws HelpingException, TypesetterException {
+
+    if( Namespace.SUPPORT_NAMESPACE_COUNT ) {
+      return -1;
+    }
+    return source.scanRegisterNumber( context, source, typesetter,
+                                      getToken() );
+  }
+
   /**
    * Return the key (the name of the primitive) for the numbered count
    * register.
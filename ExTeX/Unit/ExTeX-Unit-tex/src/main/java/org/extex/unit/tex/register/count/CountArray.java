@@ -49,6 +49,23 @@ public class CountArray extends CountPrimitive {
     super( token );
   }
 
+  /**
+   * The register is addressed by its key only.
+   *
+   * @param context    the interpreter context to use
+   * @param source     the source for new tokens
+   * @param typesetter the typesetter
+   * @return -1
+   * @see org.extex.unit.tex.register.count.AbstractCount#getIndex(org.extex.interpreter.context.Context,
+   * org.extex.interpreter.TokenSource, org.extex.typesetter.Typesetter)
+   */
+  @Override
+  protected int getIndex( Context context, TokenSource source,
+                          Typesetter typesetter ) {
+
+    return -1;
+  }
+
   /**
    * org.extex.interpreter.context.Context,
    * org.extex.interpreter.TokenSource, org.extex.typesetter.Typesetter)
@@ -111,13 +111,14 @@ public class CountPrimitive extends AbstractCount
                        Typesetter typesetter )
       throws HelpingException, TypesetterException {
 
-    String key = getKey( context, source, typesetter );
+    int index = getIndex( context, source, typesetter );
+    String key = index < 0 ? getKey( context, source, typesetter ) : null;
     source.getKeyword( context, "by" );
 
     long value = source.parseInteger( context, source, typesetter );
-    value += context.getCount( key ).getValue();
+    value += getCount( context, index, key ).getValue();
 
-    context.setCount( key, value, prefix.clearGlobal() );
+    setCount( context, index, key, value, prefix.clearGlobal() );
   }
 
   /**
@@ -129,11 +130,12 @@ public class CountPrimitive extends AbstractCount
                       Typesetter typesetter )
       throws HelpingException, TypesetterException {
 
-    String key = getKey( context, source, typesetter );
+    int index = getIndex( context, source, typesetter );
+    String key = index < 0 ? getKey( context, source, typesetter ) : null;
     source.getOptionalEquals( context );
 
     long value = source.parseInteger( context, source, typesetter );
-    context.setCount( key, value, prefix.clearGlobal() );
+    setCount( context, index, key, value, prefix.clearGlobal() );
   }
 
   /**
@@ -144,8 +146,9 @@ public class CountPrimitive extends AbstractCount
                             Typesetter typesetter )
       throws HelpingException, TypesetterException {
 
-    String key = getKey( context, source, typesetter );
-    Count c = context.getCount( key );
+    int index = getIndex( context, source, typesetter );
+    String key = index < 0 ? getKey( context, source, typesetter ) : null;
+    Count c = getCount( context, index, key );
     return (c != null ? c.getValue() : 0);
   }
 
@@ -158,7 +161,8 @@ public class CountPrimitive extends AbstractCount
                       Typesetter typesetter )
       throws HelpingException, TypesetterException {
 
-    String key = getKey( context, source, typesetter );
+    int index = getIndex( context, source, typesetter );
+    String key = index < 0 ? getKey( context, source, typesetter ) : null;
     source.getKeyword( context, "by" );
 
     long value = source.parseInteger( context, source, typesetter );
@@ -167,8 +171,8 @@ public class CountPrimitive extends AbstractCount
       throw new ArithmeticOverflowException( toText( context ) );
     }
 
-    value = context.getCount( key ).getValue() / value;
-    context.setCount( key, value, prefix.clearGlobal() );
+    value = getCount( context, index, key ).getValue() / value;
+    setCount( context, index, key, value, prefix.clearGlobal() );
   }
 
   /**
@@ -180,10 +184,11 @@ public class CountPrimitive extends AbstractCount
                       Typesetter typesetter )
       throws HelpingException, TypesetterException {
 
-    String key = getKey( context, source, typesetter );
+    int index = getIndex( context, source, typesetter );
+    String key = index < 0 ? getKey( context, source, typesetter ) : null;
     try {
       source.push( context.getTokenFactory().toTokens(
-          context.getCount( key ).getValue() ) );
+          getCount( context, index, key ).getValue() ) );
     } catch( CatcodeException e ) {
       throw new NoHelpException( e );
     }
@@ -198,12 +203,13 @@ public class CountPrimitive extends AbstractCount
                         Typesetter typesetter )
       throws HelpingException, TypesetterException {
 
-    String key = getKey( context, source, typesetter );
+    int index = getIndex( context, source, typesetter );
+    String key = index < 0 ? getKey( context, source, typesetter ) : null;
     source.getKeyword( context, "by" );
 
     long value = source.parseInteger( context, source, typesetter );
-    value *= context.getCount( key ).getValue();
-    context.setCount( key, value, prefix.clearGlobal() );
+    value *= getCount( context, index, key ).getValue();
+    setCount( context, index, key, value, prefix.clearGlobal() );
   }
 
   /**
@@ -216,9 +222,10 @@ public class CountPrimitive extends AbstractCount
       HelpingException,
       TypesetterException {
 
-    String key = getKey( context, source, typesetter );
+    int index = getIndex( context, source, typesetter );
+    String key = index < 0 ? getKey( context, source, typesetter ) : null;
     return context.getTokenFactory().toTokens(
-        context.getCount( key ).getValue() );
+        getCount( context, index, key ).getValue() );
   }
 
 }
@@ -19,6 +19,7 @@
 
 package org.extex.unit.tex.register.dimen;
 
+import org.extex.core.dimen.Dimen;
 import org.extex.core.exception.helping.HelpingException;
 import org.extex.interpreter.TokenSource;
 import org.extex.interpreter.context.Context;
@@ -53,6 +54,97 @@ public abstract class AbstractDimen extends AbstractAssignment {
     super( token );
   }
 
+  /**
+   * Getter for the value of a register which is given either by its number
+   * or by its key.
+   *
+   * @param context the interpreter context to use
+   * @param index   the number of the register or -1 if the key is used
+   * @param key     the key of the register; it is used if the index is
+   *                negative
+   * @return the dimen register
+   */
+  protected static Dimen getDimen( Context context, int index, String key ) {
+
+    return index < 0 ? context.getDimen( key ) : context.getDimen( index );
+  }
+
+  /**
+   * Setter for the value of a register which is given either by its number
+   * or by its key.
+   *
+   * @param context the interpreter context to use
+   * @param index   the number of the register or -1 if the key is used
+   * @param key     the key of the register; it is used if the index is
+   *                negative
+   * @param value   the new value
+   * @param global  the indicator for a global assignment
+   * @throws HelpingException in case of an error
+   */
+  protected static void setDimen( Context context, int index, String key,
+                                  Dimen value, boolean global )
+      throws HelpingException {
+
+    if( index < 0 ) {
+      context.setDimen( key, value, global );
+    }
+    else {
+      context.setDimen( index, value, global );
+    }
+  }
+
+  /**
+   * Setter for the value of a register which is given either by its number
+   * or by its key. A numbered register is updated without creating a new
+   * register.
+   *
+   * @param context the interpreter context to use
+   * @param index   the number of the register or -1 if the key is used
+   * @param key     the key of the register; it is used if the index is
+   *                negative
+   * @param value   the new value in scaled points
+   * @param global  the indicator for a global assignment
+   * @throws HelpingException in case of an error
+   */
+  protected static void setDimen( Context context, int index, String key,
+                                  long value, boolean global )
+      throws HelpingException {
+
+    if( index < 0 ) {
+      context.setDimen( key, value, global );
+    }
+    else {
+      context.setDimen( index, value, global );
+    }
+  }
+
+  /**
+   * Return the number of the numbered dimen register. This method avoids
+   * the creation of a name for the register. If the register can not be
+   * addressed by a number then -1 is returned; the register has to be
+   * determined with
+   * {@link #getKey(Context, TokenSource, Typesetter) getKey()} instead.
+   * Derived classes which override {@code getKey()} have to override this
+   * method as well.
+   *
+   * @param context    the interpreter context to use
+   * @param source     the source for new tokens
+   * @param typesetter the typesetter
+   * @return the number of the current register or -1
+   * @throws HelpingException    in case of an error
+   * @throws TypesetterException in case of an error in the typesetter
+   */
+  protected int getIndex( Context context, TokenSource source,
+                          Typesetter typesetter )
+      throws HelpingException, TypesetterException {
+
+    if( Namespace.SUPPORT_NAMESPACE_DIMEN ) {
+      return -1;
+    }
+    return source.scanRegisterNumber( context, source, typesetter,
+                                      getToken() );
+  }
+
   /**
    * Return the key (the name of the primitive) for the numbered dimen
    * register.
@@ -113,12 +113,13 @@ public class DimenPrimitive extends AbstractDimen
                        Typesetter typesetter )
       throws HelpingException, TypesetterException {
 
-    String key = getKey( context, source, typesetter );
+    int index = getIndex( context, source, typesetter );
+    String key = index < 0 ? getKey( context, source, typesetter ) : null;
     source.getKeyword( context, "by" );
 
-    Dimen d = source.parseDimen( context, source, typesetter );
-    d.add( context.getDimen( key ) );
-    context.setDimen( key, d, prefix.clearGlobal() );
+    long d = source.parseDimen( context, source, typesetter ).getValue();
+    d += getDimen( context, index, key ).getValue();
+    setDimen( context, index, key, d, prefix.clearGlobal() );
   }
 
   /**
@@ -130,11 +131,12 @@ public class DimenPrimitive extends AbstractDimen
                       Typesetter typesetter )
       throws HelpingException, TypesetterException {
 
-    String key = getKey( context, source, typesetter );
+    int index = getIndex( context, source, typesetter );
+    String key = index < 0 ? getKey( context, source, typesetter ) : null;
     source.getOptionalEquals( context );
 
     Dimen dimen = source.parseDimen( context, source, typesetter );
-    context.setDimen( key, dimen, prefix.clearGlobal() );
+    setDimen( context, index, key, dimen, prefix.clearGlobal() );
   }
 
   /**
@@ -145,8 +147,9 @@ public class DimenPrimitive extends AbstractDimen
                             Typesetter typesetter )
       throws HelpingException, TypesetterException {
 
-    String key = getKey( context, source, typesetter );
-    Dimen d = context.getDimen( key );
+    int index = getIndex( context, source, typesetter );
+    String key = index < 0 ? getKey( context, source, typesetter ) : null;
+    Dimen d = getDimen( context, index, key );
     return (d != null ? d.getValue() : 0);
   }
 
@@ -169,7 +172,8 @@ public class DimenPrimitive extends AbstractDimen
                       Typesetter typesetter )
       throws HelpingException, TypesetterException {
 
-    String key = getKey( context, source, typesetter );
+    int index = getIndex( context, source, typesetter );
+    String key = index < 0 ? getKey( context, source, typesetter ) : null;
     source.getKeyword( context, "by" );
     long value = source.parseInteger( context, source, null );
 
@@ -178,8 +182,8 @@ public class DimenPrimitive extends AbstractDimen
           toText( context ) );
     }
 
-    Dimen d = new Dimen( context.getDimen( key ).getValue() / value );
-    context.setDimen( key, d, prefix.clearGlobal() );
+    long d = getDimen( context, index, key ).getValue() / value;
+    setDimen( context, index, key, d, prefix.clearGlobal() );
   }
 
   /**
@@ -190,11 +194,12 @@ public class DimenPrimitive extends AbstractDimen
                       Typesetter typesetter )
       throws HelpingException, TypesetterException {
 
-    String key = getKey( context, source, typesetter );
+    int index = getIndex( context, source, typesetter );
+    String key = index < 0 ? getKey( context, source, typesetter ) : null;
     try {
       Tokens toks =
           context.getTokenFactory().toTokens(
-              context.getDimen( key ).toString() );
+              getDimen( context, index, key ).toString() );
       source.push( toks );
     } catch( CatcodeException e ) {
       throw new NoHelpException( e );
@@ -209,11 +214,12 @@ public class DimenPrimitive extends AbstractDimen
                         Typesetter typesetter )
       throws HelpingException, TypesetterException {
 
-    String key = getKey( context, source, typesetter );
+    int index = getIndex( context, source, typesetter );
+    String key = index < 0 ? getKey( context, source, typesetter ) : null;
     source.getKeyword( context, "by" );
     long value = source.parseInteger( context, source, null );
-    Dimen d = new Dimen( context.getDimen( key ).getValue() * value );
-    context.setDimen( key, d, prefix.clearGlobal() );
+    long d = getDimen( context, index, key ).getValue() * value;
+    setDimen( context, index, key, d, prefix.clearGlobal() );
   }
 
   /**
@@ -225,10 +231,11 @@ public class DimenPrimitive extends AbstractDimen
       throws HelpingException,
       TypesetterException {
 
-    String key = getKey( context, source, typesetter );
+    int index = getIndex( context, source, typesetter );
+    String key = index < 0 ? getKey( context, source, typesetter ) : null;
     try {
       return context.getTokenFactory().toTokens(
-          context.getDimen( key ).toString() );
+          getDimen( context, index, key ).toString() );
     } catch( CatcodeException e ) {
       throw new NoHelpException( e );
     }
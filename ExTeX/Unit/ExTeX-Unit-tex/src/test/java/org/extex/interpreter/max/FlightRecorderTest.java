@@ -0,0 +1,124 @@
+/*
+ * Copyright (C) 2011 The ExTeX Group and individual authors listed below
+ *
+ * This library is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as published by the
+ * Free Software Foundation; either version 2.1 of the License, or (at your
+ * option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General Public License
+ * for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this library; if not, write to the Free Software Foundation,
+ * Inc., 59 Temple Place, Suite 330, Boston, MA 02111-1307 USA
+ *
+ */
+
+package org.extex.interpreter.max;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.List;
+
+import jdk.jfr.Recording;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingFile;
+
+import org.extex.core.jfr.FlightRecorder;
+import org.extex.test.ExTeXLauncher;
+import org.junit.Test;
+
+/**
+ * This is a test suite for the events of the flight recorder.
+ *
+ * @author <a href="mailto:gene@gerd-neugebauer.de">Gerd Neugebauer</a>
+ */
+public class FlightRecorderTest extends ExTeXLauncher {
+
+  /**
+   * Run some code while the flight recorder is recording an event.
+   *
+   * @param name the name of the event
+   * @param code the code to run
+   * @return the events recorded
+   * @throws Exception in case of an error
+   */
+  private List<RecordedEvent> record( String name, String code )
+      throws Exception {
+
+    File file = File.createTempFile( "extex", ".jfr" );
+    file.deleteOnExit();
+    Recording recording = new Recording();
+    try {
+      recording.enable( name ).withoutThreshold();
+      recording.start();
+      assertSuccess( showNodesProperties(), code, null );
+      recording.stop();
+      recording.dump( file.toPath() );
+    } finally {
+      recording.close();
+    }
+    List<RecordedEvent> events = new ArrayList<RecordedEvent>();
+    for( RecordedEvent e : RecordingFile.readAllEvents( file.toPath() ) ) {
+      if( e.getEventType().getName().equals( name ) ) {
+        events.add( e );
+      }
+    }
+    return events;
+  }
+
+  /**
+   * <testcase> This test case checks that the page builder reports the
+   * number of nodes on the vertical list.
+   * </testcase>
+   *
+   * @throws Exception in case of an error
+   */
+  @Test
+  public void testPageBuild1() throws Exception {
+
+    List<RecordedEvent> events =
+        record( "org.extex.PageBuild",
+                DEFINE_CATCODES + "\\hsize=123pt abc\\par\\end " );
+    assertTrue( events.size() >= 1 );
+    assertEquals( 1, events.get( 0 ).getInt( "nodes" ) );
+  }
+
+  /**
+   * <testcase> This test case checks that the backend reports the pages
+   * shipped.
+   * </testcase>
+   *
+   * @throws Exception in case of an error
+   */
+  @Test
+  public void testShipout1() throws Exception {
+
+    List<RecordedEvent> events =
+        record( "org.extex.Shipout",
+                DEFINE_CATCODES + "\\hsize=123pt abc\\par def\\end " );
+    assertEquals( 2, events.size() );
+    for( RecordedEvent e : events ) {
+      assertEquals( 1, e.getInt( "pages" ) );
+      assertEquals( "test-tree", e.getString( "writer" ) );
+    }
+  }
+
+  /**
+   * <testcase> This test case checks that the flight recorder is reported as
+   * available in a Java runtime which contains it.
+   * </testcase>
+   */
+  @Test
+  public void testAvailable1() {
+
+    assertTrue( FlightRecorder.isAvailable() );
+  }
+
+}
@@ -0,0 +1,305 @@
+/*
+ * Copyright (C) 2011 The ExTeX Group and individual authors listed below
+ *
+ * This library is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as published by the
+ * Free Software Foundation; either version 2.1 of the License, or (at your
+ * option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General Public License
+ * for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this library; if not, write to the Free Software Foundation,
+ * Inc., 59 Temple Place, Suite 330, Boston, MA 02111-1307 USA
+ *
+ */
+
+package org.extex.interpreter.max;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import org.extex.core.Locator;
+import org.extex.core.UnicodeChar;
+import org.extex.core.dimen.Dimen;
+import org.extex.interpreter.Interpreter;
+import org.extex.interpreter.TokenSource;
+import org.extex.interpreter.context.Context;
+import org.extex.interpreter.context.ForkableContext;
+import org.extex.interpreter.context.group.GroupType;
+import org.extex.interpreter.type.box.Box;
+import org.extex.interpreter.type.font.FontConvertible;
+import org.extex.language.Language;
+import org.extex.scanner.type.Catcode;
+import org.extex.scanner.type.token.CodeToken;
+import org.extex.scanner.type.token.Token;
+import org.extex.test.ExTeXLauncher;
+import org.extex.typesetter.Typesetter;
+import org.extex.typesetter.tc.font.Font;
+import org.junit.Test;
+
+/**
+ * This is a test suite for the forking of contexts.
+ *
+ * @author <a href="mailto:gene@gerd-neugebauer.de">Gerd Neugebauer</a>
+ */
+public class ForkTest extends ExTeXLauncher {
+
+  /**
+   * Run some code and return the context of the interpreter.
+   *
+   * @return the forkable context
+   * @throws Exception in case of an error
+   */
+  private ForkableContext base() throws Exception {
+
+    Context context = interpreter().getContext();
+    assertTrue( context instanceof ForkableContext );
+    return (ForkableContext) context;
+  }
+
+  /**
+   * Run some code and return the interpreter.
+   *
+   * @return the interpreter
+   * @throws Exception in case of an error
+   */
+  private Interpreter interpreter() throws Exception {
+
+    return assertSuccess( DEFINE_CATCODES + "\\count1=7 \\def\\x{a}"
+        + "\\setbox1=\\hbox to 10pt{\\hskip 0pt plus 1fil}\\end", "" );
+  }
+
+  /**
+   * Run some code in a given context. The interpreter is used as source for
+   * the tokens.
+   *
+   * @param interpreter the interpreter
+   * @param context     the context to run the code in
+   * @param code        the code to run
+   * @throws Exception in case of an error
+   */
+  private void run( Interpreter interpreter, Context context, String code )
+      throws Exception {
+
+    TokenSource source = (TokenSource) interpreter;
+    Typesetter typesetter = interpreter.getTypesetter();
+    Context c = interpreter.setContext( context );
+    try {
+      source.addStream( source.getTokenStreamFactory().getStream( code ) );
+      for( Token t = source.getToken( context ); t != null;
+           t = source.getToken( context ) ) {
+        source.execute( t, context, typesetter );
+      }
+    } finally {
+      interpreter.setContext( c );
+    }
+  }
+
+  /**
+   * Create a control sequence token.
+   *
+   * @param context the context
+   * @param name    the name of the control sequence
+   * @return the control sequence token
+   * @throws Exception in case of an error
+   */
+  private CodeToken cs( Context context, String name ) throws Exception {
+
+    return (CodeToken) context.getTokenFactory().createToken(
+        Catcode.ESCAPE, UnicodeChar.get( '\\' ), name, "" );
+  }
+
+  /**
+   * <testcase> This test case checks that a fork sees the values of the
+   * base context and starts at group level 0.
+   * </testcase>
+   *
+   * @throws Exception in case of an error
+   */
+  @Test
+  public void testFork1() throws Exception {
+
+    ForkableContext base = base();
+    Context fork = base.fork();
+
+    assertEquals( 7, fork.getCount( "1" ).getValue() );
+    assertEquals( 0, fork.getGroupLevel() );
+    assertNotNull( fork.getCode( cs( base, "x" ) ) );
+  }
+
+  /**
+   * <testcase> This test case checks that global assignments in a fork are
+   * neither seen by the base nor by another fork.
+   * </testcase>
+   *
+   * @throws Exception in case of an error
+   */
+  @Test
+  public void testFork2() throws Exception {
+
+    ForkableContext base = base();
+    Context fork1 = base.fork();
+    Context fork2 = base.fork();
+
+    fork1.setCount( "1", 42, true );
+    fork1.setCount( "2", 12, true );
+    fork1.openGroup( GroupType.SEMI_SIMPLE_GROUP, (Locator) null, null );
+    fork1.setCount( "3", 13, true );
+    fork1.closeGroup( null, null );
+
+    assertEquals( 42, fork1.getCount( "1" ).getValue() );
+    assertEquals( 12, fork1.getCount( "2" ).getValue() );
+    assertEquals( 13, fork1.getCount( "3" ).getValue() );
+    assertEquals( 7, fork2.getCount( "1" ).getValue() );
+    assertEquals( 0, fork2.getCount( "2" ).getValue() );
+    assertEquals( 0, fork2.getCount( "3" ).getValue() );
+    assertEquals( 7, base.getCount( "1" ).getValue() );
+    assertEquals( 0, base.getCount( "3" ).getValue() );
+  }
+
+  /**
+   * <testcase> This test case checks that a definition in a fork is not
+   * seen by the base.
+   * </testcase>
+   *
+   * @throws Exception in case of an error
+   */
+  @Test
+  public void testFork3() throws Exception {
+
+    ForkableContext base = base();
+    Context fork = base.fork();
+    CodeToken y = cs( base, "y" );
+
+    fork.setCode( y, fork.getCode( cs( base, "x" ) ), true );
+
+    assertNotNull( fork.getCode( y ) );
+    assertNull( base.getCode( y ) );
+  }
+
+  /**
+   * <testcase> This test case checks that a modification of the hyphenation
+   * parameters of a language in a fork is neither seen by the base nor by
+   * another fork.
+   * </testcase>
+   *
+   * @throws Exception in case of an error
+   */
+  @Test
+  public void testFork4() throws Exception {
+
+    ForkableContext base = base();
+    long left = base.getLanguage( "0" ).getLeftHyphenMin();
+    Context fork1 = base.fork();
+    Context fork2 = base.fork();
+
+    fork1.getLanguage( "0" ).setLeftHyphenMin( left + 3 );
+
+    assertEquals( left + 3, fork1.getLanguage( "0" ).getLeftHyphenMin() );
+    Language lang = fork1.getTypesettingContext().getLanguage();
+    assertEquals( left + 3, lang.getLeftHyphenMin() );
+    assertEquals( left, fork2.getLanguage( "0" ).getLeftHyphenMin() );
+    lang = fork2.getTypesettingContext().getLanguage();
+    assertEquals( left, lang.getLeftHyphenMin() );
+    assertEquals( left, base.getLanguage( "0" ).getLeftHyphenMin() );
+    lang = base.getTypesettingContext().getLanguage();
+    assertEquals( left, lang.getLeftHyphenMin() );
+  }
+
+  /**
+   * <testcase> This test case checks that a fork has its own token factory
+   * which delivers the tokens known to the base.
+   * </testcase>
+   *
+   * @throws Exception in case of an error
+   */
+  @Test
+  public void testFork5() throws Exception {
+
+    ForkableContext base = base();
+    Context fork = base.fork();
+
+    assertTrue( fork.getTokenFactory() != base.getTokenFactory() );
+    assertSame( cs( base, "x" ), cs( fork, "x" ) );
+  }
+
+  /**
+   * <testcase> This test case checks that a box dimension changed in a fork
+   * is neither seen by the base nor by another fork.
+   * </testcase>
+   *
+   * @throws Exception in case of an error
+   */
+  @Test
+  public void testFork6() throws Exception {
+
+    ForkableContext base = base();
+    Context fork1 = base.fork();
+    Context fork2 = base.fork();
+
+    fork1.getBox( "1" ).setWidth( new Dimen( 20 * Dimen.ONE ) );
+
+    assertEquals( 20 * Dimen.ONE, fork1.getBox( "1" ).getWidth().getValue() );
+    assertEquals( 10 * Dimen.ONE, fork2.getBox( "1" ).getWidth().getValue() );
+    Box box = base.getBox( "1" );
+    assertEquals( 10 * Dimen.ONE, box.getWidth().getValue() );
+    assertEquals( 10 * Dimen.ONE,
+                  box.getNodes().get( 0 ).getWidth().getValue() );
+  }
+
+  /**
+   * <testcase> This test case checks that fonts modified in a fork with
+   * {@code \fontdimen}, {@code \hyphenchar}, and {@code \skewchar} are
+   * neither changed in the base nor in another fork.
+   * </testcase>
+   *
+   * @throws Exception in case of an error
+   */
+  @Test
+  public void testFork7() throws Exception {
+
+    Interpreter interpreter = interpreter();
+    ForkableContext base = (ForkableContext) interpreter.getContext();
+    run( interpreter, base, "\\font\\f=cmr10 \\f " );
+    FontConvertible nullfont =
+        (FontConvertible) base.getCode( cs( base, "nullfont" ) );
+    FontConvertible f = (FontConvertible) base.getCode( cs( base, "f" ) );
+    Font current = base.getTypesettingContext().getFont();
+    assertSame( current, f.convertFont( base, null, null ) );
+    UnicodeChar hyphen = current.getHyphenChar();
+    UnicodeChar skew = current.getSkewChar();
+    UnicodeChar nullHyphen =
+        nullfont.convertFont( base, null, null ).getHyphenChar();
+    Context fork1 = base.fork();
+    Context fork2 = base.fork();
+
+    run( interpreter, fork1, "\\fontdimen2\\nullfont=5pt"
+        + "\\hyphenchar\\nullfont=65 \\hyphenchar\\font=66 "
+        + "\\skewchar\\f=67 " );
+
+    Font font = nullfont.convertFont( fork1, null, null );
+    assertEquals( 5 * Dimen.ONE, font.getFontDimen( "2" ).getValue() );
+    assertEquals( UnicodeChar.get( 65 ), font.getHyphenChar() );
+    font = fork1.getTypesettingContext().getFont();
+    assertSame( font, f.convertFont( fork1, null, null ) );
+    assertEquals( UnicodeChar.get( 66 ), font.getHyphenChar() );
+    assertEquals( UnicodeChar.get( 67 ), font.getSkewChar() );
+    for( Context context : new Context[]{base, fork2} ) {
+      font = nullfont.convertFont( context, null, null );
+      assertNull( font.getFontDimen( "2" ) );
+      assertEquals( nullHyphen, font.getHyphenChar() );
+      font = f.convertFont( context, null, null );
+      assertEquals( hyphen, font.getHyphenChar() );
+      assertEquals( skew, font.getSkewChar() );
+    }
+    assertSame( current, base.getTypesettingContext().getFont() );
+  }
+
+}
@@ -19,6 +19,8 @@
 
 package org.extex.interpreter.max;
 
+import static org.junit.Assert.assertTrue;
+
 import org.extex.scanner.type.Catcode;
 import org.extex.test.ExTeXLauncher;
 import org.junit.Test;
@@ -66,6 +68,38 @@ public class MaxTest extends ExTeXLauncher {
     tryFlag( "outer", "{", Catcode.LEFTBRACE, "begin-group character {" );
   }
 
+  /**
+   * <testcase> This test case checks that a control sequence executed
+   * repeatedly is served from the inline cache.
+   * </testcase>
+   *
+   * @throws Exception in case of an error
+   */
+  @Test
+  public void testInlineCache1() throws Exception {
+
+    Max max = (Max) assertSuccess( "\\relax\\relax\\relax\\relax\\end",
+                                   "" );
+
+    assertTrue( max.getInlineCacheHits() >= 3 );
+  }
+
+  /**
+   * <testcase> This test case checks that the inline cache does not hide a
+   * redefinition or the end of a local definition.
+   * </testcase>
+   *
+   * @throws Exception in case of an error
+   */
+  @Test
+  public void testInlineCache2() throws Exception {
+
+    assertSuccess( DEFINE_BRACES + "\\def\\x{a}\\x\\x\\def\\x{b}\\x"
+                       + "\\begingroup\\def\\x{c}\\x\\endgroup\\x"
+                       + "\\begingroup\\gdef\\x{d}\\endgroup\\x\\end",
+                   "aabcbd" + TERM );
+  }
+
   /**
    * @throws Exception in case of an error
    */
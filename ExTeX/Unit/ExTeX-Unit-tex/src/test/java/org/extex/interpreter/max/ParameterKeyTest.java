@@ -0,0 +1,107 @@
+/*
+ * Copyright (C) 2011 The ExTeX Group and individual authors listed below
+ *
+ * This library is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as published by the
+ * Free Software Foundation; either version 2.1 of the License, or (at your
+ * option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General Public License
+ * for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this library; if not, write to the Free Software Foundation,
+ * Inc., 59 Temple Place, Suite 330, Boston, MA 02111-1307 USA
+ *
+ */
+
+package org.extex.interpreter.max;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+
+import org.extex.core.Locator;
+import org.extex.core.ParameterKey;
+import org.extex.core.dimen.Dimen;
+import org.extex.interpreter.context.Context;
+import org.extex.interpreter.context.group.GroupType;
+import org.extex.test.ExTeXLauncher;
+import org.junit.Test;
+
+/**
+ * This is a test suite for the access to parameters with pre-resolved keys.
+ *
+ * @author <a href="mailto:gene@gerd-neugebauer.de">Gerd Neugebauer</a>
+ */
+public class ParameterKeyTest extends ExTeXLauncher {
+
+  /**
+   * <testcase> This test case checks that a parameter assigned with the
+   * primitive can be read with the key and with the name.
+   * </testcase>
+   *
+   * @throws Exception in case of an error
+   */
+  @Test
+  public void testPrimitive1() throws Exception {
+
+    Context context = assertSuccess( DEFINE_CATCODES
+                                         + "\\tolerance=1234 \\hsize=12pt"
+                                         + "\\end", "" ).getContext();
+
+    assertEquals( 1234,
+                  context.getCount( ParameterKey.TOLERANCE ).getValue() );
+    assertSame( context.getCount( ParameterKey.TOLERANCE ),
+                context.getCount( "tolerance" ) );
+    assertEquals( 12 * Dimen.ONE,
+                  context.getDimen( ParameterKey.HSIZE ).getValue() );
+  }
+
+  /**
+   * <testcase> This test case checks that local and global assignments by
+   * name are seen through the key and that local ones are restored at the
+   * end of the group.
+   * </testcase>
+   *
+   * @throws Exception in case of an error
+   */
+  @Test
+  public void testGroup1() throws Exception {
+
+    Context context = assertSuccess( DEFINE_CATCODES
+                                         + "\\end", "" ).getContext();
+
+    context.setCount( "looseness", 1, false );
+    context.openGroup( GroupType.SEMI_SIMPLE_GROUP, (Locator) null, null );
+    context.setCount( "looseness", 2, false );
+    context.setCount( "tracingmacros", 3, true );
+    assertEquals( 2,
+                  context.getCount( ParameterKey.LOOSENESS ).getValue() );
+    context.closeGroup( null, null );
+
+    assertEquals( 1,
+                  context.getCount( ParameterKey.LOOSENESS ).getValue() );
+    assertEquals( 3,
+                  context.getCount( ParameterKey.TRACINGMACROS ).getValue() );
+  }
+
+  /**
+   * <testcase> This test case checks that the keys can be found by name and
+   * that the slot numbers are consecutive.
+   * </testcase>
+   */
+  @Test
+  public void testKeys1() {
+
+    assertSame( ParameterKey.TRACINGMACROS,
+                ParameterKey.countKey( "tracingmacros" ) );
+    assertSame( ParameterKey.LEFTSKIP, ParameterKey.glueKey( "leftskip" ) );
+    assertEquals( null, ParameterKey.dimenKey( "tracingmacros" ) );
+    for( int i = 0; i < ParameterKey.size(); i++ ) {
+      assertEquals( i, ParameterKey.keys().get( i ).getIndex() );
+    }
+  }
+
+}
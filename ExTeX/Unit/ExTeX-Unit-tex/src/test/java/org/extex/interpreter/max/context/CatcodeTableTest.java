@@ -0,0 +1,177 @@
+/*
+ * Copyright (C) 2011 The ExTeX Group and individual authors listed below
+ *
+ * This library is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as published by the
+ * Free Software Foundation; either version 2.1 of the License, or (at your
+ * option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General Public License
+ * for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this library; if not, write to the Free Software Foundation,
+ * Inc., 59 Temple Place, Suite 330, Boston, MA 02111-1307 USA
+ *
+ */
+
+package org.extex.interpreter.max.context;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+
+import org.extex.scanner.type.Catcode;
+import org.junit.Test;
+
+/**
+ * This is a test suite for the copy-on-write table of category codes.
+ *
+ * @author <a href="mailto:gene@gerd-neugebauer.de">Gerd Neugebauer</a>
+ */
+public class CatcodeTableTest {
+
+  /**
+   * The constant {@code HIGH} contains a code point above the Basic
+   * Multilingual Plane.
+   */
+  private static final int HIGH = 0x1D400;
+
+  /**
+   * <testcase> This test case checks that an empty table has no category
+   * codes assigned.
+   * </testcase>
+   */
+  @Test
+  public void testEmpty1() {
+
+    CatcodeTable table = new CatcodeTable();
+
+    assertNull( table.get( 'a' ) );
+    assertNull( table.get( HIGH ) );
+  }
+
+  /**
+   * <testcase> This test case checks that a snapshot sees the values of its
+   * parent.
+   * </testcase>
+   */
+  @Test
+  public void testSnapshot1() {
+
+    CatcodeTable parent = new CatcodeTable();
+    parent.set( 'a', Catcode.LETTER );
+    parent.set( HIGH, Catcode.OTHER );
+
+    CatcodeTable child = parent.snapshot();
+
+    assertEquals( Catcode.LETTER, child.get( 'a' ) );
+    assertEquals( Catcode.OTHER, child.get( HIGH ) );
+  }
+
+  /**
+   * <testcase> This test case checks that a write to a snapshot leaves its
+   * parent unchanged. The page shared with the parent is copied on the first
+   * write and further writes go to the copy.
+   * </testcase>
+   */
+  @Test
+  public void testChildWrite1() {
+
+    CatcodeTable parent = new CatcodeTable();
+    parent.set( 'a', Catcode.LETTER );
+    parent.set( 'b', Catcode.LETTER );
+    CatcodeTable child = parent.snapshot();
+
+    child.set( 'a', Catcode.ACTIVE );
+    child.set( 'b', Catcode.OTHER );
+
+    assertEquals( Catcode.ACTIVE, child.get( 'a' ) );
+    assertEquals( Catcode.OTHER, child.get( 'b' ) );
+    assertEquals( Catcode.LETTER, parent.get( 'a' ) );
+    assertEquals( Catcode.LETTER, parent.get( 'b' ) );
+  }
+
+  /**
+   * <testcase> This test case checks that a write to a snapshot on a page
+   * not allocated in the parent leaves the parent unchanged.
+   * </testcase>
+   */
+  @Test
+  public void testChildWrite2() {
+
+    CatcodeTable parent = new CatcodeTable();
+    CatcodeTable child = parent.snapshot();
+
+    child.set( 0x4E00, Catcode.LETTER );
+
+    assertEquals( Catcode.LETTER, child.get( 0x4E00 ) );
+    assertNull( parent.get( 0x4E00 ) );
+  }
+
+  /**
+   * <testcase> This test case checks that a write to a snapshot above the
+   * Basic Multilingual Plane leaves its parent unchanged.
+   * </testcase>
+   */
+  @Test
+  public void testChildWrite3() {
+
+    CatcodeTable parent = new CatcodeTable();
+    parent.set( HIGH, Catcode.LETTER );
+    CatcodeTable child = parent.snapshot();
+
+    child.set( HIGH, Catcode.OTHER );
+    child.set( HIGH + 0x100, Catcode.ACTIVE );
+
+    assertEquals( Catcode.OTHER, child.get( HIGH ) );
+    assertEquals( Catcode.ACTIVE, child.get( HIGH + 0x100 ) );
+    assertEquals( Catcode.LETTER, parent.get( HIGH ) );
+    assertNull( parent.get( HIGH + 0x100 ) );
+  }
+
+  /**
+   * <testcase> This test case checks that a write to the parent after a
+   * snapshot has been taken is not seen by the snapshot. The shared pages
+   * are copied by the parent as well.
+   * </testcase>
+   */
+  @Test
+  public void testParentWrite1() {
+
+    CatcodeTable parent = new CatcodeTable();
+    parent.set( 'a', Catcode.LETTER );
+    parent.set( HIGH, Catcode.LETTER );
+    CatcodeTable child = parent.snapshot();
+
+    parent.set( 'a', Catcode.ACTIVE );
+    parent.set( HIGH, Catcode.ACTIVE );
+
+    assertEquals( Catcode.LETTER, child.get( 'a' ) );
+    assertEquals( Catcode.LETTER, child.get( HIGH ) );
+  }
+
+  /**
+   * <testcase> This test case checks that snapshots of snapshots are
+   * independent of each other.
+   * </testcase>
+   */
+  @Test
+  public void testNested1() {
+
+    CatcodeTable t0 = new CatcodeTable();
+    t0.set( 'a', Catcode.LETTER );
+    CatcodeTable t1 = t0.snapshot();
+    t1.set( 'a', Catcode.OTHER );
+    CatcodeTable t2 = t1.snapshot();
+    t2.set( 'a', Catcode.ACTIVE );
+    CatcodeTable t3 = t1.snapshot();
+
+    assertEquals( Catcode.LETTER, t0.get( 'a' ) );
+    assertEquals( Catcode.OTHER, t1.get( 'a' ) );
+    assertEquals( Catcode.ACTIVE, t2.get( 'a' ) );
+    assertEquals( Catcode.OTHER, t3.get( 'a' ) );
+  }
+
+}
@@ -0,0 +1,249 @@
+/*
+ * Copyright (C) 2011 The ExTeX Group and individual authors listed below
+ *
+ * This library is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as published by the
+ * Free Software Foundation; either version 2.1 of the License, or (at your
+ * option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General Public License
+ * for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this library; if not, write to the Free Software Foundation,
+ * Inc., 59 Temple Place, Suite 330, Boston, MA 02111-1307 USA
+ *
+ */
+
+package org.extex.interpreter.max.context;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import org.extex.core.UnicodeChar;
+import org.extex.interpreter.type.Code;
+import org.extex.scanner.type.Catcode;
+import org.extex.scanner.type.Namespace;
+import org.extex.scanner.type.token.ControlSequenceToken;
+import org.extex.scanner.type.token.TokenFactory;
+import org.extex.scanner.type.token.TokenFactoryImpl;
+import org.extex.unit.base.Relax;
+import org.junit.Test;
+
+/**
+ * This is a test suite for the table of meanings of control sequences.
+ *
+ * @author <a href="mailto:gene@gerd-neugebauer.de">Gerd Neugebauer</a>
+ */
+public class MeaningTableTest {
+
+  /**
+   * Create a control sequence token.
+   *
+   * @param factory the token factory
+   * @param name    the name of the control sequence
+   * @return the control sequence token
+   * @throws Exception in case of an error
+   */
+  private static ControlSequenceToken cs( TokenFactory factory, String name )
+      throws Exception {
+
+    return (ControlSequenceToken) factory.createToken(
+        Catcode.ESCAPE, UnicodeChar.get( '\\' ), name,
+        Namespace.DEFAULT_NAMESPACE );
+  }
+
+  /**
+   * <testcase> This test case checks that a token keeps its slot and that
+   * different tokens get different slots.
+   * </testcase>
+   *
+   * @throws Exception in case of an error
+   */
+  @Test
+  public void testSlot1() throws Exception {
+
+    TokenFactory factory = new TokenFactoryImpl();
+    MeaningTable table = new MeaningTable();
+    ControlSequenceToken x = cs( factory, "x" );
+    ControlSequenceToken y = cs( factory, "y" );
+
+    int sx = table.slot( x );
+    int sy = table.slot( y );
+
+    assertTrue( sx >= 0 );
+    assertTrue( sy >= 0 );
+    assertTrue( sx != sy );
+    assertEquals( sx, table.slot( x ) );
+  }
+
+  /**
+   * <testcase> This test case checks that tokens which are equal but not
+   * identical get the same slot.
+   * </testcase>
+   *
+   * @throws Exception in case of an error
+   */
+  @Test
+  public void testSlot2() throws Exception {
+
+    MeaningTable table = new MeaningTable();
+    ControlSequenceToken x1 = cs( new TokenFactoryImpl(), "x" );
+    ControlSequenceToken x2 = cs( new TokenFactoryImpl(), "x" );
+
+    assertNotSame( x1, x2 );
+    assertEquals( table.slot( x1 ), table.slot( x2 ) );
+  }
+
+  /**
+   * <testcase> This test case checks that the table grows beyond its
+   * initial number of slots.
+   * </testcase>
+   *
+   * @throws Exception in case of an error
+   */
+  @Test
+  public void testSlot3() throws Exception {
+
+    TokenFactory factory = new TokenFactoryImpl();
+    MeaningTable table = new MeaningTable();
+    Code code = new Relax( cs( factory, "relax" ) );
+
+    for( int i = 0; i < 3000; i++ ) {
+      ControlSequenceToken t = cs( factory, "x" + i );
+      table.put( table.slot( t ), code );
+    }
+    assertSame( code, table.get( table.slot( cs( factory, "x0" ) ) ) );
+    assertSame( code, table.get( table.slot( cs( factory, "x2999" ) ) ) );
+  }
+
+  /**
+   * <testcase> This test case checks that a local assignment is dropped
+   * when the group is closed and that the epoch changes.
+   * </testcase>
+   *
+   * @throws Exception in case of an error
+   */
+  @Test
+  public void testGroup1() throws Exception {
+
+    TokenFactory factory = new TokenFactoryImpl();
+    MeaningTable table = new MeaningTable();
+    ControlSequenceToken x = cs( factory, "x" );
+    Code code = new Relax( x );
+
+    table.openGroup();
+    table.assign( x, code, false );
+    assertSame( code, table.get( table.slot( x ) ) );
+
+    Object epoch = table.epoch();
+    table.closeGroup();
+    assertNull( table.get( table.slot( x ) ) );
+    assertNotSame( epoch, table.epoch() );
+  }
+
+  /**
+   * <testcase> This test case checks that a global assignment survives the
+   * closing of the group.
+   * </testcase>
+   *
+   * @throws Exception in case of an error
+   */
+  @Test
+  public void testGroup2() throws Exception {
+
+    TokenFactory factory = new TokenFactoryImpl();
+    MeaningTable table = new MeaningTable();
+    ControlSequenceToken x = cs( factory, "x" );
+    Code code = new Relax( x );
+
+    table.openGroup();
+    table.assign( x, code, true );
+    table.closeGroup();
+
+    assertSame( code, table.get( table.slot( x ) ) );
+  }
+
+  /**
+   * <testcase> This test case checks that nested groups drop only the
+   * assignments made since their own mark.
+   * </testcase>
+   *
+   * @throws Exception in case of an error
+   */
+  @Test
+  public void testGroup3() throws Exception {
+
+    TokenFactory factory = new TokenFactoryImpl();
+    MeaningTable table = new MeaningTable();
+    ControlSequenceToken x = cs( factory, "x" );
+    ControlSequenceToken y = cs( factory, "y" );
+    Code cx = new Relax( x );
+    Code cy = new Relax( y );
+
+    table.openGroup();
+    table.assign( x, cx, false );
+    table.openGroup();
+    table.assign( y, cy, false );
+
+    table.closeGroup();
+    assertSame( cx, table.get( table.slot( x ) ) );
+    assertNull( table.get( table.slot( y ) ) );
+
+    table.closeGroup();
+    assertNull( table.get( table.slot( x ) ) );
+  }
+
+  /**
+   * <testcase> This test case checks that local assignments made while no
+   * group is open are kept when a later group is closed.
+   * </testcase>
+   *
+   * @throws Exception in case of an error
+   */
+  @Test
+  public void testGroup4() throws Exception {
+
+    TokenFactory factory = new TokenFactoryImpl();
+    MeaningTable table = new MeaningTable();
+    ControlSequenceToken x = cs( factory, "x" );
+    Code code = new Relax( x );
+
+    for( int i = 0; i < 1000; i++ ) {
+      table.assign( x, code, false );
+    }
+    table.closeGroup();
+    table.openGroup();
+    table.closeGroup();
+
+    assertSame( code, table.get( table.slot( x ) ) );
+  }
+
+  /**
+   * <testcase> This test case checks that a fork of a table keeps the slots
+   * of its base but does not see meanings assigned in the base later.
+   * </testcase>
+   *
+   * @throws Exception in case of an error
+   */
+  @Test
+  public void testFork1() throws Exception {
+
+    TokenFactory factory = new TokenFactoryImpl();
+    MeaningTable base = new MeaningTable();
+    ControlSequenceToken x = cs( factory, "x" );
+    int slot = base.slot( x );
+
+    MeaningTable fork = new MeaningTable( base );
+    base.assign( x, new Relax( x ), true );
+
+    assertEquals( slot, fork.slot( x ) );
+    assertNull( fork.get( slot ) );
+  }
+
+}
@@ -0,0 +1,106 @@
+/*
+ * Copyright (C) 2011 The ExTeX Group and individual authors listed below
+ *
+ * This library is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as published by the
+ * Free Software Foundation; either version 2.1 of the License, or (at your
+ * option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General Public License
+ * for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this library; if not, write to the Free Software Foundation,
+ * Inc., 59 Temple Place, Suite 330, Boston, MA 02111-1307 USA
+ *
+ */
+
+package org.extex.interpreter.max.context;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+
+import org.junit.Test;
+
+/**
+ * This is a test suite for the sparse table of numbered registers.
+ *
+ * @author <a href="mailto:gene@gerd-neugebauer.de">Gerd Neugebauer</a>
+ */
+public class RegisterTableTest {
+
+  /**
+   * <testcase> This test case checks that an empty table has no values.
+   * </testcase>
+   */
+  @Test
+  public void testEmpty1() {
+
+    RegisterTable<String> table = new RegisterTable<String>();
+
+    assertNull( table.get( 0 ) );
+    assertNull( table.get( 32767 ) );
+    assertEquals( 0, table.size() );
+  }
+
+  /**
+   * <testcase> This test case checks that values stored in any order can be
+   * retrieved and that a large key does not enlarge the table.
+   * </testcase>
+   */
+  @Test
+  public void testPut1() {
+
+    RegisterTable<String> table = new RegisterTable<String>();
+    table.put( 30000, "a" );
+    table.put( 7, "b" );
+    table.put( 255, "c" );
+    table.put( 0, "d" );
+    table.put( 1000, "e" );
+
+    assertEquals( "a", table.get( 30000 ) );
+    assertEquals( "b", table.get( 7 ) );
+    assertEquals( "c", table.get( 255 ) );
+    assertEquals( "d", table.get( 0 ) );
+    assertEquals( "e", table.get( 1000 ) );
+    assertNull( table.get( 8 ) );
+    assertEquals( 5, table.size() );
+    assertEquals( 8, table.capacity() );
+  }
+
+  /**
+   * <testcase> This test case checks that a value stored again replaces the
+   * old one.
+   * </testcase>
+   */
+  @Test
+  public void testPut2() {
+
+    RegisterTable<String> table = new RegisterTable<String>();
+    table.put( 42, "a" );
+    table.put( 42, "b" );
+
+    assertEquals( "b", table.get( 42 ) );
+    assertEquals( 1, table.size() );
+  }
+
+  /**
+   * <testcase> This test case checks that a cleared table is empty.
+   * </testcase>
+   */
+  @Test
+  public void testClear1() {
+
+    RegisterTable<String> table = new RegisterTable<String>();
+    table.put( 1, "a" );
+    table.put( 2, "b" );
+    table.clear();
+
+    assertNull( table.get( 1 ) );
+    assertNull( table.get( 2 ) );
+    assertEquals( 0, table.size() );
+  }
+
+}
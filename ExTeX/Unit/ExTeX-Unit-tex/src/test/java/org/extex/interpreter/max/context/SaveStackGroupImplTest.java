@@ -0,0 +1,230 @@
+/*
+ * Copyright (C) 2011 The ExTeX Group and individual authors listed below
+ *
+ * This library is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as published by the
+ * Free Software Foundation; either version 2.1 of the License, or (at your
+ * option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General Public License
+ * for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this library; if not, write to the Free Software Foundation,
+ * Inc., 59 Temple Place, Suite 330, Boston, MA 02111-1307 USA
+ *
+ */
+
+package org.extex.interpreter.max.context;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import org.extex.core.UnicodeChar;
+import org.extex.core.count.Count;
+import org.extex.scanner.type.Catcode;
+import org.junit.Test;
+
+/**
+ * This is a test suite for the save stack implementation of a group.
+ *
+ * @author <a href="mailto:gene@gerd-neugebauer.de">Gerd Neugebauer</a>
+ */
+public class SaveStackGroupImplTest {
+
+  /**
+   * <testcase> This test case checks that a local assignment is seen in the
+   * group and undone when the group is closed.
+   * </testcase>
+   */
+  @Test
+  public void testLocal1() {
+
+    Group root = new SaveStackGroupImpl( null );
+    root.setCount( "a", new Count( 1 ), false );
+    Group g = new SaveStackGroupImpl( root );
+
+    g.setCount( "a", new Count( 2 ), false );
+    assertEquals( 2, g.getCount( "a" ).getValue() );
+
+    g.unsave();
+    assertEquals( 1, root.getCount( "a" ).getValue() );
+  }
+
+  /**
+   * <testcase> This test case checks that a register which has not been
+   * assigned before is restored to its default when the group is closed.
+   * </testcase>
+   */
+  @Test
+  public void testLocal2() {
+
+    Group root = new SaveStackGroupImpl( null );
+    Group g = new SaveStackGroupImpl( root );
+
+    g.setCount( 12, new Count( 42 ), false );
+    g.updateCount( 12, 43, false );
+    assertEquals( 43, g.getCount( 12 ).getValue() );
+
+    g.unsave();
+    assertEquals( 0, root.getCount( 12 ).getValue() );
+  }
+
+  /**
+   * <testcase> This test case checks that a global assignment in a group
+   * survives the closing of the group.
+   * </testcase>
+   */
+  @Test
+  public void testGlobal1() {
+
+    Group root = new SaveStackGroupImpl( null );
+    root.setCount( "a", new Count( 1 ), false );
+    Group g = new SaveStackGroupImpl( root );
+
+    g.setCount( "a", new Count( 2 ), true );
+    g.unsave();
+
+    assertEquals( 2, root.getCount( "a" ).getValue() );
+  }
+
+  /**
+   * <testcase> This test case checks that a global assignment after a local
+   * one of the same register is retained when the group is closed.
+   * </testcase>
+   */
+  @Test
+  public void testGlobal2() {
+
+    Group root = new SaveStackGroupImpl( null );
+    root.setCount( "a", new Count( 1 ), false );
+    Group g = new SaveStackGroupImpl( root );
+
+    g.setCount( "a", new Count( 2 ), false );
+    g.setCount( "a", new Count( 3 ), true );
+    g.unsave();
+
+    assertEquals( 3, root.getCount( "a" ).getValue() );
+  }
+
+  /**
+   * <testcase> This test case checks that a local assignment after a global
+   * one of the same register is undone when the group is closed while the
+   * global value is retained.
+   * </testcase>
+   */
+  @Test
+  public void testGlobal3() {
+
+    Group root = new SaveStackGroupImpl( null );
+    root.setCount( "a", new Count( 1 ), false );
+    Group g = new SaveStackGroupImpl( root );
+
+    g.setCount( "a", new Count( 3 ), true );
+    g.setCount( "a", new Count( 4 ), false );
+    g.unsave();
+
+    assertEquals( 3, root.getCount( "a" ).getValue() );
+  }
+
+  /**
+   * <testcase> This test case checks that nested groups restore the values
+   * of the enclosing group one at a time.
+   * </testcase>
+   */
+  @Test
+  public void testNested1() {
+
+    Group root = new SaveStackGroupImpl( null );
+    root.setCount( "a", new Count( 1 ), false );
+    Group g1 = new SaveStackGroupImpl( root );
+    g1.setCount( "a", new Count( 2 ), false );
+    Group g2 = new SaveStackGroupImpl( g1 );
+    g2.setCount( "a", new Count( 3 ), false );
+    g2.setCount( "a", new Count( 4 ), false );
+
+    assertEquals( 2, g2.getLevel() );
+    assertEquals( 4, g2.getCount( "a" ).getValue() );
+    g2.unsave();
+    assertEquals( 2, g1.getCount( "a" ).getValue() );
+    g1.unsave();
+    assertEquals( 1, root.getCount( "a" ).getValue() );
+  }
+
+  /**
+   * <testcase> This test case checks that a global assignment in an inner
+   * group survives the closing of all groups.
+   * </testcase>
+   */
+  @Test
+  public void testNested2() {
+
+    Group root = new SaveStackGroupImpl( null );
+    Group g1 = new SaveStackGroupImpl( root );
+    g1.setCount( "a", new Count( 2 ), false );
+    Group g2 = new SaveStackGroupImpl( g1 );
+    g2.setCount( "a", new Count( 3 ), true );
+
+    g2.unsave();
+    assertEquals( 3, g1.getCount( "a" ).getValue() );
+    g1.unsave();
+    assertEquals( 3, root.getCount( "a" ).getValue() );
+  }
+
+  /**
+   * <testcase> This test case checks that a group can only be released when
+   * its save stack is empty and that a released group can be reused.
+   * </testcase>
+   */
+  @Test
+  public void testRelease1() {
+
+    Group root = new SaveStackGroupImpl( null );
+    Group g = new SaveStackGroupImpl( root );
+    g.setCount( "a", new Count( 2 ), false );
+
+    assertFalse( g.release() );
+    g.unsave();
+    assertTrue( g.release() );
+
+    g.reuse( root );
+    g.setCount( "a", new Count( 5 ), false );
+    assertEquals( 5, g.getCount( "a" ).getValue() );
+    g.unsave();
+    assertEquals( 0, root.getCount( "a" ).getValue() );
+  }
+
+  /**
+   * <testcase> This test case checks that the version of the category codes
+   * changes when a category code is assigned and when it is restored at the
+   * end of a group, but not when another group is closed.
+   * </testcase>
+   */
+  @Test
+  public void testCatcodeVersion1() {
+
+    Group root = new SaveStackGroupImpl( null );
+    Object v0 = root.getCatcodeVersion();
+    Group g = new SaveStackGroupImpl( root );
+    assertSame( v0, g.getCatcodeVersion() );
+
+    g.setCount( "a", new Count( 2 ), false );
+    g.unsave();
+    assertSame( v0, root.getCatcodeVersion() );
+
+    g = new SaveStackGroupImpl( root );
+    g.setCatcode( UnicodeChar.get( '@' ), Catcode.LETTER, false );
+    Object v1 = g.getCatcodeVersion();
+    assertNotSame( v0, v1 );
+
+    g.unsave();
+    assertNotSame( v1, root.getCatcodeVersion() );
+    assertEquals( Catcode.OTHER, root.getCatcode( UnicodeChar.get( '@' ) ) );
+  }
+
+}
@@ -0,0 +1,125 @@
+/*
+ * Copyright (C) 2011 The ExTeX Group and individual authors listed below
+ *
+ * This library is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as published by the
+ * Free Software Foundation; either version 2.1 of the License, or (at your
+ * option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General Public License
+ * for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this library; if not, write to the Free Software Foundation,
+ * Inc., 59 Temple Place, Suite 330, Boston, MA 02111-1307 USA
+ *
+ */
+
+package org.extex.interpreter.max.context;
+
+import org.extex.test.ExTeXLauncher;
+import org.junit.Test;
+
+/**
+ * This is a test suite for grouping with the save stack implementation of
+ * groups.
+ *
+ * @author <a href="mailto:gene@gerd-neugebauer.de">Gerd Neugebauer</a>
+ */
+public class SaveStackGroupingTest extends ExTeXLauncher {
+
+  /**
+   * Creates a new object.
+   */
+  public SaveStackGroupingTest() {
+
+    setConfig( "savestack-test" );
+  }
+
+  /**
+   * <testcase> This test case checks that a local assignment is undone at
+   * the end of the group.
+   * </testcase>
+   *
+   * @throws Exception in case of an error
+   */
+  @Test
+  public void testLocal1() throws Exception {
+
+    assertOutput( DEFINE_BRACES + "\\count1=1 {\\count1=2 \\showthe\\count1}"
+                      + "\\showthe\\count1 \\end",
+                  // --- log message ---
+                  "> 2.\n> 1.\n",
+                  "" );
+  }
+
+  /**
+   * <testcase> This test case checks that a local definition is undone at
+   * the end of the group.
+   * </testcase>
+   *
+   * @throws Exception in case of an error
+   */
+  @Test
+  public void testLocal2() throws Exception {
+
+    assertSuccess( DEFINE_BRACES + "\\def\\x{a}{\\def\\x{b}\\x}\\x\\end",
+                   // --- output channel ---
+                   "ba" + TERM );
+  }
+
+  /**
+   * <testcase> This test case checks that a global assignment survives the
+   * end of the group.
+   * </testcase>
+   *
+   * @throws Exception in case of an error
+   */
+  @Test
+  public void testGlobal1() throws Exception {
+
+    assertOutput( DEFINE_BRACES + "\\count1=1 {\\count1=2 \\global\\count1=3 "
+                      + "\\count1=4 }\\showthe\\count1 \\end",
+                  // --- log message ---
+                  "> 3.\n",
+                  "" );
+  }
+
+  /**
+   * <testcase> This test case checks that nested groups restore their
+   * values one at a time.
+   * </testcase>
+   *
+   * @throws Exception in case of an error
+   */
+  @Test
+  public void testNested1() throws Exception {
+
+    assertOutput( DEFINE_BRACES + "\\count1=1 {\\count1=2 {\\count1=3 "
+                      + "\\showthe\\count1}\\showthe\\count1}"
+                      + "\\showthe\\count1 \\end",
+                  // --- log message ---
+                  "> 3.\n> 2.\n> 1.\n",
+                  "" );
+  }
+
+  /**
+   * <testcase> This test case checks that the tokens of {@code \aftergroup}
+   * are inserted after the values of the group have been restored.
+   * </testcase>
+   *
+   * @throws Exception in case of an error
+   */
+  @Test
+  public void testAftergroup1() throws Exception {
+
+    assertOutput( DEFINE_BRACES + "\\def\\s{\\showthe\\count1}"
+                      + "\\count1=1 {\\count1=2 \\aftergroup\\s}\\end",
+                  // --- log message ---
+                  "> 1.\n",
+                  "" );
+  }
+
+}
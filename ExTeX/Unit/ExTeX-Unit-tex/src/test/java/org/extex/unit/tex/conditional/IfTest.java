@@ -493,6 +493,14 @@ public class IfTest extends ConditionalTester {
       return null;
     }
 
+    @Override
+    public int scanRegisterNumber( Context context, TokenSource source,
+                                   Typesetter typesetter, CodeToken primitive )
+        throws TypesetterException {
+
+      return 0;
+    }
+
     @Override
     public Token scanToken( Context context )
         throws HelpingException,
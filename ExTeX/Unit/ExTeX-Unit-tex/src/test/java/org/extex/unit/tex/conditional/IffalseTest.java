@@ -90,4 +90,65 @@ public class IffalseTest extends ConditionalTester {
                   "xx" + TERM );
   }
 
+  /**
+   * <testcase primitive="\iffalse"> Test case checking that {@code \iffalse}
+   * ignores a {@code \fi} in a comment of the skipped text.
+   *
+   * @throws Exception in case of an error
+   */
+  @Test
+  public void test4() throws Exception {
+
+    assertSuccess(// --- input code ---
+                  "x\\iffalse a% \\fi\n b\\fi x\\end",
+                  // --- output channel ---
+                  "xx" + TERM );
+  }
+
+  /**
+   * <testcase primitive="\iffalse"> Test case checking that {@code \iffalse}
+   * finds a {@code \fi} written with double carets in the skipped text.
+   *
+   * @throws Exception in case of an error
+   */
+  @Test
+  public void test5() throws Exception {
+
+    assertSuccess(// --- input code ---
+                  DEFINE_CATCODES + "x\\iffalse {a^^5cfi x\\end",
+                  // --- output channel ---
+                  "xx" + TERM );
+  }
+
+  /**
+   * <testcase primitive="\iffalse"> Test case checking that {@code \iffalse}
+   * finds an active character meaning {@code \fi} in the skipped text.
+   *
+   * @throws Exception in case of an error
+   */
+  @Test
+  public void test6() throws Exception {
+
+    assertSuccess(// --- input code ---
+                  "\\catcode`\\~=13 \\let~\\fi x\\iffalse a~x\\end",
+                  // --- output channel ---
+                  "xx" + TERM );
+  }
+
+  /**
+   * <testcase primitive="\iffalse"> Test case checking that {@code \iffalse}
+   * skips the tokens of a macro expansion.
+   *
+   * @throws Exception in case of an error
+   */
+  @Test
+  public void test7() throws Exception {
+
+    assertSuccess(// --- input code ---
+                  DEFINE_BRACES + "\\def\\a{\\iffalse b\\iftrue c\\fi\\fi}"
+                      + "x\\a x\\end",
+                  // --- output channel ---
+                  "xx" + TERM );
+  }
+
 }
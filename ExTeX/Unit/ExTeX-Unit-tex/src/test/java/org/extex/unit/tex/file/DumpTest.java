@@ -43,8 +43,11 @@ import org.extex.interpreter.context.group.GroupInfo;
 import org.extex.interpreter.context.group.GroupType;
 import org.extex.interpreter.context.observer.group.AfterGroupObserver;
 import org.extex.interpreter.interaction.Interaction;
+import org.extex.interpreter.loader.DeferredCode;
+import org.extex.interpreter.loader.LoaderVersionException;
 import org.extex.interpreter.loader.SerialLoader;
 import org.extex.interpreter.type.Code;
+import org.extex.interpreter.type.Showable;
 import org.extex.interpreter.type.box.Box;
 import org.extex.interpreter.unit.UnitInfo;
 import org.extex.language.Language;
@@ -70,11 +73,17 @@ import org.junit.Ignore;
 import org.junit.Test;
 import org.junit.runner.JUnitCore;
 
+import java.io.ByteArrayInputStream;
+import java.io.DataInputStream;
 import java.io.File;
 import java.io.FileInputStream;
 import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
 import java.util.Calendar;
+import java.util.HashSet;
 import java.util.Iterator;
+import java.util.Set;
 
 import static org.junit.Assert.*;
 
@@ -284,6 +293,12 @@ public class DumpTest extends NoFlagsPrimitiveTester {
           return null;
         }
 
+        @Override
+        public Count getCount( int index ) {
+
+          return null;
+        }
+
         @Override
         public FixedCount getCountOption( String name ) {
 
@@ -303,6 +318,12 @@ public class DumpTest extends NoFlagsPrimitiveTester {
           return null;
         }
 
+        @Override
+        public Dimen getDimen( int index ) {
+
+          return null;
+        }
+
         @Override
         public FixedDimen getDimenOption( String name ) {
 
@@ -667,6 +688,12 @@ public class DumpTest extends NoFlagsPrimitiveTester {
           // not needed
         }
 
+        @Override
+        public void setCount( int index, long value, boolean global ) {
+
+          // not needed
+        }
+
         /**
          *      long)
          */
@@ -696,6 +723,12 @@ public class DumpTest extends NoFlagsPrimitiveTester {
           // not needed
         }
 
+        @Override
+        public void setDimen( int index, Dimen value, boolean global ) {
+
+          // not needed
+        }
+
         /**
          *      long, boolean)
          */
@@ -1041,6 +1074,12 @@ public class DumpTest extends NoFlagsPrimitiveTester {
           return null;
         }
 
+        @Override
+        public Count getCount( int index ) {
+
+          return null;
+        }
+
         @Override
         public FixedCount getCountOption( String name ) {
 
@@ -1060,6 +1099,12 @@ public class DumpTest extends NoFlagsPrimitiveTester {
           return null;
         }
 
+        @Override
+        public Dimen getDimen( int index ) {
+
+          return null;
+        }
+
         @Override
         public FixedDimen getDimenOption( String name ) {
 
@@ -1424,6 +1469,12 @@ public class DumpTest extends NoFlagsPrimitiveTester {
           // not needed
         }
 
+        @Override
+        public void setCount( int index, long value, boolean global ) {
+
+          // not needed
+        }
+
         /**
          *      long)
          */
@@ -1453,6 +1504,12 @@ public class DumpTest extends NoFlagsPrimitiveTester {
           // not needed
         }
 
+        @Override
+        public void setDimen( int index, Dimen value, boolean global ) {
+
+          // not needed
+        }
+
         /**
          *      long, boolean)
          */
@@ -1711,4 +1768,239 @@ public class DumpTest extends NoFlagsPrimitiveTester {
                    "You can't dump inside a group" );
   }
 
+  /**
+   * <testcase primitive="\dump"> Test case checking that the format written
+   * by {@code \dump} can be loaded and contains the registers and macros.
+   *
+   * @throws Exception in case of an error
+   */
+  @Test
+  public void test3() throws Exception {
+
+    assertOutput(// --- input code ---
+                 DEFINE_CATCODES + "\\count1=128 \\def\\x#1{a#1\\relax} "
+                     + "\\dump \\end",
+                 // --- log message ---
+                 "Beginning to dump on file ."
+                     + System.getProperty( "file.separator" ) + "texput.fmt\n",
+                 // --- output message ---
+                 "" );
+
+    File fmt = new File( "texput.fmt" );
+    try {
+      TokenFactory factory = new TokenFactoryImpl();
+      Context context =
+          new SerialLoader().load( new FileInputStream( fmt ), factory );
+      assertNotNull( context );
+      context.setTokenFactory( factory );
+      assertEquals( 128L, context.getCount( "1" ).getValue() );
+      Code code =
+          context.getCode( (CodeToken) factory.createToken(
+              Catcode.ESCAPE, null, "x", Namespace.DEFAULT_NAMESPACE ) );
+      assertNotNull( code );
+      assertEquals( "macro:\n#1->a#1\\relax",
+                    ((Showable) code).show( context ).toText() );
+    } finally {
+      fmt.delete();
+    }
+  }
+
+  /**
+   * <testcase primitive="\dump"> Test case checking that a macro shared by
+   * two control sequences is decoded once when the format is loaded lazily
+   * and eagerly.
+   *
+   * @throws Exception in case of an error
+   */
+  @Test
+  public void test4() throws Exception {
+
+    for( boolean lazy : new boolean[]{true, false} ) {
+      assertOutput(// --- input code ---
+                   DEFINE_CATCODES + "\\def\\x{abc}\\let\\y=\\x "
+                       + "\\dump \\end",
+                   // --- log message ---
+                   "Beginning to dump on file ."
+                       + System.getProperty( "file.separator" )
+                       + "texput.fmt\n",
+                   // --- output message ---
+                   "" );
+
+      File fmt = new File( "texput.fmt" );
+      try {
+        TokenFactory factory = new TokenFactoryImpl();
+        Context context =
+            new SerialLoader( lazy ).load( new FileInputStream( fmt ),
+                                           factory );
+        Code x = context.getCode( (CodeToken) factory.createToken(
+            Catcode.ESCAPE, null, "x", Namespace.DEFAULT_NAMESPACE ) );
+        Code y = context.getCode( (CodeToken) factory.createToken(
+            Catcode.ESCAPE, null, "y", Namespace.DEFAULT_NAMESPACE ) );
+        assertNotNull( x );
+        assertSame( x, y );
+        assertFalse( x instanceof DeferredCode );
+      } finally {
+        fmt.delete();
+      }
+    }
+  }
+
+  /**
+   * Dump a format containing a macro and read its content.
+   *
+   * @return the bytes of the format
+   * @throws Exception in case of an error
+   */
+  private byte[] dumpFormat() throws Exception {
+
+    return dumpFormat( "\\def\\x{abc}" );
+  }
+
+  /**
+   * Dump a format and read its content.
+   *
+   * @param code the code to run before the dump
+   * @return the bytes of the format
+   * @throws Exception in case of an error
+   */
+  private byte[] dumpFormat( String code ) throws Exception {
+
+    assertOutput(// --- input code ---
+                 DEFINE_CATCODES + code + "\\dump \\end",
+                 // --- log message ---
+                 "Beginning to dump on file ."
+                     + System.getProperty( "file.separator" ) + "texput.fmt\n",
+                 // --- output message ---
+                 "" );
+
+    File fmt = new File( "texput.fmt" );
+    try {
+      return Files.readAllBytes( fmt.toPath() );
+    } finally {
+      fmt.delete();
+    }
+  }
+
+  /**
+   * <testcase primitive="\dump"> Test case checking that the classes listed
+   * in the header of the format cover the groups and the caches of the
+   * context.
+   *
+   * @throws Exception in case of an error
+   */
+  @Test
+  public void test5() throws Exception {
+
+    byte[] bytes = dumpFormat();
+    DataInputStream in =
+        new DataInputStream( new ByteArrayInputStream( bytes ) );
+    while( in.read() != '\n' ) {
+      // skip the magic line
+    }
+    in.skipBytes( 8 );
+    in.readInt();
+    in.readLong();
+    Set<String> classes = new HashSet<String>();
+    for( int n = in.readInt(); n > 0; n-- ) {
+      byte[] name = new byte[ in.readInt() ];
+      in.readFully( name );
+      classes.add( new String( name, StandardCharsets.UTF_8 ) );
+    }
+
+    assertTrue( classes.contains(
+        "org.extex.interpreter.max.context.ContextImpl" ) );
+    assertTrue( classes.contains(
+        "org.extex.interpreter.max.context.GroupImpl" ) );
+    assertTrue( classes.contains(
+        "org.extex.interpreter.max.context.MeaningTable" ) );
+    assertTrue( classes.contains(
+        "org.extex.interpreter.max.context.CatcodeTable" ) );
+    assertTrue( classes.contains(
+        "org.extex.unit.tex.macro.util.MacroCode" ) );
+  }
+
+  /**
+   * <testcase primitive="\dump"> Test case checking that a format with a
+   * fingerprint not matching the classes is rejected.
+   *
+   * @throws Exception in case of an error
+   */
+  @Test
+  public void test6() throws Exception {
+
+    byte[] bytes = dumpFormat();
+    int i = 0;
+    while( bytes[ i ] != '\n' ) {
+      i++;
+    }
+    // the last byte of the fingerprint
+    bytes[ i + 1 + 8 + 4 + 7 ] ^= 1;
+
+    try {
+      new SerialLoader().load( new ByteArrayInputStream( bytes ) );
+      fail( "LoaderVersionException expected" );
+    } catch( LoaderVersionException e ) {
+      assertEquals( "org.extex.interpreter.max.context.ContextImpl",
+                    e.getMessage() );
+    }
+  }
+
+  /**
+   * <testcase primitive="\dump"> Test case checking that the macros are
+   * stored compactly in the format. Each macro must not repeat class
+   * descriptors or stream headers.
+   *
+   * @throws Exception in case of an error
+   */
+  @Test
+  public void test7() throws Exception {
+
+    String loop = "\\count1=0 \\def\\m{\\advance\\count1 by1 "
+        + "\\expandafter\\def\\csname m\\the\\count1\\endcsname"
+        + "##1##2{##1 x ##2}\\ifnum\\count1<2000 \\expandafter\\m\\fi}";
+    int base = dumpFormat( loop ).length;
+    int size = dumpFormat( loop + "\\m " ).length;
+
+    assertTrue( "bytes per macro: " + (size - base) / 2000,
+                size - base < 2000 * 128 );
+  }
+
+  /**
+   * <testcase primitive="\dump"> Test case checking that the flags, the
+   * pattern, and the body of a macro survive the format.
+   *
+   * @throws Exception in case of an error
+   */
+  @Test
+  public void test8() throws Exception {
+
+    for( boolean lazy : new boolean[]{true, false} ) {
+      assertOutput(// --- input code ---
+                   DEFINE_CATCODES + "\\long\\outer\\def\\x#1.#2{#2 #1}"
+                       + "\\dump \\end",
+                   // --- log message ---
+                   "Beginning to dump on file ."
+                       + System.getProperty( "file.separator" )
+                       + "texput.fmt\n",
+                   // --- output message ---
+                   "" );
+
+      File fmt = new File( "texput.fmt" );
+      try {
+        TokenFactory factory = new TokenFactoryImpl();
+        Context context =
+            new SerialLoader( lazy ).load( new FileInputStream( fmt ),
+                                           factory );
+        context.setTokenFactory( factory );
+        Code code = context.getCode( (CodeToken) factory.createToken(
+            Catcode.ESCAPE, null, "x", Namespace.DEFAULT_NAMESPACE ) );
+        assertTrue( code.isOuter() );
+        assertEquals( "\\long\\outer macro:\n#1.#2->#2 #1",
+                      ((Showable) code).show( context ).toText() );
+      } finally {
+        fmt.delete();
+      }
+    }
+  }
+
 }
@@ -19,12 +19,19 @@
 
 package org.extex.unit.tex.file;
 
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
 import org.extex.test.NoFlagsPrimitiveTester;
 import org.junit.Test;
 import org.junit.runner.JUnitCore;
 
 import java.io.File;
+import java.io.IOException;
 import java.net.URL;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.Properties;
 
 /**
  * This is a test suite for the primitive {@code \input}.
@@ -83,6 +90,222 @@ public class InputTest extends NoFlagsPrimitiveTester {
                   "I can't find file `DoesNotExist'" );
   }
 
+  /**
+   * The constant {@code SELECT} contains the code in a file which selects one
+   * of two count values depending on the category code of {@code @}.
+   */
+  private static final String SELECT = "\\ifx\\a@\\undefined \\count1=1 "
+      + "\\else \\count1=2 \\fi \\message{\\the\\count1}\n";
+
+  /**
+   * Create a temporary file with the given contents.
+   *
+   * @param dir      the directory for the file
+   * @param contents the contents of the file
+   * @return the absolute path of the file
+   * @throws IOException in case of an I/O error
+   */
+  private static String createFile( File dir, String contents )
+      throws IOException {
+
+    File file = new File( dir, "cached.tex" );
+    Files.write( file.toPath(), contents.getBytes( StandardCharsets.UTF_8 ) );
+    return file.getAbsolutePath();
+  }
+
+  /**
+   * Create a temporary directory.
+   *
+   * @return the new directory
+   * @throws IOException in case of an I/O error
+   */
+  private static File createDirectory() throws IOException {
+
+    File dir = Files.createTempDirectory( "extex" ).toFile();
+    dir.deleteOnExit();
+    return dir;
+  }
+
+  /**
+   * Get the entries in the token cache.
+   *
+   * @param cache the cache directory
+   * @return the entries
+   */
+  private static File[] entries( File cache ) {
+
+    File[] files = cache.listFiles( ( d, name ) -> name.endsWith( ".tok" ) );
+    return files == null ? new File[ 0 ] : files;
+  }
+
+  /**
+   * Acquire properties using the given cache directory.
+   *
+   * @param cache the cache directory
+   * @return the properties
+   */
+  private Properties cacheProps( File cache ) {
+
+    Properties props = getProps();
+    props.setProperty( "extex.token.cache", cache.getAbsolutePath() );
+    return props;
+  }
+
+  /**
+   * <testcase primitive="\input"> Test case checking that a {@code \input}
+   * replays the tokens from the cache when the file is read again.
+   *
+   * @throws Exception in case of an error
+   */
+  @Test
+  public void testCache1() throws Exception {
+
+    File dir = createDirectory();
+    File cache = new File( dir, "cache" );
+    String file = createFile( dir, SELECT );
+
+    assertOutput( cacheProps( cache ),
+                  // --- input code ---
+                  DEFINE_BRACES + "\\input " + file + " \\end",
+                  // --- output channel ---
+                  "2", "" );
+    File[] entries = entries( cache );
+    assertEquals( 1, entries.length );
+    assertTrue( entries[ 0 ].setLastModified( 0 ) );
+
+    assertOutput( cacheProps( cache ),
+                  // --- input code ---
+                  DEFINE_BRACES + "\\input " + file + " \\end",
+                  // --- output channel ---
+                  "2", "" );
+    assertEquals( 0, entries[ 0 ].lastModified() );
+  }
+
+  /**
+   * <testcase primitive="\input"> Test case checking that a {@code \input}
+   * does not replay the tokens from the cache when the category codes have
+   * been changed.
+   *
+   * @throws Exception in case of an error
+   */
+  @Test
+  public void testCache2() throws Exception {
+
+    File dir = createDirectory();
+    File cache = new File( dir, "cache" );
+    String file = createFile( dir, SELECT );
+
+    assertOutput( cacheProps( cache ),
+                  // --- input code ---
+                  DEFINE_BRACES + "\\input " + file + " \\end",
+                  // --- output channel ---
+                  "2", "" );
+    assertOutput( cacheProps( cache ),
+                  // --- input code ---
+                  DEFINE_BRACES + "\\catcode`\\@=11 \\input " + file
+                      + " \\end",
+                  // --- output channel ---
+                  "1", "" );
+  }
+
+  /**
+   * <testcase primitive="\input"> Test case checking that a {@code \input}
+   * does not store the tokens in the cache when the category code of a
+   * character read is changed in the file.
+   *
+   * @throws Exception in case of an error
+   */
+  @Test
+  public void testCache3() throws Exception {
+
+    File dir = createDirectory();
+    File cache = new File( dir, "cache" );
+    String file = createFile( dir, "\\catcode`\\@=11 " + SELECT );
+
+    assertOutput( cacheProps( cache ),
+                  // --- input code ---
+                  DEFINE_BRACES + "\\input " + file + " \\end",
+                  // --- output channel ---
+                  "1", "" );
+    assertEquals( 0, entries( cache ).length );
+  }
+
+  /**
+   * <testcase> Test case checking that the tokens of a file are not stored in
+   * the cache when the category code of a character not read before is
+   * changed in the file.
+   * </testcase>
+   *
+   * @throws Exception in case of an error
+   */
+  @Test
+  public void testCache4() throws Exception {
+
+    File dir = createDirectory();
+    File cache = new File( dir, "cache" );
+    String file = createFile( dir, "\\catcode64=11 " + SELECT );
+
+    assertOutput( cacheProps( cache ),
+                  // --- input code ---
+                  DEFINE_BRACES + "\\input " + file + " \\end",
+                  // --- output channel ---
+                  "1", "" );
+    assertEquals( 0, entries( cache ).length );
+  }
+
+  /**
+   * <testcase> Test case checking that the tokens of a file are not stored in
+   * the cache when the category codes are restored at the end of a group
+   * while the file is read.
+   * </testcase>
+   *
+   * @throws Exception in case of an error
+   */
+  @Test
+  public void testCache5() throws Exception {
+
+    File dir = createDirectory();
+    File cache = new File( dir, "cache" );
+    String file = createFile( dir, "\\endgroup " + SELECT );
+
+    assertOutput( cacheProps( cache ),
+                  // --- input code ---
+                  DEFINE_BRACES + "\\begingroup\\catcode`\\@=11 \\input "
+                      + file + " \\end",
+                  // --- output channel ---
+                  "2", "" );
+    assertEquals( 0, entries( cache ).length );
+  }
+
+  /**
+   * <testcase> Test case checking that the replay of the tokens of a file is
+   * given up when the category codes are changed in the file in a way which
+   * has not happened when the tokens have been recorded.
+   * </testcase>
+   *
+   * @throws Exception in case of an error
+   */
+  @Test
+  public void testCache6() throws Exception {
+
+    File dir = createDirectory();
+    File cache = new File( dir, "cache" );
+    String file = createFile( dir, "\\ifx\\b\\undefined \\catcode`\\@=11 \\fi "
+        + SELECT );
+
+    assertOutput( cacheProps( cache ),
+                  // --- input code ---
+                  DEFINE_BRACES + "\\def\\b{}\\input " + file + " \\end",
+                  // --- output channel ---
+                  "2", "" );
+    assertEquals( 1, entries( cache ).length );
+    assertOutput( cacheProps( cache ),
+                  // --- input code ---
+                  DEFINE_BRACES + "\\input " + file + " \\end",
+                  // --- output channel ---
+                  "1", "" );
+  }
+
   /**
    * Uses this class's classloader to find the resource with the given name.
    *
@@ -127,6 +127,25 @@ public class BegingroupTest extends NoFlagsPrimitiveTester {
                   "456-789-456-123" + TERM );
   }
 
+  /**
+   * Test case checking that the local values of a closed group are not seen
+   * in a group opened afterwards.
+   *
+   * @throws Exception in case of an error
+   */
+  @Test
+  public void testGroup5() throws Exception {
+
+    assertSuccess(// --- input code ---
+                  "\\count0=1 \\skip2=3pt "
+                      + "\\begingroup \\count0=2 \\count1=3 \\skip2=4pt "
+                      + "\\endgroup"
+                      + "\\begingroup \\the\\count0-\\the\\count1-"
+                      + "\\the\\skip2\\endgroup",
+                  // --- output channel ---
+                  "1-0-3.0pt" + TERM );
+  }
+
   /**
    * Test case checking that an open block leads to an error.
    *
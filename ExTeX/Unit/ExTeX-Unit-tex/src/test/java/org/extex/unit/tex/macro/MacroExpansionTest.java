@@ -51,4 +51,37 @@ public class MacroExpansionTest extends ExTeXLauncher {
                   "123 0-123 123" + TERM );
   }
 
+  /**
+   * Test case checking that arguments and doubled hash marks are inserted
+   * into the expansion.
+   *
+   * @throws Exception in case of an error
+   */
+  @Test
+  public void test2() throws Exception {
+
+    assertSuccess(//--- input code ---
+                  DEFINE_BRACES + DEFINE_HASH
+                      + "\\def\\abc#1#2{<#2|#1|\\def\\x##1{#2##1}\\x#1>}"
+                      + "\\abc{x}{yz}-\\abc{}{}\\end",
+                  //--- output channel ---
+                  "<yz|x|yzx>-<||>" + TERM );
+  }
+
+  /**
+   * Test case checking that a control sequence bound with {@code \let} in
+   * the body is replaced at the time of the expansion.
+   *
+   * @throws Exception in case of an error
+   */
+  @Test
+  public void test3() throws Exception {
+
+    assertSuccess(//--- input code ---
+                  DEFINE_BRACES + "\\def\\abc{a\\x c}"
+                      + "\\let\\x=b\\abc-\\let\\x=d\\abc\\end",
+                  //--- output channel ---
+                  "abc-adc" + TERM );
+  }
+
 }
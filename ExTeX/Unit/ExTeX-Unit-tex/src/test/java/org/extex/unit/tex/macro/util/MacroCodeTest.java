@@ -19,9 +19,20 @@
 
 package org.extex.unit.tex.macro.util;
 
+import org.extex.core.Locator;
+import org.extex.core.exception.GeneralException;
+import org.extex.interpreter.EditHandler;
+import org.extex.interpreter.ErrorHandler;
+import org.extex.interpreter.Interpreter;
+import org.extex.interpreter.TokenSource;
+import org.extex.interpreter.context.Context;
+import org.extex.scanner.type.token.Token;
 import org.extex.test.ExTeXLauncher;
 import org.junit.Test;
 
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+
 /**
  * This is a test suite for the macro code defined with the primitive
  * {@code \def} or friends.
@@ -536,4 +547,44 @@ public class MacroCodeTest extends ExTeXLauncher {
                  "" );
   }
 
+  /**
+   * Test case checking that the locator of an error inside a macro carries
+   * the text of the line the macro has been invoked from.
+   *
+   * @throws Exception in case of an error
+   */
+  @Test
+  public void testLocator1() throws Exception {
+
+    Interpreter interpreter =
+        assertSuccess( DEFINE_CATCODES + "\\def\\abc{\\undefined x}\\end",
+                       "" );
+    final Locator[] locator = new Locator[ 1 ];
+    interpreter.setErrorHandler( new ErrorHandler() {
+
+      @Override
+      public boolean handleError( GeneralException e, Token token,
+                                  TokenSource source, Context context ) {
+
+        locator[ 0 ] = source.getLocator();
+        return true;
+      }
+
+      @Override
+      public void setEditHandler( EditHandler editHandler ) {
+
+        // not needed
+      }
+    } );
+    TokenSource source = (TokenSource) interpreter;
+    interpreter.run( source.getTokenStreamFactory()
+                         .getStream( "a \\abc b\\end" ) );
+
+    assertNotNull( locator[ 0 ] );
+    Locator cause = locator[ 0 ].getCause();
+    assertNotNull( cause );
+    assertEquals( "a \\abc b\\end", cause.getLine() );
+    assertEquals( 6, cause.getLinePointer() );
+  }
+
 }
@@ -120,4 +120,82 @@ public class GlobalTest extends PrefixTester {
                   "" );
   }
 
+  /**
+   * <testcase primitive="\global"> Test case checking that a global
+   * assignment in a nested group is seen in all enclosing groups.
+   *
+   * @throws Exception in case of an error
+   */
+  @Test
+  public void testGroup1() throws Exception {
+
+    assertSuccess(// --- input code ---
+                  "\\count0=1 \\begingroup\\count0=2 "
+                      + "\\begingroup\\count0=5 "
+                      + "\\begingroup\\global\\count0=3 \\endgroup"
+                      + "\\the\\count0\\endgroup"
+                      + "-\\the\\count0\\endgroup"
+                      + "-\\the\\count0\\end",
+                  // --- output channel ---
+                  "3-3-3" + TERM );
+  }
+
+  /**
+   * <testcase primitive="\global"> Test case checking that a local
+   * assignment after a global one in the same group is undone at the end of
+   * the group.
+   *
+   * @throws Exception in case of an error
+   */
+  @Test
+  public void testGroup2() throws Exception {
+
+    assertSuccess(// --- input code ---
+                  "\\count0=1 \\begingroup\\count0=2 "
+                      + "\\begingroup\\global\\count0=3 \\count0=4 "
+                      + "\\the\\count0\\endgroup"
+                      + "-\\the\\count0\\endgroup"
+                      + "-\\the\\count0\\end",
+                  // --- output channel ---
+                  "4-3-3" + TERM );
+  }
+
+  /**
+   * <testcase primitive="\global"> Test case checking that a local
+   * assignment after a global one in an inner group shadows the global
+   * value until the end of the group.
+   *
+   * @throws Exception in case of an error
+   */
+  @Test
+  public void testGroup3() throws Exception {
+
+    assertSuccess(// --- input code ---
+                  "\\begingroup\\skip1=1pt "
+                      + "\\begingroup\\global\\skip1=3pt \\endgroup"
+                      + "\\skip1=5pt "
+                      + "\\begingroup\\the\\skip1\\endgroup\\endgroup"
+                      + "-\\the\\skip1\\end",
+                  // --- output channel ---
+                  "5.0pt-3.0pt" + TERM );
+  }
+
+  /**
+   * <testcase primitive="\global"> Test case checking that a global
+   * definition in a nested group replaces a local definition of an
+   * enclosing group.
+   *
+   * @throws Exception in case of an error
+   */
+  @Test
+  public void testGroup4() throws Exception {
+
+    assertSuccess(// --- input code ---
+                  DEFINE_BRACES + "\\def\\x{a}\\begingroup\\def\\x{b}"
+                      + "\\begingroup\\begingroup\\global\\def\\x{c}"
+                      + "\\endgroup\\endgroup\\x\\endgroup\\x\\end",
+                  // --- output channel ---
+                  "cc" + TERM );
+  }
+
 }
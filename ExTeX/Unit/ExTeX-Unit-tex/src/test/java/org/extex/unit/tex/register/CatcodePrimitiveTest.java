@@ -390,5 +390,37 @@ public class CatcodePrimitiveTest extends NoFlagsButGlobalPrimitiveTester {
                    "15" + TERM );
   }
 
+  /**
+   * <testcase primitive="\catcode"> Test case checking that a local
+   * {@code \catcode} in a nested group leaves the enclosing groups
+   * unchanged.
+   *
+   * @throws Exception in case of an error
+   */
+  @Test
+  public void testGroup1() throws Exception {
+
+    assertSuccess( DEFINE_BRACES + "\\catcode 1=13 {\\catcode 1=14 "
+                       + "{\\catcode 1=15 }\\count0=\\catcode1 \\the\\count0}"
+                       + "\\count0=\\catcode1 \\the\\count0\\end",
+                   "1413" + TERM );
+  }
+
+  /**
+   * <testcase primitive="\catcode"> Test case checking that a local
+   * {@code \catcode} in a group does not change other characters of the
+   * same page.
+   *
+   * @throws Exception in case of an error
+   */
+  @Test
+  public void testGroup2() throws Exception {
+
+    assertSuccess( DEFINE_BRACES + "\\catcode 2=13 {\\catcode 1=15 "
+                       + "\\count0=\\catcode2 \\the\\count0}"
+                       + "\\count0=\\catcode1 \\the\\count0\\end",
+                   "1312" + TERM );
+  }
+
   // TODO implement more primitive specific test cases
 }
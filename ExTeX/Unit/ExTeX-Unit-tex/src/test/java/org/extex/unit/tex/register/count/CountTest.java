@@ -20,6 +20,7 @@
 package org.extex.unit.tex.register.count;
 
 import org.extex.test.count.AbstractCountArrayTester;
+import org.junit.Test;
 import org.junit.runner.JUnitCore;
 
 /**
@@ -45,5 +46,41 @@ public class CountTest extends AbstractCountArrayTester {
     super( "count", "255", "0" );
   }
 
+  /**
+   * <testcase primitive="\count"> Test case checking that repeated local
+   * assignments in a group do not affect the value outside the group.
+   *
+   * @throws Exception in case of an error
+   */
+  @Test
+  public void testGroup1() throws Exception {
+
+    assertSuccess(// --- input code ---
+                  "\\count1=1 \\count1=2 "
+                      + "\\begingroup\\count1=5 \\count1=6 \\endgroup"
+                      + "\\the\\count1 \\end",
+                  // --- output channel ---
+                  "2" + TERM );
+  }
+
+  /**
+   * <testcase primitive="\count"> Test case checking that a global
+   * assignment in a group survives a following local assignment in the
+   * same group.
+   *
+   * @throws Exception in case of an error
+   */
+  @Test
+  public void testGroup2() throws Exception {
+
+    assertSuccess(// --- input code ---
+                  "\\count1=1 "
+                      + "\\begingroup\\count1=2 \\global\\count1=3 "
+                      + "\\count1=4 \\endgroup"
+                      + "\\the\\count1 \\end",
+                  // --- output channel ---
+                  "3" + TERM );
+  }
+
   //TODO: write more primitive specific test cases
 }
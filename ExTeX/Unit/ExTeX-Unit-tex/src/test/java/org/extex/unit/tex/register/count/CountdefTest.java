@@ -110,4 +110,21 @@ public class CountdefTest extends AbstractCountRegisterTester {
                   "123" + TERM );
   }
 
+  /**
+   * <testcase primitive="\countdef"> Test case checking that a register
+   * defined with {@code \countdef} and the numbered register denote the
+   * same count register.
+   *
+   * @throws Exception in case of an error
+   */
+  @Test
+  public void testShared1() throws Exception {
+
+    assertSuccess(// --- input code ---
+                  "\\countdef\\x=42 \\count42=123 \\advance\\x by 1 "
+                      + "\\the\\count42 \\end",
+                  // --- output channel ---
+                  "124" + TERM );
+  }
+
 }
@@ -20,6 +20,7 @@
 package org.extex.unit.tex.register.dimen;
 
 import org.extex.test.AbstractDimenRegisterTester;
+import org.junit.Test;
 import org.junit.runner.JUnitCore;
 
 /**
@@ -45,4 +46,23 @@ public class DimenTest extends AbstractDimenRegisterTester {
     super( "dimen", "42 ", "0.0pt" );
   }
 
+  /**
+   * <testcase primitive="\dimen"> Test case checking that arithmetic on a
+   * register in a group does not affect the value outside the group.
+   *
+   * @throws Exception in case of an error
+   */
+  @Test
+  public void testGroup1() throws Exception {
+
+    assertSuccess(// --- input code ---
+                  "\\dimen1=1pt \\dimen1=2pt "
+                      + "\\begingroup\\dimen1=5pt "
+                      + "\\advance\\dimen1 by 1pt \\multiply\\dimen1 by 2 "
+                      + "\\the\\dimen1 \\endgroup "
+                      + "\\the\\dimen1 \\end",
+                  // --- output channel ---
+                  "12.0pt2.0pt" + TERM );
+  }
+
 }
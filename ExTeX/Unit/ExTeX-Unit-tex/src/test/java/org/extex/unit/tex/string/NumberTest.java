@@ -90,6 +90,51 @@ public class NumberTest extends NoFlagsPrimitiveTester {
                    "-2" + TERM );
   }
 
+  /**
+   * <testcase primitive="\number"> Test case checking that the digits of a
+   * number may come from a macro and the file.
+   *
+   * @throws Exception in case of an error
+   */
+  @Test
+  public void testCount4() throws Exception {
+
+    assertSuccess( DEFINE_BRACES + "\\def\\x{34}"
+                       + "\\count0=12\\x5 \\number\\count0 \\end",
+
+                   "12345" + TERM );
+  }
+
+  /**
+   * <testcase primitive="\number"> Test case checking that a digit with
+   * the category code {@code LETTER} ends a number.
+   *
+   * @throws Exception in case of an error
+   */
+  @Test
+  public void testCount5() throws Exception {
+
+    assertSuccess( "\\catcode`\\3=11 "
+                       + "\\count0=123\\relax\\number\\count0 \\end",
+
+                   "312" + TERM );
+  }
+
+  /**
+   * <testcase primitive="\number"> Test case checking that the digits of a
+   * number may be given in {@code ^^} notation.
+   *
+   * @throws Exception in case of an error
+   */
+  @Test
+  public void testCount6() throws Exception {
+
+    assertSuccess( "\\catcode`\\^=7 "
+                       + "\\count0=1^^324 \\number\\count0 \\end",
+
+                   "124" + TERM );
+  }
+
   /**
    * <testcase primitive="\number"> Test case checking that {@code \number}
    * is expandable.